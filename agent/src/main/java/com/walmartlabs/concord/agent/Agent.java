@@ -24,12 +24,14 @@ import com.google.inject.Injector;
 import com.walmartlabs.concord.agent.Worker.CompletionCallback;
 import com.walmartlabs.concord.agent.cfg.AgentConfiguration;
 import com.walmartlabs.concord.agent.cfg.DockerConfiguration;
+import com.walmartlabs.concord.agent.cfg.ServerConfiguration;
 import com.walmartlabs.concord.agent.docker.OrphanSweeper;
 import com.walmartlabs.concord.agent.guice.WorkerModule;
 import com.walmartlabs.concord.agent.mmode.MaintenanceModeListener;
 import com.walmartlabs.concord.agent.mmode.MaintenanceModeNotifier;
 import com.walmartlabs.concord.client2.ProcessEntry.StatusEnum;
 import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.server.queueclient.LongPollQueueClient;
 import com.walmartlabs.concord.server.queueclient.QueueClient;
 import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
@@ -37,10 +39,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -51,8 +53,10 @@ public class Agent {
     private final Injector injector;
     private final AgentConfiguration agentCfg;
     private final DockerConfiguration dockerCfg;
+    private final ServerConfiguration serverCfg;
 
     private final QueueClient queueClient;
+    private final Provider<LongPollQueueClient> longPollClientProvider;
     private final ExecutorService executor;
 
     private final Map<UUID, Worker> activeWorkers = new ConcurrentHashMap<>();
@@ -61,17 +65,24 @@ public class Agent {
     // make the reference volatile as we check if for != null in different threads
     private volatile Semaphore workersAvailable; // NOSONAR
 
+    private volatile LongPollQueueClient longPollClient;
+    private volatile SlotMetrics slotMetrics;
+
     @Inject
     public Agent(Injector injector,
                  AgentConfiguration agentCfg,
                  DockerConfiguration dockerCfg,
-                 QueueClient queueClient) {
+                 ServerConfiguration serverCfg,
+                 QueueClient queueClient,
+                 Provider<LongPollQueueClient> longPollClientProvider) {
 
         this.injector = injector;
 
         this.agentCfg = agentCfg;
         this.dockerCfg = dockerCfg;
+        this.serverCfg = serverCfg;
         this.queueClient = queueClient;
+        this.longPollClientProvider = longPollClientProvider;
 
         this.executor = Executors.newCachedThreadPool();
     }
@@ -86,6 +97,9 @@ public class Agent {
     @SuppressWarnings("unused")
     public void stop() {
         queueClient.stop();
+        if (longPollClient != null) {
+            longPollClient.stop();
+        }
         executor.shutdownNow();
     }
 
@@ -93,6 +107,7 @@ public class Agent {
         int workersCount = agentCfg.getWorkersCount();
         log.info("run -> using {} worker(s)", workersCount);
         workersAvailable = new Semaphore(workersCount);
+        slotMetrics = new SlotMetrics(workersCount);
 
         // listen for maintenance mode requests
         startMaintenanceModeNotifier(queueClient);
@@ -105,57 +120,109 @@ public class Agent {
         CommandHandler commandHandler = new CommandHandler(agentCfg.getAgentId(), queueClient, agentCfg.getPollInterval(), this::cancel);
         executor.submit(commandHandler);
 
+        if (serverCfg.isLongPollEnabled()) {
+            log.info("run -> using long-polling requests to acquire processes");
+            longPollClient = longPollClientProvider.get();
+        }
+
+        // the number of process requests that can wait for the server at the same time
+        int maxAcquisitions = agentCfg.getMaxConcurrentAcquisitions();
+        log.info("run -> using up to {} concurrent process request(s)", maxAcquisitions);
+        Semaphore acquisitionsAvailable = new Semaphore(maxAcquisitions);
+
         // main loop
         while (!Thread.currentThread().isInterrupted()) {
             // check if the maintenance mode is enabled. If so, hang there indefinitely
             validateMaintenanceMode();
 
-            // TODO parallel acquire?
+            // wait until another process request can be made
+            acquisitionsAvailable.acquire();
+
             // wait for a free "slot"
             workersAvailable.acquire();
-            log.info("run -> acquired a slot, {}/{} remains", workersAvailable.availablePermits(), workersCount);
-
-            // fetch the next job
-            JobRequest jobRequest;
-            try {
-                jobRequest = take(queueClient);
-            } catch (InterruptedException e) {
-                log.info("run -> interrupted, exiting...");
-                return;
-            } catch (Exception e) {
-                log.error("run -> error while fetching a job: {}", e.getMessage(), e);
 
+            // the maintenance mode could've been enabled while we were waiting
+            if (maintenanceMode.get()) {
                 workersAvailable.release();
-
-                // wait before retrying
-                // the server is not reachable or unhealthy, no point retrying immediately
-                Utils.sleep(AgentConstants.ERROR_DELAY);
+                acquisitionsAvailable.release();
                 continue;
             }
 
-            if (jobRequest == null) {
-                // can happen on switching to maintenance mode or reconnecting, etc
-                workersAvailable.release();
-                continue;
+            // long-polling requests can acquire multiple processes at once, grab all free slots
+            int slots = 1;
+            if (longPollClient != null) {
+                slots += workersAvailable.drainPermits();
             }
+            log.info("run -> acquired {} slot(s), {}/{} remains", slots, workersAvailable.availablePermits(), workersCount);
+
+            // fetch the next job(s) in a separate thread, the loop continues with the remaining slots
+            int n = slots;
+            executor.submit(() -> {
+                try {
+                    acquire(n);
+                } finally {
+                    acquisitionsAvailable.release();
+                }
+            });
+        }
 
-            UUID instanceId = jobRequest.getInstanceId();
+        log.info("run -> interrupted, exiting...");
+    }
 
-            // worker will handle the process' lifecycle
-            try {
-                Worker w = injector.createChildInjector(new WorkerModule(agentCfg.getAgentId(), instanceId, jobRequest.getSessionToken()))
-                        .getInstance(WorkerFactory.class)
-                        .create(jobRequest, createStatusCallback(instanceId, workersAvailable));
+    private void acquire(int slots) {
+        long t1 = System.nanoTime();
 
-                // register the worker so we can cancel it later
-                activeWorkers.put(instanceId, w);
+        List<JobRequest> jobRequests;
+        try {
+            jobRequests = longPollClient != null ? take(longPollClient, slots) : take(queueClient);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workersAvailable.release(slots);
+            return;
+        } catch (Exception e) {
+            log.error("acquire -> error while fetching a job: {}", e.getMessage(), e);
 
-                // start a new thread to process the job
-                executor.submit(w);
-            } catch (Exception e) {
-                log.error("run -> error while submitting worker: {}", e.getMessage());
-                workersAvailable.release();
-            }
+            workersAvailable.release(slots);
+
+            // wait before retrying
+            // the server is not reachable or unhealthy, no point retrying immediately
+            Utils.sleep(AgentConstants.ERROR_DELAY);
+            return;
+        }
+
+        slotMetrics.onAcquired(jobRequests.size(), System.nanoTime() - t1);
+
+        // return the unused slots
+        // can happen on switching to maintenance mode or reconnecting, etc
+        if (jobRequests.size() < slots) {
+            workersAvailable.release(slots - jobRequests.size());
+        }
+
+        jobRequests.forEach(this::startWorker);
+
+        if (!jobRequests.isEmpty()) {
+            log.info("acquire -> got {} process(es) for {} slot(s) [{}]", jobRequests.size(), slots, slotMetrics);
+        }
+    }
+
+    private void startWorker(JobRequest jobRequest) {
+        UUID instanceId = jobRequest.getInstanceId();
+
+        // worker will handle the process' lifecycle
+        try {
+            Worker w = injector.createChildInjector(new WorkerModule(agentCfg.getAgentId(), instanceId, jobRequest.getSessionToken()))
+                    .getInstance(WorkerFactory.class)
+                    .create(jobRequest, createStatusCallback(instanceId, workersAvailable));
+
+            // register the worker so we can cancel it later
+            activeWorkers.put(instanceId, w);
+            slotMetrics.onSlotsUsed(1);
+
+            // start a new thread to process the job
+            executor.submit(w);
+        } catch (Exception e) {
+            log.error("run -> error while submitting worker: {}", e.getMessage());
+            workersAvailable.release();
         }
     }
 
@@ -213,22 +280,39 @@ public class Agent {
                 called = true;
 
                 activeWorkers.remove(instanceId);
+                slotMetrics.onSlotsReleased(1);
                 workersAvailable.release();
             }
         };
     }
 
-    private JobRequest take(QueueClient queueClient) throws Exception {
+    private List<JobRequest> take(QueueClient queueClient) throws Exception {
         Future<ProcessResponse> req = queueClient.request(new ProcessRequest(agentCfg.getCapabilities()));
 
         ProcessResponse resp = req.get();
         if (resp == null) {
-            return null;
+            return Collections.emptyList();
         }
 
         Path workDir = IOUtils.createTempDir(agentCfg.getPayloadDir(), "workDir");
 
-        return JobRequest.from(resp, workDir);
+        return Collections.singletonList(JobRequest.from(resp, workDir));
+    }
+
+    private List<JobRequest> take(LongPollQueueClient client, int maxCount) throws Exception {
+        List<ProcessResponse> responses = client.acquire(new ProcessRequest(agentCfg.getCapabilities()), maxCount);
+
+        List<JobRequest> result = new ArrayList<>(responses.size());
+        for (ProcessResponse resp : responses) {
+            try {
+                Path workDir = IOUtils.createTempDir(agentCfg.getPayloadDir(), "workDir");
+                result.add(JobRequest.from(resp, workDir));
+            } catch (Exception e) {
+                // the other processes are already acquired, don't let them hang
+                log.error("take -> error while preparing a job (instanceId: {}): {}", resp.getProcessId(), e.getMessage(), e);
+            }
+        }
+        return result;
     }
 
     private void cancel(UUID instanceId) {
@@ -25,11 +25,14 @@ import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.typesafe.config.Config;
 import com.walmartlabs.concord.agent.cfg.*;
+import com.walmartlabs.concord.agent.executors.runner.CdsArchiveCache;
 import com.walmartlabs.concord.agent.executors.runner.DefaultDependencies;
 import com.walmartlabs.concord.agent.executors.runner.ProcessPool;
 import com.walmartlabs.concord.agent.remote.ApiClientFactory;
+import com.walmartlabs.concord.agent.remote.LongPollQueueClientProvider;
 import com.walmartlabs.concord.agent.remote.QueueClientProvider;
 import com.walmartlabs.concord.common.ObjectMapperProvider;
+import com.walmartlabs.concord.server.queueclient.LongPollQueueClient;
 import com.walmartlabs.concord.server.queueclient.QueueClient;
 import com.walmartlabs.ollie.config.ConfigurationProcessor;
 import com.walmartlabs.ollie.config.Environment;
@@ -58,6 +61,7 @@ public class AgentModule implements Module {
         binder.bind(Config.class).toInstance(config);
 
         binder.bind(AgentConfiguration.class).in(SINGLETON);
+        binder.bind(CdsConfiguration.class).in(SINGLETON);
         binder.bind(DockerConfiguration.class).in(SINGLETON);
         binder.bind(GitConfiguration.class).in(SINGLETON);
         binder.bind(ImportConfiguration.class).in(SINGLETON);
@@ -69,8 +73,10 @@ public class AgentModule implements Module {
 
         binder.bind(DefaultDependencies.class).in(SINGLETON);
         binder.bind(ProcessPool.class).in(SINGLETON);
+        binder.bind(CdsArchiveCache.class).in(SINGLETON);
         binder.bind(ApiClientFactory.class).in(SINGLETON);
         binder.bind(QueueClient.class).toProvider(QueueClientProvider.class).in(SINGLETON);
+        binder.bind(LongPollQueueClient.class).toProvider(LongPollQueueClientProvider.class).in(SINGLETON);
 
         binder.bind(Agent.class).in(SINGLETON);
     }
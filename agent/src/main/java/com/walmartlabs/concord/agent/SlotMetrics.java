@@ -0,0 +1,116 @@
+package com.walmartlabs.concord.agent;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of the worker slots' utilization.
+ * <p>
+ * A slot is idle from the moment it becomes free (on start or when a process
+ * finishes) until it receives the next process. The idle time is accumulated
+ * in "slot-time", e.g. two slots idling for one second add two seconds.
+ */
+public class SlotMetrics {
+
+    private final LongSupplier clock;
+
+    private int idleSlots;
+    private long lastChange;
+    private long idleTime;
+
+    private long acquisitions;
+    private long acquiredProcesses;
+    private long acquireTime;
+    private long maxAcquireTime;
+
+    public SlotMetrics(int slots) {
+        this(slots, System::nanoTime);
+    }
+
+    SlotMetrics(int slots, LongSupplier clock) {
+        this.clock = clock;
+        this.idleSlots = slots;
+        this.lastChange = clock.getAsLong();
+    }
+
+    /**
+     * Marks the specified number of slots as busy.
+     */
+    public synchronized void onSlotsUsed(int count) {
+        update(-count);
+    }
+
+    /**
+     * Marks the specified number of slots as idle.
+     */
+    public synchronized void onSlotsReleased(int count) {
+        update(count);
+    }
+
+    /**
+     * Records a completed process request.
+     *
+     * @param processes the number of acquired processes, can be zero
+     * @param duration  the request's duration in nanoseconds
+     */
+    public synchronized void onAcquired(int processes, long duration) {
+        acquisitions++;
+        acquiredProcesses += processes;
+        acquireTime += duration;
+        maxAcquireTime = Math.max(maxAcquireTime, duration);
+    }
+
+    public synchronized int getIdleSlots() {
+        return idleSlots;
+    }
+
+    /**
+     * @return the accumulated idle time of all slots, including the currently idle slots.
+     */
+    public synchronized long getIdleTime(TimeUnit unit) {
+        long now = clock.getAsLong();
+        return unit.convert(idleTime + idleSlots * (now - lastChange), TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized long getAcquiredProcesses() {
+        return acquiredProcesses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long avgAcquireTime = acquisitions > 0 ? acquireTime / acquisitions : 0;
+        return "idleSlots=" + idleSlots +
+                ", idleTime=" + getIdleTime(TimeUnit.MILLISECONDS) + "ms" +
+                ", acquisitions=" + acquisitions +
+                ", acquiredProcesses=" + acquiredProcesses +
+                ", avgAcquireTime=" + TimeUnit.NANOSECONDS.toMillis(avgAcquireTime) + "ms" +
+                ", maxAcquireTime=" + TimeUnit.NANOSECONDS.toMillis(maxAcquireTime) + "ms";
+    }
+
+    private void update(int delta) {
+        long now = clock.getAsLong();
+        idleTime += idleSlots * (now - lastChange);
+        lastChange = now;
+        idleSlots += delta;
+    }
+}
@@ -40,6 +40,7 @@ public abstract class AbstractRunnerConfiguration {
     private final boolean securityManagerEnabled;
     private final Path persistentWorkDir;
     private final boolean cleanRunnerDescendants;
+    private final boolean reportStartupTimings;
 
     public AbstractRunnerConfiguration(String prefix, Config cfg) {
         String path = getStringOrDefault(cfg, prefix + ".path", () -> {
@@ -60,6 +61,7 @@ public abstract class AbstractRunnerConfiguration {
         this.securityManagerEnabled = cfg.getBoolean(prefix + ".securityManagerEnabled");
         this.persistentWorkDir = getOptionalAbsolutePath(cfg, prefix + ".persistentWorkDir");
         this.cleanRunnerDescendants = cfg.getBoolean(prefix + ".cleanRunnerDescendants");
+        this.reportStartupTimings = cfg.getBoolean(prefix + ".reportStartupTimings");
     }
 
     public Path getPath() {
@@ -96,6 +98,10 @@ public abstract class AbstractRunnerConfiguration {
         return cleanRunnerDescendants;
     }
 
+    public boolean isReportStartupTimings() {
+        return reportStartupTimings;
+    }
+
     private static String getJavaCmd(Config cfg, String prefix) {
         String path = prefix + ".javaCmd";
 
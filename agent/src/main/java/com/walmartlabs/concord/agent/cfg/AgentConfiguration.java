@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import static com.walmartlabs.concord.agent.cfg.Utils.getOptionalAbsolutePath;
 import static com.walmartlabs.concord.agent.cfg.Utils.getOrCreatePath;
 import static com.walmartlabs.concord.agent.cfg.Utils.getStringOrDefault;
 
@@ -47,14 +48,19 @@ public class AgentConfiguration {
     private final Duration dependencyResolveTimeout;
     private final boolean dependencyStrictRepositories;
     private final List<String> dependencyExclusions;
+    private final Path dependencyManifestDir;
 
     private final Path payloadDir;
     private final Path workDirBase;
 
     private final Path logDir;
     private final long logMaxDelay;
+    private final int logBatchSize;
+    private final long logBatchFlushInterval;
+    private final int logMaxQueuedBatches;
 
     private final int workersCount;
+    private final int maxConcurrentAcquisitions;
     private final long pollInterval;
     private final String maintenanceModeListenerHost;
     private final int maintenanceModeListenerPort;
@@ -75,14 +81,22 @@ public class AgentConfiguration {
         this.dependencyResolveTimeout = cfg.hasPath("dependencyResolveTimeout") ? cfg.getDuration("dependencyResolveTimeout") : null;
         this.dependencyStrictRepositories = cfg.hasPath("dependencyStrictRepositories") && cfg.getBoolean("dependencyStrictRepositories");
         this.dependencyExclusions = cfg.getStringList("dependencyExclusions");
+        this.dependencyManifestDir = getOptionalAbsolutePath(cfg, "dependencyManifestDir");
 
         this.payloadDir = getOrCreatePath(cfg, "payloadDir");
         this.workDirBase = getOrCreatePath(cfg, "workDirBase");
 
         this.logDir = getOrCreatePath(cfg, "logDir");
         this.logMaxDelay = cfg.getDuration("logMaxDelay", TimeUnit.MILLISECONDS);
+        this.logBatchSize = cfg.getInt("logBatchSize");
+        this.logBatchFlushInterval = cfg.getDuration("logBatchFlushInterval", TimeUnit.MILLISECONDS);
+        this.logMaxQueuedBatches = cfg.getInt("logMaxQueuedBatches");
 
         this.workersCount = cfg.getInt("workersCount");
+        this.maxConcurrentAcquisitions = cfg.getInt("maxConcurrentAcquisitions");
+        if (this.maxConcurrentAcquisitions < 1) {
+            throw new IllegalArgumentException("'maxConcurrentAcquisitions' must be a positive number, got: " + this.maxConcurrentAcquisitions);
+        }
         this.maintenanceModeListenerHost = cfg.getString("maintenanceModeListenerHost");
         this.maintenanceModeListenerPort = cfg.getInt("maintenanceModeListenerPort");
 
@@ -120,6 +134,10 @@ public class AgentConfiguration {
         return dependencyExclusions;
     }
 
+    public Path getDependencyManifestDir() {
+        return dependencyManifestDir;
+    }
+
     public Path getPayloadDir() {
         return payloadDir;
     }
@@ -136,10 +154,26 @@ public class AgentConfiguration {
         return logMaxDelay;
     }
 
+    public int getLogBatchSize() {
+        return logBatchSize;
+    }
+
+    public long getLogBatchFlushInterval() {
+        return logBatchFlushInterval;
+    }
+
+    public int getLogMaxQueuedBatches() {
+        return logMaxQueuedBatches;
+    }
+
     public int getWorkersCount() {
         return workersCount;
     }
 
+    public int getMaxConcurrentAcquisitions() {
+        return maxConcurrentAcquisitions;
+    }
+
     public long getPollInterval() {
         return pollInterval;
     }
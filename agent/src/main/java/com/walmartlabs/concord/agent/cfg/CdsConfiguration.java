@@ -0,0 +1,54 @@
+package com.walmartlabs.concord.agent.cfg;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import java.nio.file.Path;
+
+import static com.walmartlabs.concord.agent.cfg.Utils.getOrCreatePath;
+
+public class CdsConfiguration {
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int maxArchives;
+
+    @Inject
+    public CdsConfiguration(Config cfg) {
+        this.enabled = cfg.getBoolean("cds.enabled");
+        this.dir = enabled ? getOrCreatePath(cfg, "cds.dir") : null;
+        this.maxArchives = cfg.getInt("cds.maxArchives");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public int getMaxArchives() {
+        return maxArchives;
+    }
+}
@@ -45,6 +45,8 @@ public class ServerConfiguration {
     private final long maxNoHeartbeatInterval;
     private final long processRequestDelay;
     private final long reconnectDelay;
+    private final boolean longPollEnabled;
+    private final long longPollTimeout;
 
     @Inject
     public ServerConfiguration(Config cfg, AgentConfiguration agentCfg) {
@@ -72,6 +74,9 @@ public class ServerConfiguration {
 
         this.processRequestDelay = cfg.getDuration("server.processRequestDelay", TimeUnit.MILLISECONDS);
         this.reconnectDelay = cfg.getDuration("server.reconnectDelay", TimeUnit.MILLISECONDS);
+
+        this.longPollEnabled = cfg.getBoolean("server.longPollEnabled");
+        this.longPollTimeout = cfg.getDuration("server.longPollTimeout", TimeUnit.MILLISECONDS);
     }
 
     public String getApiBaseUrl() {
@@ -122,6 +127,14 @@ public class ServerConfiguration {
         return reconnectDelay;
     }
 
+    public boolean isLongPollEnabled() {
+        return longPollEnabled;
+    }
+
+    public long getLongPollTimeout() {
+        return longPollTimeout;
+    }
+
     private static String[] getWebsocketUrls(Config cfg) {
         // we had a silly typo ("websockeR") in our configs, so for backward compatibility we must check the old variant first
         String oldKey = "server.websockerUrl";
@@ -23,6 +23,7 @@ package com.walmartlabs.concord.agent.executors;
 import com.walmartlabs.concord.agent.ConfiguredJobRequest;
 import com.walmartlabs.concord.agent.JobRequest;
 import com.walmartlabs.concord.agent.cfg.*;
+import com.walmartlabs.concord.agent.executors.runner.CdsArchiveCache;
 import com.walmartlabs.concord.agent.executors.runner.DefaultDependencies;
 import com.walmartlabs.concord.agent.executors.runner.ProcessPool;
 import com.walmartlabs.concord.agent.executors.runner.RunnerJobExecutor;
@@ -53,6 +54,7 @@ public class JobExecutorFactory {
     private final DependencyManager dependencyManager;
     private final DefaultDependencies defaultDependencies;
     private final ProcessPool processPool;
+    private final CdsArchiveCache cdsArchives;
     private final ProcessLog processLog;
     private final AttachmentsUploader attachmentsUploader;
     private final ProcessLogFactory processLogFactory;
@@ -69,6 +71,7 @@ public class JobExecutorFactory {
                               DependencyManager dependencyManager,
                               DefaultDependencies defaultDependencies,
                               ProcessPool processPool,
+                              CdsArchiveCache cdsArchives,
                               ProcessLog processLog,
                               AttachmentsUploader attachmentsUploader,
                               ProcessLogFactory processLogFactory) {
@@ -84,6 +87,7 @@ public class JobExecutorFactory {
         this.dependencyManager = dependencyManager;
         this.defaultDependencies = defaultDependencies;
         this.processPool = processPool;
+        this.cdsArchives = cdsArchives;
         this.processLog = processLog;
         this.attachmentsUploader = attachmentsUploader;
         this.processLogFactory = processLogFactory;
@@ -127,9 +131,10 @@ public class JobExecutorFactory {
                     .persistentWorkDir(runnerCfg.getPersistentWorkDir())
                     .preforkEnabled(preForkCfg.isEnabled())
                     .cleanRunnerDescendants(runnerCfg.getCleanRunnerDescendants())
+                    .reportStartupTimings(runnerCfg.isReportStartupTimings())
                     .build();
 
-            JobExecutor delegate = new RunnerJobExecutor(runnerExecutorCfg, dependencyManager, defaultDependencies, attachmentsUploader, processPool, processLogFactory, executor);
+            JobExecutor delegate = new RunnerJobExecutor(runnerExecutorCfg, dependencyManager, defaultDependencies, attachmentsUploader, processPool, cdsArchives, processLogFactory, executor);
             return delegate.exec(jobRequest);
         };
     }
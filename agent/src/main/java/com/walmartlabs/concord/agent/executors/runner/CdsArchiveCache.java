@@ -0,0 +1,216 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.HashCode;
+import com.walmartlabs.concord.agent.cfg.CdsConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Manages dynamic AppCDS archives of the runner's JVMs.
+ * <p>
+ * The archives are keyed by the runner's classpath and the process' resolved
+ * dependencies. The first process with a new key creates the archive on exit
+ * ({@code -XX:ArchiveClassesAtExit}), subsequent processes map it on startup
+ * ({@code -XX:SharedArchiveFile}). An incompatible archive is simply ignored
+ * by the JVM.
+ */
+public class CdsArchiveCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CdsArchiveCache.class);
+
+    private static final String ARCHIVE_EXT = ".jsa";
+
+    /**
+     * JVM parameters that conflict with the archive's parameters.
+     */
+    private static final List<String> CONFLICTING_PARAMS = Arrays.asList("-Xshare", "SharedArchiveFile", "ArchiveClassesAtExit");
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int maxArchives;
+
+    private final Set<HashCode> inProgress = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public CdsArchiveCache(CdsConfiguration cfg) {
+        this.enabled = cfg.isEnabled();
+        this.dir = cfg.getDir();
+        this.maxArchives = cfg.getMaxArchives();
+    }
+
+    /**
+     * @return an archive to use or to create for the specified key or
+     * {@code null} if CDS can't be used.
+     */
+    public Archive get(HashCode key, int majorJavaVersion, List<String> jvmParams) {
+        if (!enabled || majorJavaVersion < 13 || hasConflictingParams(jvmParams)) {
+            return null;
+        }
+
+        Path p = dir.resolve(key + ARCHIVE_EXT);
+        if (Files.exists(p)) {
+            try {
+                // used for the LRU eviction
+                Files.setLastModifiedTime(p, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // the archive was removed in the meantime
+                return null;
+            }
+
+            return new Archive(key, Mode.USE, p);
+        }
+
+        if (!inProgress.add(key)) {
+            // another process is creating the archive
+            return null;
+        }
+
+        return new Archive(key, Mode.CREATE, dir.resolve(key + "." + UUID.randomUUID() + ".tmp"));
+    }
+
+    /**
+     * Must be called after the process' JVM is started.
+     */
+    public void onStart(Archive archive, Process proc) {
+        if (archive.mode != Mode.CREATE) {
+            return;
+        }
+
+        proc.onExit().thenRun(() -> complete(archive));
+    }
+
+    /**
+     * Must be called if the process' JVM failed to start.
+     */
+    public void onStartFailed(Archive archive) {
+        if (archive.mode != Mode.CREATE) {
+            return;
+        }
+
+        complete(archive);
+    }
+
+    private void complete(Archive archive) {
+        try {
+            if (Files.exists(archive.path) && Files.size(archive.path) > 0) {
+                Path dst = dir.resolve(archive.key + ARCHIVE_EXT);
+                Files.move(archive.path, dst, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                log.info("complete -> created {}", dst);
+
+                evict();
+            } else {
+                Files.deleteIfExists(archive.path);
+            }
+        } catch (IOException e) {
+            log.warn("complete -> error while saving the archive {}: {}", archive.path, e.getMessage());
+        } finally {
+            inProgress.remove(archive.key);
+        }
+    }
+
+    private synchronized void evict() throws IOException {
+        List<Path> archives;
+        try (Stream<Path> s = Files.list(dir)) {
+            archives = s.filter(p -> p.getFileName().toString().endsWith(ARCHIVE_EXT))
+                    .collect(Collectors.toList());
+        }
+
+        if (archives.size() <= maxArchives) {
+            return;
+        }
+
+        archives.sort(Comparator.comparing(CdsArchiveCache::lastModified, Collections.reverseOrder()));
+        for (Path p : archives.subList(maxArchives, archives.size())) {
+            log.info("evict -> removing {}", p);
+            Files.deleteIfExists(p);
+        }
+    }
+
+    private static FileTime lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static boolean hasConflictingParams(List<String> jvmParams) {
+        if (jvmParams == null) {
+            return false;
+        }
+
+        return jvmParams.stream()
+                .anyMatch(p -> CONFLICTING_PARAMS.stream().anyMatch(p::contains));
+    }
+
+    public enum Mode {
+
+        /**
+         * Start the JVM using the existing archive.
+         */
+        USE,
+
+        /**
+         * Create the archive when the JVM exits.
+         */
+        CREATE
+    }
+
+    public static final class Archive {
+
+        private final HashCode key;
+        private final Mode mode;
+        private final Path path;
+
+        private Archive(HashCode key, Mode mode, Path path) {
+            this.key = key;
+            this.mode = mode;
+            this.path = path;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public List<String> getJvmParams() {
+            String param = mode == Mode.USE ? "-XX:SharedArchiveFile=" : "-XX:ArchiveClassesAtExit=";
+            return Arrays.asList(param + path.toAbsolutePath(), "-Dconcord.cds=" + mode.name().toLowerCase());
+        }
+    }
+}
@@ -30,35 +30,72 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps "pre-forked" JVMs for the recently used classpaths (command lines).
+ * <p>
+ * The number of spare JVMs kept for each classpath follows the demand:
+ * an exponentially weighted moving average of the number of process starts
+ * per maintenance period. The total number of spares is limited by
+ * {@code prefork.maxCount}, when the limit is reached the oldest spare is
+ * replaced. JVMs are started outside of the pool's lock, a slow fork doesn't
+ * block other workers.
+ */
 public class ProcessPool {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessPool.class);
 
-    private static final long CLEANUP_PERIOD = 30000;
+    private static final long MAINTENANCE_PERIOD = 30000;
+
+    /**
+     * Weight of the last maintenance period in the demand's moving average.
+     */
+    private static final double DEMAND_ALPHA = 0.3;
+
+    /**
+     * Classpaths with a lower demand don't get any spares.
+     */
+    private static final double MIN_DEMAND = 0.25;
 
     private final long maxEntryAge;
     private final int maxEntryCount;
-    private final Map<HashCode, Queue<ProcessEntry>> pool = new HashMap<>();
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final Map<HashCode, Target> targets = new HashMap<>();
+
+    /**
+     * All idle entries in the order of their creation, the eldest first.
+     */
+    private final LinkedHashMap<ProcessEntry, HashCode> idle = new LinkedHashMap<>();
+    private int pending;
+
+    private final Stats stats = new Stats();
+    private final ExecutorService executor;
 
     @Inject
     public ProcessPool(PreForkConfiguration cfg) {
-        this.maxEntryAge = cfg.getMaxAge();
-        this.maxEntryCount = cfg.getMaxCount();
+        this(cfg.getMaxAge(), cfg.getMaxCount(), Executors.newCachedThreadPool());
         init();
     }
 
+    ProcessPool(long maxEntryAge, int maxEntryCount, ExecutorService executor) {
+        this.maxEntryAge = maxEntryAge;
+        this.maxEntryCount = maxEntryCount;
+        this.executor = executor;
+    }
+
     public void init() {
         Thread t = new Thread(() -> {
             log.info("run -> starting cleanup thread, max entry age {}ms, max entry count {}", maxEntryAge, maxEntryCount);
 
             while (!Thread.currentThread().isInterrupted()) {
-                Utils.sleep(CLEANUP_PERIOD);
+                Utils.sleep(MAINTENANCE_PERIOD);
 
                 try {
                     maintenance();
@@ -72,96 +109,200 @@ public class ProcessPool {
     }
 
     public ProcessEntry take(HashCode hc, ProcessLauncher launcher) throws ExecutionException {
-        synchronized (pool) {
-            Queue<ProcessEntry> q = pool.computeIfAbsent(hc, k -> new LinkedList<>());
+        ProcessEntry entry;
+        synchronized (targets) {
+            Target t = targets.computeIfAbsent(hc, k -> new Target());
+            t.launcher = launcher;
+            t.starts++;
 
-            ProcessEntry entry = q.poll();
-            if (entry == null) {
-                try {
-                    entry = launcher.start();
-                } catch (IOException e) {
-                    throw new ExecutionException("Error while starting a new process", e);
-                }
+            entry = poll(t);
+        }
+
+        if (entry == null) {
+            stats.onMiss();
 
-                log.info("take -> started a new process: {}", entry.workDir);
-            } else {
-                log.info("take -> using a pre-forked instance: {}", entry.workDir);
+            try {
+                entry = fork(launcher);
+            } catch (IOException e) {
+                throw new ExecutionException("Error while starting a new process", e);
             }
 
-            executor.submit(() -> populate(hc, launcher));
+            log.info("take -> started a new process: {}", entry.workDir);
+        } else {
+            stats.onHit();
+            log.info("take -> using a pre-forked instance: {}", entry.workDir);
+        }
+
+        executor.submit(() -> populate(hc));
 
-            return entry;
+        return entry;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    int getIdleCount(HashCode hc) {
+        synchronized (targets) {
+            Target t = targets.get(hc);
+            return t != null ? t.entries.size() : 0;
         }
     }
 
-    private void populate(HashCode hc, ProcessLauncher launcher) {
-        synchronized (pool) {
-            // calculate the total number of processes in the pool
-            int total = 0;
-            for (Map.Entry<HashCode, Queue<ProcessEntry>> e : pool.entrySet()) {
-                total += e.getValue().size();
-            }
+    /**
+     * Starts new spare processes until the classpath's warm target is reached.
+     */
+    private void populate(HashCode hc) {
+        while (true) {
+            Target t;
+            ProcessLauncher launcher;
+            ProcessEntry evicted = null;
+
+            synchronized (targets) {
+                t = targets.get(hc);
+                if (t == null || t.entries.size() + t.pending >= warmTarget(t)) {
+                    return;
+                }
 
-            if (total >= maxEntryCount) {
-                // mark the oldest entry for removal
-                ProcessEntry oldest = null;
-                for (Map.Entry<HashCode, Queue<ProcessEntry>> q : pool.entrySet()) {
-                    for (ProcessEntry e : q.getValue()) {
-                        if (oldest == null || oldest.timestamp > e.timestamp) {
-                            oldest = e;
-                        }
+                if (idle.size() + pending >= maxEntryCount) {
+                    evicted = evictEldest();
+                    if (evicted == null) {
+                        // all slots are taken by processes that are still starting
+                        return;
                     }
                 }
 
-                // it's never null
-                assert oldest != null;
+                t.pending++;
+                pending++;
+                launcher = t.launcher;
+            }
 
-                oldest.remove = true;
+            if (evicted != null) {
+                log.info("populate -> replacing the oldest pre-forked instance: {}", evicted.workDir);
+                destroy(evicted);
             }
 
-            // add a new pool entry
-            Queue<ProcessEntry> q = pool.computeIfAbsent(hc, k -> new LinkedList<>());
+            ProcessEntry entry = null;
             try {
-                q.add(launcher.start());
+                entry = fork(launcher);
             } catch (IOException e) {
                 log.error("populate -> error while starting a new process", e);
             }
+
+            synchronized (targets) {
+                t.pending--;
+                pending--;
+
+                if (entry != null) {
+                    t.entries.add(entry);
+                    idle.put(entry, hc);
+                }
+            }
+
+            if (entry == null) {
+                return;
+            }
         }
     }
 
-    private void maintenance() {
-        List<HashCode> queuesToRemove = new ArrayList<>();
+    void maintenance() {
         List<ProcessEntry> processesToKill = new ArrayList<>();
+        List<HashCode> targetsToPopulate = new ArrayList<>();
+        List<Process> idleProcesses = new ArrayList<>();
+        int targetCount;
 
         long t = System.currentTimeMillis();
 
-        synchronized (pool) {
-            pool.forEach((hc, q) -> {
-                q.removeIf(e -> {
-                    if (e.remove || t - e.timestamp >= maxEntryAge) {
-                        processesToKill.add(e);
-                        return true;
-                    }
-                    return false;
-                });
+        synchronized (targets) {
+            // the entries are ordered by age, stop at the first non-expired one
+            Iterator<Map.Entry<ProcessEntry, HashCode>> it = idle.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<ProcessEntry, HashCode> e = it.next();
+                if (t - e.getKey().timestamp < maxEntryAge) {
+                    break;
+                }
 
-                if (q.isEmpty()) {
-                    queuesToRemove.add(hc);
+                it.remove();
+                targets.get(e.getValue()).entries.remove(e.getKey());
+                processesToKill.add(e.getKey());
+            }
+
+            targets.values().removeIf(target -> {
+                target.demand = DEMAND_ALPHA * target.starts + (1 - DEMAND_ALPHA) * target.demand;
+                target.starts = 0;
+                return target.entries.isEmpty() && target.pending == 0 && target.demand < MIN_DEMAND;
+            });
+
+            targets.forEach((hc, target) -> {
+                if (target.entries.size() + target.pending < warmTarget(target)) {
+                    targetsToPopulate.add(hc);
                 }
             });
 
-            for (HashCode hc : queuesToRemove) {
-                pool.remove(hc);
-            }
+            idle.keySet().forEach(e -> idleProcesses.add(e.process));
+            targetCount = targets.size();
         }
 
-        log.info("maintenance -> removed {} queues", queuesToRemove.size());
-
         for (ProcessEntry p : processesToKill) {
-            Utils.kill(p.process);
-            cleanup(p);
+            destroy(p);
         }
-        log.info("maintenance -> killed {} processes", processesToKill.size());
+
+        for (HashCode hc : targetsToPopulate) {
+            executor.submit(() -> populate(hc));
+        }
+
+        long idleMemory = 0;
+        for (Process p : idleProcesses) {
+            idleMemory += residentSetSize(p);
+        }
+
+        log.info("maintenance -> killed {} processes, {} idle processes ({}MB resident) for {} classpaths, {}",
+                processesToKill.size(), idleProcesses.size(), idleMemory / (1024 * 1024), targetCount, stats);
+    }
+
+    private int warmTarget(Target t) {
+        // include the starts of the current period to react to bursts
+        double demand = Math.max(t.demand, t.starts);
+        if (demand < MIN_DEMAND) {
+            return 0;
+        }
+        return (int) Math.min(maxEntryCount, Math.ceil(demand));
+    }
+
+    private ProcessEntry poll(Target t) {
+        Iterator<ProcessEntry> it = t.entries.iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+
+        ProcessEntry e = it.next();
+        it.remove();
+        idle.remove(e);
+        return e;
+    }
+
+    private ProcessEntry evictEldest() {
+        Iterator<Map.Entry<ProcessEntry, HashCode>> it = idle.entrySet().iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+
+        Map.Entry<ProcessEntry, HashCode> e = it.next();
+        it.remove();
+        targets.get(e.getValue()).entries.remove(e.getKey());
+        return e.getKey();
+    }
+
+    private ProcessEntry fork(ProcessLauncher launcher) throws IOException {
+        long t1 = System.nanoTime();
+        ProcessEntry entry = launcher.start();
+        stats.onFork(System.nanoTime() - t1);
+        return entry;
+    }
+
+    private static void destroy(ProcessEntry e) {
+        Utils.kill(e.process);
+        cleanup(e);
     }
 
     private static void cleanup(ProcessEntry process) {
@@ -173,6 +314,24 @@ public class ProcessPool {
         }
     }
 
+    /**
+     * @return the process' resident set size in bytes or 0 if not available.
+     */
+    private static long residentSetSize(Process p) {
+        Path status = Paths.get("/proc", String.valueOf(p.pid()), "status");
+        try {
+            for (String l : Files.readAllLines(status)) {
+                if (l.startsWith("VmRSS:")) {
+                    String[] parts = l.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not available on this platform or the process is gone
+        }
+        return 0;
+    }
+
     public interface ProcessLauncher {
 
         ProcessEntry start() throws IOException;
@@ -184,8 +343,6 @@ public class ProcessPool {
         private final Process process;
         private final Path workDir;
 
-        private boolean remove = false;
-
         public ProcessEntry(Process process, Path workDir) {
             this.timestamp = System.currentTimeMillis();
             this.process = process;
@@ -200,4 +357,70 @@ public class ProcessPool {
             return workDir;
         }
     }
+
+    public static final class Stats {
+
+        private long hits;
+        private long misses;
+        private long forks;
+        private long forkTime;
+        private long maxForkTime;
+
+        private synchronized void onHit() {
+            hits++;
+        }
+
+        private synchronized void onMiss() {
+            misses++;
+        }
+
+        private synchronized void onFork(long duration) {
+            forks++;
+            forkTime += duration;
+            maxForkTime = Math.max(maxForkTime, duration);
+        }
+
+        public synchronized long getHits() {
+            return hits;
+        }
+
+        public synchronized long getMisses() {
+            return misses;
+        }
+
+        @Override
+        public synchronized String toString() {
+            long avgForkTime = forks > 0 ? forkTime / forks : 0;
+            return "hits=" + hits +
+                    ", misses=" + misses +
+                    ", forks=" + forks +
+                    ", avgForkTime=" + TimeUnit.NANOSECONDS.toMillis(avgForkTime) + "ms" +
+                    ", maxForkTime=" + TimeUnit.NANOSECONDS.toMillis(maxForkTime) + "ms";
+        }
+    }
+
+    private static final class Target {
+
+        /**
+         * Idle entries, the eldest first.
+         */
+        private final Set<ProcessEntry> entries = new LinkedHashSet<>();
+
+        private ProcessLauncher launcher;
+
+        /**
+         * Number of processes that are being started.
+         */
+        private int pending;
+
+        /**
+         * Number of process starts in the current maintenance period.
+         */
+        private int starts;
+
+        /**
+         * Moving average of process starts per maintenance period.
+         */
+        private double demand;
+    }
 }
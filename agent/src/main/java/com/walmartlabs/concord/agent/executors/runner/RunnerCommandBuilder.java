@@ -36,6 +36,7 @@ public class RunnerCommandBuilder {
     private List<String> extraJvmParams;
     private String mainClass;
     private int majorJavaVersion;
+    private boolean reportStartupTimings;
 
     public RunnerCommandBuilder() {
     }
@@ -90,6 +91,11 @@ public class RunnerCommandBuilder {
         return this;
     }
 
+    public RunnerCommandBuilder reportStartupTimings(boolean reportStartupTimings) {
+        this.reportStartupTimings = reportStartupTimings;
+        return this;
+    }
+
     public String[] build() {
         List<String> l = new ArrayList<>();
 
@@ -138,6 +144,11 @@ public class RunnerCommandBuilder {
 
         l.add("-Dconcord.exposeDockerDaemon=" + exposeDockerDaemon);
 
+        // save the durations of the startup phases in the process' metadata
+        if (reportStartupTimings) {
+            l.add("-Dconcord.startupTimings=true");
+        }
+
         // Java 9+ requires additional add-opens for compatibility
         if (majorJavaVersion >= 9) {
             l.add("--add-opens");
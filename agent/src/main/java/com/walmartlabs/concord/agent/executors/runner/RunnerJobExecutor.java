@@ -85,6 +85,7 @@ public class RunnerJobExecutor implements JobExecutor {
     private final DefaultDependencies defaultDependencies;
     private final AttachmentsUploader attachmentsUploader;
     private final ProcessPool processPool;
+    private final CdsArchiveCache cdsArchives;
     private final ProcessLogFactory logFactory;
     private final ExecutorService executor;
 
@@ -97,6 +98,7 @@ public class RunnerJobExecutor implements JobExecutor {
                              DefaultDependencies defaultDependencies,
                              AttachmentsUploader attachmentsUploader,
                              ProcessPool processPool,
+                             CdsArchiveCache cdsArchives,
                              ProcessLogFactory processLogFactory,
                              ExecutorService executor) {
 
@@ -105,6 +107,7 @@ public class RunnerJobExecutor implements JobExecutor {
         this.defaultDependencies = defaultDependencies;
         this.attachmentsUploader = attachmentsUploader;
         this.processPool = processPool;
+        this.cdsArchives = cdsArchives;
         this.logFactory = processLogFactory;
         this.executor = executor;
 
@@ -282,15 +285,41 @@ public class RunnerJobExecutor implements JobExecutor {
 
     protected ProcessEntry buildProcessEntry(RunnerJob job) throws Exception {
         List<String> jvmParams = getJvmParams(job.getPayloadDir(), job.getProcessCfg());
-        String[] cmd = createCmd(job, jvmParams);
 
-        boolean prefork = canUsePrefork(job);
-        if (prefork) {
-            log.info("start ['{}'] -> using a pre-forked instances", job.getInstanceId());
-            return fork(job, cmd);
-        } else {
-            return startOneTime(job, cmd);
+        CdsArchiveCache.Archive cds = cdsArchives.get(cdsKey(job), majorJavaVersion, jvmParams);
+        if (cds != null) {
+            jvmParams = new ArrayList<>(jvmParams);
+            jvmParams.addAll(cds.getJvmParams());
+
+            if (job.isDebugMode()) {
+                job.getLog().info("CDS archive mode: {}", cds.getMode());
+            }
+        }
+
+        ProcessEntry pe;
+        try {
+            String[] cmd = createCmd(job, jvmParams);
+
+            // "pre-forked" JVMs can't share the same "archive at exit" file
+            boolean prefork = canUsePrefork(job) && (cds == null || cds.getMode() != CdsArchiveCache.Mode.CREATE);
+            if (prefork) {
+                log.info("start ['{}'] -> using a pre-forked instances", job.getInstanceId());
+                pe = fork(job, cmd);
+            } else {
+                pe = startOneTime(job, cmd);
+            }
+        } catch (Exception e) {
+            if (cds != null) {
+                cdsArchives.onStartFailed(cds);
+            }
+            throw e;
         }
+
+        if (cds != null) {
+            cdsArchives.onStart(cds, pe.getProcess());
+        }
+
+        return pe;
     }
 
     private void exec(RunnerJob job, ProcessEntry pe) throws Exception {
@@ -393,6 +422,8 @@ public class RunnerJobExecutor implements JobExecutor {
 
         long t2 = System.currentTimeMillis();
 
+        log.info("resolveDeps ['{}'] -> done in {}ms, total: {}", job.getInstanceId(), (t2 - t1), dependencyManager.getStats());
+
         if (job.isDebugMode()) {
             job.getLog().info("Dependency resolution took {}ms", (t2 - t1));
             logDependencies(job, paths);
@@ -469,9 +500,33 @@ public class RunnerJobExecutor implements JobExecutor {
                 .mainClass(cfg.runnerMainClass())
                 .jvmParams(jvmParams)
                 .majorJavaVersion(this.majorJavaVersion)
+                .reportStartupTimings(cfg.reportStartupTimings())
                 .build();
     }
 
+    /**
+     * CDS archives depend on the JVM, the runner's classpath and
+     * the classes loaded from the process' dependencies.
+     */
+    private HashCode cdsKey(RunnerJob job) {
+        Path runnerPath = cfg.runnerPath().toAbsolutePath();
+
+        Hasher h = Hashing.sha256().newHasher()
+                .putString(cfg.javaCmd(), Charsets.UTF_8)
+                .putString(runnerPath.toString(), Charsets.UTF_8)
+                .putLong(runnerPath.toFile().lastModified())
+                .putString(cfg.runnerMainClass(), Charsets.UTF_8);
+
+        RunnerConfiguration runnerCfg = job.getRunnerCfg();
+        if (runnerCfg != null) {
+            for (String d : runnerCfg.dependencies()) {
+                h.putString(d, Charsets.UTF_8);
+            }
+        }
+
+        return h.hash();
+    }
+
     private ProcessEntry fork(RunnerJob job, String[] cmd) throws ExecutionException, IOException {
         long t1 = System.currentTimeMillis();
 
@@ -778,6 +833,8 @@ public class RunnerJobExecutor implements JobExecutor {
 
         boolean cleanRunnerDescendants();
 
+        boolean reportStartupTimings();
+
         static ImmutableRunnerJobExecutorConfiguration.Builder builder() {
             return ImmutableRunnerJobExecutorConfiguration.builder();
         }
@@ -43,6 +43,7 @@ public class AgentDependencyManagerConfigurationProvider implements Provider<Dep
                 .cacheDir(cfg.getDependencyCacheDir())
                 .strictRepositories(cfg.dependencyStrictRepositories())
                 .exclusions(cfg.dependencyExclusions())
+                .manifestDir(cfg.getDependencyManifestDir())
                 .explicitlyResolveV1Client(cfg.isExplicitlyResolveV1Client())
                 .offlineMode(cfg.isMavenOfflineMode())
                 .build();
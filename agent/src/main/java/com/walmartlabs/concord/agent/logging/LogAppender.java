@@ -20,6 +20,7 @@ package com.walmartlabs.concord.agent.logging;
  * =====
  */
 
+import java.util.Arrays;
 import java.util.UUID;
 
 public interface LogAppender {
@@ -28,5 +29,23 @@ public interface LogAppender {
 
     boolean appendLog(UUID instanceId, long segmentId, byte[] ab);
 
+    /**
+     * Appends {@code len} bytes of {@code ab} starting at {@code off}.
+     * The caller may reuse the array after the method returns.
+     */
+    default boolean appendLog(UUID instanceId, long segmentId, byte[] ab, int off, int len) {
+        return appendLog(instanceId, segmentId, Arrays.copyOfRange(ab, off, off + len));
+    }
+
+    /**
+     * Appends the data of the specified batch. The segment updates are not sent.
+     * The data is sent frame by frame. If a frame is not accepted, the remaining
+     * frames are not sent. Calling the method again with the same batch resumes
+     * from the failed frame.
+     */
+    default boolean appendLog(UUID instanceId, LogBatch batch) {
+        return batch.sendFrames((segmentId, ab, off, len) -> appendLog(instanceId, segmentId, ab, off, len));
+    }
+
     boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats);
 }
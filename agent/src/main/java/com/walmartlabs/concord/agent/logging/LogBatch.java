@@ -0,0 +1,202 @@
+package com.walmartlabs.concord.agent.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A batch of segmented log data and segment updates.
+ * <p>
+ * The data is stored in the format of the {@code /api/v2/process/{id}/log/segment/batch}
+ * endpoint: {@code segmentId (int64) | length (int32) | data}. Consecutive appends
+ * to the same segment are merged into a single frame.
+ */
+public class LogBatch {
+
+    private static final int FRAME_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Map<Long, LogSegmentStats> stats = new LinkedHashMap<>();
+
+    private byte[] buf;
+    private int length;
+    private int dataSize;
+
+    private long lastSegmentId;
+    private int lastFrameStart = -1;
+
+    private long firstAppendAt;
+
+    // the start of the first frame not sent by sendFrames
+    private int sentLength;
+
+    public LogBatch(int initialCapacity) {
+        this.buf = new byte[Math.max(initialCapacity, FRAME_HEADER_SIZE)];
+    }
+
+    public void append(long segmentId, byte[] ab, int off, int len) {
+        if (len <= 0) {
+            return;
+        }
+
+        markFirstAppend();
+
+        if (lastFrameStart >= 0 && lastSegmentId == segmentId) {
+            ensureCapacity(length + len);
+            System.arraycopy(ab, off, buf, length, len);
+            length += len;
+
+            ByteBuffer bb = ByteBuffer.wrap(buf);
+            bb.putInt(lastFrameStart + Long.BYTES, bb.getInt(lastFrameStart + Long.BYTES) + len);
+        } else {
+            ensureCapacity(length + FRAME_HEADER_SIZE + len);
+
+            ByteBuffer bb = ByteBuffer.wrap(buf, length, FRAME_HEADER_SIZE);
+            bb.putLong(segmentId);
+            bb.putInt(len);
+
+            lastFrameStart = length;
+            lastSegmentId = segmentId;
+
+            System.arraycopy(ab, off, buf, length + FRAME_HEADER_SIZE, len);
+            length += FRAME_HEADER_SIZE + len;
+        }
+
+        dataSize += len;
+    }
+
+    /**
+     * Adds a segment update. The updates of the same segment are merged,
+     * the latest non-null values win.
+     */
+    public void updateSegment(long segmentId, LogSegmentStats s) {
+        markFirstAppend();
+
+        stats.merge(segmentId, s, (prev, next) -> LogSegmentStats.builder()
+                .status(next.status() != null ? next.status() : prev.status())
+                .errors(next.errors() != null ? next.errors() : prev.errors())
+                .warnings(next.warnings() != null ? next.warnings() : prev.warnings())
+                .build());
+    }
+
+    public boolean isEmpty() {
+        return length == 0 && stats.isEmpty();
+    }
+
+    /**
+     * @return the size of the log data in the batch, without the frame headers.
+     */
+    public int dataSize() {
+        return dataSize;
+    }
+
+    /**
+     * @return the time of the first append or update, in milliseconds
+     * since the epoch, or 0 if the batch is empty.
+     */
+    public long firstAppendAt() {
+        return firstAppendAt;
+    }
+
+    /**
+     * @return the batch data, the first {@link #length()} bytes are valid.
+     */
+    public byte[] bytes() {
+        return buf;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public Map<Long, LogSegmentStats> stats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public void forEachFrame(FrameConsumer consumer) {
+        ByteBuffer bb = ByteBuffer.wrap(buf, 0, length);
+        while (bb.hasRemaining()) {
+            long segmentId = bb.getLong();
+            int len = bb.getInt();
+            consumer.accept(segmentId, buf, bb.position(), len);
+            bb.position(bb.position() + len);
+        }
+    }
+
+    /**
+     * Sends the frames one by one, starting with the first frame not sent by
+     * the previous calls. Stops at the first frame not accepted by the sender,
+     * so the next call resumes from that frame.
+     *
+     * @return {@code true} if all frames were sent.
+     */
+    public boolean sendFrames(FrameSender sender) {
+        ByteBuffer bb = ByteBuffer.wrap(buf, sentLength, length - sentLength);
+        while (bb.hasRemaining()) {
+            long segmentId = bb.getLong();
+            int len = bb.getInt();
+            if (!sender.send(segmentId, buf, bb.position(), len)) {
+                return false;
+            }
+            bb.position(bb.position() + len);
+            sentLength = bb.position();
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if some of the frames were already sent by {@link #sendFrames(FrameSender)}.
+     */
+    public boolean isPartiallySent() {
+        return sentLength > 0;
+    }
+
+    private void markFirstAppend() {
+        if (firstAppendAt == 0) {
+            firstAppendAt = System.currentTimeMillis();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buf.length >= capacity) {
+            return;
+        }
+
+        byte[] ab = new byte[Math.max(capacity, buf.length * 2)];
+        System.arraycopy(buf, 0, ab, 0, length);
+        buf = ab;
+    }
+
+    public interface FrameConsumer {
+
+        void accept(long segmentId, byte[] ab, int off, int len);
+    }
+
+    public interface FrameSender {
+
+        /**
+         * @return {@code true} if the frame was accepted.
+         */
+        boolean send(long segmentId, byte[] ab, int off, int len);
+    }
+}
@@ -0,0 +1,353 @@
+package com.walmartlabs.concord.agent.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the segmented log data of a process asynchronously, in batches.
+ * <p>
+ * The appended data is accumulated in a batch. The batch is sent either when
+ * it reaches {@code batchSize} bytes or when its oldest data is older than
+ * {@code flushInterval}. When the server can't keep up and there are
+ * {@code maxQueuedBatches} complete batches waiting, the calling thread is
+ * blocked. For {@link RedirectedProcessLog} that means the process log
+ * accumulates in the local log file until the server catches up.
+ * <p>
+ * Batches that the server doesn't accept are retried with an increasing
+ * delay, which also slows down the process' log (see above).
+ * <p>
+ * {@link #close()} sends the remaining data and waits for the delivery.
+ * The instance can't be used after that.
+ */
+public class LogShipper implements LogAppender, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LogShipper.class);
+
+    private static final long LAG_WARN_THRESHOLD = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_INITIAL_BATCH_CAPACITY = 64 * 1024;
+    private static final int MAX_SEND_ATTEMPTS = 3;
+    private static final long DEFAULT_RETRY_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    private final UUID instanceId;
+    private final LogAppender delegate;
+    private final int batchSize;
+    private final long flushInterval;
+    private final int maxQueuedBatches;
+    private final long retryDelay;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Deque<LogBatch> queue = new ArrayDeque<>();
+    private final Thread thread;
+
+    private LogBatch current;
+    private boolean closed;
+
+    // stats
+    private int queuedBytes;
+    private int maxQueuedBytes;
+    private long maxLag;
+    private long batchesSent;
+    private long bytesSent;
+    private long bytesLost;
+
+    public LogShipper(UUID instanceId, LogAppender delegate, int batchSize, long flushInterval, int maxQueuedBatches) {
+        this(instanceId, delegate, batchSize, flushInterval, maxQueuedBatches, DEFAULT_RETRY_DELAY);
+    }
+
+    /**
+     * @param retryDelay the delay before the first retry of a failed batch, doubled for each subsequent retry.
+     */
+    public LogShipper(UUID instanceId, LogAppender delegate, int batchSize, long flushInterval, int maxQueuedBatches, long retryDelay) {
+        this.instanceId = instanceId;
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxQueuedBatches = Math.max(1, maxQueuedBatches);
+        this.retryDelay = retryDelay;
+        this.current = newBatch();
+
+        this.thread = new Thread(this::run, "log-shipper-" + instanceId);
+        this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void appendLog(UUID instanceId, byte[] ab) {
+        appendLog(instanceId, 0, ab, 0, ab.length);
+    }
+
+    @Override
+    public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+        return appendLog(instanceId, segmentId, ab, 0, ab.length);
+    }
+
+    @Override
+    public boolean appendLog(UUID instanceId, long segmentId, byte[] ab, int off, int len) {
+        assertInstanceId(instanceId);
+
+        lock.lock();
+        try {
+            ensureStarted();
+            awaitNotFull();
+
+            current.append(segmentId, ab, off, len);
+            queuedBytes += len;
+            maxQueuedBytes = Math.max(maxQueuedBytes, queuedBytes);
+
+            if (current.dataSize() >= batchSize) {
+                enqueueCurrent();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+        assertInstanceId(instanceId);
+
+        lock.lock();
+        try {
+            ensureStarted();
+            awaitNotFull();
+            current.updateSegment(segmentId, stats);
+        } finally {
+            lock.unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the amount of log data waiting to be sent, in bytes.
+     */
+    public int getQueuedBytes() {
+        lock.lock();
+        try {
+            return queuedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the maximum delay between appending and sending of the data so far, in milliseconds.
+     */
+    public long getMaxLag() {
+        lock.lock();
+        try {
+            return maxLag;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        boolean started;
+
+        lock.lock();
+        try {
+            closed = true;
+            started = thread.isAlive();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!started) {
+            return;
+        }
+
+        thread.join();
+
+        log.info("close ['{}'] -> sent {} batch(es), {} byte(s), lost: {} byte(s), max queued: {} byte(s), max lag: {}ms",
+                instanceId, batchesSent, bytesSent, bytesLost, maxQueuedBytes, maxLag);
+    }
+
+    private void run() {
+        while (true) {
+            LogBatch batch;
+
+            lock.lock();
+            try {
+                batch = awaitBatch();
+                if (batch == null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                send(batch);
+            } catch (Exception e) {
+                log.error("run ['{}'] -> error while sending the log, {} byte(s) lost: {}", instanceId, batch.dataSize(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Waits for a complete batch or for the current batch to expire.
+     *
+     * @return the next batch to send or {@code null} if the shipper is closed
+     * and there's no more data.
+     */
+    private LogBatch awaitBatch() {
+        while (queue.isEmpty()) {
+            if (!current.isEmpty()) {
+                long wait = current.firstAppendAt() + flushInterval - System.currentTimeMillis();
+                if (closed || wait <= 0) {
+                    enqueueCurrent();
+                    break;
+                }
+
+                awaitUninterruptibly(notEmpty, wait);
+            } else if (closed) {
+                return null;
+            } else {
+                notEmpty.awaitUninterruptibly();
+            }
+        }
+
+        LogBatch batch = queue.poll();
+        notFull.signalAll();
+        return batch;
+    }
+
+    private void send(LogBatch batch) {
+        boolean sent = true;
+        try {
+            if (batch.length() > 0) {
+                sent = appendWithRetry(batch);
+            }
+
+            for (Map.Entry<Long, LogSegmentStats> e : batch.stats().entrySet()) {
+                delegate.updateSegment(instanceId, e.getKey(), e.getValue());
+            }
+        } finally {
+            lock.lock();
+            try {
+                queuedBytes -= batch.dataSize();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long lag = System.currentTimeMillis() - batch.firstAppendAt();
+
+        lock.lock();
+        try {
+            maxLag = Math.max(maxLag, lag);
+            if (sent) {
+                batchesSent++;
+                bytesSent += batch.dataSize();
+            } else {
+                bytesLost += batch.dataSize();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!sent) {
+            log.error("send ['{}'] -> the log wasn't accepted after {} attempt(s), {} byte(s) lost", instanceId, MAX_SEND_ATTEMPTS, batch.dataSize());
+        }
+
+        if (lag > flushInterval + LAG_WARN_THRESHOLD) {
+            log.warn("send ['{}'] -> the log is delayed by {}ms, {} byte(s) queued", instanceId, lag, getQueuedBytes());
+        }
+    }
+
+    /**
+     * @return {@code false} if the batch wasn't accepted after all attempts.
+     */
+    private boolean appendWithRetry(LogBatch batch) {
+        long delay = retryDelay;
+        for (int attempt = 1; ; attempt++) {
+            if (delegate.appendLog(instanceId, batch)) {
+                return true;
+            }
+
+            if (attempt >= MAX_SEND_ATTEMPTS) {
+                return false;
+            }
+
+            log.warn("appendWithRetry ['{}'] -> the log wasn't accepted, retrying in {}ms ({}/{})", instanceId, delay, attempt, MAX_SEND_ATTEMPTS);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            delay *= 2;
+        }
+    }
+
+    private void ensureStarted() {
+        // the thread is started on the first append, so there's nothing to stop if the log is never used
+        if (!closed && thread.getState() == Thread.State.NEW) {
+            thread.start();
+        }
+    }
+
+    private void enqueueCurrent() {
+        queue.add(current);
+        current = newBatch();
+        notEmpty.signalAll();
+    }
+
+    private void awaitNotFull() {
+        while (queue.size() >= maxQueuedBatches && !closed) {
+            notFull.awaitUninterruptibly();
+        }
+    }
+
+    private LogBatch newBatch() {
+        return new LogBatch(Math.min(batchSize, MAX_INITIAL_BATCH_CAPACITY));
+    }
+
+    private void assertInstanceId(UUID instanceId) {
+        if (!this.instanceId.equals(instanceId)) {
+            throw new IllegalArgumentException("Unexpected instance ID: " + instanceId + ", expected: " + this.instanceId);
+        }
+    }
+
+    private static void awaitUninterruptibly(Condition c, long millis) {
+        try {
+            c.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -33,12 +33,18 @@ public class ProcessLogFactory {
 
     private final Path logDir;
     private final long logStreamMaxDelay;
+    private final int logBatchSize;
+    private final long logBatchFlushInterval;
+    private final int logMaxQueuedBatches;
     private final LogAppender logAppender;
 
     @Inject
     public ProcessLogFactory(AgentConfiguration cfg, LogAppender logAppender) {
         this.logDir = cfg.getLogDir();
         this.logStreamMaxDelay = cfg.getLogMaxDelay();
+        this.logBatchSize = cfg.getLogBatchSize();
+        this.logBatchFlushInterval = cfg.getLogBatchFlushInterval();
+        this.logMaxQueuedBatches = cfg.getLogMaxQueuedBatches();
         this.logAppender = logAppender;
     }
 
@@ -49,7 +55,10 @@ public class ProcessLogFactory {
         }
 
         Consumer<RedirectedProcessLog.Chunk> logConsumer;
-        if (segmented) {
+        if (segmented && logBatchSize > 0) {
+            LogShipper shipper = new LogShipper(instanceId, logAppender, logBatchSize, logBatchFlushInterval, logMaxQueuedBatches);
+            return new RedirectedProcessLog(dst, logStreamMaxDelay, new SegmentedLogsConsumer(instanceId, shipper), shipper);
+        } else if (segmented) {
             logConsumer = new SegmentedLogsConsumer(instanceId, logAppender);
         } else {
             logConsumer = chunk -> {
@@ -37,15 +37,31 @@ public class RedirectedProcessLog implements ProcessLog {
     protected final long logSteamMaxDelay;
     private final LocalProcessLog localLog;
     private final Consumer<Chunk> consumer;
+    private final AutoCloseable sink;
 
     public RedirectedProcessLog(Path baseDir, long logSteamMaxDelay, Consumer<Chunk> consumer) throws IOException {
+        this(baseDir, logSteamMaxDelay, consumer, null);
+    }
+
+    /**
+     * @param sink if specified, closed after the log streaming is finished.
+     *             Typically, used to flush the data buffered by the consumer.
+     */
+    public RedirectedProcessLog(Path baseDir, long logSteamMaxDelay, Consumer<Chunk> consumer, AutoCloseable sink) throws IOException {
         this.localLog = new LocalProcessLog(baseDir);
         this.logSteamMaxDelay = logSteamMaxDelay;
         this.consumer = consumer;
+        this.sink = sink;
     }
 
     public void run(Supplier<Boolean> stopCondition) throws Exception {
-        streamLog(localLog.logFile(), stopCondition, logSteamMaxDelay, consumer);
+        try {
+            streamLog(localLog.logFile(), stopCondition, logSteamMaxDelay, consumer);
+        } finally {
+            if (sink != null) {
+                sink.close();
+            }
+        }
     }
 
     @Override
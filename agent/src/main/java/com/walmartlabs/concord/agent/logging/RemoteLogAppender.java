@@ -37,6 +37,8 @@ public class RemoteLogAppender implements LogAppender {
     private final ProcessApi processApi;
     private final ProcessLogV2Api processLogV2Api;
 
+    private volatile boolean batchSupported = true;
+
     @Inject
     public RemoteLogAppender(ApiClient apiClient) {
         this.processApi = new ProcessApi(apiClient);
@@ -58,13 +60,48 @@ public class RemoteLogAppender implements LogAppender {
 
     @Override
     public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+        return appendLog(instanceId, segmentId, ab, 0, ab.length);
+    }
+
+    @Override
+    public boolean appendLog(UUID instanceId, long segmentId, byte[] ab, int off, int len) {
+        try {
+            ClientUtils.withRetry(AgentConstants.API_CALL_MAX_RETRIES, AgentConstants.API_CALL_RETRY_DELAY, () -> {
+                processLogV2Api.appendProcessLogSegment(instanceId, segmentId, new ByteArrayInputStream(ab, off, len));
+                return null;
+            });
+            return true;
+        } catch (ApiException e) {
+            log.warn("appendLog ['{}'] -> error: {}", instanceId, e.getMessage());
+
+            return e.getCode() >= 400 && e.getCode() < 500;
+        }
+    }
+
+    @Override
+    public boolean appendLog(UUID instanceId, LogBatch batch) {
+        // a partially sent batch can only be resumed frame by frame
+        if (!batchSupported || batch.isPartiallySent()) {
+            return LogAppender.super.appendLog(instanceId, batch);
+        }
+
         try {
             ClientUtils.withRetry(AgentConstants.API_CALL_MAX_RETRIES, AgentConstants.API_CALL_RETRY_DELAY, () -> {
-                processLogV2Api.appendProcessLogSegment(instanceId, segmentId, new ByteArrayInputStream(ab));
+                processLogV2Api.appendProcessLogSegmentBatch(instanceId, new ByteArrayInputStream(batch.bytes(), 0, batch.length()));
                 return null;
             });
             return true;
         } catch (ApiException e) {
+            if (e.getCode() == 404 || e.getCode() == 405 || e.getCode() == 415) {
+                // older servers don't have the batch endpoint, depending on the server
+                // the response is either 404 (which can also mean a missing process) or 405/415
+                if (e.getCode() != 404) {
+                    log.warn("appendLog ['{}'] -> batches are not supported by the server, falling back to per-segment requests", instanceId);
+                    batchSupported = false;
+                }
+                return LogAppender.super.appendLog(instanceId, batch);
+            }
+
             log.warn("appendLog ['{}'] -> error: {}", instanceId, e.getMessage());
 
             return e.getCode() >= 400 && e.getCode() < 500;
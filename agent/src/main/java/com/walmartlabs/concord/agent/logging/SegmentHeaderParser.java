@@ -21,81 +21,93 @@ package com.walmartlabs.concord.agent.logging;
  */
 
 import com.walmartlabs.concord.runtime.common.logger.ImmutableLogSegmentHeader;
-import com.walmartlabs.concord.runtime.common.logger.LogSegmentDeserializer;
 import com.walmartlabs.concord.runtime.common.logger.LogSegmentHeader;
+import com.walmartlabs.concord.runtime.common.logger.LogSegmentStatus;
 import org.immutables.value.Value;
 
-import java.nio.ByteBuffer;
 import java.util.List;
 
 public class SegmentHeaderParser {
 
-    private static final int MAX_FIELD_BYTES = String.valueOf(Long.MAX_VALUE).getBytes().length;
-
     // msgLength|segmentId|status|warnings|errors|msg
 
     public static int parse(byte[] ab, List<Segment> segments, List<Position> invalidSegments) {
+        return parse(ab, 0, ab.length, segments, invalidSegments);
+    }
+
+    /**
+     * Parses {@code len} bytes of {@code ab} starting at {@code off}.
+     * The returned positions are absolute, i.e. relative to the start of the array.
+     *
+     * @return the position of the first unparsed byte
+     */
+    public static int parse(byte[] ab, int off, int len, List<Segment> segments, List<Position> invalidSegments) {
         Field field = Field.MSG_LENGTH;
-        StringBuilder fieldData = new StringBuilder();
+        long fieldValue = 0;
+        int fieldDigits = 0;
         int mark = -1;
         ImmutableLogSegmentHeader.Builder headerBuilder = LogSegmentHeader.builder();
 
+        int end = off + len;
+        int pos = off;
+
         boolean continueParse = true;
         State state = State.FIND_HEADER;
-        ByteBuffer bb = ByteBuffer.wrap(ab);
         while (continueParse) {
             switch (state) {
                 case FIND_HEADER: {
-                    if (bb.remaining() <= 0) {
+                    if (pos >= end) {
                         continueParse = false;
                         break;
                     }
 
-                    char ch = (char) bb.get();
+                    byte ch = ab[pos++];
                     if (ch == '|') {
                         if (mark != -1) {
-                            invalidSegments.add(Position.of(mark, bb.position() - 1));
+                            invalidSegments.add(Position.of(mark, pos - 1));
                         }
 
-                        mark = bb.position() - 1;
+                        mark = pos - 1;
                         state = State.FIELD_DATA;
                     } else {
                         if (mark == -1) {
-                            mark = bb.position() - 1;
+                            mark = pos - 1;
                         }
                     }
                     break;
                 }
                 case FIELD_DATA: {
-                    if (bb.remaining() <= 0) {
+                    if (pos >= end) {
                         continueParse = false;
                         break;
                     }
 
-                    char ch = (char)bb.get();
+                    byte ch = ab[pos++];
                     if (ch == '|') {
                         state = State.END_FIELD;
                         break;
                     }
 
-                    if (fieldData.length() > MAX_FIELD_BYTES || !Character.isDigit(ch)) {
+                    int digit = ch - '0';
+                    if (digit < 0 || digit > 9 || fieldValue > (Long.MAX_VALUE - digit) / 10) {
                         // reset
-                        fieldData.setLength(0);
+                        fieldValue = 0;
+                        fieldDigits = 0;
                         field = Field.MSG_LENGTH;
                         state = State.FIND_HEADER;
                         break;
                     }
 
-                    fieldData.append(ch);
+                    fieldValue = fieldValue * 10 + digit;
+                    fieldDigits++;
                     break;
                 }
                 case END_FIELD: {
-                    String fieldValue = fieldData.toString();
-                    if (fieldData.isEmpty()) {
+                    if (fieldDigits == 0) {
                         // reset
                         field = Field.MSG_LENGTH;
                         state = State.FIND_HEADER;
-                        bb.position(bb.position() - 1);
+                        pos--;
                         break;
                     }
 
@@ -104,10 +116,10 @@ public class SegmentHeaderParser {
                     field = field.next();
                     if (field == null) {
                         LogSegmentHeader h = headerBuilder.build();
-                        segments.add(Segment.of(h, bb.position()));
+                        segments.add(Segment.of(h, pos));
 
-                        int actualLength = Math.min(h.length(), bb.remaining());
-                        bb.position(bb.position() + actualLength);
+                        int actualLength = Math.min(h.length(), end - pos);
+                        pos += actualLength;
 
                         // reset
                         field = Field.MSG_LENGTH;
@@ -118,7 +130,8 @@ public class SegmentHeaderParser {
                         state = State.FIELD_DATA;
                     }
 
-                    fieldData.setLength(0);
+                    fieldValue = 0;
+                    fieldDigits = 0;
 
                     break;
                 }
@@ -128,13 +141,13 @@ public class SegmentHeaderParser {
         int result;
         if (mark != -1) {
             if (state == State.FIND_HEADER) {
-                invalidSegments.add(Position.of(mark, bb.position()));
-                result = bb.position();
+                invalidSegments.add(Position.of(mark, pos));
+                result = pos;
             } else {
                 result = mark;
             }
         } else {
-            result = bb.position();
+            result = pos;
         }
 
         return result;
@@ -184,8 +197,8 @@ public class SegmentHeaderParser {
             }
 
             @Override
-            public void process(String fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
-                headerBuilder.length(Integer.parseInt(fieldValue));
+            public void process(long fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
+                headerBuilder.length(Math.toIntExact(fieldValue));
             }
         },
 
@@ -196,8 +209,8 @@ public class SegmentHeaderParser {
             }
 
             @Override
-            public void process(String fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
-                headerBuilder.segmentId(Long.parseLong(fieldValue));
+            public void process(long fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
+                headerBuilder.segmentId(fieldValue);
             }
         },
 
@@ -208,8 +221,8 @@ public class SegmentHeaderParser {
             }
 
             @Override
-            public void process(String fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
-                headerBuilder.status(LogSegmentDeserializer.deserializeStatus(fieldValue));
+            public void process(long fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
+                headerBuilder.status(LogSegmentStatus.fromId(Math.toIntExact(fieldValue)));
             }
         },
 
@@ -220,8 +233,8 @@ public class SegmentHeaderParser {
             }
 
             @Override
-            public void process(String fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
-                headerBuilder.warnCount(Integer.parseInt(fieldValue));
+            public void process(long fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
+                headerBuilder.warnCount(Math.toIntExact(fieldValue));
             }
         },
 
@@ -232,13 +245,13 @@ public class SegmentHeaderParser {
             }
 
             @Override
-            public void process(String fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
-                headerBuilder.errorCount(Integer.parseInt(fieldValue));
+            public void process(long fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder) {
+                headerBuilder.errorCount(Math.toIntExact(fieldValue));
             }
         };
 
         public abstract Field next();
 
-        public abstract void process(String fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder);
+        public abstract void process(long fieldValue, ImmutableLogSegmentHeader.Builder headerBuilder);
     }
 }
@@ -30,14 +30,36 @@ import java.util.function.Consumer;
 import static com.walmartlabs.concord.agent.logging.SegmentHeaderParser.Position;
 import static com.walmartlabs.concord.agent.logging.SegmentHeaderParser.Segment;
 
+/**
+ * Splits the process log into segments and sends them using the specified {@link LogAppender}.
+ * <p>
+ * The messages are passed to the appender as slices of the incoming chunks whenever
+ * possible. The data is copied only when a segment's header or message spans
+ * multiple chunks or when the chunk contains multiple messages of the same segment.
+ * The buffers are reused between calls, the instances are not thread-safe.
+ */
 public class SegmentedLogsConsumer implements Consumer<RedirectedProcessLog.Chunk> {
 
-    private static final byte[] EMPTY = new byte[0];
+    private static final int INITIAL_BUFFER_SIZE = 8192;
 
     private final UUID instanceId;
     private final LogAppender logAppender;
 
-    private byte[] unparsed = EMPTY;
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Position> invalidSegments = new ArrayList<>();
+    private final List<Segment> sameIdSegments = new ArrayList<>();
+    private final BitSet processed = new BitSet();
+
+    /**
+     * Contains the unparsed tail of the previous chunk in [0, unparsedLength).
+     */
+    private byte[] unparsed = new byte[INITIAL_BUFFER_SIZE];
+    private int unparsedLength = 0;
+
+    /**
+     * Used to merge multiple messages of the same segment.
+     */
+    private byte[] mergeBuffer = new byte[INITIAL_BUFFER_SIZE];
 
     public SegmentedLogsConsumer(UUID instanceId, LogAppender logAppender) {
         this.instanceId = instanceId;
@@ -46,48 +68,100 @@ public class SegmentedLogsConsumer implements Consumer<RedirectedProcessLog.Chun
 
     @Override
     public void accept(RedirectedProcessLog.Chunk chunk) {
-        byte[] ab = new byte[unparsed.length + chunk.len()];
-        if (unparsed.length > 0) {
-            System.arraycopy(unparsed, 0, ab, 0, unparsed.length);
+        byte[] ab;
+        int end;
+        if (unparsedLength == 0) {
+            ab = chunk.bytes();
+            end = chunk.len();
+        } else {
+            unparsed = ensureCapacity(unparsed, unparsedLength, unparsedLength + chunk.len());
+            System.arraycopy(chunk.bytes(), 0, unparsed, unparsedLength, chunk.len());
+            ab = unparsed;
+            end = unparsedLength + chunk.len();
         }
-        System.arraycopy(chunk.bytes(), 0, ab, unparsed.length, chunk.len());
-        unparsed = EMPTY;
+        unparsedLength = 0;
 
-        List<Segment> segments = new ArrayList<>();
-        List<Position> invalidSegments = new ArrayList<>();
-        int pos = SegmentHeaderParser.parse(ab, segments, invalidSegments);
+        segments.clear();
+        invalidSegments.clear();
+        int pos = SegmentHeaderParser.parse(ab, 0, end, segments, invalidSegments);
 
         invalidSegmentsToSystemSegments(invalidSegments, segments);
-        Map<Long, List<Segment>> segmentsById = byId(segments);
-        for (Map.Entry<Long, List<Segment>> e : segmentsById.entrySet()) {
-            int buffLength = e.getValue().stream().mapToInt(h -> actualLength(h, ab.length)).sum();
-            byte[] segmentBuffer = new byte[buffLength];
-            fillBuffer(e.getValue(), ab, segmentBuffer);
-
-            if (segmentBuffer.length > 0) {
-                // TODO: retry?
-                logAppender.appendLog(instanceId, e.getKey(), segmentBuffer);
+
+        processed.clear();
+        for (int i = 0; i < segments.size(); i++) {
+            if (processed.get(i)) {
+                continue;
+            }
+
+            long segmentId = segments.get(i).header().segmentId();
+
+            sameIdSegments.clear();
+            for (int j = i; j < segments.size(); j++) {
+                if (segments.get(j).header().segmentId() == segmentId) {
+                    sameIdSegments.add(segments.get(j));
+                    processed.set(j);
+                }
             }
 
-            LogSegmentStats stats = findStats(e.getValue());
+            // TODO: retry?
+            appendLog(segmentId, sameIdSegments, ab, end);
+
+            LogSegmentStats stats = findStats(sameIdSegments);
             if (stats != null) {
-                logAppender.updateSegment(instanceId, e.getKey(), stats);
+                logAppender.updateSegment(instanceId, segmentId, stats);
             }
         }
 
-        Segment partialSegment = findPartialSegment(segments, ab.length);
+        Segment partialSegment = findPartialSegment(segments, end);
         if (partialSegment != null) {
-            unparsed = LogSegmentSerializer.serializeHeader(
-                    partialSegment.header(), partialSegment.header().length() - actualLength(partialSegment, ab.length));
+            byte[] header = LogSegmentSerializer.serializeHeader(
+                    partialSegment.header(), partialSegment.header().length() - actualLength(partialSegment, end));
+            unparsed = ensureCapacity(unparsed, 0, header.length);
+            System.arraycopy(header, 0, unparsed, 0, header.length);
+            unparsedLength = header.length;
         }
 
-        if (pos < ab.length) {
-            if (unparsed != EMPTY) {
+        if (pos < end) {
+            if (unparsedLength > 0) {
                 throw new RuntimeException("Unexpected partial segment and unparsed tail");
             }
 
-            unparsed = Arrays.copyOfRange(ab, pos, ab.length);
+            // the tail can overlap with the current data when ab == unparsed, arraycopy handles that
+            unparsed = ensureCapacity(unparsed, 0, end - pos);
+            System.arraycopy(ab, pos, unparsed, 0, end - pos);
+            unparsedLength = end - pos;
+        }
+    }
+
+    private void appendLog(long segmentId, List<Segment> segments, byte[] ab, int end) {
+        if (segments.size() == 1) {
+            Segment s = segments.get(0);
+            int len = actualLength(s, end);
+            if (len > 0) {
+                logAppender.appendLog(instanceId, segmentId, ab, s.msgStart(), len);
+            }
+            return;
+        }
+
+        int len = 0;
+        for (Segment s : segments) {
+            len += actualLength(s, end);
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        mergeBuffer = ensureCapacity(mergeBuffer, 0, len);
+
+        int i = 0;
+        for (Segment s : segments) {
+            int l = actualLength(s, end);
+            System.arraycopy(ab, s.msgStart(), mergeBuffer, i, l);
+            i += l;
         }
+
+        logAppender.appendLog(instanceId, segmentId, mergeBuffer, 0, len);
     }
 
     private void invalidSegmentsToSystemSegments(List<Position> invalidSegments, List<Segment> segments) {
@@ -107,23 +181,14 @@ public class SegmentedLogsConsumer implements Consumer<RedirectedProcessLog.Chun
         return Math.min(chunkLength - segment.msgStart(), segment.header().length());
     }
 
-    private static Map<Long, List<Segment>> byId(List<Segment> segments) {
-        Map<Long, List<Segment>> result = new HashMap<>();
-        for (Segment s : segments) {
-            result.computeIfAbsent(s.header().segmentId(), id -> new ArrayList<>())
-                    .add(s);
+    private static byte[] ensureCapacity(byte[] ab, int keep, int capacity) {
+        if (ab.length >= capacity) {
+            return ab;
         }
-        return result;
-    }
 
-    private static void fillBuffer(List<Segment> segments, byte[] from, byte[] to) {
-        int i = 0;
-        for (Segment s : segments) {
-            int actualLength = actualLength(s, from.length);
-            for (int j = 0; j < actualLength; j++) {
-                to[i++] = from[j + s.msgStart()];
-            }
-        }
+        byte[] result = new byte[Math.max(capacity, ab.length * 2)];
+        System.arraycopy(ab, 0, result, 0, keep);
+        return result;
     }
 
     private static Segment findPartialSegment(List<Segment> segments, int chunkLength) {
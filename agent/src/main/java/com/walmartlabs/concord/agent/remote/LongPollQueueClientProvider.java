@@ -0,0 +1,60 @@
+package com.walmartlabs.concord.agent.remote;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agent.cfg.AgentConfiguration;
+import com.walmartlabs.concord.agent.cfg.ServerConfiguration;
+import com.walmartlabs.concord.server.queueclient.LongPollQueueClient;
+import com.walmartlabs.concord.server.queueclient.QueueClientConfiguration;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+public class LongPollQueueClientProvider implements Provider<LongPollQueueClient> {
+
+    private final AgentConfiguration agentCfg;
+    private final ServerConfiguration serverCfg;
+
+    @Inject
+    public LongPollQueueClientProvider(AgentConfiguration agentCfg, ServerConfiguration serverCfg) {
+        this.agentCfg = agentCfg;
+        this.serverCfg = serverCfg;
+    }
+
+    @Override
+    public LongPollQueueClient get() {
+        LongPollQueueClient client = new LongPollQueueClient(new QueueClientConfiguration.Builder(new String[]{serverCfg.getApiBaseUrl()})
+                .agentId(agentCfg.getAgentId())
+                .apiKey(serverCfg.getApiKey())
+                .userAgent(serverCfg.getUserAgent())
+                .connectTimeout(serverCfg.getConnectTimeout())
+                .pollTimeout(serverCfg.getLongPollTimeout())
+                .build());
+
+        try {
+            client.start();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        return client;
+    }
+}
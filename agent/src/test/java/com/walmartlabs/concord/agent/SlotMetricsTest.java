@@ -0,0 +1,66 @@
+package com.walmartlabs.concord.agent;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SlotMetricsTest {
+
+    @Test
+    public void testIdleTime() {
+        AtomicLong clock = new AtomicLong();
+        SlotMetrics m = new SlotMetrics(3, clock::get);
+
+        // three idle slots for 1s
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        m.onSlotsUsed(2);
+        assertEquals(1, m.getIdleSlots());
+        assertEquals(3000, m.getIdleTime(TimeUnit.MILLISECONDS));
+
+        // one idle slot for 2s, the currently idle slots are included
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(5000, m.getIdleTime(TimeUnit.MILLISECONDS));
+
+        m.onSlotsUsed(1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, m.getIdleSlots());
+        assertEquals(5000, m.getIdleTime(TimeUnit.MILLISECONDS));
+
+        m.onSlotsReleased(1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(6000, m.getIdleTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAcquisitions() {
+        SlotMetrics m = new SlotMetrics(2, () -> 0);
+        m.onAcquired(2, TimeUnit.MILLISECONDS.toNanos(100));
+        m.onAcquired(0, TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertEquals(2, m.getAcquiredProcesses());
+        assertEquals("idleSlots=2, idleTime=0ms, acquisitions=2, acquiredProcesses=2, avgAcquireTime=200ms, maxAcquireTime=300ms", m.toString());
+    }
+}
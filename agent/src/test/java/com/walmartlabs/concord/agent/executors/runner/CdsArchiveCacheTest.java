@@ -0,0 +1,130 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.HashCode;
+import com.walmartlabs.concord.agent.cfg.CdsConfiguration;
+import com.walmartlabs.concord.agent.executors.runner.CdsArchiveCache.Archive;
+import com.walmartlabs.concord.agent.executors.runner.CdsArchiveCache.Mode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CdsArchiveCacheTest {
+
+    private static final HashCode A = HashCode.fromInt(1);
+    private static final HashCode B = HashCode.fromInt(2);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCreateAndUse() throws Exception {
+        CdsArchiveCache cache = new CdsArchiveCache(cfg(10));
+
+        Archive a = cache.get(A, 17, Collections.emptyList());
+        assertEquals(Mode.CREATE, a.getMode());
+
+        // only one process creates the archive
+        assertNull(cache.get(A, 17, Collections.emptyList()));
+
+        createArchive(cache, a);
+
+        Archive b = cache.get(A, 17, Collections.emptyList());
+        assertEquals(Mode.USE, b.getMode());
+        assertTrue(b.getJvmParams().get(0).startsWith("-XX:SharedArchiveFile="));
+    }
+
+    @Test
+    public void testFailedStart() {
+        CdsArchiveCache cache = new CdsArchiveCache(cfg(10));
+
+        Archive a = cache.get(A, 17, Collections.emptyList());
+        cache.onStartFailed(a);
+
+        // the next process can try again
+        assertEquals(Mode.CREATE, cache.get(A, 17, Collections.emptyList()).getMode());
+    }
+
+    @Test
+    public void testUnsupported() {
+        CdsArchiveCache cache = new CdsArchiveCache(cfg(10));
+
+        assertNull(cache.get(A, 11, Collections.emptyList()));
+        assertNull(cache.get(A, 17, Collections.singletonList("-Xshare:off")));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        CdsArchiveCache cache = new CdsArchiveCache(cfg(1));
+
+        createArchive(cache, cache.get(A, 17, Collections.emptyList()));
+        Files.setLastModifiedTime(tempDir.resolve(A + ".jsa"), FileTime.fromMillis(0));
+
+        createArchive(cache, cache.get(B, 17, Collections.emptyList()));
+
+        // the eviction runs after the new archive is moved into place
+        Path a = tempDir.resolve(A + ".jsa");
+        for (int i = 0; i < 500 && Files.exists(a); i++) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(Files.exists(a));
+        assertTrue(Files.exists(tempDir.resolve(B + ".jsa")));
+    }
+
+    private CdsConfiguration cfg(int maxArchives) {
+        CdsConfiguration cfg = mock(CdsConfiguration.class);
+        when(cfg.isEnabled()).thenReturn(true);
+        when(cfg.getDir()).thenReturn(tempDir);
+        when(cfg.getMaxArchives()).thenReturn(maxArchives);
+        return cfg;
+    }
+
+    /**
+     * Simulates a JVM that writes the archive on exit.
+     */
+    private static void createArchive(CdsArchiveCache cache, Archive archive) throws Exception {
+        List<String> params = archive.getJvmParams();
+        Path p = Paths.get(params.get(0).substring("-XX:ArchiveClassesAtExit=".length()));
+        Files.write(p, new byte[]{1, 2, 3});
+
+        Process proc = new ProcessBuilder("true").start();
+        cache.onStart(archive, proc);
+        proc.waitFor();
+
+        Path dst = p.getParent().resolve(p.getFileName().toString().split("\\.")[0] + ".jsa");
+        for (int i = 0; i < 500 && !Files.exists(dst); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(dst));
+    }
+}
@@ -0,0 +1,226 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agent.logging.LogAppender;
+import com.walmartlabs.concord.agent.logging.LogBatch;
+import com.walmartlabs.concord.agent.logging.LogSegmentStats;
+import com.walmartlabs.concord.agent.logging.LogShipper;
+import com.walmartlabs.concord.runtime.common.logger.LogSegmentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogShipperTest {
+
+    private final UUID instanceId = UUID.randomUUID();
+
+    @Test
+    public void testBatching() throws Exception {
+        RecordingAppender appender = new RecordingAppender();
+
+        LogShipper shipper = new LogShipper(instanceId, appender, 1024, TimeUnit.MINUTES.toMillis(1), 4);
+        shipper.appendLog(instanceId, 1, "hello ".getBytes(), 0, 6);
+        shipper.appendLog(instanceId, 1, "xworld".getBytes(), 1, 5);
+        shipper.appendLog(instanceId, 2, "bye".getBytes());
+        shipper.updateSegment(instanceId, 1, LogSegmentStats.builder().warnings(1).build());
+        shipper.updateSegment(instanceId, 1, LogSegmentStats.builder().status(LogSegmentStatus.OK).build());
+        shipper.close();
+
+        assertEquals(List.of("1:hello world", "2:bye", "stats 1:OK/1"), appender.calls);
+        assertEquals(1, appender.batches);
+        assertEquals(0, shipper.getQueuedBytes());
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        RecordingAppender appender = new RecordingAppender();
+
+        LogShipper shipper = new LogShipper(instanceId, appender, 1024, 100, 4);
+        shipper.appendLog(instanceId, 1, "hello".getBytes());
+
+        long t1 = System.currentTimeMillis();
+        while (appender.calls.isEmpty() && System.currentTimeMillis() - t1 < 5000) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of("1:hello"), appender.calls);
+
+        shipper.close();
+        assertEquals(1, appender.batches);
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender appender = new RecordingAppender() {
+            @Override
+            public boolean appendLog(UUID instanceId, LogBatch batch) {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.appendLog(instanceId, batch);
+            }
+        };
+
+        // every append completes a batch, the first one is stuck in the appender,
+        // the second one is queued, the third one must wait
+        LogShipper shipper = new LogShipper(instanceId, appender, 1, TimeUnit.MINUTES.toMillis(1), 1);
+        shipper.appendLog(instanceId, 1, "a".getBytes());
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        shipper.appendLog(instanceId, 1, "b".getBytes());
+
+        CompletableFuture<Void> f = CompletableFuture.runAsync(() -> shipper.appendLog(instanceId, 1, "c".getBytes()));
+        Thread.sleep(200);
+        assertFalse(f.isDone());
+        assertEquals(2, shipper.getQueuedBytes());
+
+        release.countDown();
+        f.get(5, TimeUnit.SECONDS);
+        shipper.close();
+
+        assertEquals(List.of("1:a", "1:b", "1:c"), appender.calls);
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        RecordingAppender appender = new RecordingAppender() {
+            @Override
+            public boolean appendLog(UUID instanceId, LogBatch batch) {
+                // the first attempt fails
+                if (attempts.incrementAndGet() == 1) {
+                    return false;
+                }
+                return super.appendLog(instanceId, batch);
+            }
+        };
+
+        LogShipper shipper = new LogShipper(instanceId, appender, 1024, TimeUnit.MINUTES.toMillis(1), 4, 10);
+        shipper.appendLog(instanceId, 1, "hello".getBytes());
+        shipper.close();
+
+        assertEquals(2, attempts.get());
+        assertEquals(List.of("1:hello"), appender.calls);
+        assertEquals(0, shipper.getQueuedBytes());
+    }
+
+    @Test
+    public void testRetryFromFailedFrame() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        RecordingAppender appender = new RecordingAppender() {
+            @Override
+            public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+                // the first attempt to send the second frame fails
+                if (segmentId == 2 && attempts.incrementAndGet() == 1) {
+                    return false;
+                }
+                return super.appendLog(instanceId, segmentId, ab);
+            }
+        };
+
+        LogShipper shipper = new LogShipper(instanceId, appender, 1024, TimeUnit.MINUTES.toMillis(1), 4, 10);
+        shipper.appendLog(instanceId, 1, "a".getBytes());
+        shipper.appendLog(instanceId, 2, "b".getBytes());
+        shipper.appendLog(instanceId, 3, "c".getBytes());
+        shipper.close();
+
+        // the frames sent before the failure are not sent again
+        assertEquals(2, appender.batches);
+        assertEquals(List.of("1:a", "2:b", "3:c"), appender.calls);
+        assertEquals(0, shipper.getQueuedBytes());
+    }
+
+    @Test
+    public void testGiveUp() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        RecordingAppender appender = new RecordingAppender() {
+            @Override
+            public boolean appendLog(UUID instanceId, LogBatch batch) {
+                attempts.incrementAndGet();
+                return false;
+            }
+        };
+
+        LogShipper shipper = new LogShipper(instanceId, appender, 1024, TimeUnit.MINUTES.toMillis(1), 4, 10);
+        shipper.appendLog(instanceId, 1, "hello".getBytes());
+        shipper.updateSegment(instanceId, 1, LogSegmentStats.builder().status(LogSegmentStatus.OK).build());
+        shipper.close();
+
+        // the segment's status is still updated
+        assertEquals(3, attempts.get());
+        assertEquals(List.of("stats 1:OK/null"), appender.calls);
+        assertEquals(0, shipper.getQueuedBytes());
+    }
+
+    @Test
+    public void testUnusedShipper() throws Exception {
+        RecordingAppender appender = new RecordingAppender();
+
+        LogShipper shipper = new LogShipper(instanceId, appender, 1024, 100, 4);
+        shipper.close();
+
+        assertTrue(appender.calls.isEmpty());
+    }
+
+    private static class RecordingAppender implements LogAppender {
+
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        private volatile int batches;
+
+        @Override
+        public void appendLog(UUID instanceId, byte[] ab) {
+            throw new IllegalStateException("Unexpected call");
+        }
+
+        @Override
+        public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+            calls.add(segmentId + ":" + new String(ab));
+            return true;
+        }
+
+        @Override
+        public boolean appendLog(UUID instanceId, LogBatch batch) {
+            batches++;
+            return LogAppender.super.appendLog(instanceId, batch);
+        }
+
+        @Override
+        public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+            calls.add("stats " + segmentId + ":" + stats.status() + "/" + stats.warnings());
+            return true;
+        }
+    }
+}
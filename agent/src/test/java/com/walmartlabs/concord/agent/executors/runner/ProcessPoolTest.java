@@ -0,0 +1,147 @@
+package com.walmartlabs.concord.agent.executors.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.HashCode;
+import com.walmartlabs.concord.agent.executors.runner.ProcessPool.ProcessEntry;
+import com.walmartlabs.concord.agent.executors.runner.ProcessPool.ProcessLauncher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessPoolTest {
+
+    private static final HashCode A = HashCode.fromInt(1);
+    private static final HashCode B = HashCode.fromInt(2);
+    private static final HashCode C = HashCode.fromInt(3);
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Process> processes = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        synchronized (processes) {
+            processes.forEach(Process::destroyForcibly);
+        }
+    }
+
+    @Test
+    public void testHitAfterMiss() throws Exception {
+        ProcessPool pool = new ProcessPool(60000, 3, executor);
+
+        ProcessEntry first = pool.take(A, launcher());
+        await(() -> pool.getIdleCount(A) == 1);
+
+        ProcessEntry second = pool.take(A, launcher());
+        assertNotSame(first, second);
+
+        assertEquals(1, pool.getStats().getHits());
+        assertEquals(1, pool.getStats().getMisses());
+    }
+
+    @Test
+    public void testWarmTargetFollowsDemand() throws Exception {
+        ProcessPool pool = new ProcessPool(60000, 5, executor);
+
+        for (int i = 0; i < 3; i++) {
+            pool.take(A, launcher());
+        }
+        await(() -> pool.getIdleCount(A) == 3);
+
+        // the pool's limit applies
+        for (int i = 0; i < 10; i++) {
+            pool.take(A, launcher());
+        }
+        await(() -> pool.getIdleCount(A) == 5);
+    }
+
+    @Test
+    public void testEvictsOldest() throws Exception {
+        ProcessPool pool = new ProcessPool(60000, 2, executor);
+
+        pool.take(A, launcher());
+        await(() -> pool.getIdleCount(A) == 1);
+
+        pool.take(B, launcher());
+        await(() -> pool.getIdleCount(B) == 1);
+
+        pool.take(C, launcher());
+        await(() -> pool.getIdleCount(C) == 1);
+
+        assertEquals(0, pool.getIdleCount(A));
+        assertEquals(1, pool.getIdleCount(B));
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        ProcessPool pool = new ProcessPool(0, 2, executor);
+
+        pool.take(A, launcher());
+        await(() -> pool.getIdleCount(A) == 1);
+
+        // the spare is too old, the demand is still high enough to start a new one
+        pool.maintenance();
+        await(() -> pool.getIdleCount(A) == 1);
+
+        // no new starts, the demand goes down
+        pool.maintenance();
+        pool.maintenance();
+        Thread.sleep(200);
+        assertEquals(0, pool.getIdleCount(A));
+    }
+
+    private ProcessLauncher launcher() {
+        return () -> {
+            Process p = new ProcessBuilder("sleep", "60").start();
+            synchronized (processes) {
+                processes.add(p);
+            }
+            return new ProcessEntry(p, Files.createTempDirectory(tempDir, "workDir"));
+        };
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timeout waiting for the condition");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
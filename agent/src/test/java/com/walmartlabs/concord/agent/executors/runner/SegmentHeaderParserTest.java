@@ -207,6 +207,24 @@ public class SegmentHeaderParserTest {
         assertEquals(LogSegmentStatus.OK, s.header().status());
     }
 
+    /**
+     * in: xx|5|2|1|1|2|hello|3|1|1|1|2|byeyy, parsing only the part between xx and yy
+     */
+    @Test
+    public void testParseWithOffset() {
+        byte[] ab = Bytes.concat("xx".getBytes(), bb(2, "hello"), bb(1, "bye"), "yy".getBytes());
+
+        List<Segment> segments = new ArrayList<>();
+        List<Position> invalidSegments = new ArrayList<>();
+        int result = SegmentHeaderParser.parse(ab, 2, ab.length - 4, segments, invalidSegments);
+
+        assertEquals(ab.length - 2, result);
+        assertEquals(2, segments.size());
+        assertEquals("hello", msg(ab, segments.get(0)));
+        assertEquals("bye", new String(ab, segments.get(1).msgStart(), segments.get(1).header().length()));
+        assertEquals(0, invalidSegments.size());
+    }
+
     private static String msg(byte[] ab, Segment segment) {
         int to = Math.min(ab.length, segment.msgStart() + segment.header().length());
         return new String(Arrays.copyOfRange(ab, segment.msgStart(), to));
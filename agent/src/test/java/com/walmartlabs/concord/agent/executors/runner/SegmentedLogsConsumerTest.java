@@ -30,10 +30,14 @@ import com.walmartlabs.concord.runtime.common.logger.LogSegmentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.walmartlabs.concord.agent.logging.RedirectedProcessLog.Chunk;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 public class SegmentedLogsConsumerTest {
@@ -43,7 +47,8 @@ public class SegmentedLogsConsumerTest {
 
     @BeforeEach
     public void init() {
-        this.logAppender = mock(LogAppender.class);
+        // the slice-based appendLog delegates to appendLog(UUID, long, byte[]) by default
+        this.logAppender = mock(LogAppender.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
         consumer = new SegmentedLogsConsumer(UUID.randomUUID(), logAppender);
     }
 
@@ -122,6 +127,7 @@ public class SegmentedLogsConsumerTest {
         consumer.accept(toChunk(ab));
 
         verify(logAppender, times(1)).appendLog(any(), eq(1L), eq(msg.getBytes()));
+        verify(logAppender, times(1)).appendLog(any(), anyLong(), any(), anyInt(), anyInt());
         verifyNoMoreInteractions(logAppender);
     }
 
@@ -143,9 +149,56 @@ public class SegmentedLogsConsumerTest {
         verify(logAppender, times(1)).appendLog(any(), eq(1L), eq(msg1.getBytes()));
         verify(logAppender, times(1)).appendLog(any(), eq(0L), eq("trash".getBytes()));
         verify(logAppender, times(1)).appendLog(any(), eq(2L), eq(msg2.getBytes()));
+        verify(logAppender, times(3)).appendLog(any(), anyLong(), any(), anyInt(), anyInt());
         verifyNoMoreInteractions(logAppender);
     }
 
+    /**
+     * in: |5|1|1|0|0|hello|3|2|1|0|0|bye123|6|1|1|0|0|world!|0|2|2|0|0|
+     * split into chunks of every possible size, the chunk buffer is reused like in RedirectedProcessLog
+     */
+    @Test
+    public void testSplitChunks() {
+        byte[] ab = Bytes.concat(bb(1, "hello", 0, 0), bb(2, "bye", 0, 0), "123".getBytes(),
+                bb(1, "world!", 0, 0), "|0|2|2|0|0|".getBytes());
+
+        for (int chunkSize = 1; chunkSize <= ab.length; chunkSize++) {
+            Map<Long, ByteArrayOutputStream> result = new HashMap<>();
+            LogAppender appender = new LogAppender() {
+                @Override
+                public void appendLog(UUID instanceId, byte[] ab) {
+                    throw new IllegalStateException("Unexpected call");
+                }
+
+                @Override
+                public boolean appendLog(UUID instanceId, long segmentId, byte[] ab) {
+                    result.computeIfAbsent(segmentId, id -> new ByteArrayOutputStream()).writeBytes(ab);
+                    return true;
+                }
+
+                @Override
+                public boolean updateSegment(UUID instanceId, long segmentId, LogSegmentStats stats) {
+                    return true;
+                }
+            };
+
+            SegmentedLogsConsumer c = new SegmentedLogsConsumer(UUID.randomUUID(), appender);
+            byte[] buf = new byte[chunkSize];
+            for (int i = 0; i < ab.length; i += chunkSize) {
+                int len = Math.min(chunkSize, ab.length - i);
+                Arrays.fill(buf, (byte) 0);
+                System.arraycopy(ab, i, buf, 0, len);
+                c.accept(new Chunk(buf, len) {
+                });
+            }
+
+            String msg = "chunkSize=" + chunkSize;
+            assertEquals("helloworld!", result.get(1L).toString(), msg);
+            assertEquals("bye", result.get(2L).toString(), msg);
+            assertEquals("123", result.get(0L).toString(), msg);
+        }
+    }
+
     private static Chunk toChunk(byte[] ab) {
         return new Chunk(ab, ab.length) {
         };
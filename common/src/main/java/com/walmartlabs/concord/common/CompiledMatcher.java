@@ -0,0 +1,320 @@
+package com.walmartlabs.concord.common;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Pre-compiled version of {@link Matcher} conditions.
+ * <p>
+ * The conditions tree (maps, collections, regex strings and plain values)
+ * is converted into a tree of immutable nodes once, so the regular expressions
+ * are compiled only once and can be reused across multiple {@link #matches(Object)}
+ * calls. Strings without any regex metacharacters are matched using
+ * a case-insensitive comparison without involving {@link Pattern}.
+ * <p>
+ * The matching rules are the same as in {@link Matcher#matches(Object, Object)}.
+ * The compiled matcher is thread-safe.
+ */
+public final class CompiledMatcher {
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    public static CompiledMatcher compile(Object conditions) {
+        return new CompiledMatcher(compileNode(conditions));
+    }
+
+    private final Node root;
+
+    private CompiledMatcher(Node root) {
+        this.root = root;
+    }
+
+    public boolean matches(Object data) {
+        return root.matches(data);
+    }
+
+    public boolean matchAny(Collection<?> data) {
+        return matchAny(root, data);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node compileNode(Object conditions) {
+        if (conditions == null) {
+            return NullNode.INSTANCE;
+        } else if (conditions instanceof Map) {
+            return new ObjectNode((Map<String, Object>) conditions);
+        } else if (conditions instanceof String) {
+            return compileString((String) conditions);
+        } else if (conditions instanceof Collection) {
+            return new ArrayNode((Collection<Object>) conditions);
+        } else {
+            return new ValueNode(conditions);
+        }
+    }
+
+    private static Node compileString(String condition) {
+        if (isLiteral(condition)) {
+            return new LiteralNode(condition);
+        }
+
+        try {
+            return new PatternNode(condition, Pattern.compile(condition, Pattern.CASE_INSENSITIVE));
+        } catch (PatternSyntaxException e) {
+            // keep the original behaviour: invalid patterns fail only when they are actually used
+            return new InvalidPatternNode(condition, e);
+        }
+    }
+
+    private static boolean isLiteral(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            // non-ASCII characters are left to Pattern to keep the exact case-insensitive semantics
+            if (c > 127 || REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchAny(Node condition, Collection<?> data) {
+        for (Object n : data) {
+            if (condition.matches(n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private interface Node {
+
+        boolean matches(Object data);
+    }
+
+    private enum NullNode implements Node {
+
+        INSTANCE;
+
+        @Override
+        public boolean matches(Object data) {
+            return data == null;
+        }
+    }
+
+    private static final class ObjectNode implements Node {
+
+        private final Map<String, Object> conditions;
+        private final List<Map.Entry<String, Node>> entries;
+
+        private ObjectNode(Map<String, Object> conditions) {
+            this.conditions = conditions;
+
+            List<Map.Entry<String, Node>> l = new ArrayList<>(conditions.size());
+            for (Map.Entry<String, Object> e : conditions.entrySet()) {
+                l.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), compileNode(e.getValue())));
+            }
+            this.entries = Collections.unmodifiableList(l);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean matches(Object data) {
+            if (data == null) {
+                return false;
+            }
+
+            if (data instanceof Map) {
+                Map<String, Object> m = (Map<String, Object>) data;
+                if (entries.isEmpty() && !m.isEmpty()) {
+                    return false;
+                }
+
+                for (Map.Entry<String, Node> e : entries) {
+                    if (!e.getValue().matches(m.get(e.getKey()))) {
+                        return false;
+                    }
+                }
+
+                return true;
+            } else if (data instanceof Collection) {
+                return matchAny(this, (Collection<?>) data);
+            }
+
+            return data.equals(conditions);
+        }
+    }
+
+    private abstract static class StringNode implements Node {
+
+        private final String condition;
+
+        protected StringNode(String condition) {
+            this.condition = condition;
+        }
+
+        protected abstract boolean matches(String value);
+
+        @Override
+        public boolean matches(Object data) {
+            if (data == null) {
+                return matches("");
+            } else if (data instanceof String) {
+                return matches((String) data);
+            } else if (data instanceof UUID) {
+                return matches(data.toString());
+            } else if (data instanceof Collection) {
+                return matchAny(this, (Collection<?>) data);
+            }
+
+            return data.equals(condition);
+        }
+    }
+
+    private static final class LiteralNode extends StringNode {
+
+        private final String literal;
+
+        private LiteralNode(String literal) {
+            super(literal);
+            this.literal = literal;
+        }
+
+        @Override
+        protected boolean matches(String value) {
+            if (value.length() != literal.length()) {
+                return false;
+            }
+
+            for (int i = 0; i < value.length(); i++) {
+                char a = value.charAt(i);
+                char b = literal.charAt(i);
+                if (a != b && (a > 127 || toLowerAscii(a) != toLowerAscii(b))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static char toLowerAscii(char c) {
+            if (c >= 'A' && c <= 'Z') {
+                return (char) (c + ('a' - 'A'));
+            }
+            return c;
+        }
+    }
+
+    private static final class PatternNode extends StringNode {
+
+        private final Pattern pattern;
+
+        private PatternNode(String condition, Pattern pattern) {
+            super(condition);
+            this.pattern = pattern;
+        }
+
+        @Override
+        protected boolean matches(String value) {
+            return pattern.matcher(value).matches();
+        }
+    }
+
+    private static final class InvalidPatternNode extends StringNode {
+
+        private final PatternSyntaxException error;
+
+        private InvalidPatternNode(String condition, PatternSyntaxException error) {
+            super(condition);
+            this.error = error;
+        }
+
+        @Override
+        protected boolean matches(String value) {
+            throw new PatternSyntaxException(error.getDescription(), error.getPattern(), error.getIndex());
+        }
+    }
+
+    private static final class ArrayNode implements Node {
+
+        private final List<Node> elements;
+
+        private ArrayNode(Collection<Object> conditions) {
+            List<Node> l = new ArrayList<>(conditions.size());
+            for (Object c : conditions) {
+                l.add(compileNode(c));
+            }
+            this.elements = Collections.unmodifiableList(l);
+        }
+
+        @Override
+        public boolean matches(Object data) {
+            if (data instanceof Collection) {
+                Collection<?> dataElements = (Collection<?>) data;
+                if (elements.size() > dataElements.size()) {
+                    return false;
+                }
+
+                if (elements.isEmpty() && !dataElements.isEmpty()) {
+                    return false;
+                }
+
+                for (Node c : elements) {
+                    if (!matchAny(c, dataElements)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+
+            // match any of the conditions, including the case when the data is null
+            for (Node c : elements) {
+                if (c.matches(data)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private static final class ValueNode implements Node {
+
+        private final Object value;
+
+        private ValueNode(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean matches(Object data) {
+            if (data == null) {
+                return false;
+            } else if (data instanceof Collection) {
+                return matchAny(this, (Collection<?>) data);
+            }
+
+            return data.equals(value);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.walmartlabs.concord.common;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.PatternSyntaxException;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledMatcherTest {
+
+    @Test
+    public void testSameAsMatcher() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("a", "a-value");
+        event.put("b", "B-Value");
+        event.put("c", 123);
+        event.put("d", null);
+        event.put("e", true);
+        event.put("f", asList("3", "1", "4", "2"));
+        event.put("g", UUID.fromString("c8f3b3a2-3b1a-4d4e-9f5e-0a8f2c7d9e10"));
+        event.put("obj", Collections.singletonMap("o1", "o1v1"));
+
+        List<Object> data = asList(null, "", "abc", "ABC", "a\u212Abc", 1, true, emptyMap(), emptyList(),
+                asList("one", "two"), event);
+
+        List<Object> conditions = asList(null, "", ".*", "abc", "aKbc", "on.*", "ono", 1, true,
+                emptyMap(), emptyList(), asList(null, emptyList()), asList(null, emptyList(), emptyMap()),
+                Collections.singletonMap("a", "a-v.*"),
+                Collections.singletonMap("b", "b-value"),
+                Collections.singletonMap("c", 123),
+                Collections.singletonMap("c", "123"),
+                Collections.singletonMap("d", null),
+                Collections.singletonMap("f", asList("1", "2")),
+                Collections.singletonMap("f", asList("1", "5")),
+                Collections.singletonMap("g", "C8F3.*"),
+                Collections.singletonMap("obj", Collections.singletonMap("o1", "o1v1")),
+                Collections.singletonMap("x", asList(true, false)));
+
+        for (Object c : conditions) {
+            CompiledMatcher m = CompiledMatcher.compile(c);
+            for (Object d : data) {
+                assertEquals(Matcher.matches(d, c), m.matches(d), () -> "data: " + d + ", conditions: " + c);
+            }
+        }
+    }
+
+    @Test
+    public void testMatchAny() {
+        CompiledMatcher m = CompiledMatcher.compile("on.*");
+        assertTrue(m.matchAny(asList("two", "one")));
+        assertFalse(m.matchAny(asList("two", "three")));
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        CompiledMatcher m = CompiledMatcher.compile(Collections.singletonMap("a", "(abc"));
+
+        // the pattern is not used
+        assertFalse(m.matches(Collections.singletonMap("a", 1)));
+
+        assertThrows(PatternSyntaxException.class, () -> m.matches(Collections.singletonMap("a", "abc")));
+    }
+}
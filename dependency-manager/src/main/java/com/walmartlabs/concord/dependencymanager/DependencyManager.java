@@ -62,7 +62,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.security.MessageDigest;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -76,11 +78,11 @@ public class DependencyManager {
     private static final String FILES_CACHE_DIR = "files";
     public static final String MAVEN_SCHEME = "mvn";
     private static final String LATEST = "LATEST";
+    private static final int FILE_LOCK_STRIPES = 64;
 
     private final Path cacheDir;
     private final Path localCacheDir;
     private final List<RemoteRepository> repositories;
-    private final Object mutex = new Object();
     private final RepositorySystem maven;
     private final boolean strictRepositories;
 
@@ -89,6 +91,13 @@ public class DependencyManager {
     private final boolean explicitlyResolveV1Client;
     private final boolean offlineMode;
 
+    private final ReentrantLock[] fileLocks;
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<Collection<DependencyEntity>>> resolved = new ConcurrentHashMap<>();
+    private final int resolveCacheSize;
+    private final DependencyManagerStats stats = new DependencyManagerStats();
+    private final DependencyManifestStore manifestStore;
+
     @Inject
     public DependencyManager(DependencyManagerConfiguration cfg) throws IOException {
         this.cacheDir = cfg.cacheDir();
@@ -104,13 +113,84 @@ public class DependencyManager {
         this.defaultExclusions = cfg.exclusions();
         this.explicitlyResolveV1Client = cfg.explicitlyResolveV1Client();
         this.offlineMode = cfg.offlineMode();
+
+        this.fileLocks = new ReentrantLock[FILE_LOCK_STRIPES];
+        for (int i = 0; i < fileLocks.length; i++) {
+            fileLocks[i] = new ReentrantLock();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(cfg.parallelism(), r -> {
+            Thread t = new Thread(r, "dependency-manager-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.resolveCacheSize = cfg.resolveCacheSize();
+        this.manifestStore = cfg.manifestDir() != null ? new DependencyManifestStore(cfg.manifestDir()) : null;
+    }
+
+    public DependencyManagerStats getStats() {
+        return stats;
     }
 
     public Collection<DependencyEntity> resolve(Collection<URI> items) throws IOException {
         return resolve(items, null);
     }
 
+    /**
+     * Resolves the specified dependencies. The results are cached in memory
+     * (see {@link #cacheKey(Collection)}), concurrent requests with the same
+     * list of dependencies wait for the first one to complete.
+     */
     public Collection<DependencyEntity> resolve(Collection<URI> items, ProgressListener listener) throws IOException {
+        long t1 = System.nanoTime();
+
+        String key = cacheKey(items);
+        if (key == null) {
+            Collection<DependencyEntity> result = doResolve(items, listener);
+            stats.onResolve(System.nanoTime() - t1, false);
+            return result;
+        }
+
+        while (true) {
+            if (resolved.size() >= resolveCacheSize) {
+                resolved.clear();
+            }
+
+            CompletableFuture<Collection<DependencyEntity>> f = new CompletableFuture<>();
+            CompletableFuture<Collection<DependencyEntity>> existing = resolved.putIfAbsent(key, f);
+            if (existing == null) {
+                try {
+                    Collection<DependencyEntity> result = Collections.unmodifiableCollection(doResolve(items, listener));
+                    f.complete(result);
+                    stats.onResolve(System.nanoTime() - t1, false);
+                    return result;
+                } catch (IOException | RuntimeException | Error e) {
+                    resolved.remove(key, f);
+                    f.completeExceptionally(e);
+                    throw e;
+                }
+            }
+
+            Collection<DependencyEntity> result;
+            try {
+                result = existing.join();
+            } catch (CompletionException e) {
+                // the concurrent request failed, report the same error
+                throw unwrap(e);
+            }
+
+            if (result.stream().allMatch(d -> Files.exists(d.getPath()))) {
+                stats.onResolve(System.nanoTime() - t1, true);
+                return result;
+            }
+
+            // some of the files were removed from the cache, try again
+            resolved.remove(key, existing);
+        }
+    }
+
+    private Collection<DependencyEntity> doResolve(Collection<URI> items, ProgressListener listener) throws IOException {
         ResolveExceptionConverter exceptionConverter = new ResolveExceptionConverter(items);
         ProgressNotifier progressNotifier = new ProgressNotifier(listener, exceptionConverter);
         return withRetry(() -> tryResolve(items, progressNotifier), exceptionConverter, progressNotifier);
@@ -137,17 +217,57 @@ public class DependencyManager {
 
         DependencyList deps = categorize(uris);
 
+        // independent artifacts (and the transitive dependencies as a whole) are resolved in parallel
+        List<Callable<Collection<DependencyEntity>>> tasks = new ArrayList<>();
+
+        for (URI item : deps.directLinks) {
+            tasks.add(() -> Collections.singleton(new DependencyEntity(resolveFile(item), item)));
+        }
+
+        if (!deps.mavenTransitiveDependencies.isEmpty()) {
+            tasks.add(() -> resolveMavenTransitiveDependencies(deps.mavenTransitiveDependencies, deps.mavenExclusions, progressNotifier).stream()
+                    .map(DependencyManager::toDependency)
+                    .toList());
+        }
+
+        for (MavenDependency dep : deps.mavenSingleDependencies) {
+            tasks.add(() -> Collections.singleton(toDependency(resolveMavenSingle(dep, progressNotifier))));
+        }
+
+        return invokeAll(tasks);
+    }
+
+    private Collection<DependencyEntity> invokeAll(List<Callable<Collection<DependencyEntity>>> tasks) throws IOException {
         Collection<DependencyEntity> result = new HashSet<>();
 
-        result.addAll(resolveDirectLinks(deps.directLinks));
+        if (tasks.size() == 1) {
+            try {
+                result.addAll(tasks.get(0).call());
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            return result;
+        }
 
-        result.addAll(resolveMavenTransitiveDependencies(deps.mavenTransitiveDependencies, deps.mavenExclusions, progressNotifier).stream()
-                .map(DependencyManager::toDependency)
-                .toList());
+        List<Future<Collection<DependencyEntity>>> futures = new ArrayList<>();
+        for (Callable<Collection<DependencyEntity>> t : tasks) {
+            futures.add(executor.submit(t));
+        }
 
-        result.addAll(resolveMavenSingleDependencies(deps.mavenSingleDependencies, progressNotifier).stream()
-                .map(DependencyManager::toDependency)
-                .toList());
+        try {
+            for (Future<Collection<DependencyEntity>> f : futures) {
+                result.addAll(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while resolving dependencies", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
 
         return result;
     }
@@ -195,14 +315,6 @@ public class DependencyManager {
         return new DependencyList(mavenTransitiveDependencies, mavenSingleDependencies, mavenExclusions, directLinks);
     }
 
-    private Collection<DependencyEntity> resolveDirectLinks(Collection<URI> items) throws IOException {
-        Collection<DependencyEntity> paths = new HashSet<>();
-        for (URI item : items) {
-            paths.add(new DependencyEntity(resolveFile(item), item));
-        }
-        return paths;
-    }
-
     private Path resolveFile(URI uri) throws IOException {
         boolean skipCache = shouldSkipCache(uri);
         String name = getLastPart(uri);
@@ -214,7 +326,14 @@ public class DependencyManager {
 
         Path dst = baseDir.resolve(name);
 
-        synchronized (mutex) {
+        // only one thread downloads the same file, other files are downloaded in parallel
+        ReentrantLock lock = fileLocks[Math.floorMod(dst.hashCode(), fileLocks.length)];
+
+        long t1 = System.nanoTime();
+        lock.lock();
+        stats.onLockWait(System.nanoTime() - t1);
+
+        try {
             if (!skipCache && Files.exists(dst)) {
                 log.info("resolveFile -> using a cached copy of {}...", uri);
                 return dst;
@@ -222,18 +341,18 @@ public class DependencyManager {
 
             log.info("resolveFile -> downloading {}", uri);
 
-            Path tmp = baseDir.resolve(name + ".tmp");
+            // the file is published atomically, readers never see partially downloaded files
+            Path tmp = Files.createTempFile(baseDir, name, ".tmp");
             try {
                 download(uri, tmp);
-                Files.move(tmp, dst, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, dst, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
             } finally {
-                if (Files.exists(tmp)) {
-                    Files.delete(tmp);
-                }
+                Files.deleteIfExists(tmp);
             }
 
-
             return dst;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -254,13 +373,12 @@ public class DependencyManager {
         req.setArtifact(dep.artifact);
         req.setRepositories(repositories);
 
-        synchronized (mutex) {
-            try {
-                ArtifactResult r = maven.resolveArtifact(session, req);
-                return r.getArtifact();
-            } catch (ArtifactResolutionException e) {
-                throw new IOException(e);
-            }
+        // the local repository is protected by the resolver's own (per-artifact) locks
+        try {
+            ArtifactResult r = maven.resolveArtifact(session, req);
+            return r.getArtifact();
+        } catch (ArtifactResolutionException e) {
+            throw new IOException(e);
         }
     }
 
@@ -276,18 +394,9 @@ public class DependencyManager {
         return newRepositorySystemSession(system, progressNotifier);
     }
 
-    private Collection<Artifact> resolveMavenSingleDependencies(Collection<MavenDependency> deps, ProgressNotifier progressNotifier) throws IOException {
-        Collection<Artifact> paths = new HashSet<>();
-        for (MavenDependency dep : deps) {
-            paths.add(resolveMavenSingle(dep, progressNotifier));
-        }
-        return paths;
-    }
-
     private Collection<Artifact> resolveMavenTransitiveDependencies(Collection<MavenDependency> deps, List<String> exclusions, ProgressNotifier progressNotifier) throws IOException {
-        // TODO: why we need new RepositorySystem?
-        RepositorySystem system = RepositorySystemFactory.create();
-        RepositorySystemSession session = getRepositorySession(deps, system, progressNotifier);
+        // use the same RepositorySystem for all requests, it shares the local repository locks
+        RepositorySystemSession session = getRepositorySession(deps, maven, progressNotifier);
 
         CollectRequest req = new CollectRequest();
         req.setDependencies(deps.stream()
@@ -298,21 +407,94 @@ public class DependencyManager {
         List<String> excludes = new ArrayList<>(exclusions);
         excludes.addAll(defaultExclusions);
 
+        String manifestKey = manifestStore != null ? manifestKey(deps, excludes) : null;
+        if (manifestKey != null) {
+            Collection<Artifact> result = resolveFromManifest(manifestKey, session);
+            if (result != null) {
+                stats.onManifestHit();
+                return result;
+            }
+        }
+
         DependencyRequest dependencyRequest = new DependencyRequest(req, new ExclusionsDependencyFilter(excludes));
         if (explicitlyResolveV1Client) {
             dependencyRequest.getCollectRequest().addManagedDependency(new Dependency(ClientDepSelector.CLIENT1_ARTIFACT, ""));
         }
 
-        synchronized (mutex) {
-            try {
-                return system.resolveDependencies(session, dependencyRequest)
-                        .getArtifactResults().stream()
-                        .map(ArtifactResult::getArtifact)
-                        .collect(Collectors.toSet());
-            } catch (DependencyResolutionException e) {
-                throw new IOException(e);
+        Collection<Artifact> result;
+        try {
+            result = maven.resolveDependencies(session, dependencyRequest)
+                    .getArtifactResults().stream()
+                    .map(ArtifactResult::getArtifact)
+                    .collect(Collectors.toSet());
+        } catch (DependencyResolutionException e) {
+            throw new IOException(e);
+        }
+
+        if (manifestKey != null && result.stream().noneMatch(Artifact::isSnapshot)) {
+            manifestStore.put(manifestKey, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolves the exact list of artifacts stored in the manifest, only
+     * the missing artifacts are downloaded.
+     *
+     * @return the resolved artifacts or {@code null} if there's no usable manifest.
+     */
+    private Collection<Artifact> resolveFromManifest(String manifestKey, RepositorySystemSession session) {
+        List<DependencyManifestStore.Entry> entries = manifestStore.get(manifestKey);
+        if (entries == null) {
+            return null;
+        }
+
+        List<ArtifactRequest> requests = entries.stream()
+                .map(e -> new ArtifactRequest(e.toArtifact(), repositories, null))
+                .collect(Collectors.toList());
+
+        try {
+            List<ArtifactResult> results = maven.resolveArtifacts(session, requests);
+
+            Collection<Artifact> result = new HashSet<>();
+            for (int i = 0; i < results.size(); i++) {
+                Artifact a = results.get(i).getArtifact();
+                if (!entries.get(i).sha256().equals(DependencyManifestStore.sha256(a.getFile().toPath()))) {
+                    log.warn("resolveFromManifest ['{}'] -> checksum mismatch: {}, resolving the dependencies again", manifestKey, a);
+                    return null;
+                }
+                result.add(a);
+            }
+            return result;
+        } catch (ArtifactResolutionException | IOException e) {
+            log.warn("resolveFromManifest ['{}'] -> error: {}, resolving the dependencies again", manifestKey, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the key of the dependency manifest or {@code null} if
+     * the dependencies may change over time.
+     */
+    private String manifestKey(Collection<MavenDependency> deps, List<String> excludes) {
+        List<String> parts = new ArrayList<>();
+        for (MavenDependency d : deps) {
+            if (!isFixedVersion(d.artifact.getVersion())) {
+                return null;
             }
+            parts.add("dependency:" + d.artifact + ":" + d.scope);
         }
+
+        excludes.forEach(e -> parts.add("exclude:" + e));
+        Collections.sort(parts);
+
+        // the order of repositories matters
+        repositories.forEach(r -> parts.add("repository:" + r.getId() + ":" + r.getUrl()));
+        parts.add("strictRepositories:" + strictRepositories);
+        parts.add("explicitlyResolveV1Client:" + (explicitlyResolveV1Client ? Version.get() : "false"));
+
+        return DependencyManifestStore.key(parts);
     }
 
     private DefaultRepositorySystemSession newRepositorySystemSession(RepositorySystem system, ProgressNotifier progressNotifier) {
@@ -380,6 +562,58 @@ public class DependencyManager {
         return "file".equalsIgnoreCase(u.getScheme()) || u.getPath().contains("SNAPSHOT");
     }
 
+    /**
+     * @return the normalized list of dependencies or {@code null} if
+     * the list contains dependencies that may change over time.
+     */
+    private static String cacheKey(Collection<URI> items) {
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+
+        for (URI item : items) {
+            if (shouldSkipCache(item)) {
+                return null;
+            }
+
+            if (MAVEN_SCHEME.equalsIgnoreCase(item.getScheme())) {
+                String version;
+                try {
+                    version = new DefaultArtifact(item.getAuthority()).getVersion();
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+
+                if (!isFixedVersion(version)) {
+                    return null;
+                }
+            }
+        }
+
+        return items.stream()
+                .map(URI::toString)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static boolean isFixedVersion(String version) {
+        return !(version.contains("SNAPSHOT") || version.equals(LATEST) || version.equals("RELEASE")
+                || version.startsWith("[") || version.startsWith("("));
+    }
+
+    private static IOException unwrap(Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
     private static List<RemoteRepository> toRemote(List<MavenRepository> l) {
         return l.stream()
                 .map(DependencyManager::toRemote)
@@ -22,6 +22,7 @@ package com.walmartlabs.concord.dependencymanager;
 
 import org.immutables.value.Value;
 
+import javax.annotation.Nullable;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -70,6 +71,32 @@ public interface DependencyManagerConfiguration {
         return false;
     }
 
+    /**
+     * Max number of artifacts or groups of artifacts resolved in parallel.
+     */
+    @Value.Default
+    default int parallelism() {
+        return 4;
+    }
+
+    /**
+     * Max number of resolved dependency lists to keep in memory.
+     * Lists with SNAPSHOT, LATEST or range versions and local files are not cached.
+     */
+    @Value.Default
+    default int resolveCacheSize() {
+        return 100;
+    }
+
+    /**
+     * Directory to store the manifests of resolved transitive dependencies in.
+     * Can be shared between multiple instances. When a manifest for the same
+     * list of dependencies exists, only the listed artifacts are resolved
+     * (and downloaded, if missing) without re-resolving the dependency graph.
+     */
+    @Nullable
+    Path manifestDir();
+
     static ImmutableDependencyManagerConfiguration.Builder builder() {
         return ImmutableDependencyManagerConfiguration.builder();
     }
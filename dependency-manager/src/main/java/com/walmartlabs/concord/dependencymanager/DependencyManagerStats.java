@@ -0,0 +1,90 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolution statistics of a {@link DependencyManager} instance.
+ */
+public class DependencyManagerStats {
+
+    private final LongAdder resolutions = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder manifestHits = new LongAdder();
+    private final LongAdder resolveTime = new LongAdder();
+    private final LongAdder lockWaitTime = new LongAdder();
+
+    void onResolve(long duration, boolean cacheHit) {
+        resolutions.increment();
+        resolveTime.add(duration);
+        if (cacheHit) {
+            cacheHits.increment();
+        }
+    }
+
+    void onManifestHit() {
+        manifestHits.increment();
+    }
+
+    void onLockWait(long duration) {
+        lockWaitTime.add(duration);
+    }
+
+    public long getResolutions() {
+        return resolutions.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return the number of times the transitive dependencies were resolved using a stored manifest.
+     */
+    public long getManifestHits() {
+        return manifestHits.sum();
+    }
+
+    /**
+     * @return the total time spent resolving dependency lists, including the cache hits.
+     */
+    public long getResolveTime(TimeUnit unit) {
+        return unit.convert(resolveTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the total time spent waiting for other threads downloading the same files.
+     */
+    public long getLockWaitTime(TimeUnit unit) {
+        return unit.convert(lockWaitTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "resolutions=" + getResolutions() +
+                ", cacheHits=" + getCacheHits() +
+                ", manifestHits=" + getManifestHits() +
+                ", resolveTime=" + getResolveTime(TimeUnit.MILLISECONDS) + "ms" +
+                ", lockWaitTime=" + getLockWaitTime(TimeUnit.MILLISECONDS) + "ms";
+    }
+}
@@ -0,0 +1,210 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores the results of transitive dependency resolution: the exact
+ * coordinates and SHA-256 checksums of all resolved artifacts.
+ * <p>
+ * The directory can be shared between multiple agents (e.g. a network volume).
+ * Manifests are written atomically and never modified in place, concurrent
+ * writers simply replace each other's files with the same content.
+ */
+class DependencyManifestStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DependencyManifestStore.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path dir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    DependencyManifestStore(Path dir) throws IOException {
+        this.dir = dir;
+        if (!Files.exists(dir)) {
+            Files.createDirectories(dir);
+        }
+    }
+
+    /**
+     * @return the list of artifacts or {@code null} if there's no valid manifest for the specified key.
+     */
+    List<Entry> get(String key) {
+        Path src = dir.resolve(key + ".json");
+        if (!Files.exists(src)) {
+            return null;
+        }
+
+        try (InputStream in = Files.newInputStream(src)) {
+            Manifest m = objectMapper.readValue(in, Manifest.class);
+            if (m.version != FORMAT_VERSION || m.artifacts == null) {
+                return null;
+            }
+            return m.artifacts;
+        } catch (IOException e) {
+            log.warn("get -> error while reading {}: {}", src, e.getMessage());
+            return null;
+        }
+    }
+
+    void put(String key, Collection<Artifact> artifacts) {
+        Path dst = dir.resolve(key + ".json");
+        Path tmp = null;
+        try {
+            List<Entry> entries = new ArrayList<>(artifacts.size());
+            for (Artifact a : artifacts) {
+                entries.add(new Entry(a.getGroupId(), a.getArtifactId(), a.getClassifier(), a.getExtension(), a.getVersion(),
+                        sha256(a.getFile().toPath())));
+            }
+
+            tmp = Files.createTempFile(dir, key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                objectMapper.writeValue(out, new Manifest(FORMAT_VERSION, entries));
+            }
+            Files.move(tmp, dst, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("put -> error while writing {}: {}", dst, e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    log.warn("put -> error while removing {}: {}", tmp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    static String key(List<String> parts) {
+        MessageDigest md = newDigest();
+        for (String p : parts) {
+            md.update(p.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+        }
+        return DatatypeConverter.printHexBinary(md.digest()).toLowerCase();
+    }
+
+    static String sha256(Path p) throws IOException {
+        MessageDigest md = newDigest();
+        try (InputStream in = Files.newInputStream(p)) {
+            byte[] ab = new byte[8192];
+            int read;
+            while ((read = in.read(ab)) > 0) {
+                md.update(ab, 0, read);
+            }
+        }
+        return DatatypeConverter.printHexBinary(md.digest()).toLowerCase();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Hash error", e);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static final class Manifest {
+
+        @JsonProperty("version")
+        private final int version;
+
+        @JsonProperty("artifacts")
+        private final List<Entry> artifacts;
+
+        @JsonCreator
+        private Manifest(@JsonProperty("version") int version,
+                         @JsonProperty("artifacts") List<Entry> artifacts) {
+            this.version = version;
+            this.artifacts = artifacts;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class Entry {
+
+        @JsonProperty("groupId")
+        private final String groupId;
+
+        @JsonProperty("artifactId")
+        private final String artifactId;
+
+        @JsonProperty("classifier")
+        private final String classifier;
+
+        @JsonProperty("extension")
+        private final String extension;
+
+        @JsonProperty("version")
+        private final String version;
+
+        @JsonProperty("sha256")
+        private final String sha256;
+
+        @JsonCreator
+        private Entry(@JsonProperty("groupId") String groupId,
+                      @JsonProperty("artifactId") String artifactId,
+                      @JsonProperty("classifier") String classifier,
+                      @JsonProperty("extension") String extension,
+                      @JsonProperty("version") String version,
+                      @JsonProperty("sha256") String sha256) {
+
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.classifier = classifier;
+            this.extension = extension;
+            this.version = version;
+            this.sha256 = sha256;
+        }
+
+        Artifact toArtifact() {
+            return new DefaultArtifact(groupId, artifactId, classifier, extension, version);
+        }
+
+        String sha256() {
+            return sha256;
+        }
+    }
+}
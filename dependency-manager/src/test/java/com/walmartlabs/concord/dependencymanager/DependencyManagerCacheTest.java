@@ -0,0 +1,141 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyManagerCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+
+            try {
+                // simulate a slow repository
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] ab = path.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, ab.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ab);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConcurrentIdenticalRequests() throws Exception {
+        DependencyManager m = new DependencyManager(DependencyManagerConfiguration.of(tempDir.resolve("cache")));
+        List<URI> uris = Arrays.asList(uri("/a.jar"), uri("/b.jar"), uri("/c.jar"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Collection<DependencyEntity>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> m.resolve(uris)));
+            }
+
+            for (Future<Collection<DependencyEntity>> f : futures) {
+                Collection<DependencyEntity> result = f.get(30, TimeUnit.SECONDS);
+                assertEquals(3, result.size());
+                for (DependencyEntity e : result) {
+                    String expected = "/" + e.getPath().getFileName();
+                    assertEquals(expected, new String(Files.readAllBytes(e.getPath()), StandardCharsets.UTF_8));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // each file is downloaded once
+        assertEquals(1, requests.get("/a.jar").get());
+        assertEquals(1, requests.get("/b.jar").get());
+        assertEquals(1, requests.get("/c.jar").get());
+
+        assertEquals(4, m.getStats().getResolutions());
+        assertEquals(3, m.getStats().getCacheHits());
+    }
+
+    @Test
+    public void testParallelDownloads() throws Exception {
+        DependencyManager m = new DependencyManager(DependencyManagerConfiguration.of(tempDir.resolve("cache")));
+
+        long t1 = System.currentTimeMillis();
+        Collection<DependencyEntity> result = m.resolve(Arrays.asList(uri("/x.jar"), uri("/y.jar"), uri("/z.jar"), uri("/w.jar")));
+        long t2 = System.currentTimeMillis();
+
+        assertEquals(4, result.size());
+        // four 200ms downloads, sequentially it would take at least 800ms
+        assertTrue(t2 - t1 < 700, "took " + (t2 - t1) + "ms");
+    }
+
+    @Test
+    public void testRemovedFilesAreResolvedAgain() throws Exception {
+        DependencyManager m = new DependencyManager(DependencyManagerConfiguration.of(tempDir.resolve("cache")));
+        List<URI> uris = Collections.singletonList(uri("/a.jar"));
+
+        DependencyEntity e = m.resolve(uris).iterator().next();
+        Files.delete(e.getPath());
+
+        e = m.resolve(uris).iterator().next();
+        assertTrue(Files.exists(e.getPath()));
+        assertEquals(2, requests.get("/a.jar").get());
+        assertEquals(0, m.getStats().getCacheHits());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+}
@@ -0,0 +1,150 @@
+package com.walmartlabs.concord.dependencymanager;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyManifestTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final String groupId = "com.walmartlabs.concord.test" + UUID.randomUUID().toString().replace("-", "");
+
+    private Path remoteRepo;
+    private Path localRepo;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        remoteRepo = tempDir.resolve("repo");
+        localRepo = Paths.get(System.getProperty("user.home")).resolve(".m2/repository");
+
+        deploy(remoteRepo, "a", "<dependencies><dependency>" +
+                "<groupId>" + groupId + "</groupId><artifactId>b</artifactId><version>1.0</version>" +
+                "</dependency></dependencies>");
+        deploy(remoteRepo, "b", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        deleteRecursively(groupPath(localRepo));
+    }
+
+    @Test
+    public void testManifestIsUsed() throws Exception {
+        List<URI> uris = Collections.singletonList(URI.create("mvn://" + groupId + ":a:1.0"));
+
+        DependencyManager m1 = new DependencyManager(cfg());
+        assertEquals(2, m1.resolve(uris).size());
+        assertEquals(0, m1.getStats().getManifestHits());
+
+        try (Stream<Path> s = Files.list(tempDir.resolve("manifests"))) {
+            assertEquals(1, s.count());
+        }
+
+        // without the POMs the dependency graph can't be resolved anymore,
+        // the missing JAR must be downloaded again
+        Files.delete(artifactPath(remoteRepo, "a", "pom"));
+        Files.delete(artifactPath(localRepo, "a", "pom"));
+        Files.delete(artifactPath(localRepo, "b", "jar"));
+
+        DependencyManager m2 = new DependencyManager(cfg());
+        Collection<DependencyEntity> result = m2.resolve(uris);
+        assertEquals(2, result.size());
+        assertEquals(1, m2.getStats().getManifestHits());
+        assertTrue(Files.exists(artifactPath(localRepo, "b", "jar")));
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        List<URI> uris = Collections.singletonList(URI.create("mvn://" + groupId + ":a:1.0"));
+
+        DependencyManager m1 = new DependencyManager(cfg());
+        assertEquals(2, m1.resolve(uris).size());
+
+        Files.write(artifactPath(localRepo, "b", "jar"), "modified".getBytes(StandardCharsets.UTF_8));
+
+        DependencyManager m2 = new DependencyManager(cfg());
+        assertEquals(2, m2.resolve(uris).size());
+        assertEquals(0, m2.getStats().getManifestHits());
+    }
+
+    private DependencyManagerConfiguration cfg() {
+        return DependencyManagerConfiguration.builder()
+                .cacheDir(tempDir.resolve("cache"))
+                .manifestDir(tempDir.resolve("manifests"))
+                .repositories(Collections.singletonList(MavenRepository.builder()
+                        .id("test")
+                        .url(remoteRepo.toUri().toString())
+                        .build()))
+                .build();
+    }
+
+    private void deploy(Path repo, String artifactId, String dependencies) throws IOException {
+        String pom = "<project><modelVersion>4.0.0</modelVersion>" +
+                "<groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId><version>1.0</version>" +
+                dependencies +
+                "</project>";
+
+        Path pomPath = artifactPath(repo, artifactId, "pom");
+        Files.createDirectories(pomPath.getParent());
+        Files.write(pomPath, pom.getBytes(StandardCharsets.UTF_8));
+        Files.write(artifactPath(repo, artifactId, "jar"), artifactId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path artifactPath(Path repo, String artifactId, String extension) {
+        return groupPath(repo).resolve(artifactId).resolve("1.0").resolve(artifactId + "-1.0." + extension);
+    }
+
+    private Path groupPath(Path repo) {
+        return repo.resolve(groupId.replace('.', '/'));
+    }
+
+    private static void deleteRecursively(Path p) throws IOException {
+        if (!Files.exists(p)) {
+            return;
+        }
+
+        try (Stream<Path> s = Files.walk(p)) {
+            for (Path f : (Iterable<Path>) s.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(f);
+            }
+        }
+    }
+}
@@ -28,30 +28,46 @@ import com.walmartlabs.concord.client2.ProcessEventsApi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 
 /**
  * Reads data recorded by concord_events.py and sends it to the Server.
+ * <p>
+ * The file is read and parsed in one thread while the batches are sent
+ * in another. The batches are sent one at a time to preserve the order of
+ * events. While a request is in progress the reader keeps accumulating
+ * events, so the batches grow with the rate of incoming events.
  */
 public class EventSender {
 
     private static final Logger log = LoggerFactory.getLogger(EventSender.class);
 
-    private static final String EOL_MARKER = "<~EOL~>";
+    private static final byte[] EOL_MARKER = "<~EOL~>".getBytes(StandardCharsets.UTF_8);
 
-    private static final long NO_DATA_DELAY = 1000;
+    private static final long MIN_NO_DATA_DELAY = 50;
+    private static final long MAX_NO_DATA_DELAY = 1000;
     private static final long API_ERROR_DELAY = 10000;
-    private static final long MAX_BATCH_SIZE = 10;
-    private static final long MAX_BATCH_AGE = 5000;
+    private static final int MAX_FINAL_ATTEMPTS = 3;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+    private static final long MAX_BATCH_AGE = 1000;
+    private static final int MAX_PENDING_BATCHES = 4;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<ProcessEventRequest> END_OF_DATA = Collections.emptyList();
 
     private final boolean debug;
     private final UUID instanceId;
@@ -66,9 +82,16 @@ public class EventSender {
         return om;
     }
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final BlockingQueue<List<ProcessEventRequest>> pending = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
 
     private volatile boolean stop = false;
+    private volatile boolean readerDone = false;
+
+    // sender stats
+    private long sentEvents;
+    private long sentBatches;
+    private long maxLag;
 
     public EventSender(boolean debug, UUID instanceId, Path eventsFile, ProcessEventsApi eventsApi) {
         this.debug = debug;
@@ -90,59 +113,187 @@ public class EventSender {
             log.info("run -> started...");
         }
 
-        try (RandomAccessFile f = new RandomAccessFile(eventsFile.toFile(), "r")) {
-            Batch batch = new Batch(instanceId, eventsApi);
-            long t1 = System.currentTimeMillis();
+        Future<?> sender = executor.submit(this::sendBatches);
+        try {
+            readEvents();
+        } catch (IOException e) {
+            log.error("Error while reading the event file: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            readerDone = true;
+            enqueueEnd();
+        }
 
-            while (true) {
-                String line = f.readLine();
+        try {
+            sender.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error while sending events: {}", e.getCause().getMessage(), e.getCause());
+        }
 
-                if (line == null || line.isEmpty()) {
-                    if (stop) {
-                        // looks like the end of the play
+        executor.shutdown();
+
+        if (debug) {
+            log.info("run -> stopped, sent {} event(s) in {} batch(es), max delivery lag: {}ms", sentEvents, sentBatches, maxLag);
+        }
+    }
 
-                        // don't stop until we reach the end of the file
-                        if (Files.size(eventsFile) <= f.getFilePointer()) {
-                            break;
+    private void readEvents() throws IOException, InterruptedException {
+        try (FileChannel ch = FileChannel.open(eventsFile, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            LineBuffer line = new LineBuffer();
+
+            List<ProcessEventRequest> batch = new ArrayList<>();
+            int batchBytes = 0;
+            long batchStart = 0;
+            long noDataDelay = MIN_NO_DATA_DELAY;
+
+            while (true) {
+                // check the flag before reading, so that everything written
+                // before the stop is read
+                boolean stopping = stop;
+
+                buf.clear();
+                int read = ch.read(buf);
+                if (read > 0) {
+                    noDataDelay = MIN_NO_DATA_DELAY;
+                    buf.flip();
+
+                    while (buf.hasRemaining()) {
+                        byte b = buf.get();
+                        if (b != '\n') {
+                            line.write(b);
+                            continue;
                         }
-                    }
 
-                    // wait for more data
-                    sleep(NO_DATA_DELAY);
-                } else {
-                    if (line.endsWith(EOL_MARKER)) {
-                        String data = line.substring(0, line.length() - EOL_MARKER.length());
-                        ProcessEventRequest req = objectMapper.readValue(data, ProcessEventRequest.class);
+                        int size = line.size();
+                        ProcessEventRequest req = parse(line);
+                        line.reset();
+                        if (req == null) {
+                            continue;
+                        }
+
+                        if (batch.isEmpty()) {
+                            batchStart = System.currentTimeMillis();
+                        }
                         batch.add(req);
-                    } else {
-                        // partial line, re-read next time
-                        f.seek(f.getFilePointer() - line.length());
+                        batchBytes += size;
+
+                        if (batch.size() >= MAX_BATCH_SIZE || batchBytes >= MAX_BATCH_BYTES) {
+                            pending.put(batch);
+                            batch = new ArrayList<>();
+                            batchBytes = 0;
+                        }
                     }
                 }
 
-                long t2 = System.currentTimeMillis();
-                if (batch.size() >= MAX_BATCH_SIZE || t2 - t1 >= MAX_BATCH_AGE) {
-                    flush(batch);
-                    t1 = t2;
+                // send what we have if the sender is idle or if the batch is too old
+                if (!batch.isEmpty() && (pending.isEmpty() || System.currentTimeMillis() - batchStart >= MAX_BATCH_AGE)) {
+                    pending.put(batch);
+                    batch = new ArrayList<>();
+                    batchBytes = 0;
+                }
+
+                if (read > 0) {
+                    continue;
+                }
+
+                if (stopping) {
+                    // looks like the end of the play and there's no more data
+                    break;
+                }
+
+                // wait for more data
+                sleep(noDataDelay);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
                 }
+                noDataDelay = Math.min(noDataDelay * 2, MAX_NO_DATA_DELAY);
             }
 
-            flush(batch);
-        } catch (IOException e) {
-            log.error("Error while reading the event file: {}", e.getMessage(), e);
+            // the last record can be written without the line separator
+            ProcessEventRequest req = parse(line);
+            if (req != null) {
+                batch.add(req);
+            }
+
+            if (!batch.isEmpty()) {
+                pending.put(batch);
+            }
         }
+    }
 
-        if (debug) {
-            log.info("run -> stopped...");
+    private ProcessEventRequest parse(LineBuffer line) throws IOException {
+        if (!line.endsWith(EOL_MARKER)) {
+            if (line.size() > 0) {
+                log.warn("Invalid event record (missing the end-of-line marker), skipping...");
+            }
+            return null;
         }
+
+        int len = line.size() - EOL_MARKER.length;
+        return objectMapper.readValue(line.array(), 0, len, ProcessEventRequest.class);
     }
 
-    private static void flush(Batch b) {
+    private void sendBatches() {
+        while (true) {
+            List<ProcessEventRequest> batch;
+            try {
+                batch = pending.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (batch == END_OF_DATA) {
+                return;
+            }
+
+            send(batch);
+        }
+    }
+
+    private void send(List<ProcessEventRequest> batch) {
+        int attempts = 0;
+        while (true) {
+            try {
+                eventsApi.batchEvent(instanceId, batch);
+                break;
+            } catch (ApiException e) {
+                attempts++;
+
+                // keep retrying while the play is running, give up after a few attempts
+                // once it is finished
+                if (readerDone && attempts >= MAX_FINAL_ATTEMPTS) {
+                    log.warn("Error while sending the events to the server, {} event(s) lost", batch.size(), e);
+                    return;
+                }
+
+                log.warn("Error while sending the events to the server", e);
+                sleep(API_ERROR_DELAY);
+            }
+        }
+
+        sentEvents += batch.size();
+        sentBatches++;
+
+        OffsetDateTime oldest = batch.get(0).getEventDate();
+        if (oldest != null) {
+            long lag = Duration.between(oldest, OffsetDateTime.now()).toMillis();
+            maxLag = Math.max(maxLag, lag);
+        }
+    }
+
+    private void enqueueEnd() {
         try {
-            b.flush();
-        } catch (ApiException e) {
-            log.warn("Error while sending the event to the server", e);
-            sleep(API_ERROR_DELAY);
+            pending.put(END_OF_DATA);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // make sure the sender doesn't wait forever
+            pending.clear();
+            pending.offer(END_OF_DATA);
         }
     }
 
@@ -154,29 +305,28 @@ public class EventSender {
         }
     }
 
-    private static class Batch {
-
-        private final UUID instanceId;
-        private final ProcessEventsApi eventsApi;
+    private static class LineBuffer extends ByteArrayOutputStream {
 
-        private final List<ProcessEventRequest> items = new ArrayList<>();
-
-        private Batch(UUID instanceId, ProcessEventsApi eventsApi) {
-            this.instanceId = instanceId;
-            this.eventsApi = eventsApi;
+        private LineBuffer() {
+            super(1024);
         }
 
-        public void add(ProcessEventRequest req) {
-            items.add(req);
+        byte[] array() {
+            return buf;
         }
 
-        public void flush() throws ApiException {
-            eventsApi.batchEvent(instanceId, items);
-            items.clear();
-        }
+        boolean endsWith(byte[] suffix) {
+            if (count < suffix.length) {
+                return false;
+            }
+
+            for (int i = 0; i < suffix.length; i++) {
+                if (buf[count - suffix.length + i] != suffix[i]) {
+                    return false;
+                }
+            }
 
-        public int size() {
-            return items.size();
+            return true;
         }
     }
 }
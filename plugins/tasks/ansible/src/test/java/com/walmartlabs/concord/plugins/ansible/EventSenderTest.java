@@ -0,0 +1,91 @@
+package com.walmartlabs.concord.plugins.ansible;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.client2.ApiClient;
+import com.walmartlabs.concord.client2.ProcessEventRequest;
+import com.walmartlabs.concord.client2.ProcessEventsApi;
+import org.junit.jupiter.api.Test;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventSenderTest extends AbstractTest {
+
+    @Test
+    public void testSendsAllEventsInOrder() throws Exception {
+        Path eventsFile = Files.createTempFile(tempDir("events"), "events", ".log");
+
+        RecordingEventsApi api = new RecordingEventsApi();
+        EventSender sender = new EventSender(false, UUID.randomUUID(), eventsFile, api);
+        Future<?> f = sender.start();
+
+        int count = 2500;
+        try (Writer w = Files.newBufferedWriter(eventsFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                String record = "{\"eventType\":\"ANSIBLE\",\"eventDate\":\"2024-01-01T00:00:00.000Z\",\"data\":{\"n\":" + i + ",\"msg\":\"héllo 世界\"}}";
+                if (i % 100 == 0) {
+                    // partially written record
+                    w.write(record);
+                    w.flush();
+                    Thread.sleep(10);
+                    w.write("<~EOL~>\n");
+                } else {
+                    w.write(record + "<~EOL~>\n");
+                }
+                w.flush();
+            }
+        }
+
+        sender.stop();
+        f.get(1, TimeUnit.MINUTES);
+
+        assertEquals(count, api.events.size());
+        for (int i = 0; i < count; i++) {
+            ProcessEventRequest e = api.events.get(i);
+            assertEquals(i, ((Number) e.getData().get("n")).intValue());
+            assertEquals("héllo 世界", e.getData().get("msg"));
+        }
+    }
+
+    private static class RecordingEventsApi extends ProcessEventsApi {
+
+        private final List<ProcessEventRequest> events = new ArrayList<>();
+
+        private RecordingEventsApi() {
+            super(new ApiClient(null));
+        }
+
+        @Override
+        public synchronized void batchEvent(UUID processInstanceId, List<ProcessEventRequest> processEventRequest) {
+            events.addAll(processEventRequest);
+        }
+    }
+}
@@ -33,9 +33,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Function;
@@ -50,6 +52,17 @@ public class ConcordTaskCommon {
     private static final long DEFAULT_KILL_TIMEOUT = 10000;
     private static final long DEFAULT_POLL_DELAY = 5000;
 
+    /**
+     * Max duration of a single wait request, the server may use a shorter timeout.
+     * Must stay below the client's read timeout, see {@link #waitTimeout(ApiClient, long)}.
+     */
+    private static final long DEFAULT_WAIT_TIMEOUT = 30000;
+
+    /**
+     * Time reserved for the server to send the response after a wait request expires.
+     */
+    private static final long WAIT_TIMEOUT_MARGIN = 5000;
+
     private static final int MAX_EXECUTOR_THREADS = 20;
 
     private static final Set<String> FAILED_STATUSES;
@@ -119,12 +132,95 @@ public class ConcordTaskCommon {
         return ((TaskResult.SuspendResult) result).eventName();
     }
 
+    /**
+     * Waits for the specified processes to finish using the server's bulk wait
+     * endpoint. A single long-polling request waits for all processes.
+     * Falls back to polling each process if the server doesn't support the endpoint.
+     */
     public <T> Map<String, T> waitForCompletion(List<UUID> ids, long timeout, Function<ProcessEntry, T> processor) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        ids.forEach(id -> log.info("Waiting for {}", LogTags.instanceId(id)));
+
+        Map<String, T> result = new HashMap<>();
+        Set<UUID> pending = new LinkedHashSet<>(ids);
+
+        long t1 = System.currentTimeMillis();
+        while (!pending.isEmpty()) {
+            long waitTime = DEFAULT_WAIT_TIMEOUT;
+            if (timeout > 0) {
+                long dt = System.currentTimeMillis() - t1;
+                if (dt >= timeout) {
+                    throw new RuntimeException(new TimeoutException("Timeout waiting for " + pending + ": " + dt));
+                }
+                waitTime = Math.min(waitTime, timeout - dt);
+            }
+
+            List<UUID> request = new ArrayList<>(pending);
+            long maxWaitTime = waitTime;
+
+            List<ProcessEntry> entries;
+            try {
+                entries = ClientUtils.withRetry(3, 1000,
+                        () -> withClient(client -> {
+                            int waitSec = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitTimeout(client, maxWaitTime)));
+                            ProcessV2Api api = new ProcessV2Api(client);
+                            try {
+                                return api.waitForProcesses(false, waitSec, request);
+                            } catch (ApiException e) {
+                                if (e.getCause() instanceof HttpTimeoutException) {
+                                    // a slow response is not an error, just ask again
+                                    log.debug("waitForCompletion -> wait request timed out, retrying");
+                                    return Collections.emptyList();
+                                }
+                                throw e;
+                            }
+                        }));
+            } catch (ApiException e) {
+                if (e.getCode() == 404 || e.getCode() == 405) {
+                    // older servers or unknown processes, the per-process polling reports the details
+                    log.debug("waitForCompletion -> bulk wait failed ({}), polling the processes instead", e.getCode());
+                    result.putAll(pollForCompletion(request, timeout, processor));
+                    return result;
+                }
+                throw new RuntimeException(e);
+            }
+
+            for (ProcessEntry e : entries) {
+                if (!isFinalStatus(e.getStatus()) || !pending.remove(e.getInstanceId())) {
+                    continue;
+                }
+
+                T t = processor.apply(e);
+                if (t != null) {
+                    result.put(e.getInstanceId().toString(), t);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the duration of a single wait request. The request must finish
+     * before the client gives up on reading the response.
+     */
+    private static long waitTimeout(ApiClient client, long waitTime) {
+        Duration readTimeout = client.getReadTimeout();
+        if (readTimeout == null) {
+            return waitTime;
+        }
+
+        long readTimeoutMs = readTimeout.toMillis();
+        return Math.min(waitTime, Math.max(readTimeoutMs - WAIT_TIMEOUT_MARGIN, readTimeoutMs / 2));
+    }
+
+    private <T> Map<String, T> pollForCompletion(List<UUID> ids, long timeout, Function<ProcessEntry, T> processor) {
         Map<String, T> result = new ConcurrentHashMap<>();
 
         ids.parallelStream().forEach(id -> {
-            log.info("Waiting for {}", LogTags.instanceId(id));
-
             long t1 = System.currentTimeMillis();
             while (true) {
                 try {
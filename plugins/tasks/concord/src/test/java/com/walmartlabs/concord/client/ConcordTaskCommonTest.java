@@ -0,0 +1,138 @@
+package com.walmartlabs.concord.client;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.sun.net.httpserver.HttpServer;
+import com.walmartlabs.concord.client2.ApiClient;
+import com.walmartlabs.concord.client2.ProcessEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcordTaskCommonTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(1500);
+
+    /**
+     * Number of wait requests that the server doesn't answer in time.
+     * Exceeds the number of retries of a regular API call.
+     */
+    private static final int STALLED_REQUESTS = 4;
+
+    private final UUID childId = UUID.randomUUID();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/v2/process/wait", exchange -> {
+            int n = requests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            queries.add(query);
+
+            String status;
+            try {
+                if (n <= STALLED_REQUESTS) {
+                    // the response doesn't make it before the client's read timeout
+                    Thread.sleep(READ_TIMEOUT.toMillis() * 2);
+                    status = "RUNNING";
+                } else if (n == STALLED_REQUESTS + 1) {
+                    // the child outlives a whole wait period
+                    Thread.sleep(waitTimeoutSec(query) * 1000L);
+                    status = "RUNNING";
+                } else {
+                    status = "FINISHED";
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            byte[] body = ("[{\"instanceId\": \"" + childId + "\", \"status\": \"" + status + "\"}]").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+            } catch (Exception e) {
+                // the client is gone
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testWaitLongerThanReadTimeout() {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        ConcordTaskCommon common = new ConcordTaskCommon("session", cfg -> {
+            ApiClient client = new ApiClient(HttpClient.newHttpClient());
+            client.setBaseUrl(baseUrl);
+            client.setReadTimeout(READ_TIMEOUT);
+            return client;
+        }, UUID.randomUUID(), "Default", Paths.get("."), false);
+
+        Map<String, ProcessEntry> result = common.waitForCompletion(Collections.singletonList(childId), -1, Function.identity());
+
+        assertEquals(ProcessEntry.StatusEnum.FINISHED, result.get(childId.toString()).getStatus());
+        assertEquals(STALLED_REQUESTS + 2, requests.get());
+
+        // each wait request must be shorter than the read timeout
+        for (String q : queries) {
+            assertTrue(waitTimeoutSec(q) * 1000L < READ_TIMEOUT.toMillis(), q);
+        }
+    }
+
+    private static int waitTimeoutSec(String query) {
+        for (String kv : query.split("&")) {
+            if (kv.startsWith("timeout=")) {
+                return Integer.parseInt(kv.substring("timeout=".length()));
+            }
+        }
+        throw new IllegalArgumentException("No timeout: " + query);
+    }
+}
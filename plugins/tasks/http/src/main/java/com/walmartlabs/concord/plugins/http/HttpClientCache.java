@@ -0,0 +1,222 @@
+package com.walmartlabs.concord.plugins.http;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps HTTP clients (and their connection pools) between {@code http} task
+ * calls, so subsequent calls with the same connection settings can reuse
+ * the already established keep-alive connections.
+ * <p>
+ * The cache is bounded: the least recently used clients and the clients
+ * that weren't used for a while are closed as soon as they are released.
+ */
+final class HttpClientCache {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpClientCache.class);
+
+    private static final int MAX_SIZE = 16;
+    private static final long MAX_IDLE_TIME = TimeUnit.MINUTES.toMillis(5);
+
+    static final HttpClientCache INSTANCE = new HttpClientCache(MAX_SIZE, MAX_IDLE_TIME);
+
+    private final int maxSize;
+    private final long maxIdleTime;
+
+    // access order, the eldest entries are the least recently used
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    HttpClientCache(int maxSize, long maxIdleTime) {
+        this.maxSize = maxSize;
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    /**
+     * Returns a client for the specified configuration. The client must be
+     * released by closing the returned {@link Lease}.
+     *
+     * @param factory creates a new client if there's no suitable client in the cache
+     */
+    synchronized Lease acquire(Configuration cfg, Callable<CloseableHttpClient> factory) throws Exception {
+        evictExpired(System.currentTimeMillis());
+
+        Key key = new Key(cfg);
+        Entry e = entries.get(key);
+        if (e == null) {
+            e = new Entry(factory.call());
+            entries.put(key, e);
+            evictEldest();
+        }
+
+        e.refs++;
+        return new Lease(e);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void release(Entry e) {
+        e.refs--;
+        e.lastUsed = System.currentTimeMillis();
+        if (e.evicted && e.refs == 0) {
+            close(e);
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (e.refs == 0 && now - e.lastUsed >= maxIdleTime) {
+                it.remove();
+                close(e);
+            }
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry e = it.next();
+            it.remove();
+
+            // the client is closed when released
+            e.evicted = true;
+            if (e.refs == 0) {
+                close(e);
+            }
+        }
+    }
+
+    private static void close(Entry e) {
+        try {
+            e.client.close();
+        } catch (IOException ex) {
+            log.warn("close -> error while closing the client: {}", ex.getMessage());
+        }
+    }
+
+    final class Lease implements AutoCloseable {
+
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        CloseableHttpClient client() {
+            return entry.client;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(entry);
+        }
+    }
+
+    private static final class Entry {
+
+        private final CloseableHttpClient client;
+        private int refs;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean evicted;
+
+        private Entry(CloseableHttpClient client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * The connection-relevant part of the {@link Configuration}.
+     */
+    private static final class Key {
+
+        private final List<Object> values;
+
+        private Key(Configuration cfg) {
+            this.values = Arrays.asList(
+                    cfg.getConnectTimeout(),
+                    cfg.getSocketTimeout(),
+                    cfg.isFollowRedirects(),
+                    cfg.getProxy(),
+                    cfg.getProxyUser(),
+                    cfg.getProxyPassword() != null ? new String(cfg.getProxyPassword()) : null,
+                    // don't share connections between different credentials
+                    cfg.getEncodedAuthToken(),
+                    cfg.isStrictSsl(),
+                    storeKey(cfg.getWorkDir(), cfg.keyStorePath()),
+                    cfg.keyStorePassword(),
+                    storeKey(cfg.getWorkDir(), cfg.trustStorePath()),
+                    cfg.trustStorePassword());
+        }
+
+        /**
+         * Key stores are identified by their absolute paths and modification
+         * times, the files can be replaced between calls.
+         */
+        private static String storeKey(String workDir, String path) {
+            if (path == null) {
+                return null;
+            }
+
+            Path p = (workDir != null ? Paths.get(workDir).resolve(path) : Paths.get(path)).toAbsolutePath().normalize();
+            try {
+                return p + "@" + Files.getLastModifiedTime(p).toMillis();
+            } catch (IOException e) {
+                // the client factory reports missing files
+                return p.toString();
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return values.equals(((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.HttpClientConnectionManager;
@@ -41,6 +42,7 @@ import org.apache.http.conn.ssl.DefaultHostnameVerifier;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -53,12 +55,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.ws.rs.core.Response.Status.Family;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileAttribute;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
@@ -76,15 +78,17 @@ public class SimpleHttpClient {
 
     private static final Logger log = LoggerFactory.getLogger(SimpleHttpClient.class);
 
+    private static final int MAX_CONNECTIONS = 50;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 10;
+    private static final long MAX_IDLE_CONNECTION_TIME = 60;
+
     private final Configuration config;
-    private final CloseableHttpClient client;
     private final HttpUriRequest request;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     private SimpleHttpClient(Configuration config) throws Exception {
         this.config = config;
-        this.client = createClient(config);
         this.request = buildHttpUriRequest(config);
     }
 
@@ -105,6 +109,8 @@ public class SimpleHttpClient {
      * @throws Exception exception
      */
     public ClientResponse execute() throws Exception {
+        HttpClientCache.Lease lease = HttpClientCache.INSTANCE.acquire(config, () -> createClient(config));
+
         CloseableHttpResponse httpResponse = null;
         Object content = "";
         try {
@@ -112,7 +118,13 @@ public class SimpleHttpClient {
                 logRequest(request);
             }
 
-            httpResponse = callWithTimeout(() -> this.client.execute(request), config.getRequestTimeout());
+            CloseableHttpClient client = lease.client();
+
+            // the client is shared between calls, cookies and auth state must not be
+            HttpClientContext context = HttpClientContext.create();
+            context.setCookieStore(new BasicCookieStore());
+
+            httpResponse = callWithTimeout(() -> client.execute(request, context), config.getRequestTimeout());
 
             int code = httpResponse.getStatusLine().getStatusCode();
             if (isUnauthorized(code) && !config.isIgnoreErrors()) {
@@ -160,10 +172,13 @@ public class SimpleHttpClient {
                     logResponse(httpResponse, content);
                 }
 
+                // read the remaining data (if any), otherwise the connection can't be reused
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
                 httpResponse.close();
             }
 
-            this.client.close();
+            lease.close();
+            executorService.shutdown();
         }
     }
 
@@ -247,7 +262,10 @@ public class SimpleHttpClient {
         Path tmpDir = assertTempDir(baseDir);
         Path tempFile = uriToPath(this.request.getURI(), tmpDir);
 
-        entity.writeTo(new FileOutputStream(tempFile.toFile()));
+        // stream the data directly into the file
+        try (InputStream in = entity.getContent()) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        }
         // Return the relative path instead of absolute path
         return baseDir.relativize(tempFile.toAbsolutePath()).toString();
     }
@@ -321,7 +339,8 @@ public class SimpleHttpClient {
     }
 
     /**
-     * Method to create {@link CloseableHttpClient client} with custom connection manager
+     * Method to create {@link CloseableHttpClient client} with custom connection manager.
+     * The clients are reused between calls, see {@link HttpClientCache}.
      *
      * @return CloseableHttpClient client
      * @throws Exception exception
@@ -356,6 +375,10 @@ public class SimpleHttpClient {
                 .setConnectionManager(buildConnectionManager(cfg))
                 .setDefaultRequestConfig(c.build())
                 .setRedirectStrategy(new LaxRedirectStrategy())
+                // the client is used with a single set of client certificates, no need to track the connection's user
+                .disableConnectionState()
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_CONNECTION_TIME, TimeUnit.SECONDS)
                 .build();
     }
 
@@ -419,7 +442,10 @@ public class SimpleHttpClient {
                 .register("https", socketFactory)
                 .build();
 
-        return new PoolingHttpClientConnectionManager(registry);
+        PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager(registry);
+        cm.setMaxTotal(MAX_CONNECTIONS);
+        cm.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        return cm;
     }
 
 
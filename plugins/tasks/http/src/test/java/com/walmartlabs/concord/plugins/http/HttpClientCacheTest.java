@@ -0,0 +1,108 @@
+package com.walmartlabs.concord.plugins.http;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class HttpClientCacheTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        HttpClientCache cache = new HttpClientCache(2, 60000);
+
+        CloseableHttpClient a;
+        try (HttpClientCache.Lease l = cache.acquire(cfg("http://localhost/a", 1000), () -> mock(CloseableHttpClient.class))) {
+            a = l.client();
+        }
+
+        // different URL, same connection settings
+        try (HttpClientCache.Lease l = cache.acquire(cfg("http://localhost/b", 1000), () -> mock(CloseableHttpClient.class))) {
+            assertSame(a, l.client());
+        }
+
+        try (HttpClientCache.Lease l = cache.acquire(cfg("http://localhost/a", 2000), () -> mock(CloseableHttpClient.class))) {
+            assertNotSame(a, l.client());
+        }
+
+        assertEquals(2, cache.size());
+        verify(a, never()).close();
+    }
+
+    @Test
+    public void testDifferentCredentials() throws Exception {
+        HttpClientCache cache = new HttpClientCache(2, 60000);
+
+        Configuration a = Configuration.custom()
+                .withUrl("http://localhost")
+                .withEncodedAuthToken("Basic YTph")
+                .build();
+        Configuration b = Configuration.custom()
+                .withUrl("http://localhost")
+                .withEncodedAuthToken("Basic Yjpi")
+                .build();
+
+        try (HttpClientCache.Lease l1 = cache.acquire(a, () -> mock(CloseableHttpClient.class));
+             HttpClientCache.Lease l2 = cache.acquire(b, () -> mock(CloseableHttpClient.class))) {
+            assertNotSame(l1.client(), l2.client());
+        }
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        HttpClientCache cache = new HttpClientCache(1, 60000);
+
+        HttpClientCache.Lease l1 = cache.acquire(cfg("http://localhost", 1000), () -> mock(CloseableHttpClient.class));
+        HttpClientCache.Lease l2 = cache.acquire(cfg("http://localhost", 2000), () -> mock(CloseableHttpClient.class));
+        assertEquals(1, cache.size());
+
+        // the evicted client is still in use
+        verify(l1.client(), never()).close();
+        l1.close();
+        verify(l1.client(), times(1)).close();
+
+        l2.close();
+        verify(l2.client(), never()).close();
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        HttpClientCache cache = new HttpClientCache(10, 0);
+
+        HttpClientCache.Lease l1 = cache.acquire(cfg("http://localhost", 1000), () -> mock(CloseableHttpClient.class));
+        l1.close();
+
+        HttpClientCache.Lease l2 = cache.acquire(cfg("http://localhost", 1000), () -> mock(CloseableHttpClient.class));
+        assertNotSame(l1.client(), l2.client());
+        verify(l1.client(), times(1)).close();
+        l2.close();
+    }
+
+    private static Configuration cfg(String url, int socketTimeout) {
+        return Configuration.custom()
+                .withUrl(url)
+                .withSocketTimeout(socketTimeout)
+                .build();
+    }
+}
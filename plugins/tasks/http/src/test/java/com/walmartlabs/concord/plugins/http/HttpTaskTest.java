@@ -48,6 +48,25 @@ public class HttpTaskTest extends AbstractHttpTaskTest {
         assertNotNull(response);
     }
 
+    @Test
+    public void testCookiesAreNotShared(WireMockRuntimeInfo wmRuntimeInfo) throws Exception {
+        stubFor(get(urlEqualTo("/cookie/set"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Set-Cookie", "session=secret; Path=/")
+                        .withBody("ok")));
+        stubFor(get(urlEqualTo("/cookie/check"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody("ok")));
+
+        // both calls use the same cached client
+        task.asString("http://localhost:" + wmRuntimeInfo.getHttpPort() + "/cookie/set");
+        task.asString("http://localhost:" + wmRuntimeInfo.getHttpPort() + "/cookie/check");
+
+        verify(getRequestedFor(urlEqualTo("/cookie/check")).withoutHeader("Cookie"));
+    }
+
     @Test
     public void testExecuteGetRequestForJson(WireMockRuntimeInfo wmRuntimeInfo) throws Exception {
         initCxtForRequest(mockContext, "GET", "json", "json",
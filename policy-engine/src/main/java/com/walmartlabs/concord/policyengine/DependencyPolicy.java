@@ -28,8 +28,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-import static com.walmartlabs.concord.policyengine.Utils.matches;
-
 public class DependencyPolicy {
 
     private final PolicyRules<DependencyRule> rules;
@@ -87,15 +85,15 @@ public class DependencyPolicy {
     }
 
     private static boolean matchRule(DependencyRule r, DependencyEntity.Artifact a) {
-        if (r.scheme() != null && !matches(r.scheme(), "mvn")) {
+        if (r.scheme() != null && !r.schemeMatcher().matches("mvn")) {
             return false;
         }
 
-        if (r.groupId() != null && !matches(r.groupId(), a.getGroupId())) {
+        if (r.groupId() != null && !r.groupIdMatcher().matches(a.getGroupId())) {
             return false;
         }
 
-        if (r.artifactId() != null && !matches(r.artifactId(), a.getArtifactId())) {
+        if (r.artifactId() != null && !r.artifactIdMatcher().matches(a.getArtifactId())) {
             return false;
         }
 
@@ -111,7 +109,7 @@ public class DependencyPolicy {
     }
 
     private static boolean matchRule(DependencyRule r, URI directLink) {
-        if (r.scheme() != null && matches(r.scheme(), directLink.getScheme())) {
+        if (r.scheme() != null && r.schemeMatcher().matches(directLink.getScheme())) {
             return true;
         }
 
@@ -30,7 +30,6 @@ import java.util.Collection;
 import java.util.List;
 
 import static com.walmartlabs.concord.dependencymanager.DependencyManager.MAVEN_SCHEME;
-import static com.walmartlabs.concord.policyengine.Utils.matches;
 
 public class DependencyRewritePolicy {
 
@@ -78,11 +77,11 @@ public class DependencyRewritePolicy {
     }
 
     private static boolean match(DependencyRewriteRule r, Artifact a) {
-        if (r.groupId() != null && !matches(r.groupId(), a.getGroupId())) {
+        if (r.groupId() != null && !r.groupIdMatcher().matches(a.getGroupId())) {
             return false;
         }
 
-        if (r.artifactId() != null && !matches(r.artifactId(), a.getArtifactId())) {
+        if (r.artifactId() != null && !r.artifactIdMatcher().matches(a.getArtifactId())) {
             return false;
         }
 
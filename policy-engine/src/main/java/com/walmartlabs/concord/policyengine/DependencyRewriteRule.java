@@ -23,6 +23,7 @@ package com.walmartlabs.concord.policyengine;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.walmartlabs.concord.common.CompiledMatcher;
 import org.immutables.value.Value;
 
 import javax.annotation.Nullable;
@@ -61,6 +62,16 @@ public interface DependencyRewriteRule extends Serializable {
         return List.of();
     }
 
+    @Value.Lazy
+    default CompiledMatcher groupIdMatcher() {
+        return CompiledMatcher.compile(groupId());
+    }
+
+    @Value.Lazy
+    default CompiledMatcher artifactIdMatcher() {
+        return CompiledMatcher.compile(artifactId());
+    }
+
     static ImmutableDependencyRewriteRule.Builder builder() {
         return ImmutableDependencyRewriteRule.builder();
     }
@@ -23,6 +23,7 @@ package com.walmartlabs.concord.policyengine;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.walmartlabs.concord.common.CompiledMatcher;
 import org.immutables.value.Value;
 
 import javax.annotation.Nullable;
@@ -54,6 +55,21 @@ public interface DependencyRule extends Serializable {
     @Nullable
     String toVersion();
 
+    @Value.Lazy
+    default CompiledMatcher schemeMatcher() {
+        return CompiledMatcher.compile(scheme());
+    }
+
+    @Value.Lazy
+    default CompiledMatcher groupIdMatcher() {
+        return CompiledMatcher.compile(groupId());
+    }
+
+    @Value.Lazy
+    default CompiledMatcher artifactIdMatcher() {
+        return CompiledMatcher.compile(artifactId());
+    }
+
     static ImmutableDependencyRule.Builder builder() {
         return ImmutableDependencyRule.builder();
     }
@@ -25,8 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
-import static com.walmartlabs.concord.policyengine.Utils.matches;
-
 public class EntityPolicy {
 
     private final PolicyRules<EntityRule> rules;
@@ -74,15 +72,15 @@ public class EntityPolicy {
     }
 
     private boolean matchRule(EntityRule r, String entity, String action, Map<String, Object> attrs) {
-        if (r.entity() != null && !matches(r.entity(), entity)) {
+        if (r.entity() != null && !r.entityMatcher().matches(entity)) {
             return false;
         }
 
-        if (r.action() != null && !matches(r.action(), action)) {
+        if (r.action() != null && !r.actionMatcher().matches(action)) {
             return false;
         }
 
-        if (r.conditions() != null && !matches(r.conditions(), attrs)) {
+        if (r.conditions() != null && !r.conditionsMatcher().matches(attrs)) {
             return false;
         }
 
@@ -23,6 +23,7 @@ package com.walmartlabs.concord.policyengine;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.walmartlabs.concord.common.CompiledMatcher;
 import org.immutables.value.Value;
 
 import javax.annotation.Nullable;
@@ -49,6 +50,21 @@ public interface EntityRule extends Serializable {
     @Nullable
     Map<String, Object> conditions();
 
+    @Value.Lazy
+    default CompiledMatcher entityMatcher() {
+        return CompiledMatcher.compile(entity());
+    }
+
+    @Value.Lazy
+    default CompiledMatcher actionMatcher() {
+        return CompiledMatcher.compile(action());
+    }
+
+    @Value.Lazy
+    default CompiledMatcher conditionsMatcher() {
+        return CompiledMatcher.compile(conditions());
+    }
+
     static ImmutableEntityRule.Builder builder() {
         return ImmutableEntityRule.builder();
     }
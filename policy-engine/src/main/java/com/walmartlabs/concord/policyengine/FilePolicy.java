@@ -29,8 +29,6 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
-import static com.walmartlabs.concord.policyengine.Utils.matchAny;
-
 public class FilePolicy {
 
     private final PolicyRules<FileRule> rules;
@@ -94,7 +92,7 @@ public class FilePolicy {
             return false;
         }
 
-        if (!ri.getNames().isEmpty() && !matchAny(ri.getNames(), file.getFileName().toString())) {
+        if (!ri.getNames().isEmpty() && !ri.getNamesMatcher().matches(file.getFileName().toString())) {
             return false;
         }
 
@@ -23,6 +23,7 @@ package com.walmartlabs.concord.policyengine;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.walmartlabs.concord.common.CompiledMatcher;
 
 import java.io.Serializable;
 import java.util.Collections;
@@ -41,6 +42,8 @@ public class FileRule implements Serializable {
     private final Type type;
     private final List<String> names;
 
+    private transient CompiledMatcher namesMatcher;
+
     @JsonCreator
     public FileRule(
             @JsonProperty("msg") String msg,
@@ -53,6 +56,7 @@ public class FileRule implements Serializable {
         this.maxSize = maxSize;
         this.type = Optional.ofNullable(type).map(v -> Type.valueOf(v.toUpperCase())).orElse(Type.FILE);
         this.names = Optional.ofNullable(names).orElse(Collections.emptyList());
+        this.namesMatcher = CompiledMatcher.compile(this.names);
     }
 
     public String getMsg() {
@@ -76,6 +80,15 @@ public class FileRule implements Serializable {
         return names;
     }
 
+    @JsonIgnore
+    public CompiledMatcher getNamesMatcher() {
+        // not restored by the Java deserialization
+        if (namesMatcher == null) {
+            namesMatcher = CompiledMatcher.compile(names);
+        }
+        return namesMatcher;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -131,7 +131,7 @@ public class StatePolicy {
 
     private static void checkPatterns(List<StateRule> rules, Path file, List<CheckResult.Item<StateRule, Path>> result) {
         for (StateRule r : rules) {
-            if (matchPattern(r.patterns(), file.toString())) {
+            if (r.patternsMatcher().matches(file.toString())) {
                 result.add(new CheckResult.Item<>(r, file));
             }
         }
@@ -140,8 +140,4 @@ public class StatePolicy {
     private static boolean hasStats(StateRule rule) {
         return rule.maxFilesCount() != null || rule.maxSizeInBytes() != null;
     }
-
-    private static boolean matchPattern(List<String> patterns, String fileName) {
-        return Utils.matchAny(patterns, fileName);
-    }
 }
@@ -23,6 +23,7 @@ package com.walmartlabs.concord.policyengine;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.walmartlabs.concord.common.CompiledMatcher;
 import org.immutables.value.Value;
 
 import javax.annotation.Nullable;
@@ -52,6 +53,11 @@ public interface StateRule extends Serializable {
         return Collections.emptyList();
     }
 
+    @Value.Lazy
+    default CompiledMatcher patternsMatcher() {
+        return CompiledMatcher.compile(patterns());
+    }
+
     static ImmutableStateRule.Builder builder() {
         return ImmutableStateRule.builder();
     }
@@ -20,14 +20,12 @@ package com.walmartlabs.concord.policyengine;
  * =====
  */
 
+import com.walmartlabs.concord.common.CompiledMatcher;
 import com.walmartlabs.concord.runtime.v2.sdk.Variables;
 import com.walmartlabs.concord.sdk.Context;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
-
-import static com.walmartlabs.concord.policyengine.Utils.matches;
 
 public class TaskPolicy {
 
@@ -82,11 +80,11 @@ public class TaskPolicy {
     }
 
     private boolean matchRule(String taskName, String methodName, Object[] params, Map<String, List<Serializable>> taskResults, TaskRule r) {
-        if (!matches(r.taskName(), taskName)) {
+        if (!r.taskNameMatcher().matches(taskName)) {
             return false;
         }
 
-        if (r.method() != null && !matches(r.method(), methodName)) {
+        if (r.method() != null && !r.methodMatcher().matches(methodName)) {
             return false;
         }
 
@@ -114,7 +112,7 @@ public class TaskPolicy {
             if (!paramMatches(
                     Optional.ofNullable(p.name()).map(n -> n.split("\\.")).orElse(null),
                     0,
-                    p.values(), params[p.index()],
+                    p.values(), p.valuesMatcher(), params[p.index()],
                     p.protectedVariable())) {
                 return false;
             }
@@ -124,7 +122,7 @@ public class TaskPolicy {
     }
 
     @SuppressWarnings("unchecked")
-    private static boolean paramMatches(String[] names, int nameIndex, List<Object> values, Object param, boolean isProtected) {
+    private static boolean paramMatches(String[] names, int nameIndex, List<Object> values, CompiledMatcher valuesMatcher, Object param, boolean isProtected) {
         if (param == null) {
             return values.contains(null);
         }
@@ -136,7 +134,7 @@ public class TaskPolicy {
             Map<String, Object> m = (Map<String, Object>) param;
             String name = names[nameIndex];
             nameIndex += 1;
-            return paramMatches(names, nameIndex, values, m.get(name), isProtected);
+            return paramMatches(names, nameIndex, values, valuesMatcher, m.get(name), isProtected);
         } else if (param instanceof Context) {
             if (names == null) {
                 return false;
@@ -145,21 +143,21 @@ public class TaskPolicy {
             String name = names[nameIndex];
             nameIndex += 1;
             Object v = isProtected ? ctx.getProtectedVariable(name) : ctx.getVariable(name);
-            return paramMatches(names, nameIndex, values, v, isProtected);
+            return paramMatches(names, nameIndex, values, valuesMatcher, v, isProtected);
         } else if (param instanceof Variables) {
             Variables vars = (Variables) param;
             String name = names[nameIndex];
             nameIndex += 1;
             Object v = vars.get(name);
-            return paramMatches(names, nameIndex, values, v, isProtected);
+            return paramMatches(names, nameIndex, values, valuesMatcher, v, isProtected);
         } else if (param instanceof com.walmartlabs.concord.runtime.v2.sdk.Context) {
             com.walmartlabs.concord.runtime.v2.sdk.Context ctx = (com.walmartlabs.concord.runtime.v2.sdk.Context) param;
             String name = names[nameIndex];
             nameIndex += 1;
             Object v = ctx.variables().get(name);
-            return paramMatches(names, nameIndex, values, v, isProtected);
+            return paramMatches(names, nameIndex, values, valuesMatcher, v, isProtected);
         } else if (param instanceof String) {
-            return Utils.matchAny(values.stream().map(Object::toString).collect(Collectors.toList()), param.toString());
+            return valuesMatcher.matches(param.toString());
         } else {
             for (Object v : values) {
                 if (v != null && v.equals(param)) {
@@ -184,7 +182,7 @@ public class TaskPolicy {
             for (Object result : results) {
                 if (paramMatches(
                         Optional.ofNullable(resultName).map(n -> n.split("\\.")).orElse(null),
-                        0, tr.values(), result, false)) {
+                        0, tr.values(), tr.valuesMatcher(), result, false)) {
                     return true;
                 }
             }
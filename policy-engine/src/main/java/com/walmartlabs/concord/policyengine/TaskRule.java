@@ -26,12 +26,15 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.walmartlabs.concord.common.AllowNulls;
+import com.walmartlabs.concord.common.CompiledMatcher;
 import org.immutables.value.Value;
 
 import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Value.Immutable
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
@@ -62,10 +65,27 @@ public interface TaskRule extends Serializable {
         return Collections.emptyList();
     }
 
+    @Value.Lazy
+    default CompiledMatcher taskNameMatcher() {
+        return CompiledMatcher.compile(taskName());
+    }
+
+    @Value.Lazy
+    default CompiledMatcher methodMatcher() {
+        return CompiledMatcher.compile(method());
+    }
+
     static ImmutableTaskRule.Builder builder() {
         return ImmutableTaskRule.builder();
     }
 
+    private static CompiledMatcher compileValues(List<Object> values) {
+        return CompiledMatcher.compile(values.stream()
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .collect(Collectors.toList()));
+    }
+
     @Value.Immutable
     @JsonInclude(JsonInclude.Include.NON_EMPTY)
     @JsonSerialize(as = ImmutableParam.class)
@@ -88,6 +108,14 @@ public interface TaskRule extends Serializable {
             return Collections.emptyList();
         }
 
+        /**
+         * Matches string parameters against the string representation of {@link #values()}.
+         */
+        @Value.Lazy
+        default CompiledMatcher valuesMatcher() {
+            return compileValues(values());
+        }
+
         static ImmutableParam.Builder builder() {
             return ImmutableParam.builder();
         }
@@ -112,6 +140,14 @@ public interface TaskRule extends Serializable {
             return Collections.emptyList();
         }
 
+        /**
+         * Matches string results against the string representation of {@link #values()}.
+         */
+        @Value.Lazy
+        default CompiledMatcher valuesMatcher() {
+            return compileValues(values());
+        }
+
         static ImmutableTaskResult.Builder builder() {
             return ImmutableTaskResult.builder();
         }
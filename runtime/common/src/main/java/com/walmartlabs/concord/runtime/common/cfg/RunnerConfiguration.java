@@ -122,6 +122,14 @@ public interface RunnerConfiguration {
         return DockerConfiguration.builder().build();
     }
 
+    /**
+     * Process threads configuration.
+     */
+    @Value.Default
+    default ThreadsConfiguration threads() {
+        return ThreadsConfiguration.builder().build();
+    }
+
     static ImmutableRunnerConfiguration.Builder builder() {
         return ImmutableRunnerConfiguration.builder();
     }
@@ -0,0 +1,66 @@
+package com.walmartlabs.concord.runtime.common.cfg;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(as = ImmutableThreadsConfiguration.class)
+@JsonDeserialize(as = ImmutableThreadsConfiguration.class)
+public interface ThreadsConfiguration {
+
+    /**
+     * Max number of process threads (e.g. {@code parallel} blocks or loops
+     * with {@code parallelism}) running at the same time. Threads waiting
+     * for their children don't count towards the limit.
+     * <p/>
+     * Default is {@code 0} (unlimited).
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default int maxConcurrency() {
+        return 0;
+    }
+
+    /**
+     * Max number of additional threads created to replace the threads
+     * waiting for their children. When there are no spare threads left, new
+     * process threads run in the threads that start them.
+     * <p/>
+     * Default is {@code 256}. Used only if {@link #maxConcurrency()} is set.
+     *
+     * @apiNote only for the runtime v2.
+     */
+    @Value.Default
+    default int maxSpareThreads() {
+        return 256;
+    }
+
+    static ImmutableThreadsConfiguration.Builder builder() {
+        return ImmutableThreadsConfiguration.builder();
+    }
+}
@@ -21,6 +21,8 @@ package com.walmartlabs.concord.runtime.v2.runner;
  */
 
 import com.google.inject.Injector;
+import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
+import com.walmartlabs.concord.runtime.common.cfg.ThreadsConfiguration;
 import com.walmartlabs.concord.svm.Runtime;
 import com.walmartlabs.concord.runtime.v2.runner.vm.LoggedException;
 import com.walmartlabs.concord.svm.State;
@@ -31,6 +33,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DefaultRuntime implements Runtime {
 
@@ -39,31 +44,123 @@ public class DefaultRuntime implements Runtime {
     private final VM vm;
     private final Injector injector;
     private final ExecutorService executor;
+    private final int maxPoolSize;
+    private final boolean debug;
+
+    private final AtomicInteger activeThreads = new AtomicInteger();
+    private final AtomicInteger maxActiveThreads = new AtomicInteger();
+    private final AtomicInteger callerRunsThreads = new AtomicInteger();
 
     public DefaultRuntime(VM vm, Injector injector) {
         this.vm = vm;
         this.injector = injector;
 
-        this.executor = Executors.newCachedThreadPool();
+        RunnerConfiguration runnerCfg = injector.getInstance(RunnerConfiguration.class);
+        ThreadsConfiguration threadsCfg = runnerCfg.threads();
+        if (threadsCfg.maxConcurrency() > 0) {
+            this.maxPoolSize = threadsCfg.maxConcurrency() + Math.max(threadsCfg.maxSpareThreads(), 0);
+            this.executor = createPool(threadsCfg.maxConcurrency(), maxPoolSize);
+        } else {
+            this.maxPoolSize = 0;
+            this.executor = Executors.newCachedThreadPool();
+        }
+        this.debug = runnerCfg.debug();
     }
 
     @Override
     public void spawn(State state, ThreadId threadId) {
-        executor.submit(() -> {
+        if (isSaturated()) {
+            // no spare threads left, run the thread in the caller's thread.
+            // Its status is already saved in the state, the error doesn't
+            // belong to the caller
+            callerRunsThreads.incrementAndGet();
             try {
-                vm.eval(this, state, threadId);
-            } catch (LoggedException e) {
-                throw e.getCause();
+                run(state, threadId);
             } catch (Exception e) {
-                log.error("Error while evaluating commands for thread {}", threadId, e);
-                throw e;
+                log.debug("spawn [{}] -> failed in the caller's thread: {}", threadId, e.getMessage());
             }
+            return;
+        }
+
+        executor.submit(() -> {
+            run(state, threadId);
             return null;
         });
     }
 
+    /**
+     * @return the number of currently running process threads, not counting the root thread.
+     */
+    public int getActiveThreads() {
+        return activeThreads.get();
+    }
+
+    /**
+     * @return the max number of concurrently running process threads, not counting the root thread.
+     */
+    public int getMaxActiveThreads() {
+        return maxActiveThreads.get();
+    }
+
+    /**
+     * @return the number of process threads that ran in their parent's thread
+     * because the pool had no spare threads left.
+     */
+    public int getCallerRunsThreads() {
+        return callerRunsThreads.get();
+    }
+
+    /**
+     * Logs the thread pool stats. Called when the process finishes.
+     * Without {@code maxConcurrency} the stats are logged only in debug.
+     */
+    public void logStats() {
+        if (maxActiveThreads.get() == 0) {
+            return;
+        }
+
+        if (executor instanceof ForkJoinPool pool) {
+            log.info("Process threads: max running {}, ran in the parent's thread {}, pool size {} (largest allowed {}), steals {}",
+                    maxActiveThreads.get(), callerRunsThreads.get(), pool.getPoolSize(), maxPoolSize, pool.getStealCount());
+        } else {
+            log.debug("Process threads: max running {}", maxActiveThreads.get());
+        }
+    }
+
     @Override
     public <T> T getService(Class<T> klass) {
         return injector.getInstance(klass);
     }
+
+    private void run(State state, ThreadId threadId) throws Exception {
+        int active = activeThreads.incrementAndGet();
+        if (active > maxActiveThreads.getAndAccumulate(active, Math::max) && debug) {
+            log.info("spawn [{}] -> max number of concurrently running threads: {}", threadId, active);
+        }
+
+        try {
+            vm.eval(this, state, threadId);
+        } catch (LoggedException e) {
+            throw e.getCause();
+        } catch (Exception e) {
+            log.error("Error while evaluating commands for thread {}", threadId, e);
+            throw e;
+        } finally {
+            activeThreads.decrementAndGet();
+        }
+    }
+
+    private boolean isSaturated() {
+        return executor instanceof ForkJoinPool pool && pool.getPoolSize() >= maxPoolSize;
+    }
+
+    private static ForkJoinPool createPool(int maxConcurrency, int maxPoolSize) {
+        // threads waiting for their children use ForkJoinPool#managedBlock (see JoinCommand),
+        // the pool compensates for them with spare threads. Once the spare threads are used up
+        // the waiting threads block without compensation (instead of failing with
+        // RejectedExecutionException) and the new threads run in their parents' threads,
+        // see #spawn
+        return new ForkJoinPool(maxConcurrency, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true,
+                0, maxPoolSize, 1, pool -> true, 60, TimeUnit.SECONDS);
+    }
 }
@@ -69,6 +69,7 @@ public class Main {
     private final TaskProviders taskProviders;
     private final ClassLoader classLoader;
     private final ProjectLoadListeners projectLoadListeners;
+    private final StartupTimings startupTimings;
 
     @Inject
     public Main(Runner runner,
@@ -77,7 +78,8 @@ public class Main {
                 WorkingDirectory workDir,
                 TaskProviders taskProviders,
                 @Named("runtime") ClassLoader classLoader,
-                ProjectLoadListeners projectLoadListeners) {
+                ProjectLoadListeners projectLoadListeners,
+                StartupTimings startupTimings) {
 
         this.runner = runner;
         this.runnerCfg = runnerCfg;
@@ -86,9 +88,12 @@ public class Main {
         this.taskProviders = taskProviders;
         this.classLoader = classLoader;
         this.projectLoadListeners = projectLoadListeners;
+        this.startupTimings = startupTimings;
     }
 
     public static void main(String[] args) throws Exception {
+        long t1 = System.currentTimeMillis();
+
         RunnerConfiguration runnerCfg = readRunnerConfiguration(args);
 
         // create the injector with all dependencies and services available before
@@ -96,8 +101,17 @@ public class Main {
         // all dependencies and have them available in "pre-fork" situations
         Injector injector = InjectorFactory.createDefault(runnerCfg);
 
+        long t2 = System.currentTimeMillis();
+
         try {
+            // blocks until the process' payload is ready
             ProcessConfiguration processCfg = injector.getInstance(ProcessConfiguration.class);
+
+            StartupTimings startupTimings = injector.getInstance(StartupTimings.class);
+            startupTimings.onMain(t1);
+            startupTimings.record("injector", t2 - t1);
+            startupTimings.record("payloadWait", System.currentTimeMillis() - t2);
+
             ApiClient apiClient = injector.getInstance(ApiClient.class);
             ProcessHeartbeat heartbeat = new ProcessHeartbeat(apiClient, processCfg.instanceId(), runnerCfg.api().maxNoHeartbeatInterval());
             heartbeat.start();
@@ -154,6 +168,20 @@ public class Main {
         Set<String> events = StateManager.readResumeEvents(workDir); // TODO make it an interface?
 
         Action action = currentAction(events);
+        try {
+            snapshot = execute(action, snapshot, events, workDir);
+        } finally {
+            startupTimings.report();
+        }
+
+        if (isSuspended(snapshot)) {
+            StateManager.finalizeSuspendedState(workDir, snapshot, getEvents(snapshot)); // TODO make it an interface?
+        } else {
+            StateManager.cleanupState(workDir); // TODO make it an interface
+        }
+    }
+
+    private ProcessSnapshot execute(Action action, ProcessSnapshot snapshot, Set<String> events, Path workDir) throws Exception {
         switch (action) {
             case START: {
                 Map<String, Object> processArgs = new LinkedHashMap<>();
@@ -163,7 +191,7 @@ public class Main {
                 }
                 processArgs.putAll(prepareProcessArgs(processCfg));
 
-                snapshot = start(runner, processCfg, workDir, processArgs, projectLoadListeners);
+                snapshot = start(runner, processCfg, workDir, processArgs, projectLoadListeners, startupTimings);
                 break;
             }
             case RESUME: {
@@ -177,11 +205,7 @@ public class Main {
             }
         }
 
-        if (isSuspended(snapshot)) {
-            StateManager.finalizeSuspendedState(workDir, snapshot, getEvents(snapshot)); // TODO make it an interface?
-        } else {
-            StateManager.cleanupState(workDir); // TODO make it an interface
-        }
+        return snapshot;
     }
 
     private Map<String, Object> prepareProcessArgs(ProcessConfiguration cfg) {
@@ -214,11 +238,15 @@ public class Main {
         }
     }
 
-    private static ProcessSnapshot start(Runner runner, ProcessConfiguration cfg, Path workDir, Map<String, Object> args, ProjectLoadListener projectLoadListener) throws Exception {
+    private static ProcessSnapshot start(Runner runner, ProcessConfiguration cfg, Path workDir, Map<String, Object> args, ProjectLoadListener projectLoadListener, StartupTimings startupTimings) throws Exception {
+        long t1 = System.currentTimeMillis();
+
         // assume all imports were processed by the agent
         ProjectLoaderV2 loader = new ProjectLoaderV2(new NoopImportManager());
         ProcessDefinition processDefinition = loader.load(workDir, new NoopImportsNormalizer(), ImportsListener.NOP_LISTENER, projectLoadListener).getProjectDefinition();
 
+        startupTimings.record("projectLoad", System.currentTimeMillis() - t1);
+
         Map<String, Object> initiator = cfg.initiator();
         if (initiator != null) {
             // when the process starts the process' initiator and the current user are the same
@@ -144,6 +144,7 @@ public class Runner {
         Collection<ExecutionListener> listeners = new ArrayList<>();
         listeners.add(new SynchronizationServiceListener(synchronizationService));
         listeners.addAll(this.listeners);
+        listeners.add(new ThreadStatsListener());
 
         RuntimeFactory runtimeFactory = vm -> new DefaultRuntime(vm, injectorWithProcessDefinition(injector, processDefinition));
 
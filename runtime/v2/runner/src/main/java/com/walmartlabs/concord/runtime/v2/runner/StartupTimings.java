@@ -0,0 +1,139 @@
+package com.walmartlabs.concord.runtime.v2.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.client2.ApiClient;
+import com.walmartlabs.concord.client2.ClientUtils;
+import com.walmartlabs.concord.client2.ProcessApi;
+import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
+import com.walmartlabs.concord.runtime.common.injector.InstanceId;
+import com.walmartlabs.concord.runtime.v2.runner.vm.StepCommand;
+import com.walmartlabs.concord.svm.Runtime;
+import com.walmartlabs.concord.svm.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the durations of the runner's startup phases and saves them in
+ * the process' metadata. Enabled by the agent using
+ * the {@code concord.startupTimings} JVM property.
+ * <p>
+ * The JVM's own startup is measured from the OS process start until
+ * the {@code main} method is called. The first step is measured from
+ * the OS process start, for "pre-forked" JVMs it includes the time spent
+ * waiting for the process payload ({@code payloadWait}).
+ */
+@Singleton
+public class StartupTimings implements ExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimings.class);
+
+    public static final String META_KEY = "startupTimings";
+
+    private final boolean enabled;
+    private final Provider<InstanceId> instanceId;
+    private final Provider<ApiClient> apiClient;
+    private final RunnerConfiguration runnerCfg;
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private long processStartedAt;
+    private volatile boolean firstStepRecorded;
+
+    @Inject
+    public StartupTimings(Provider<InstanceId> instanceId,
+                          Provider<ApiClient> apiClient,
+                          RunnerConfiguration runnerCfg) {
+
+        this.enabled = Boolean.getBoolean("concord.startupTimings");
+        this.instanceId = instanceId;
+        this.apiClient = apiClient;
+        this.runnerCfg = runnerCfg;
+    }
+
+    /**
+     * @param mainStartedAt the time when the {@code main} method was called
+     */
+    public synchronized void onMain(long mainStartedAt) {
+        processStartedAt = ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli)
+                .orElse(mainStartedAt);
+
+        values.put("jvmStart", mainStartedAt - processStartedAt);
+
+        String cds = System.getProperty("concord.cds");
+        if (cds != null) {
+            values.put("cds", cds);
+        }
+    }
+
+    public synchronized void record(String phase, long duration) {
+        values.put(phase, duration);
+    }
+
+    @Override
+    public Result beforeCommand(Runtime runtime, VM vm, State state, ThreadId threadId, Command cmd) {
+        if (firstStepRecorded || !(cmd instanceof StepCommand)) {
+            return Result.CONTINUE;
+        }
+
+        synchronized (this) {
+            if (processStartedAt > 0 && !firstStepRecorded) {
+                values.put("firstStep", System.currentTimeMillis() - processStartedAt);
+                firstStepRecorded = true;
+            }
+        }
+
+        return Result.CONTINUE;
+    }
+
+    /**
+     * Saves the recorded values in the process' metadata. Errors are logged
+     * and ignored.
+     */
+    public void report() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, Object> meta;
+        synchronized (this) {
+            meta = Collections.singletonMap(META_KEY, new LinkedHashMap<>(values));
+        }
+
+        try {
+            ProcessApi api = new ProcessApi(apiClient.get());
+            ClientUtils.withRetry(runnerCfg.api().retryCount(), runnerCfg.api().retryInterval(), () -> {
+                api.updateMetadata(instanceId.get().getValue(), meta);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("report -> error while saving the startup timings: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.walmartlabs.concord.runtime.v2.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.svm.ExecutionListener;
+import com.walmartlabs.concord.svm.Frame;
+import com.walmartlabs.concord.svm.Runtime;
+import com.walmartlabs.concord.svm.State;
+
+/**
+ * Logs the process thread stats when the process finishes.
+ */
+public class ThreadStatsListener implements ExecutionListener {
+
+    @Override
+    public void afterProcessEnds(Runtime runtime, State state, Frame lastFrame) {
+        logStats(runtime);
+    }
+
+    @Override
+    public void onProcessError(Runtime runtime, State state, Exception e) {
+        logStats(runtime);
+    }
+
+    private static void logStats(Runtime runtime) {
+        if (runtime instanceof DefaultRuntime rt) {
+            rt.logStats();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.walmartlabs.concord.runtime.v2.runner.el;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import javax.el.ValueExpression;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of parsed expressions.
+ * <p>
+ * {@link ValueExpression} instances don't depend on the evaluation context
+ * (functions are resolved at parse time and the function mapper is the same
+ * for all expressions) and can be safely shared between threads.
+ * When the cache is full it is simply cleared, the typical flows use only
+ * a limited number of distinct expressions.
+ */
+class ExpressionCache {
+
+    private final int maxSize;
+    private final Map<Key, ValueExpression> cache = new ConcurrentHashMap<>();
+
+    ExpressionCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    ValueExpression get(String expr, Class<?> expectedType, Function<Key, ValueExpression> parser) {
+        Key key = new Key(expr, expectedType);
+
+        ValueExpression result = cache.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        result = parser.apply(key);
+
+        if (cache.size() >= maxSize) {
+            cache.clear();
+        }
+        cache.put(key, result);
+
+        return result;
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    static final class Key {
+
+        final String expr;
+        final Class<?> expectedType;
+
+        private Key(String expr, Class<?> expectedType) {
+            this.expr = expr;
+            this.expectedType = expectedType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return expr.equals(key.expr) && expectedType.equals(key.expectedType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expr, expectedType);
+        }
+    }
+}
@@ -44,13 +44,26 @@ import static com.walmartlabs.concord.runtime.v2.runner.el.ThreadLocalEvalContex
  */
 public class LazyExpressionEvaluator implements ExpressionEvaluator {
 
-    private final ExpressionFactory expressionFactory = ExpressionFactory.newInstance();
+    private static final int MAX_CACHED_EXPRESSIONS = 4096;
+
+    private static final ExpressionFactory EXPRESSION_FACTORY = ExpressionFactory.newInstance();
+    private static final FunctionMapper FUNCTION_MAPPER = createFunctionMapper();
+    private static final ExpressionCache EXPRESSION_CACHE = new ExpressionCache(MAX_CACHED_EXPRESSIONS);
+
+    // stateless resolvers, shared between all evaluations
+    private static final ELResolver STREAM_RESOLVER = EXPRESSION_FACTORY.getStreamELResolver();
+    private static final ELResolver STATIC_FIELD_RESOLVER = new StaticFieldELResolver();
+    private static final ELResolver MAP_RESOLVER = new MapELResolver();
+    private static final ELResolver METHOD_ACCESSOR_RESOLVER = new MethodAccessorResolver();
+    private static final ELResolver RESOURCE_BUNDLE_RESOLVER = new ResourceBundleELResolver();
+    private static final ELResolver LIST_RESOLVER = new ListELResolver();
+    private static final ELResolver ARRAY_RESOLVER = new ArrayELResolver();
+    private static final ELResolver BEAN_RESOLVER = new BeanELResolver();
+
     private final TaskProviders taskProviders;
-    private final FunctionMapper functionMapper;
 
     public LazyExpressionEvaluator(TaskProviders taskProviders) {
         this.taskProviders = taskProviders;
-        this.functionMapper = createFunctionMapper();
     }
 
     @Override
@@ -121,22 +134,9 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
     }
 
     private <T> T evalExpr(LazyEvalContext ctx, String expr, Class<T> type) {
-        ELResolver resolver = createResolver(ctx, expressionFactory);
-
-        StandardELContext sc = new StandardELContext(expressionFactory) {
-            @Override
-            public ELResolver getELResolver() {
-                return resolver;
-            }
+        StandardELContext sc = createContext(createResolver(ctx));
 
-            @Override
-            public FunctionMapper getFunctionMapper() {
-                return functionMapper;
-            }
-        };
-        sc.putContext(ExpressionFactory.class, expressionFactory);
-
-        ValueExpression x = expressionFactory.createValueExpression(sc, expr, type);
+        ValueExpression x = EXPRESSION_CACHE.get(expr, type, k -> EXPRESSION_FACTORY.createValueExpression(sc, k.expr, k.expectedType));
         try {
             Object v = withEvalContext(ctx, () -> x.getValue(sc));
             return type.cast(v);
@@ -166,13 +166,28 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         }
     }
 
+    private static StandardELContext createContext(ELResolver resolver) {
+        StandardELContext sc = new StandardELContext(EXPRESSION_FACTORY) {
+            @Override
+            public ELResolver getELResolver() {
+                return resolver;
+            }
+
+            @Override
+            public FunctionMapper getFunctionMapper() {
+                return FUNCTION_MAPPER;
+            }
+        };
+        sc.putContext(ExpressionFactory.class, EXPRESSION_FACTORY);
+        return sc;
+    }
+
     /**
      * Based on the original code from {@link StandardELContext#getELResolver()}.
      * Creates a {@link ELResolver} instance with "sub-resolvers" in the original order.
+     * Only the context-specific resolvers are created for each evaluation.
      */
-    private ELResolver createResolver(LazyEvalContext evalContext,
-                                      ExpressionFactory expressionFactory) {
-
+    private ELResolver createResolver(LazyEvalContext evalContext) {
         CompositeELResolver r = new CompositeELResolver();
         if (evalContext.scope() != null) {
             r.add(new VariableResolver(evalContext.scope()));
@@ -181,17 +196,17 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         if (evalContext.context() != null) {
             r.add(new TaskResolver(evalContext.context(), taskProviders));
         }
-        r.add(expressionFactory.getStreamELResolver());
-        r.add(new StaticFieldELResolver());
-        r.add(new MapELResolver());
-        r.add(new MethodAccessorResolver());
-        r.add(new ResourceBundleELResolver());
-        r.add(new ListELResolver());
-        r.add(new ArrayELResolver());
+        r.add(STREAM_RESOLVER);
+        r.add(STATIC_FIELD_RESOLVER);
+        r.add(MAP_RESOLVER);
+        r.add(METHOD_ACCESSOR_RESOLVER);
+        r.add(RESOURCE_BUNDLE_RESOLVER);
+        r.add(LIST_RESOLVER);
+        r.add(ARRAY_RESOLVER);
         if (evalContext.context() != null) {
             r.add(new TaskMethodResolver(evalContext.context()));
         }
-        r.add(new BeanELResolver());
+        r.add(BEAN_RESOLVER);
         return r;
     }
 
@@ -66,6 +66,7 @@ public class DefaultRunnerModule extends AbstractModule {
         bind(LoggingClient.class).to(DefaultLoggingClient.class);
 
         bind(ApiClient.class).toProvider(ApiClientProvider.class);
+        bind(StartupTimings.class).in(Singleton.class);
         bind(DefaultTaskVariablesService.class).toProvider(DefaultTaskVariablesProvider.class);
 
         Multibinder<TaskCallListener> taskCallListeners = Multibinder.newSetBinder(binder(), TaskCallListener.class);
@@ -78,5 +79,6 @@ public class DefaultRunnerModule extends AbstractModule {
         executionListeners.addBinding().to(OutVariablesProcessor.class);
         executionListeners.addBinding().to(SensitiveDataPersistenceService.class);
         executionListeners.addBinding().to(StackTraceCollector.class);
+        executionListeners.addBinding().to(StartupTimings.class);
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class JoinCommand<T extends Step> extends StepCommand<T> {
 
@@ -89,8 +90,9 @@ public class JoinCommand<T extends Step> extends StepCommand<T> {
             }
 
             // some children are still running, wait for a bit and then check again
+            // let the runtime's thread pool know that the current thread is blocked
             try {
-                Thread.sleep(1000); // a "good enough™" value
+                ForkJoinPool.managedBlock(new SleepBlocker(1000)); // a "good enough™" value
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
@@ -102,4 +104,26 @@ public class JoinCommand<T extends Step> extends StepCommand<T> {
                 .filter(e -> ids.contains(e.getKey()))
                 .anyMatch(e -> e.getValue() == match);
     }
+
+    private static final class SleepBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final long millis;
+        private boolean done;
+
+        private SleepBlocker(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            Thread.sleep(millis);
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
 }
@@ -24,6 +24,7 @@ import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.forms.Form;
 import com.walmartlabs.concord.runtime.common.cfg.LoggingConfiguration;
 import com.walmartlabs.concord.runtime.common.cfg.RunnerConfiguration;
+import com.walmartlabs.concord.runtime.common.cfg.ThreadsConfiguration;
 import com.walmartlabs.concord.runtime.v2.runner.vm.LoggedException;
 import com.walmartlabs.concord.runtime.v2.sdk.ProcessConfiguration;
 import org.junit.jupiter.api.Test;
@@ -33,6 +34,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.regex.Pattern.quote;
 import static org.junit.jupiter.api.Assertions.*;
@@ -664,6 +667,66 @@ public class MainTest extends AbstractTest {
         assertLog(log, ".*threadIds: \\[1, 2, 3].*");
     }
 
+    @Test
+    public void testParallelWithMaxConcurrency() throws Exception {
+        deploy("parallelNested");
+
+        save(ProcessConfiguration.builder()
+                .build());
+
+        // nested parallel blocks must not exhaust the limit
+        byte[] log = run(RunnerConfiguration.builder()
+                .logging(LoggingConfiguration.builder().segmentedLogs(false).build())
+                .threads(ThreadsConfiguration.builder().maxConcurrency(1).build())
+                .build());
+
+        assertLog(log, ".*thread A1.*");
+        assertLog(log, ".*thread A2.*");
+        assertLog(log, ".*thread B1.*");
+        assertLog(log, ".*thread B2.*");
+        assertLog(log, ".*main done.*");
+    }
+
+    @Test
+    public void testDeeplyNestedParallelWithMaxConcurrency() throws Exception {
+        deploy("parallelNestedDeep");
+
+        save(ProcessConfiguration.builder()
+                .arguments(Collections.singletonMap("items", IntStream.rangeClosed(1, 16).boxed().collect(Collectors.toList())))
+                .build());
+
+        // more threads wait for their children than there are spare threads in the pool
+        byte[] log = run(RunnerConfiguration.builder()
+                .logging(LoggingConfiguration.builder().segmentedLogs(false).build())
+                .threads(ThreadsConfiguration.builder()
+                        .maxConcurrency(1)
+                        .maxSpareThreads(2)
+                        .build())
+                .build());
+
+        for (int i = 1; i <= 16; i++) {
+            for (String leaf : List.of("A1", "A2", "A3", "B1", "B2")) {
+                assertLog(log, ".*leaf " + i + "-" + leaf + ".*");
+            }
+        }
+        assertLog(log, ".*main done.*");
+        assertLog(log, ".*Process threads: max running \\d+, ran in the parent's thread [1-9]\\d*, .*");
+    }
+
+    @Test
+    @IgnoreSerializationAssert
+    public void testParallelLoopWide() throws Exception {
+        deploy("parallelLoopWide");
+
+        save(ProcessConfiguration.builder()
+                .arguments(Collections.singletonMap("items", IntStream.rangeClosed(1, 64).boxed().collect(Collectors.toList())))
+                .build());
+
+        byte[] log = run();
+        assertLog(log, ".*sum: 20800.*");
+        assertLog(log, ".*threads: 64.*");
+    }
+
     @Test
     public void testParallelWithError() throws Exception {
         deploy("parallelWithError");
@@ -1194,6 +1257,42 @@ public class MainTest extends AbstractTest {
         assertLog(log, ".*form1: Vasia.*");
     }
 
+    /**
+     * Resumes a process suspended inside a parallel block. The state in
+     * {@code stateBaseline/_attachments} was saved by the version that kept
+     * {@link com.walmartlabs.concord.svm.InMemoryState} frames in LinkedLists
+     * and synchronized on the whole state. The second form makes the current
+     * version save the state again and restore it.
+     */
+    @Test
+    @IgnoreSerializationAssert
+    public void testResumeBaselineState() throws Exception {
+        deploy("stateBaseline");
+
+        save(ProcessConfiguration.builder()
+                .build());
+
+        Form firstForm = formService.list().stream()
+                .filter(f -> "firstForm".equals(f.name())).findFirst()
+                .orElseThrow(() -> new RuntimeException("form not found"));
+
+        byte[] log = resume(firstForm.eventName(), ProcessConfiguration.builder()
+                .arguments(Collections.singletonMap("firstForm", Collections.singletonMap("firstName", "Vasia")))
+                .build());
+        assertLog(log, ".*Hello, Vasia.*");
+        assertLog(log, ".*after parallel: Vasia.*");
+        assertNoLog(log, ".*branch [AB].*");
+
+        Form secondForm = formService.list().stream()
+                .filter(f -> "secondForm".equals(f.name())).findFirst()
+                .orElseThrow(() -> new RuntimeException("form not found"));
+
+        log = resume(secondForm.eventName(), ProcessConfiguration.builder()
+                .arguments(Collections.singletonMap("secondForm", Collections.singletonMap("lastName", "Pupkin")))
+                .build());
+        assertLog(log, ".*done: Vasia Pupkin.*");
+    }
+
     @Test
     public void testContextInjector() throws Exception {
         deploy("injectorTest");
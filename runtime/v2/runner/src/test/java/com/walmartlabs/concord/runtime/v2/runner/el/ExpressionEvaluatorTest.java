@@ -371,6 +371,19 @@ public class ExpressionEvaluatorTest {
         assertEquals(vars, result);
     }
 
+    @Test
+    public void testCachedExpressions() {
+        ExpressionEvaluator ee = new DefaultExpressionEvaluator(new TaskProviders());
+
+        // the same expression must be evaluated using the current variables and the expected type
+        assertEquals("Hello, a", ee.eval(global(Collections.singletonMap("name", "a")), "Hello, ${name}", String.class));
+        assertEquals("Hello, b", ee.eval(global(Collections.singletonMap("name", "b")), "Hello, ${name}", String.class));
+        assertEquals(3L, ee.eval(global(Collections.singletonMap("x", 1)), "${x + 2}", Long.class));
+        assertEquals(4L, new DefaultExpressionEvaluator(new TaskProviders()).eval(global(Collections.singletonMap("x", 2)), "${x + 2}", Long.class));
+        assertEquals("3", ee.eval(global(Collections.singletonMap("x", 1)), "${x + 2}", Object.class).toString());
+        assertTrue(ee.eval(global(Collections.singletonMap("x", 1)), "${hasVariable('x')}", Boolean.class));
+    }
+
     private static EvalContext global(Map<String, Object> vars) {
         return new EvalContextFactoryImpl().global(new SingleFrameContext(vars));
     }
@@ -23,13 +23,23 @@ package com.walmartlabs.concord.svm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Simple in-memory implementation of {@link State}
+ * <p>
+ * Each thread has its own frame stack guarded by the stack's monitor, thread
+ * statuses and errors are stored in concurrent maps. Only the structures that
+ * are shared between threads (children, event refs and stack traces) are
+ * guarded by the instance's monitor.
+ * <p>
+ * The serialized form is the same as in the previous versions which used
+ * plain {@link HashMap}s and {@link LinkedList}s, see {@link #serialPersistentFields}.
  */
 public class InMemoryState implements Serializable, State {
 
@@ -37,17 +47,31 @@ public class InMemoryState implements Serializable, State {
 
     private static final Logger log = LoggerFactory.getLogger(InMemoryState.class);
 
-    private final Map<ThreadId, List<Frame>> frames = new HashMap<>();
-    private final Map<ThreadId, ThreadStatus> threadStatus = new HashMap<>();
-    private final Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
-    private final Map<ThreadId, String> eventRefs = new HashMap<>();
-    private final Map<ThreadId, Exception> threadErrors = new HashMap<>();
-    private final Map<ThreadId, List<StackTraceItem>> stackTrace = new HashMap<>();
-    private final Map<ThreadId, Map<String, Serializable>> threadLocals = new HashMap<>();
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("frames", Map.class),
+            new ObjectStreamField("threadStatus", Map.class),
+            new ObjectStreamField("children", Map.class),
+            new ObjectStreamField("eventRefs", Map.class),
+            new ObjectStreamField("threadErrors", Map.class),
+            new ObjectStreamField("stackTrace", Map.class),
+            new ObjectStreamField("threadLocals", Map.class),
+            new ObjectStreamField("rootThreadId", ThreadId.class),
+            new ObjectStreamField("threadIdSeq", long.class)
+    };
 
-    private final ThreadId rootThreadId;
+    private transient Map<ThreadId, Deque<Frame>> frames = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, ThreadStatus> threadStatus = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, Exception> threadErrors = new ConcurrentHashMap<>();
+    private transient Map<ThreadId, Map<String, Serializable>> threadLocals = new ConcurrentHashMap<>();
 
-    private long threadIdSeq = 0;
+    // guarded by this
+    private transient Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
+    private transient Map<ThreadId, String> eventRefs = new HashMap<>();
+    private transient Map<ThreadId, List<StackTraceItem>> stackTrace = new HashMap<>();
+
+    private transient ThreadId rootThreadId;
+
+    private transient AtomicLong threadIdSeq = new AtomicLong();
 
     public InMemoryState(Frame rootFrame) {
         this.rootThreadId = nextThreadId();
@@ -65,21 +89,21 @@ public class InMemoryState implements Serializable, State {
     public void pushFrame(ThreadId threadId, Frame frame) {
         log.trace("pushFrame {}", threadId);
 
-        synchronized (this) {
-            List<Frame> l = frames.computeIfAbsent(threadId, key -> new LinkedList<>());
-            l.add(0, frame);
+        Deque<Frame> l = frames.computeIfAbsent(threadId, key -> new ArrayDeque<>());
+        synchronized (l) {
+            l.addFirst(frame);
         }
     }
 
     @Override
     public Frame peekFrame(ThreadId threadId) {
-        synchronized (this) {
-            List<Frame> l = frames.get(threadId);
-            if (l == null || l.isEmpty()) {
-                return null;
-            }
+        Deque<Frame> l = frames.get(threadId);
+        if (l == null) {
+            return null;
+        }
 
-            return l.get(0);
+        synchronized (l) {
+            return l.peekFirst();
         }
     }
 
@@ -87,48 +111,48 @@ public class InMemoryState implements Serializable, State {
     public void popFrame(ThreadId threadId) {
         log.trace("popFrame {}", threadId);
 
-        synchronized (this) {
-            List<Frame> l = frames.get(threadId);
-            if (l == null) {
-                throw new IllegalStateException("Call frame doesn't exist: " + threadId);
-            }
+        Deque<Frame> l = frames.get(threadId);
+        if (l == null) {
+            throw new IllegalStateException("Call frame doesn't exist: " + threadId);
+        }
 
-            Frame removed = l.remove(0);
-            unwindStackTrace(threadId, removed);
+        Frame removed;
+        synchronized (l) {
+            removed = l.removeFirst();
         }
+
+        unwindStackTrace(threadId, removed);
     }
 
     @Override
     public List<Frame> getFrames(ThreadId threadId) {
-        synchronized (this) {
-            List<Frame> l = this.frames.get(threadId);
-            if (l == null) {
-                return Collections.emptyList();
-            }
+        Deque<Frame> l = this.frames.get(threadId);
+        if (l == null) {
+            return Collections.emptyList();
+        }
 
+        synchronized (l) {
             return Collections.unmodifiableList(new ArrayList<>(l));
         }
     }
 
     @Override
     public void dropAllFrames() {
-        synchronized (this) {
-            frames.clear();
-        }
+        frames.clear();
     }
 
     @Override
     public void setStatus(ThreadId threadId, ThreadStatus status) {
-        synchronized (this) {
+        if (status == null) {
+            threadStatus.remove(threadId);
+        } else {
             threadStatus.put(threadId, status);
         }
     }
 
     @Override
     public ThreadStatus getStatus(ThreadId threadId) {
-        synchronized (this) {
-            return threadStatus.get(threadId);
-        }
+        return threadStatus.get(threadId);
     }
 
     @Override
@@ -138,31 +162,28 @@ public class InMemoryState implements Serializable, State {
 
     @Override
     public void fork(ThreadId parentThreadId, ThreadId threadId, Command... cmds) {
-        synchronized (this) {
-            setStatus(threadId, ThreadStatus.READY);
-            pushFrame(threadId, Frame.builder()
-                    .root()
-                    .commands(cmds)
-                    .build());
+        pushFrame(threadId, Frame.builder()
+                .root()
+                .commands(cmds)
+                .build());
 
+        synchronized (this) {
             children.computeIfAbsent(parentThreadId, k -> new HashSet<>())
                     .add(threadId);
         }
+
+        // the thread becomes visible to the other threads only when it is fully initialized
+        setStatus(threadId, ThreadStatus.READY);
     }
 
     @Override
     public Map<ThreadId, ThreadStatus> threadStatus() {
-        synchronized (this) {
-            return new HashMap<>(threadStatus);
-        }
+        return new HashMap<>(threadStatus);
     }
 
     @Override
     public ThreadId nextThreadId() {
-        synchronized (this) {
-            long id = threadIdSeq++;
-            return new ThreadId(id);
-        }
+        return new ThreadId(threadIdSeq.getAndIncrement());
     }
 
     @Override
@@ -201,29 +222,27 @@ public class InMemoryState implements Serializable, State {
     @Override
     public Map<ThreadId, String> getEventRefs() {
         synchronized (this) {
-            return Collections.unmodifiableMap(eventRefs);
+            return Collections.unmodifiableMap(new HashMap<>(eventRefs));
         }
     }
 
     @Override
     public Exception getThreadError(ThreadId threadId) {
-        synchronized (this) {
-            return threadErrors.get(threadId);
-        }
+        return threadErrors.get(threadId);
     }
 
     @Override
     public void setThreadError(ThreadId threadId, Exception error) {
-        synchronized (this) {
+        if (error == null) {
+            threadErrors.remove(threadId);
+        } else {
             threadErrors.put(threadId, error);
         }
     }
 
     @Override
     public Exception clearThreadError(ThreadId threadId) {
-        synchronized (this) {
-            return threadErrors.remove(threadId);
-        }
+        return threadErrors.remove(threadId);
     }
 
     @Override
@@ -269,76 +288,86 @@ public class InMemoryState implements Serializable, State {
 
     @Override
     public void setThreadLocal(ThreadId threadId, String key, Serializable value) {
-        synchronized (this) {
-            // for backward compatibility
-            if (threadLocals == null) {
-                return;
-            }
+        // for backward compatibility
+        if (threadLocals == null) {
+            return;
+        }
 
-            Map<String, Serializable> locals = threadLocals.computeIfAbsent(threadId, v -> new HashMap<>());
+        Map<String, Serializable> locals = threadLocals.computeIfAbsent(threadId, v -> new HashMap<>());
+        synchronized (locals) {
             locals.put(key, value);
         }
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T extends Serializable> T getThreadLocal(ThreadId threadId, String key) {
-        synchronized (this) {
-            // for backward compatibility
-            if (threadLocals == null) {
-                return null;
-            }
+        // for backward compatibility
+        if (threadLocals == null) {
+            return null;
+        }
 
-            Map<String, Serializable> locals = threadLocals.get(threadId);
-            if (locals == null) {
-                return null;
-            }
+        Map<String, Serializable> locals = threadLocals.get(threadId);
+        if (locals == null) {
+            return null;
+        }
+
+        synchronized (locals) {
             return (T) locals.get(key);
         }
     }
 
     @Override
     public void removeThreadLocal(ThreadId threadId, String key) {
-        synchronized (this) {
-            // for backward compatibility
-            if (threadLocals == null) {
-                return;
-            }
+        // for backward compatibility
+        if (threadLocals == null) {
+            return;
+        }
 
-            Map<String, Serializable> locals = threadLocals.get(threadId);
+        Map<String, Serializable> locals = threadLocals.get(threadId);
+        synchronized (locals) {
             locals.remove(key);
             if (locals.isEmpty()) {
-                threadLocals.remove(threadId);
+                threadLocals.remove(threadId, locals);
             }
         }
     }
 
     @Override
     public void gc() {
+        Stream<ThreadId> done = threadStatus.entrySet().stream()
+                .filter(e -> e.getValue() == ThreadStatus.DONE)
+                .map(Map.Entry::getKey);
+
+        Stream<ThreadId> handled = threadStatus.entrySet().stream()
+                .filter(e -> e.getValue() == ThreadStatus.FAILED)
+                .filter(e -> !threadErrors.containsKey(e.getKey()))
+                .map(Map.Entry::getKey);
+
+        List<ThreadId> ids = Stream.concat(done, handled)
+                .collect(Collectors.toList()); // avoid races by eagerly calculating the list of IDs
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        ids.forEach(k -> {
+            threadErrors.remove(k);
+            threadStatus.remove(k);
+            frames.remove(k);
+            if (threadLocals != null) {
+                threadLocals.remove(k);
+            }
+        });
+
         synchronized (this) {
-            Stream<ThreadId> done = threadStatus.entrySet().stream()
-                    .filter(e -> e.getValue() == ThreadStatus.DONE)
-                    .map(Map.Entry::getKey);
-
-            Stream<ThreadId> handled = threadStatus.entrySet().stream()
-                    .filter(e -> e.getValue() == ThreadStatus.FAILED)
-                    .filter(e -> !threadErrors.containsKey(e.getKey()))
-                    .map(Map.Entry::getKey);
-
-            Stream.concat(done, handled)
-                    .collect(Collectors.toList()) // avoid races by eagerly calculating the list of IDs
-                    .forEach(k -> {
-                        threadErrors.remove(k);
-                        threadStatus.remove(k);
-                        frames.remove(k);
-                        eventRefs.remove(k);
-                        children.remove(k);
-                        if (stackTrace != null) {
-                            stackTrace.remove(k);
-                        }
-                        if (threadLocals != null) {
-                            threadLocals.remove(k);
-                        }
-                    });
+            ids.forEach(k -> {
+                eventRefs.remove(k);
+                children.remove(k);
+                if (stackTrace != null) {
+                    stackTrace.remove(k);
+                }
+            });
         }
     }
 
@@ -366,29 +395,108 @@ public class InMemoryState implements Serializable, State {
     }
 
     private void unwindStackTrace(ThreadId threadId, Frame removed) {
-        // for backward compatibility
-        if (stackTrace == null || removed.id() == null) {
-            return;
-        }
-        List<StackTraceItem> items = stackTrace.get(threadId);
-        if (items == null) {
-            return;
-        }
+        synchronized (this) {
+            // for backward compatibility
+            if (stackTrace == null || removed.id() == null) {
+                return;
+            }
+            List<StackTraceItem> items = stackTrace.get(threadId);
+            if (items == null) {
+                return;
+            }
 
-        int itemIndex = -1;
-        for (int i = 0; i < items.size(); i++) {
-            StackTraceItem item = items.get(i);
-            if (removed.id().equals(item.getFrameId())) {
-                itemIndex = i;
+            int itemIndex = -1;
+            for (int i = 0; i < items.size(); i++) {
+                StackTraceItem item = items.get(i);
+                if (removed.id().equals(item.getFrameId())) {
+                    itemIndex = i;
+                }
+            }
+
+            if (itemIndex >= 0) {
+                if (itemIndex + 1 == items.size()) {
+                    stackTrace.remove(threadId);
+                } else {
+                    stackTrace.put(threadId, new LinkedList<>(items.subList(itemIndex + 1, items.size())));
+                }
             }
         }
+    }
 
-        if (itemIndex >= 0) {
-            if (itemIndex + 1 == items.size()) {
-                stackTrace.remove(threadId);
-            } else {
-                stackTrace.put(threadId, new LinkedList<>(items.subList(itemIndex + 1, items.size())));
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<ThreadId, List<Frame>> frames = new HashMap<>();
+        this.frames.forEach((k, v) -> {
+            synchronized (v) {
+                frames.put(k, new LinkedList<>(v));
             }
+        });
+
+        Map<ThreadId, Map<String, Serializable>> threadLocals = null;
+        if (this.threadLocals != null) {
+            threadLocals = new HashMap<>();
+            for (Map.Entry<ThreadId, Map<String, Serializable>> e : this.threadLocals.entrySet()) {
+                synchronized (e.getValue()) {
+                    threadLocals.put(e.getKey(), new HashMap<>(e.getValue()));
+                }
+            }
+        }
+
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("frames", frames);
+        f.put("threadStatus", new HashMap<>(threadStatus));
+        f.put("threadErrors", new HashMap<>(threadErrors));
+        f.put("threadLocals", threadLocals);
+        synchronized (this) {
+            f.put("children", new HashMap<>(children));
+            f.put("eventRefs", new HashMap<>(eventRefs));
+            f.put("stackTrace", stackTrace != null ? new HashMap<>(stackTrace) : null);
+        }
+        f.put("rootThreadId", rootThreadId);
+        f.put("threadIdSeq", threadIdSeq.get());
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+
+        this.frames = new ConcurrentHashMap<>();
+        Map<ThreadId, List<Frame>> frames = (Map<ThreadId, List<Frame>>) f.get("frames", null);
+        if (frames != null) {
+            frames.forEach((k, v) -> this.frames.put(k, new ArrayDeque<>(v)));
         }
+
+        this.threadStatus = new ConcurrentHashMap<>(nonNullValues((Map<ThreadId, ThreadStatus>) f.get("threadStatus", null)));
+        this.threadErrors = new ConcurrentHashMap<>(nonNullValues((Map<ThreadId, Exception>) f.get("threadErrors", null)));
+
+        // for backward compatibility, the field might be missing in the older versions
+        Map<ThreadId, Map<String, Serializable>> threadLocals = (Map<ThreadId, Map<String, Serializable>>) f.get("threadLocals", null);
+        if (threadLocals != null) {
+            this.threadLocals = new ConcurrentHashMap<>();
+            threadLocals.forEach((k, v) -> this.threadLocals.put(k, new HashMap<>(v)));
+        }
+
+        this.children = orEmpty((Map<ThreadId, Set<ThreadId>>) f.get("children", null));
+        this.eventRefs = orEmpty((Map<ThreadId, String>) f.get("eventRefs", null));
+        this.stackTrace = (Map<ThreadId, List<StackTraceItem>>) f.get("stackTrace", null);
+
+        this.rootThreadId = (ThreadId) f.get("rootThreadId", null);
+        this.threadIdSeq = new AtomicLong(f.get("threadIdSeq", 0L));
+    }
+
+    private static <K, V> Map<K, V> orEmpty(Map<K, V> m) {
+        return m != null ? m : new HashMap<>();
+    }
+
+    private static <K, V> Map<K, V> nonNullValues(Map<K, V> m) {
+        Map<K, V> result = new HashMap<>();
+        if (m != null) {
+            m.forEach((k, v) -> {
+                if (v != null) {
+                    result.put(k, v);
+                }
+            });
+        }
+        return result;
     }
 }
@@ -0,0 +1,167 @@
+package com.walmartlabs.concord.db;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Streams rows into a table using {@code COPY ... FROM STDIN (FORMAT BINARY)}.
+ * <p>
+ * The values must be written in the order of the columns specified in the
+ * {@code COPY} statement and must match the column types exactly, e.g.
+ * {@link #writeShort(short)} for {@code smallint} columns.
+ *
+ * @see <a href="https://www.postgresql.org/docs/current/sql-copy.html#id-1.9.3.55.9.4">Binary Format</a>
+ */
+public final class PgCopyWriter implements AutoCloseable {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final Instant PG_EPOCH = Instant.parse("2000-01-01T00:00:00Z");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Starts a binary {@code COPY} operation using the specified connection.
+     *
+     * @param sql a {@code COPY ... FROM STDIN (FORMAT BINARY)} statement
+     */
+    public static PgCopyWriter open(Connection conn, String sql) throws SQLException {
+        PGCopyOutputStream copy = new PGCopyOutputStream(conn.unwrap(PGConnection.class), sql, BUFFER_SIZE);
+        PgCopyWriter w = new PgCopyWriter(copy);
+        try {
+            w.out.write(SIGNATURE);
+            w.out.writeInt(0); // flags
+            w.out.writeInt(0); // header extension length
+        } catch (IOException e) {
+            w.close();
+            throw new SQLException("Error while starting COPY: " + e.getMessage(), e);
+        }
+        return w;
+    }
+
+    private final PGCopyOutputStream copy;
+    private final DataOutputStream out;
+    private final byte[] buf = new byte[8192];
+
+    private PgCopyWriter(PGCopyOutputStream copy) {
+        this.copy = copy;
+        this.out = new DataOutputStream(copy);
+    }
+
+    public void startRow(int fieldCount) throws IOException {
+        out.writeShort(fieldCount);
+    }
+
+    public void writeNull() throws IOException {
+        out.writeInt(-1);
+    }
+
+    public void writeUuid(UUID v) throws IOException {
+        out.writeInt(16);
+        out.writeLong(v.getMostSignificantBits());
+        out.writeLong(v.getLeastSignificantBits());
+    }
+
+    /**
+     * Writes a {@code timestamptz} value. The precision is truncated to microseconds.
+     */
+    public void writeTimestamp(OffsetDateTime v) throws IOException {
+        out.writeInt(8);
+        out.writeLong(ChronoUnit.MICROS.between(PG_EPOCH, v.toInstant()));
+    }
+
+    public void writeText(String v) throws IOException {
+        if (v == null) {
+            writeNull();
+            return;
+        }
+        writeBytes(v.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void writeShort(short v) throws IOException {
+        out.writeInt(2);
+        out.writeShort(v);
+    }
+
+    public void writeBoolean(boolean v) throws IOException {
+        out.writeInt(1);
+        out.writeByte(v ? 1 : 0);
+    }
+
+    public void writeBytes(byte[] v) throws IOException {
+        out.writeInt(v.length);
+        out.write(v);
+    }
+
+    /**
+     * Writes exactly {@code length} bytes from the specified stream.
+     */
+    public void writeBytes(InputStream in, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Value is too large: " + length + " byte(s)");
+        }
+
+        out.writeInt((int) length);
+
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buf, 0, (int) Math.min(buf.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Unexpected end of stream, " + remaining + " byte(s) missing");
+            }
+            out.write(buf, 0, read);
+            remaining -= read;
+        }
+    }
+
+    /**
+     * Completes the operation.
+     *
+     * @return the number of copied rows.
+     */
+    public long finish() throws IOException, SQLException {
+        out.writeShort(-1);
+        out.flush();
+        return copy.endCopy();
+    }
+
+    /**
+     * Cancels the operation if it wasn't completed.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (copy.isActive()) {
+            copy.cancelCopy();
+        }
+    }
+}
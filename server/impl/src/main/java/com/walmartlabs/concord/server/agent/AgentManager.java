@@ -20,10 +20,7 @@ package com.walmartlabs.concord.server.agent;
  * =====
  */
 
-import com.walmartlabs.concord.server.queueclient.message.MessageType;
-import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
-import com.walmartlabs.concord.server.websocket.WebSocketChannel;
 import com.walmartlabs.concord.server.websocket.WebSocketChannelManager;
 import org.jooq.DSLContext;
 
@@ -31,7 +28,6 @@ import javax.inject.Inject;
 import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -49,13 +45,13 @@ public class AgentManager {
     }
 
     public Collection<AgentWorkerEntry> getAvailableAgents() {
-        Map<WebSocketChannel, ProcessRequest> reqs = channelManager.getRequests(MessageType.PROCESS_REQUEST);
-        return reqs.entrySet().stream()
+        return channelManager.getProcessRequests().groups().values().stream()
+                .flatMap(Collection::stream)
                 .map(r -> AgentWorkerEntry.builder()
-                        .channelId(r.getKey().getChannelId())
-                        .agentId(r.getKey().getAgentId())
-                        .userAgent(r.getKey().getUserAgent())
-                        .capabilities(r.getValue().getCapabilities())
+                        .channelId(r.channel().getChannelId())
+                        .agentId(r.channel().getAgentId())
+                        .userAgent(r.channel().getUserAgent())
+                        .capabilities(r.request().getCapabilities())
                         .build())
                 .collect(Collectors.toList());
     }
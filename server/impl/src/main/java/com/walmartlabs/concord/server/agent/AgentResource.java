@@ -21,32 +21,72 @@ package com.walmartlabs.concord.server.agent;
  */
 
 import com.walmartlabs.concord.server.AgentWorkerUtils;
+import com.walmartlabs.concord.server.cfg.AgentConfiguration;
+import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
+import com.walmartlabs.concord.server.process.queue.ProcessKeyCache;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
+import com.walmartlabs.concord.server.queueclient.MessageSerializer;
+import com.walmartlabs.concord.server.queueclient.QueueClient;
+import com.walmartlabs.concord.server.queueclient.message.Message;
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
+import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import com.walmartlabs.concord.server.sdk.rest.Resource;
 import com.walmartlabs.concord.server.sdk.validation.ValidationErrorsException;
+import com.walmartlabs.concord.server.security.UnauthorizedException;
+import com.walmartlabs.concord.server.security.sessionkey.SessionKeyPrincipal;
+import com.walmartlabs.concord.server.websocket.WebSocketChannelManager;
+import com.walmartlabs.concord.server.websocket.WebSocketListener;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import javax.inject.Inject;
-import javax.ws.rs.GET;
-import javax.ws.rs.Path;
-import javax.ws.rs.Produces;
-import javax.ws.rs.QueryParam;
+import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 @Path("/api/v1/agent")
 @Tag(name = "Agents")
 public class AgentResource implements Resource {
 
+    /**
+     * Additional time to wait for the dispatcher to complete a long-polling request.
+     */
+    private static final Duration LONG_POLL_GRACE_PERIOD = Duration.ofMinutes(1);
+
     private final AgentManager agentManager;
+    private final WebSocketChannelManager channelManager;
+    private final AgentConfiguration cfg;
+    private final ProcessQueueManager queueManager;
+    private final ProcessKeyCache processKeyCache;
+    private final ProcessLogManager logManager;
 
     @Inject
-    public AgentResource(AgentManager agentManager) {
+    public AgentResource(AgentManager agentManager,
+                         WebSocketChannelManager channelManager,
+                         AgentConfiguration cfg,
+                         ProcessQueueManager queueManager,
+                         ProcessKeyCache processKeyCache,
+                         ProcessLogManager logManager) {
+
         this.agentManager = agentManager;
+        this.channelManager = channelManager;
+        this.cfg = cfg;
+        this.queueManager = queueManager;
+        this.processKeyCache = processKeyCache;
+        this.logManager = logManager;
     }
 
     @GET
@@ -79,4 +119,74 @@ public class AgentResource implements Resource {
 
         return AgentWorkerUtils.groupBy(data, path);
     }
+
+    /**
+     * Waits for up to {@code maxCount} processes matching the agent's capabilities.
+     * An alternative to the WebSocket-based process requests.
+     * Returns a JSON array of {@code ProcessResponse} messages, empty
+     * if no processes were dispatched before the timeout.
+     */
+    @POST
+    @Path("/queue/process")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(hidden = true)
+    public void acquireProcesses(@QueryParam("maxCount") @DefaultValue("1") int maxCount,
+                                 @QueryParam("timeout") @DefaultValue("30") int timeout,
+                                 @HeaderParam(QueueClient.AGENT_ID) String agentId,
+                                 @HeaderParam(QueueClient.AGENT_UA) String userAgent,
+                                 String request,
+                                 @Suspended AsyncResponse asyncResponse) {
+
+        if (SessionKeyPrincipal.getCurrent() != null) {
+            throw new UnauthorizedException("Process session keys can't be used to acquire processes");
+        }
+
+        if (channelManager.isShutdown()) {
+            throw new ConcordApplicationException("Server is in the maintenance mode", Response.Status.SERVICE_UNAVAILABLE);
+        }
+
+        if (maxCount < 1 || maxCount > cfg.getLongPollMaxCount()) {
+            throw new ValidationErrorsException("'maxCount' must be between 1 and " + cfg.getLongPollMaxCount() + ", got: " + maxCount);
+        }
+
+        if (timeout < 0) {
+            throw new ValidationErrorsException("'timeout' must be a positive number, got: " + timeout);
+        }
+
+        Message m;
+        try {
+            m = MessageSerializer.deserialize(request);
+        } catch (Exception e) {
+            throw new ValidationErrorsException("Invalid process request: " + e.getMessage());
+        }
+
+        if (!(m instanceof ProcessRequest)) {
+            throw new ValidationErrorsException("Expected a process request, got: " + m.getMessageType());
+        }
+
+        long timeoutMs = Math.min(TimeUnit.SECONDS.toMillis(timeout), cfg.getLongPollMaxTimeout().toMillis());
+
+        LongPollChannel channel = new LongPollChannel(agentId, WebSocketListener.sanitize(userAgent),
+                channelManager.getProcessRequests(), asyncResponse, maxCount, timeoutMs, this::requeue);
+
+        // normally the request is completed by the dispatcher, this is a safeguard
+        asyncResponse.setTimeout(timeoutMs + LONG_POLL_GRACE_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(r -> channel.cancel());
+
+        channel.register(((ProcessRequest) m).getCapabilities());
+    }
+
+    /**
+     * Returns the processes that were dispatched to a long-polling request but never
+     * delivered to the agent back to the queue.
+     */
+    private void requeue(List<ProcessResponse> responses) {
+        for (ProcessResponse r : responses) {
+            ProcessKey processKey = processKeyCache.get(r.getProcessId());
+            if (queueManager.updateExpectedStatus(processKey, ProcessStatus.STARTING, ProcessStatus.ENQUEUED)) {
+                logManager.warn(processKey, "The agent didn't receive the process, returning it to the queue");
+            }
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package com.walmartlabs.concord.server.agent;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.MessageSerializer;
+import com.walmartlabs.concord.server.queueclient.message.Message;
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
+import com.walmartlabs.concord.server.websocket.AgentChannel;
+import com.walmartlabs.concord.server.websocket.AgentRequestInbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A long-polling HTTP request waiting for processes.
+ * <p>
+ * The request is parked in the {@link AgentRequestInbox} as {@code maxCount}
+ * process requests with the same capabilities. The responses are collected
+ * during a dispatch round and sent back as a single response when the round
+ * is complete. If no processes were dispatched before the deadline, an empty
+ * list is sent back.
+ * <p>
+ * Normally, the request is completed by the dispatcher's thread, between the
+ * dispatch rounds. This way the remaining requests are removed from the inbox
+ * before the dispatcher can match them.
+ * <p>
+ * If the request can't be completed (e.g. the agent closed the connection),
+ * the collected responses are passed to the {@code undelivered} callback,
+ * so the processes can be returned to the queue.
+ */
+public class LongPollChannel implements AgentChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(LongPollChannel.class);
+
+    private final UUID channelId = UUID.randomUUID();
+    private final String agentId;
+    private final String userAgent;
+    private final AgentRequestInbox inbox;
+    private final AsyncResponse asyncResponse;
+    private final int maxCount;
+    private final long deadline;
+    private final Consumer<List<ProcessResponse>> undelivered;
+
+    private final List<ProcessResponse> responses = new ArrayList<>();
+    private boolean done;
+
+    public LongPollChannel(String agentId, String userAgent,
+                           AgentRequestInbox inbox, AsyncResponse asyncResponse,
+                           int maxCount, long timeoutMs,
+                           Consumer<List<ProcessResponse>> undelivered) {
+
+        this.agentId = agentId;
+        this.userAgent = userAgent;
+        this.inbox = inbox;
+        this.asyncResponse = asyncResponse;
+        this.maxCount = maxCount;
+        this.deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        this.undelivered = undelivered;
+    }
+
+    /**
+     * Parks the request in the inbox.
+     */
+    public void register(Map<String, Object> capabilities) {
+        for (int i = 1; i <= maxCount; i++) {
+            ProcessRequest r = new ProcessRequest(capabilities);
+            r.setCorrelationId(i);
+            inbox.add(this, r);
+        }
+    }
+
+    @Override
+    public UUID getChannelId() {
+        return channelId;
+    }
+
+    @Override
+    public String getAgentId() {
+        return agentId;
+    }
+
+    @Override
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    @Override
+    public synchronized boolean sendResponse(Message response) {
+        if (done) {
+            log.warn("response ['{}', '{}'] -> request is already completed", channelId, response);
+            return false;
+        }
+
+        responses.add((ProcessResponse) response);
+        return true;
+    }
+
+    @Override
+    public synchronized void afterDispatch() {
+        if (done) {
+            return;
+        }
+
+        if (responses.isEmpty() && System.nanoTime() - deadline < 0) {
+            return;
+        }
+
+        complete();
+    }
+
+    /**
+     * Completes the request with whatever responses were collected so far.
+     * Used when the request is cancelled outside a dispatch round, e.g.
+     * when the dispatcher is not running.
+     */
+    public synchronized void cancel() {
+        if (done) {
+            return;
+        }
+
+        complete();
+    }
+
+    private void complete() {
+        done = true;
+
+        for (int i = 1; i <= maxCount; i++) {
+            inbox.remove(channelId, i);
+        }
+
+        Response resp = Response.ok(MessageSerializer.serialize(responses), MediaType.APPLICATION_JSON).build();
+
+        boolean delivered;
+        try {
+            delivered = asyncResponse.resume(resp);
+        } catch (Exception e) {
+            log.warn("complete ['{}'] -> error: {}", channelId, e.getMessage());
+            delivered = false;
+        }
+
+        if (delivered || responses.isEmpty()) {
+            return;
+        }
+
+        log.warn("complete ['{}'] -> the request is no longer active, returning {} process(es) to the queue", channelId, responses.size());
+        try {
+            undelivered.accept(responses);
+        } catch (Exception e) {
+            log.error("complete ['{}'] -> error while returning the processes to the queue: {}", channelId, e.getMessage(), e);
+        }
+    }
+}
@@ -31,12 +31,15 @@ import com.walmartlabs.concord.server.org.EntityOwner;
 import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
 import com.walmartlabs.concord.server.user.UserType;
 import org.jooq.Configuration;
+import org.jooq.InsertValuesStep4;
 import org.jooq.JSONB;
 import org.jooq.Record9;
+import org.jooq.Result;
 import org.jooq.SelectOnConditionStep;
 
 import javax.inject.Inject;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -84,6 +87,43 @@ public class AuditDao extends AbstractDao {
                 .build();
     }
 
+    /**
+     * Inserts multiple audit log entries using a single statement.
+     *
+     * @return the inserted entries, in the same order.
+     */
+    public List<AuditEvent> insert(List<NewAuditEntry> entries) {
+        return txResult(tx -> {
+            InsertValuesStep4<AuditLogRecord, UUID, String, String, JSONB> q = tx.insertInto(AUDIT_LOG)
+                    .columns(AUDIT_LOG.USER_ID,
+                            AUDIT_LOG.ENTRY_OBJECT,
+                            AUDIT_LOG.ENTRY_ACTION,
+                            AUDIT_LOG.ENTRY_DETAILS);
+
+            for (NewAuditEntry e : entries) {
+                q = q.values(e.userId, e.object.toString(), e.action.toString(), objectMapper.toJSONB(e.details));
+            }
+
+            Result<AuditLogRecord> records = q.returning(AUDIT_LOG.ENTRY_DATE, AUDIT_LOG.ENTRY_SEQ)
+                    .fetch();
+
+            List<AuditEvent> result = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                NewAuditEntry e = entries.get(i);
+                AuditLogRecord r = records.get(i);
+                result.add(AuditEvent.builder()
+                        .entrySeq(r.getEntrySeq())
+                        .entryDate(r.getEntryDate())
+                        .userId(e.userId)
+                        .object(e.object.toString())
+                        .action(e.action.toString())
+                        .details(e.details)
+                        .build());
+            }
+            return result;
+        });
+    }
+
     public List<AuditLogEntry> list(AuditLogFilter filter) {
         return txResult(tx -> {
             AuditLog l = AUDIT_LOG.as("l");
@@ -166,4 +206,23 @@ public class AuditDao extends AbstractDao {
 
         return b.build();
     }
+
+    public static final class NewAuditEntry {
+
+        private final UUID userId;
+        private final AuditObject object;
+        private final AuditAction action;
+        private final Map<String, Object> details;
+
+        public NewAuditEntry(UUID userId, AuditObject object, AuditAction action, Map<String, Object> details) {
+            this.userId = userId;
+            this.object = object;
+            this.action = action;
+            this.details = details;
+        }
+
+        public AuditAction getAction() {
+            return action;
+        }
+    }
 }
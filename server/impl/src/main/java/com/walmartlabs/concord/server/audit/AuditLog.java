@@ -22,6 +22,7 @@ package com.walmartlabs.concord.server.audit;
 
 import com.walmartlabs.concord.server.Listeners;
 import com.walmartlabs.concord.server.RequestUtils;
+import com.walmartlabs.concord.server.audit.AuditDao.NewAuditEntry;
 import com.walmartlabs.concord.server.cfg.AuditConfiguration;
 import com.walmartlabs.concord.server.org.project.DiffUtils;
 import com.walmartlabs.concord.server.sdk.PartialProcessKey;
@@ -58,12 +59,14 @@ public class AuditLog {
 
     private final AuditConfiguration cfg;
     private final AuditDao auditDao;
+    private final AuditLogWriter writer;
     private final Listeners listeners;
 
     @Inject
-    public AuditLog(AuditConfiguration cfg, AuditDao auditDao, Listeners listeners) {
+    public AuditLog(AuditConfiguration cfg, AuditDao auditDao, AuditLogWriter writer, Listeners listeners) {
         this.cfg = cfg;
         this.auditDao = auditDao;
+        this.writer = writer;
         this.listeners = listeners;
     }
 
@@ -169,6 +172,10 @@ public class AuditLog {
                 details.put("changes", changes);
             }
 
+            if (writer.offer(new NewAuditEntry(userId, object, action, details))) {
+                return;
+            }
+
             AuditEvent ev = auditDao.insert(userId, object, action, details);
             listeners.onAuditEvent(ev);
         }
@@ -0,0 +1,205 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.walmartlabs.concord.server.Listeners;
+import com.walmartlabs.concord.server.PeriodicTask;
+import com.walmartlabs.concord.server.audit.AuditDao.NewAuditEntry;
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
+import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.walmartlabs.concord.server.metrics.MetricUtils.withTimer;
+
+/**
+ * Background writer for audit log entries.
+ * <p>
+ * Entries with the configured actions (e.g. {@code ACCESS}) are queued and
+ * written periodically using multi-row inserts. Entries with other actions
+ * are written by the callers immediately. When the queue is full the callers
+ * write their entries themselves.
+ */
+public class AuditLogWriter extends PeriodicTask {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final long ERROR_DELAY = TimeUnit.SECONDS.toMillis(5);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AuditDao auditDao;
+    private final Listeners listeners;
+
+    private final boolean enabled;
+    private final Set<AuditAction> actions;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingEntry> queue;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Histogram flushSizeHistogram;
+    private final Histogram delayHistogram;
+    private final Timer flushTimer;
+    private final Counter droppedEntries;
+
+    @Inject
+    public AuditLogWriter(AuditDao auditDao,
+                          Listeners listeners,
+                          AuditConfiguration cfg,
+                          MetricRegistry metricRegistry) {
+
+        super(cfg.isAsyncWriterEnabled() ? cfg.getAsyncWriterFlushInterval().toMillis() : 0, ERROR_DELAY);
+
+        this.auditDao = auditDao;
+        this.listeners = listeners;
+
+        this.enabled = cfg.isAsyncWriterEnabled();
+        this.actions = EnumSet.noneOf(AuditAction.class);
+        for (String a : cfg.getAsyncWriterActions()) {
+            this.actions.add(AuditAction.valueOf(a));
+        }
+        this.maxBatchSize = cfg.getAsyncWriterMaxBatchSize();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, cfg.getAsyncWriterMaxQueueSize()));
+
+        metricRegistry.gauge("audit-log-writer-queue-size", () -> queue::size);
+        this.flushSizeHistogram = metricRegistry.histogram("audit-log-writer-flush-size");
+        this.delayHistogram = metricRegistry.histogram("audit-log-writer-delay");
+        this.flushTimer = metricRegistry.timer("audit-log-writer-flush-timer");
+        this.droppedEntries = metricRegistry.counter("audit-log-writer-dropped-entries");
+    }
+
+    /**
+     * Queues the entry if its action can be written asynchronously.
+     *
+     * @return {@code false} if the entry must be written by the caller.
+     */
+    public boolean offer(NewAuditEntry entry) {
+        if (!enabled || !actions.contains(entry.getAction())) {
+            return false;
+        }
+
+        return queue.offer(new PendingEntry(entry));
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+
+        if (enabled) {
+            while (!queue.isEmpty()) {
+                if (!flush()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean performTask() {
+        flush();
+
+        // keep going if the queue filled up while we were busy
+        return queue.size() >= maxBatchSize;
+    }
+
+    /**
+     * @return {@code false} if the batch wasn't written.
+     */
+    private boolean flush() {
+        flushLock.lock();
+        try {
+            List<PendingEntry> batch = new ArrayList<>(maxBatchSize);
+            queue.drainTo(batch, maxBatchSize);
+            if (batch.isEmpty()) {
+                return true;
+            }
+
+            List<NewAuditEntry> entries = new ArrayList<>(batch.size());
+            for (PendingEntry e : batch) {
+                entries.add(e.entry);
+            }
+
+            List<AuditEvent> events = new ArrayList<>(batch.size());
+            try {
+                withTimer(flushTimer, () -> events.addAll(auditDao.insert(entries)));
+            } catch (Exception e) {
+                requeue(batch, e);
+                return false;
+            }
+
+            long now = System.currentTimeMillis();
+            for (PendingEntry e : batch) {
+                delayHistogram.update(now - e.createdAt);
+            }
+            flushSizeHistogram.update(batch.size());
+
+            // the entries are already written, a failing listener must not stop the rest
+            for (AuditEvent ev : events) {
+                try {
+                    listeners.onAuditEvent(ev);
+                } catch (Exception e) {
+                    log.warn("flush -> error while notifying the audit listeners: {}", e.getMessage());
+                }
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void requeue(List<PendingEntry> batch, Exception e) {
+        int dropped = 0;
+        for (PendingEntry p : batch) {
+            if (++p.attempts >= MAX_ATTEMPTS || !queue.offer(p)) {
+                dropped++;
+            }
+        }
+
+        if (dropped > 0) {
+            droppedEntries.inc(dropped);
+            log.error("flush -> error while writing audit log entries, {} entry(s) dropped: {}", dropped, e.getMessage(), e);
+        } else {
+            log.warn("flush -> error while writing audit log entries, will retry: {}", e.getMessage());
+        }
+    }
+
+    private static final class PendingEntry {
+
+        private final NewAuditEntry entry;
+        private final long createdAt = System.currentTimeMillis();
+        private int attempts;
+
+        private PendingEntry(NewAuditEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
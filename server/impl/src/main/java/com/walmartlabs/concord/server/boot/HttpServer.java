@@ -32,7 +32,7 @@ import org.eclipse.jetty.jmx.MBeanContainer;
 import org.eclipse.jetty.server.*;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.StatisticsHandler;
-import org.jboss.resteasy.plugins.server.servlet.HttpServletDispatcher;
+import org.jboss.resteasy.plugins.server.servlet.HttpServlet30Dispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,8 +123,10 @@ public class HttpServer {
         });
 
         // init all Resteasy endpoints
+        // use the Servlet 3.0 dispatcher to support @Suspended (async) responses
         apiDescriptors.forEach(api -> {
-            ServletHolder holder = new ServletHolder(HttpServletDispatcher.class);
+            ServletHolder holder = new ServletHolder(HttpServlet30Dispatcher.class);
+            holder.setAsyncSupported(true);
             for (String pathSpec : api.paths()) {
                 log.info("Serving API endpoints @ {}", pathSpec);
                 contextHandler.addServlet(holder, pathSpec);
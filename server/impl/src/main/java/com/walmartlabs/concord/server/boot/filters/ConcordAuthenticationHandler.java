@@ -23,6 +23,7 @@ package com.walmartlabs.concord.server.boot.filters;
 import com.walmartlabs.concord.common.secret.SecretUtils;
 import com.walmartlabs.concord.sdk.Constants;
 import com.walmartlabs.concord.server.cfg.SecretStoreConfiguration;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import com.walmartlabs.concord.server.security.apikey.ApiKey;
 import com.walmartlabs.concord.server.security.apikey.ApiKeyDao;
 import com.walmartlabs.concord.server.security.apikey.ApiKeyEntry;
@@ -53,11 +54,13 @@ public class ConcordAuthenticationHandler implements AuthenticationHandler {
     private static final String BEARER_AUTH_PREFIX = "Bearer ";
 
     private final ApiKeyDao apiKeyDao;
+    private final AuthenticationCache authCache;
     private final SecretStoreConfiguration secretCfg;
 
     @Inject
-    public ConcordAuthenticationHandler(ApiKeyDao apiKeyDao, SecretStoreConfiguration secretCfg) {
+    public ConcordAuthenticationHandler(ApiKeyDao apiKeyDao, AuthenticationCache authCache, SecretStoreConfiguration secretCfg) {
         this.apiKeyDao = apiKeyDao;
+        this.authCache = authCache;
         this.secretCfg = secretCfg;
     }
 
@@ -100,7 +103,7 @@ public class ConcordAuthenticationHandler implements AuthenticationHandler {
                 return null;
             }
 
-            ApiKeyEntry apiKey = apiKeyDao.find(h);
+            ApiKeyEntry apiKey = findApiKey(h);
             if (apiKey == null) {
                 return new UsernamePasswordToken();
             }
@@ -109,6 +112,19 @@ public class ConcordAuthenticationHandler implements AuthenticationHandler {
         }
     }
 
+    private ApiKeyEntry findApiKey(String key) {
+        ApiKeyEntry result = authCache.getApiKey(key);
+        if (result != null) {
+            return result;
+        }
+
+        result = apiKeyDao.find(key);
+        if (result != null) {
+            authCache.putApiKey(key, result);
+        }
+        return result;
+    }
+
     private AuthenticationToken createFromSessionHeader(HttpServletRequest req) {
         // explicitly disable sessions
         req.setAttribute(DefaultSubjectContext.SESSION_CREATION_ENABLED, Boolean.FALSE);
@@ -46,6 +46,14 @@ public class AgentConfiguration implements Serializable {
     @Config("agent.maxStalledAge")
     private Duration maxStalledAge;
 
+    @Inject
+    @Config("agent.longPollMaxTimeout")
+    private Duration longPollMaxTimeout;
+
+    @Inject
+    @Config("agent.longPollMaxCount")
+    private int longPollMaxCount;
+
     public Duration getCommandPollDelay() {
         return commandPollDelay;
     }
@@ -61,4 +69,12 @@ public class AgentConfiguration implements Serializable {
     public Duration getMaxStalledAge() {
         return maxStalledAge;
     }
+
+    public Duration getLongPollMaxTimeout() {
+        return longPollMaxTimeout;
+    }
+
+    public int getLongPollMaxCount() {
+        return longPollMaxCount;
+    }
 }
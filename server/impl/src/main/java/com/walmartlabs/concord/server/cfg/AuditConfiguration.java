@@ -26,6 +26,7 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.List;
 
 public class AuditConfiguration implements Serializable {
 
@@ -43,6 +44,30 @@ public class AuditConfiguration implements Serializable {
     @Config("audit.maxLogAge")
     private Duration maxLogAge;
 
+    @Inject
+    @Config("audit.accessLogPeriod")
+    private Duration accessLogPeriod;
+
+    @Inject
+    @Config("audit.asyncWriter.enabled")
+    private boolean asyncWriterEnabled;
+
+    @Inject
+    @Config("audit.asyncWriter.actions")
+    private List<String> asyncWriterActions;
+
+    @Inject
+    @Config("audit.asyncWriter.flushInterval")
+    private Duration asyncWriterFlushInterval;
+
+    @Inject
+    @Config("audit.asyncWriter.maxBatchSize")
+    private int asyncWriterMaxBatchSize;
+
+    @Inject
+    @Config("audit.asyncWriter.maxQueueSize")
+    private int asyncWriterMaxQueueSize;
+
     @Nullable
     @Inject
     @Config("audit.maxSearchInterval")
@@ -63,4 +88,28 @@ public class AuditConfiguration implements Serializable {
     public Duration getMaxSearchInterval() {
         return maxSearchInterval;
     }
+
+    public Duration getAccessLogPeriod() {
+        return accessLogPeriod;
+    }
+
+    public boolean isAsyncWriterEnabled() {
+        return asyncWriterEnabled;
+    }
+
+    public List<String> getAsyncWriterActions() {
+        return asyncWriterActions;
+    }
+
+    public Duration getAsyncWriterFlushInterval() {
+        return asyncWriterFlushInterval;
+    }
+
+    public int getAsyncWriterMaxBatchSize() {
+        return asyncWriterMaxBatchSize;
+    }
+
+    public int getAsyncWriterMaxQueueSize() {
+        return asyncWriterMaxQueueSize;
+    }
 }
@@ -43,6 +43,7 @@ public class ConfigurationModule implements Module {
         binder.bind(AgentConfiguration.class).in(SINGLETON);
         binder.bind(ApiKeyConfiguration.class).in(SINGLETON);
         binder.bind(AuditConfiguration.class).in(SINGLETON);
+        binder.bind(AuthCacheConfiguration.class).in(SINGLETON);
         binder.bind(ConcordSecretStoreConfiguration.class).in(SINGLETON);
         binder.bind(CustomFormConfiguration.class).in(SINGLETON);
         binder.bind(DependenciesConfiguration.class).in(SINGLETON);
@@ -58,6 +59,7 @@ public class ConfigurationModule implements Module {
         binder.bind(LockingConfiguration.class).in(SINGLETON);
         binder.bind(PolicyCacheConfiguration.class).in(SINGLETON);
         binder.bind(ProcessConfiguration.class).in(SINGLETON);
+        binder.bind(ProcessLogConfiguration.class).in(SINGLETON);
         binder.bind(ProcessQueueConfiguration.class).in(SINGLETON);
         binder.bind(ProcessWaitWatchdogConfiguration.class).in(SINGLETON);
         binder.bind(ProcessWatchdogConfiguration.class).in(SINGLETON);
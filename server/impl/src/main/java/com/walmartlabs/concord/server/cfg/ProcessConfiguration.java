@@ -58,14 +58,38 @@ public class ProcessConfiguration implements Serializable {
     @Config("process.checkpointCleanup")
     private boolean checkpointCleanup;
 
+    @Inject
+    @Config("process.cleanupBatchSize")
+    private int cleanupBatchSize;
+
     @Inject
     @Config("process.maxStateAge")
     private Duration maxStateAge;
 
+    @Inject
+    @Config("process.partitioning.enabled")
+    private boolean partitioningEnabled;
+
+    @Inject
+    @Config("process.partitioning.interval")
+    private Duration partitioningInterval;
+
+    @Inject
+    @Config("process.partitioning.period")
+    private Duration partitionPeriod;
+
+    @Inject
+    @Config("process.partitioning.premake")
+    private int partitionPremake;
+
     @Inject
     @Config("process.secureFiles")
     private List<String> secureFiles;
 
+    @Inject
+    @Config("process.stateDeduplication")
+    private boolean stateDeduplication;
+
     @Inject
     @Config("process.signingKeyAlgorithm")
     @Nullable
@@ -90,14 +114,39 @@ public class ProcessConfiguration implements Serializable {
     @Config("process.extraRuntimes")
     private List<String> extraRuntimes;
 
+    @Inject
+    @Config("process.completionWait.maxTimeout")
+    private Duration completionWaitMaxTimeout;
+
+    @Inject
+    @Config("process.completionWait.checkInterval")
+    private Duration completionWaitCheckInterval;
+
+    @Inject
+    @Config("process.completionWait.maxProcesses")
+    private int completionWaitMaxProcesses;
+
+    @Inject
+    @Config("process.heartbeatBuffer.enabled")
+    private boolean heartbeatBufferEnabled;
+
+    @Inject
+    @Config("process.heartbeatBuffer.flushInterval")
+    private Duration heartbeatBufferFlushInterval;
+
     @Inject
     public ProcessConfiguration(@Config("process.signingKeyPath") @Nullable String signingKeyPath) {
         this.signingKeyPath = signingKeyPath != null ? Paths.get(signingKeyPath) : null;
     }
 
     public ProcessConfiguration(Duration maxStateAge, List<String> secureFiles) {
+        this(maxStateAge, secureFiles, false);
+    }
+
+    public ProcessConfiguration(Duration maxStateAge, List<String> secureFiles, boolean stateDeduplication) {
         this.maxStateAge = maxStateAge;
         this.secureFiles = secureFiles;
+        this.stateDeduplication = stateDeduplication;
     }
 
     public Duration getCleanupInterval() {
@@ -124,14 +173,38 @@ public class ProcessConfiguration implements Serializable {
         return checkpointCleanup;
     }
 
+    public int getCleanupBatchSize() {
+        return cleanupBatchSize;
+    }
+
     public Duration getMaxStateAge() {
         return maxStateAge;
     }
 
+    public boolean isPartitioningEnabled() {
+        return partitioningEnabled;
+    }
+
+    public Duration getPartitioningInterval() {
+        return partitioningInterval;
+    }
+
+    public Duration getPartitionPeriod() {
+        return partitionPeriod;
+    }
+
+    public int getPartitionPremake() {
+        return partitionPremake;
+    }
+
     public List<String> getSecureFiles() {
         return secureFiles;
     }
 
+    public boolean isStateDeduplication() {
+        return stateDeduplication;
+    }
+
     public String getSigningAlgorithm() {
         return signingAlgorithm;
     }
@@ -155,4 +228,24 @@ public class ProcessConfiguration implements Serializable {
     public List<String> getExtraRuntimes() {
         return extraRuntimes;
     }
+
+    public Duration getCompletionWaitMaxTimeout() {
+        return completionWaitMaxTimeout;
+    }
+
+    public Duration getCompletionWaitCheckInterval() {
+        return completionWaitCheckInterval;
+    }
+
+    public int getCompletionWaitMaxProcesses() {
+        return completionWaitMaxProcesses;
+    }
+
+    public boolean isHeartbeatBufferEnabled() {
+        return heartbeatBufferEnabled;
+    }
+
+    public Duration getHeartbeatBufferFlushInterval() {
+        return heartbeatBufferFlushInterval;
+    }
 }
@@ -0,0 +1,104 @@
+package com.walmartlabs.concord.server.cfg;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.ollie.config.Config;
+
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.time.Duration;
+
+public class ProcessLogConfiguration implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    @Config("process.logBuffer.enabled")
+    private boolean bufferEnabled;
+
+    @Inject
+    @Config("process.logBuffer.flushInterval")
+    private Duration bufferFlushInterval;
+
+    @Inject
+    @Config("process.logBuffer.maxBatchSize")
+    private int bufferMaxBatchSize;
+
+    @Inject
+    @Config("process.logBuffer.maxPendingSize")
+    private long bufferMaxPendingSize;
+
+    @Inject
+    @Config("process.logTail.enabled")
+    private boolean tailEnabled;
+
+    @Inject
+    @Config("process.logTail.maxEntries")
+    private int tailMaxEntries;
+
+    @Inject
+    @Config("process.logTail.maxTailSize")
+    private int tailMaxSize;
+
+    @Inject
+    @Config("process.logTail.maxAge")
+    private Duration tailMaxAge;
+
+    @Inject
+    @Config("process.logTail.maxWait")
+    private Duration tailMaxWait;
+
+    public boolean isBufferEnabled() {
+        return bufferEnabled;
+    }
+
+    public Duration getBufferFlushInterval() {
+        return bufferFlushInterval;
+    }
+
+    public int getBufferMaxBatchSize() {
+        return bufferMaxBatchSize;
+    }
+
+    public long getBufferMaxPendingSize() {
+        return bufferMaxPendingSize;
+    }
+
+    public boolean isTailEnabled() {
+        return tailEnabled;
+    }
+
+    public int getTailMaxEntries() {
+        return tailMaxEntries;
+    }
+
+    public int getTailMaxSize() {
+        return tailMaxSize;
+    }
+
+    public Duration getTailMaxAge() {
+        return tailMaxAge;
+    }
+
+    public Duration getTailMaxWait() {
+        return tailMaxWait;
+    }
+}
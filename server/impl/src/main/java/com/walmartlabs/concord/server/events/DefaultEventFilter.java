@@ -20,7 +20,10 @@ package com.walmartlabs.concord.server.events;
  * =====
  */
 
-import com.walmartlabs.concord.common.Matcher;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.walmartlabs.concord.common.CompiledMatcher;
 import com.walmartlabs.concord.server.org.triggers.TriggerEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,13 +34,27 @@ public final class DefaultEventFilter {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultEventFilter.class);
 
+    /**
+     * Compiled trigger conditions. Triggers are re-fetched from the DB for
+     * each event, so the cache is keyed by the conditions themselves.
+     */
+    private static final LoadingCache<Map<String, Object>, CompiledMatcher> matchers = CacheBuilder.newBuilder()
+            .maximumSize(10 * 1024L)
+            .concurrencyLevel(32)
+            .build(new CacheLoader<Map<String, Object>, CompiledMatcher>() {
+                @Override
+                public CompiledMatcher load(Map<String, Object> conditions) {
+                    return CompiledMatcher.compile(conditions);
+                }
+            });
+
     public static boolean filter(Map<String, Object> conditions, TriggerEntry t) {
         if (t.getConditions() == null || t.getConditions().isEmpty()) {
             return true;
         }
 
         try {
-            return Matcher.matches(conditions, t.getConditions());
+            return matchers.getUnchecked(t.getConditions()).matches(conditions);
         } catch (Exception e) {
             log.warn("filter [{}, {}] -> error while matching events: {}", conditions, t, e.getMessage());
             return false;
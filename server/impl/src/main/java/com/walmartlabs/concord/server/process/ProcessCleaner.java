@@ -24,6 +24,7 @@ import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgUtils;
 import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.state.ProcessStateManager;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
 import org.jooq.*;
@@ -31,7 +32,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static com.walmartlabs.concord.server.jooq.Tables.*;
@@ -39,11 +43,14 @@ import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpoints.PROC
 import static com.walmartlabs.concord.server.jooq.tables.ProcessEvents.PROCESS_EVENTS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessState.PROCESS_STATE;
+import static org.jooq.impl.DSL.*;
 
 public class ProcessCleaner implements ScheduledTask {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessCleaner.class);
 
+    private static final Duration BLOB_REMOVAL_DELAY = ProcessStateManager.BLOB_TOUCH_INTERVAL.multipliedBy(24);
+
     private static final String[] EXCLUDE_STATUSES = {
             ProcessStatus.STARTING.toString(),
             ProcessStatus.RUNNING.toString(),
@@ -52,11 +59,16 @@ public class ProcessCleaner implements ScheduledTask {
 
     private final ProcessConfiguration cfg;
     private final CleanerDao cleanerDao;
+    private final ProcessPartitionManager partitionManager;
 
     @Inject
-    public ProcessCleaner(ProcessConfiguration cfg, @MainDB Configuration dbCfg) {
+    public ProcessCleaner(ProcessConfiguration cfg,
+                          @MainDB Configuration dbCfg,
+                          ProcessPartitionManager partitionManager) {
+
         this.cfg = cfg;
         this.cleanerDao = new CleanerDao(dbCfg);
+        this.partitionManager = partitionManager;
     }
 
     @Override
@@ -71,84 +83,129 @@ public class ProcessCleaner implements ScheduledTask {
 
     @Override
     public void performTask() {
+        // drop whole partitions first, the remaining rows are removed one batch at a time
+        int partitions = partitionManager.dropExpiredPartitions();
+        if (partitions > 0) {
+            log.info("performTask -> dropped {} expired partition(s)", partitions);
+        }
+
         cleanerDao.deleteOldState(cfg);
         cleanerDao.deleteOrphans(cfg);
+
+        if (cfg.isStateCleanup()) {
+            cleanerDao.deleteUnusedBlobs(cfg);
+        }
     }
 
-    private static class CleanerDao extends AbstractDao {
+    static class CleanerDao extends AbstractDao {
 
-        private CleanerDao(@MainDB Configuration cfg) {
+        CleanerDao(@MainDB Configuration cfg) {
             super(cfg);
         }
 
+        /**
+         * Removes the data of old processes in batches of {@code cleanupBatchSize} processes,
+         * one transaction per batch.
+         */
         void deleteOldState(ProcessConfiguration jobCfg) {
             long t1 = System.currentTimeMillis();
 
             Field<OffsetDateTime> cutoff = PgUtils.nowMinus(jobCfg.getMaxStateAge());
+            int batchSize = Math.max(jobCfg.getCleanupBatchSize(), 1);
 
-            tx(tx -> {
-                SelectConditionStep<Record1<UUID>> ids = tx.select(PROCESS_QUEUE.INSTANCE_ID)
-                        .from(PROCESS_QUEUE)
-                        .where(PROCESS_QUEUE.LAST_UPDATED_AT.lessThan(cutoff)
-                                .and(PROCESS_QUEUE.CURRENT_STATUS.notIn(EXCLUDE_STATUSES)));
+            DeleteStats stats = new DeleteStats();
+            UUID lastId = null;
+            while (true) {
+                UUID after = lastId;
+                lastId = txResult(tx -> {
+                    SelectConditionStep<Record2<UUID, OffsetDateTime>> q = tx.select(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CREATED_AT)
+                            .from(PROCESS_QUEUE)
+                            .where(PROCESS_QUEUE.LAST_UPDATED_AT.lessThan(cutoff)
+                                    .and(PROCESS_QUEUE.CURRENT_STATUS.notIn(EXCLUDE_STATUSES)));
 
-                int stateRecords = 0;
-                int initialStateRecords = 0;
-                if (jobCfg.isStateCleanup()) {
-                    stateRecords = tx.deleteFrom(PROCESS_STATE)
-                            .where(PROCESS_STATE.INSTANCE_ID.in(ids))
-                            .execute();
+                    if (after != null) {
+                        q = q.and(PROCESS_QUEUE.INSTANCE_ID.greaterThan(after));
+                    }
 
-                    initialStateRecords = tx.deleteFrom(PROCESS_INITIAL_STATE)
-                            .where(PROCESS_INITIAL_STATE.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+                    List<Record2<UUID, OffsetDateTime>> batch = q.orderBy(PROCESS_QUEUE.INSTANCE_ID)
+                            .limit(batchSize)
+                            .fetch();
 
-                int events = 0;
-                if (jobCfg.isEventsCleanup()) {
-                    events = tx.deleteFrom(PROCESS_EVENTS)
-                            .where(PROCESS_EVENTS.INSTANCE_ID.in(ids))
-                            .execute();
-                }
-
-                int logDataEntries = 0;
-                int logSegmentEntries = 0;
-                if (jobCfg.isLogsCleanup()) {
-                    logDataEntries = tx.deleteFrom(PROCESS_LOG_DATA)
-                            .where(PROCESS_LOG_DATA.INSTANCE_ID.in(ids))
-                            .execute();
-
-                    logSegmentEntries = tx.deleteFrom(PROCESS_LOG_SEGMENTS)
-                            .where(PROCESS_LOG_SEGMENTS.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+                    if (batch.isEmpty()) {
+                        return null;
+                    }
 
-                int checkpoints = 0;
-                if (jobCfg.isCheckpointCleanup()) {
-                    checkpoints = tx.deleteFrom(PROCESS_CHECKPOINTS)
-                            .where(PROCESS_CHECKPOINTS.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+                    deleteBatch(tx, jobCfg, batch, stats);
 
-                int queueEntries = 0;
-                if (jobCfg.isQueueCleanup()) {
-                    tx.deleteFrom(PROCESS_WAIT_CONDITIONS)
-                            .where(PROCESS_WAIT_CONDITIONS.INSTANCE_ID.in(ids))
-                            .execute();
+                    return batch.size() < batchSize ? null : batch.get(batch.size() - 1).value1();
+                });
 
-                    queueEntries = tx.deleteFrom(PROCESS_QUEUE)
-                            .where(PROCESS_QUEUE.INSTANCE_ID.in(ids))
-                            .execute();
+                if (lastId == null) {
+                    break;
                 }
+            }
 
-                log.info("deleteOldState -> removed older than {}: {} queue entries, {} log data entries, {} log segments, {} state item(s), {} initial state item(s), {} event(s), {} checkpoint(s)",
-                        jobCfg.getMaxStateAge(), queueEntries, logDataEntries, logSegmentEntries, stateRecords, initialStateRecords, events, checkpoints);
-            });
+            log.info("deleteOldState -> removed older than {}: {} queue entries, {} log data entries, {} log segments, {} state item(s), {} initial state item(s), {} event(s), {} checkpoint(s), {} batch(es)",
+                    jobCfg.getMaxStateAge(), stats.queueEntries, stats.logDataEntries, stats.logSegmentEntries, stats.stateRecords, stats.initialStateRecords, stats.events, stats.checkpoints, stats.batches);
 
             long t2 = System.currentTimeMillis();
             log.info("deleteOldState -> took {}ms", (t2 - t1));
         }
 
+        private static void deleteBatch(DSLContext tx, ProcessConfiguration jobCfg, List<Record2<UUID, OffsetDateTime>> batch, DeleteStats stats) {
+            // (INSTANCE_ID, INSTANCE_CREATED_AT) pairs allow partition pruning
+            List<UUID> ids = new ArrayList<>(batch.size());
+            List<Row2<UUID, OffsetDateTime>> keys = new ArrayList<>(batch.size());
+            for (Record2<UUID, OffsetDateTime> r : batch) {
+                ids.add(r.value1());
+                keys.add(r.valuesRow());
+            }
+
+            if (jobCfg.isStateCleanup()) {
+                stats.stateRecords += tx.deleteFrom(PROCESS_STATE)
+                        .where(row(PROCESS_STATE.INSTANCE_ID, PROCESS_STATE.INSTANCE_CREATED_AT).in(keys))
+                        .execute();
+
+                stats.initialStateRecords += tx.deleteFrom(PROCESS_INITIAL_STATE)
+                        .where(row(PROCESS_INITIAL_STATE.INSTANCE_ID, PROCESS_INITIAL_STATE.INSTANCE_CREATED_AT).in(keys))
+                        .execute();
+            }
+
+            if (jobCfg.isEventsCleanup()) {
+                stats.events += tx.deleteFrom(PROCESS_EVENTS)
+                        .where(row(PROCESS_EVENTS.INSTANCE_ID, PROCESS_EVENTS.INSTANCE_CREATED_AT).in(keys))
+                        .execute();
+            }
+
+            if (jobCfg.isLogsCleanup()) {
+                stats.logDataEntries += tx.deleteFrom(PROCESS_LOG_DATA)
+                        .where(row(PROCESS_LOG_DATA.INSTANCE_ID, PROCESS_LOG_DATA.INSTANCE_CREATED_AT).in(keys))
+                        .execute();
+
+                stats.logSegmentEntries += tx.deleteFrom(PROCESS_LOG_SEGMENTS)
+                        .where(row(PROCESS_LOG_SEGMENTS.INSTANCE_ID, PROCESS_LOG_SEGMENTS.INSTANCE_CREATED_AT).in(keys))
+                        .execute();
+            }
+
+            if (jobCfg.isCheckpointCleanup()) {
+                stats.checkpoints += tx.deleteFrom(PROCESS_CHECKPOINTS)
+                        .where(row(PROCESS_CHECKPOINTS.INSTANCE_ID, PROCESS_CHECKPOINTS.INSTANCE_CREATED_AT).in(keys))
+                        .execute();
+            }
+
+            if (jobCfg.isQueueCleanup()) {
+                tx.deleteFrom(PROCESS_WAIT_CONDITIONS)
+                        .where(PROCESS_WAIT_CONDITIONS.INSTANCE_ID.in(ids))
+                        .execute();
+
+                stats.queueEntries += tx.deleteFrom(PROCESS_QUEUE)
+                        .where(PROCESS_QUEUE.INSTANCE_ID.in(ids))
+                        .execute();
+            }
+
+            stats.batches++;
+        }
+
         void deleteOrphans(ProcessConfiguration jobCfg) {
             long t1 = System.currentTimeMillis();
 
@@ -195,5 +252,64 @@ public class ProcessCleaner implements ScheduledTask {
             long t2 = System.currentTimeMillis();
             log.info("deleteOrphans -> took {}ms", (t2 - t1));
         }
+
+        /**
+         * Removes the process state blobs that are no longer referenced by any process.
+         * Blobs that were used recently are kept to avoid racing with concurrent imports.
+         * <p>
+         * Candidates locked by a concurrent import (touched or referenced) are skipped.
+         * The conditions are repeated in the outer DELETE because PostgreSQL doesn't
+         * re-evaluate the subquery when it re-checks an updated row.
+         */
+        void deleteUnusedBlobs(ProcessConfiguration jobCfg) {
+            long t1 = System.currentTimeMillis();
+
+            int batchSize = Math.max(jobCfg.getCleanupBatchSize(), 1);
+
+            int blobs = 0;
+            while (true) {
+                int deleted = txResult(tx -> deleteUnusedBlobs(tx, batchSize));
+
+                blobs += deleted;
+                if (deleted < batchSize) {
+                    break;
+                }
+            }
+
+            long t2 = System.currentTimeMillis();
+            log.info("deleteUnusedBlobs -> removed {} blob(s), took {}ms", blobs, (t2 - t1));
+        }
+
+        int deleteUnusedBlobs(DSLContext tx, int batchSize) {
+            Select<Record1<String>> unused = select(PROCESS_STATE_BLOBS.BLOB_DIGEST)
+                    .from(PROCESS_STATE_BLOBS)
+                    .where(isUnusedBlob())
+                    .limit(batchSize)
+                    .forUpdate()
+                    .skipLocked();
+
+            return tx.deleteFrom(PROCESS_STATE_BLOBS)
+                    .where(PROCESS_STATE_BLOBS.BLOB_DIGEST.in(unused)
+                            .and(isUnusedBlob()))
+                    .execute();
+        }
+
+        private static Condition isUnusedBlob() {
+            return PROCESS_STATE_BLOBS.LAST_USED_AT.lessThan(PgUtils.nowMinus(BLOB_REMOVAL_DELAY))
+                    .andNotExists(selectOne().from(PROCESS_STATE).where(PROCESS_STATE.BLOB_DIGEST.eq(PROCESS_STATE_BLOBS.BLOB_DIGEST)))
+                    .andNotExists(selectOne().from(PROCESS_INITIAL_STATE).where(PROCESS_INITIAL_STATE.BLOB_DIGEST.eq(PROCESS_STATE_BLOBS.BLOB_DIGEST)));
+        }
+    }
+
+    private static final class DeleteStats {
+
+        private int batches;
+        private int queueEntries;
+        private int logDataEntries;
+        private int logSegmentEntries;
+        private int stateRecords;
+        private int initialStateRecords;
+        private int events;
+        private int checkpoints;
     }
 }
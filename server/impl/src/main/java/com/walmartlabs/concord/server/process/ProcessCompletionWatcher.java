@@ -0,0 +1,258 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.PeriodicTask;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import com.walmartlabs.concord.server.process.queue.ProcessStatusListener;
+import com.walmartlabs.concord.server.sdk.PartialProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Completes the requests waiting for processes to reach a final status.
+ * <p>
+ * The status changes made by this server instance are reported by the
+ * {@link ProcessStatusListener} hook and checked immediately. The listener
+ * is called before the transaction is committed and other server instances
+ * don't call it at all, so the statuses of all awaited processes are also
+ * checked periodically, using a single query.
+ */
+public class ProcessCompletionWatcher extends PeriodicTask implements ProcessStatusListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessCompletionWatcher.class);
+
+    private static final long ERROR_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    public static final Set<ProcessStatus> FINAL_STATUSES = Collections.unmodifiableSet(EnumSet.of(
+            ProcessStatus.FINISHED,
+            ProcessStatus.FAILED,
+            ProcessStatus.CANCELLED,
+            ProcessStatus.TIMED_OUT));
+
+    private final ProcessQueueDao queueDao;
+    private final long checkInterval;
+
+    private final Object mutex = new Object();
+
+    // guarded by mutex
+    private final Map<UUID, List<Waiter>> waitersByInstanceId = new HashMap<>();
+    private final Set<Waiter> waiters = new HashSet<>();
+    private final Set<UUID> notified = new HashSet<>();
+    private long lastCheckAt;
+
+    @Inject
+    public ProcessCompletionWatcher(ProcessConfiguration cfg, ProcessQueueDao queueDao, MetricRegistry metricRegistry) {
+        super(cfg.getCompletionWaitCheckInterval().toMillis(), ERROR_DELAY);
+
+        this.queueDao = queueDao;
+        this.checkInterval = cfg.getCompletionWaitCheckInterval().toMillis();
+
+        metricRegistry.gauge("process-completion-waiters", () -> this::getWaiterCount);
+    }
+
+    /**
+     * Waits for the specified processes to reach a final status.
+     * The callback receives the current entries of all specified processes
+     * when any (or all, depending on {@code any}) of the processes are
+     * finished or when the timeout is reached.
+     */
+    public Waiter register(Collection<UUID> instanceIds, boolean any, long timeoutMs, Consumer<List<ProcessEntry>> callback) {
+        Waiter w = new Waiter(instanceIds, any, System.currentTimeMillis() + timeoutMs, callback);
+
+        synchronized (mutex) {
+            waiters.add(w);
+            for (UUID id : w.pending) {
+                waitersByInstanceId.computeIfAbsent(id, k -> new ArrayList<>()).add(w);
+            }
+
+            // the statuses could've changed before the waiter was registered
+            notified.addAll(w.pending);
+            mutex.notifyAll();
+        }
+
+        return w;
+    }
+
+    /**
+     * Completes the waiter with the current process entries.
+     */
+    public void cancel(Waiter w) {
+        synchronized (mutex) {
+            unregister(w);
+        }
+        complete(w);
+    }
+
+    @Override
+    public void onStatusChange(DSLContext tx, ProcessKey processKey, ProcessStatus status) {
+        if (!FINAL_STATUSES.contains(status)) {
+            return;
+        }
+
+        synchronized (mutex) {
+            if (waitersByInstanceId.containsKey(processKey.getInstanceId())) {
+                notified.add(processKey.getInstanceId());
+                mutex.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    protected boolean performTask() {
+        Set<UUID> ids;
+        synchronized (mutex) {
+            long now = System.currentTimeMillis();
+            long nextCheckAt = lastCheckAt + checkInterval;
+            long wakeUpAt = Math.min(nextCheckAt, nextDeadline());
+            if (notified.isEmpty() && now < wakeUpAt) {
+                try {
+                    mutex.wait(wakeUpAt - now);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                }
+            }
+
+            now = System.currentTimeMillis();
+            if (now >= nextCheckAt) {
+                ids = new HashSet<>(waitersByInstanceId.keySet());
+                lastCheckAt = now;
+            } else {
+                ids = new HashSet<>(notified);
+            }
+            notified.clear();
+        }
+
+        Map<UUID, ProcessStatus> statuses = ids.isEmpty() ? Collections.emptyMap() : queueDao.getStatuses(ids);
+
+        List<Waiter> completed = new ArrayList<>();
+        synchronized (mutex) {
+            for (UUID id : ids) {
+                ProcessStatus s = statuses.get(id);
+                // removed processes are considered finished
+                if (s != null && !FINAL_STATUSES.contains(s)) {
+                    continue;
+                }
+
+                List<Waiter> l = waitersByInstanceId.get(id);
+                if (l == null) {
+                    continue;
+                }
+
+                for (Waiter w : new ArrayList<>(l)) {
+                    w.pending.remove(id);
+                    if (w.any || w.pending.isEmpty()) {
+                        unregister(w);
+                        completed.add(w);
+                    }
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            for (Waiter w : new ArrayList<>(waiters)) {
+                if (w.deadline <= now) {
+                    unregister(w);
+                    completed.add(w);
+                }
+            }
+        }
+
+        completed.forEach(this::complete);
+
+        return true;
+    }
+
+    int getWaiterCount() {
+        synchronized (mutex) {
+            return waiters.size();
+        }
+    }
+
+    private long nextDeadline() {
+        long result = Long.MAX_VALUE;
+        for (Waiter w : waiters) {
+            result = Math.min(result, w.deadline);
+        }
+        return result;
+    }
+
+    private void unregister(Waiter w) {
+        waiters.remove(w);
+        for (UUID id : w.instanceIds) {
+            List<Waiter> l = waitersByInstanceId.get(id);
+            if (l == null) {
+                continue;
+            }
+
+            l.remove(w);
+            if (l.isEmpty()) {
+                waitersByInstanceId.remove(id);
+            }
+        }
+    }
+
+    private void complete(Waiter w) {
+        if (!w.done.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<PartialProcessKey> keys = w.instanceIds.stream()
+                    .map(PartialProcessKey::from)
+                    .collect(Collectors.toList());
+
+            w.callback.accept(queueDao.get(keys));
+        } catch (Exception e) {
+            log.warn("complete -> error while completing the request for {}: {}", w.instanceIds, e.getMessage());
+        }
+    }
+
+    public static final class Waiter {
+
+        private final Set<UUID> instanceIds;
+        private final Set<UUID> pending;
+        private final boolean any;
+        private final long deadline;
+        private final Consumer<List<ProcessEntry>> callback;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Waiter(Collection<UUID> instanceIds, boolean any, long deadline, Consumer<List<ProcessEntry>> callback) {
+            this.instanceIds = new HashSet<>(instanceIds);
+            this.pending = new HashSet<>(instanceIds);
+            this.any = any;
+            this.deadline = deadline;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.walmartlabs.concord.server.PeriodicTask;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.cfg.ProcessWatchdogConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.walmartlabs.concord.server.metrics.MetricUtils.withTimer;
+
+/**
+ * Write-behind buffer for process heartbeats.
+ * <p>
+ * Heartbeats are collected in memory and written periodically using one
+ * {@code UPDATE} statement per batch instead of one transaction per heartbeat.
+ * The first heartbeat of each process is written immediately to verify
+ * that the process exists.
+ */
+public class ProcessHeartbeatBuffer extends PeriodicTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessHeartbeatBuffer.class);
+
+    private static final long ERROR_DELAY = TimeUnit.SECONDS.toMillis(5);
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Same order as PostgreSQL's {@code uuid} type (unsigned, byte by byte).
+     */
+    private static final Comparator<UUID> INSTANCE_ID_ORDER = Comparator.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final ProcessQueueDao queueDao;
+    private final boolean enabled;
+
+    private final Object mutex = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // guarded by mutex
+    private Set<UUID> pending = new HashSet<>();
+
+    /**
+     * Processes that are known to exist.
+     */
+    private final Cache<UUID, Boolean> knownProcesses = CacheBuilder.newBuilder()
+            .maximumSize(100 * 1024L)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    private final Histogram flushSizeHistogram;
+    private final Timer flushTimer;
+
+    @Inject
+    public ProcessHeartbeatBuffer(ProcessQueueDao queueDao,
+                                  ProcessConfiguration cfg,
+                                  ProcessWatchdogConfiguration watchdogCfg,
+                                  MetricRegistry metricRegistry) {
+
+        super(cfg.isHeartbeatBufferEnabled() ? cfg.getHeartbeatBufferFlushInterval().toMillis() : 0, ERROR_DELAY);
+
+        this.queueDao = queueDao;
+        this.enabled = cfg.isHeartbeatBufferEnabled();
+
+        Duration maxStalledAge = watchdogCfg.getMaxStalledAge();
+        if (enabled && cfg.getHeartbeatBufferFlushInterval().multipliedBy(2).compareTo(maxStalledAge) > 0) {
+            log.warn("init -> heartbeatBuffer.flushInterval ({}) is too close to maxStalledAge ({}), " +
+                    "processes might be marked as stalled", cfg.getHeartbeatBufferFlushInterval(), maxStalledAge);
+        }
+
+        metricRegistry.gauge("process-heartbeat-buffer-pending", () -> this::getPendingCount);
+        this.flushSizeHistogram = metricRegistry.histogram("process-heartbeat-buffer-flush-size");
+        this.flushTimer = metricRegistry.timer("process-heartbeat-buffer-flush-timer");
+    }
+
+    /**
+     * Records a heartbeat of the specified process.
+     *
+     * @return {@code false} if the process doesn't exist.
+     */
+    public boolean ping(UUID instanceId) {
+        if (!enabled || knownProcesses.getIfPresent(instanceId) == null) {
+            boolean found = queueDao.touch(instanceId);
+            if (found && enabled) {
+                knownProcesses.put(instanceId, Boolean.TRUE);
+            }
+            return found;
+        }
+
+        synchronized (mutex) {
+            pending.add(instanceId);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+
+        if (enabled) {
+            flush();
+        }
+    }
+
+    @Override
+    protected boolean performTask() {
+        flush();
+        return false;
+    }
+
+    void flush() {
+        flushLock.lock();
+        try {
+            Set<UUID> s;
+            synchronized (mutex) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                s = pending;
+                pending = new HashSet<>();
+            }
+
+            // update the rows in a stable order to avoid deadlocks with other servers flushing the same processes
+            List<UUID> ids = new ArrayList<>(s);
+            ids.sort(INSTANCE_ID_ORDER);
+            for (int start = 0; start < ids.size(); start += MAX_BATCH_SIZE) {
+                flush(ids.subList(start, Math.min(start + MAX_BATCH_SIZE, ids.size())));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flush(List<UUID> batch) {
+        Set<UUID> updated = new HashSet<>();
+        try {
+            withTimer(flushTimer, () -> updated.addAll(queueDao.touch(batch)));
+        } catch (Exception e) {
+            log.warn("flush -> error while writing {} heartbeat(s), will retry: {}", batch.size(), e.getMessage());
+            synchronized (mutex) {
+                pending.addAll(batch);
+            }
+            return;
+        }
+
+        flushSizeHistogram.update(batch.size());
+
+        for (UUID id : batch) {
+            if (!updated.contains(id)) {
+                // the process was removed, the next heartbeat will be checked again
+                knownProcesses.invalidate(id);
+            }
+        }
+    }
+
+    private int getPendingCount() {
+        synchronized (mutex) {
+            return pending.size();
+        }
+    }
+}
@@ -20,7 +20,6 @@ package com.walmartlabs.concord.server.process;
  * =====
  */
 
-import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
 import com.walmartlabs.concord.server.sdk.rest.Resource;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -35,18 +34,18 @@ import java.util.UUID;
 @Tag(name = "ProcessHeartbeat")
 public class ProcessHeartbeatResource implements Resource {
 
-    private final ProcessQueueDao queueDao;
+    private final ProcessHeartbeatBuffer heartbeatBuffer;
 
     @Inject
-    public ProcessHeartbeatResource(ProcessQueueDao queueDao) {
-        this.queueDao = queueDao;
+    public ProcessHeartbeatResource(ProcessHeartbeatBuffer heartbeatBuffer) {
+        this.heartbeatBuffer = heartbeatBuffer;
     }
 
     @POST
     @Path("{id}/ping")
     @Operation(description = "Process heartbeat", operationId = "pingProcess")
     public void ping(@PathParam("id") UUID instanceId) {
-        if (!queueDao.touch(instanceId)) {
+        if (!heartbeatBuffer.ping(instanceId)) {
             throw new IllegalArgumentException("Process not found: " + instanceId);
         }
     }
@@ -40,16 +40,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
 import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLogChunk;
+import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.SegmentChunk;
 
 /**
  * API to work with segmented process logs.
@@ -58,6 +64,8 @@ import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.Process
 @Tag(name = "ProcessLogV2")
 public class ProcessLogResourceV2 implements Resource {
 
+    private static final long TAIL_GRACE_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
     private final ProcessManager processManager;
     private final ProcessLogManager logManager;
     private final ProcessLogAccessManager logAccessManager;
@@ -151,6 +159,49 @@ public class ProcessLogResourceV2 implements Resource {
         return toResponse(instanceId, segmentId, l, range);
     }
 
+    /**
+     * Retrieves a log segment's data starting from the specified offset.
+     * If there is no new data yet, the request waits for the data to arrive
+     * up to the specified number of seconds (capped by the server's configuration).
+     */
+    @GET
+    @Path("/{id}/log/segment/{segmentId}/tail")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @WithTimer
+    @Operation(description = "Retrieve the new data of a log segment", operationId = "tailProcessLogSegmentData")
+    @ApiResponse(description = "Data of process log segment",
+            content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM,
+                    schema = @Schema(type = "string", format = "binary"))
+    )
+    public void tail(@PathParam("id") UUID instanceId,
+                     @PathParam("segmentId") long segmentId,
+                     @QueryParam("offset") @DefaultValue("0") int offset,
+                     @QueryParam("wait") @DefaultValue("0") int waitSec,
+                     @Suspended AsyncResponse asyncResponse) {
+
+        if (offset < 0) {
+            throw new ValidationErrorsException("'offset' must be a positive number or zero");
+        }
+
+        ProcessKey processKey = logAccessManager.assertLogAccess(instanceId);
+        HttpUtils.Range range = HttpUtils.Range.builder().start(offset).build();
+
+        long waitMs = TimeUnit.SECONDS.toMillis(Math.max(waitSec, 0));
+
+        // normally the request is completed by the tail cache, this is a safeguard
+        asyncResponse.setTimeout(waitMs + TAIL_GRACE_PERIOD, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(r -> r.resume(toResponse(instanceId, segmentId, logManager.segmentData(processKey, segmentId, offset, null), range)));
+
+        logManager.segmentTail(processKey, segmentId, offset, waitMs)
+                .whenComplete((l, e) -> {
+                    if (e != null) {
+                        asyncResponse.resume(e);
+                    } else {
+                        asyncResponse.resume(toResponse(instanceId, segmentId, l, range));
+                    }
+                });
+    }
+
     /**
      * Appends a process' log.
      */
@@ -173,15 +224,78 @@ public class ProcessLogResourceV2 implements Resource {
         try {
             byte[] ab = IOUtils.toByteArray(data);
             int upper = logManager.log(processKey, segmentId, ab);
+            checkLogSize(processKey, upper);
+        } catch (IOException e) {
+            throw new ConcordApplicationException("Error while appending a log: " + e.getMessage());
+        }
+    }
 
-            int logSizeLimit = processCfg.getLogSizeLimit();
-            if (upper >= logSizeLimit) {
-                logManager.error(processKey, "Maximum log size reached: {}. Process cancelled.", logSizeLimit);
-                processManager.kill(processKey);
-            }
+    /**
+     * Appends data to multiple segments of a process' log.
+     * <p>
+     * The request body is a sequence of frames, each frame is:
+     * <pre>
+     * segmentId (int64, big-endian) | length (int32, big-endian) | data (length bytes)
+     * </pre>
+     * The frames are appended in order.
+     */
+    @POST
+    @Path("{id}/log/segment/batch")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @WithTimer
+    @Operation(description = "Appends data to multiple segments of a process' log", operationId = "appendProcessLogSegmentBatch")
+    @RequestBody(description = "Log segment frames", required = true,
+            content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM,
+                    schema = @Schema(type = "string", format = "binary")
+            )
+    )
+    public void appendBatch(@PathParam("id") UUID instanceId,
+                            InputStream data) {
+
+        ProcessKey processKey = logAccessManager.assertLogAccess(instanceId);
+
+        List<SegmentChunk> chunks;
+        try {
+            chunks = parseFrames(IOUtils.toByteArray(data));
         } catch (IOException e) {
             throw new ConcordApplicationException("Error while appending a log: " + e.getMessage());
         }
+
+        int upper = logManager.log(processKey, chunks);
+        checkLogSize(processKey, upper);
+    }
+
+    private void checkLogSize(ProcessKey processKey, int upper) {
+        int logSizeLimit = processCfg.getLogSizeLimit();
+        if (upper >= logSizeLimit) {
+            logManager.error(processKey, "Maximum log size reached: {}. Process cancelled.", logSizeLimit);
+            processManager.kill(processKey);
+        }
+    }
+
+    private static List<SegmentChunk> parseFrames(byte[] ab) {
+        ByteBuffer bb = ByteBuffer.wrap(ab);
+
+        List<SegmentChunk> result = new ArrayList<>();
+        while (bb.hasRemaining()) {
+            if (bb.remaining() < Long.BYTES + Integer.BYTES) {
+                throw new ValidationErrorsException("Invalid log frame header at " + bb.position());
+            }
+
+            long segmentId = bb.getLong();
+            int len = bb.getInt();
+            if (len < 0 || len > bb.remaining()) {
+                throw new ValidationErrorsException("Invalid log frame length at " + bb.position() + ": " + len);
+            }
+
+            byte[] chunk = new byte[len];
+            bb.get(chunk);
+
+            if (len > 0) {
+                result.add(new SegmentChunk(segmentId, chunk));
+            }
+        }
+        return result;
     }
 
     public static Response toResponse(UUID instanceId, long segmentId, ProcessLog l, HttpUtils.Range range) {
@@ -35,7 +35,9 @@ import com.walmartlabs.concord.server.process.locks.ProcessLocksDao;
 import com.walmartlabs.concord.server.process.locks.ProcessLocksResource;
 import com.walmartlabs.concord.server.process.locks.ProcessLocksWatchdog;
 import com.walmartlabs.concord.server.process.logs.ProcessLogAccessManager;
+import com.walmartlabs.concord.server.process.logs.ProcessLogBuffer;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
+import com.walmartlabs.concord.server.process.logs.ProcessLogTailCache;
 import com.walmartlabs.concord.server.process.pipelines.processors.ExclusiveGroupProcessor;
 import com.walmartlabs.concord.server.process.pipelines.processors.policy.*;
 import com.walmartlabs.concord.server.process.queue.EnqueuedTaskProvider;
@@ -79,6 +81,7 @@ public class ProcessModule implements Module {
         binder.bind(ProjectLoaderConfiguration.class).toProvider(ProjectLoaderConfigurationProvider.class);
 
         bindSingletonScheduledTask(binder, ProcessCleaner.class);
+        bindSingletonScheduledTask(binder, ProcessPartitionManager.class);
         bindSingletonScheduledTask(binder, ProcessLocksWatchdog.class);
         bindSingletonScheduledTask(binder, ProcessQueueWatchdog.class);
         bindSingletonScheduledTask(binder, ProcessWaitWatchdog.class);
@@ -87,10 +90,20 @@ public class ProcessModule implements Module {
         newSetBinder(binder, BackgroundTask.class).addBinding().to(Dispatcher.class);
         newSetBinder(binder, BackgroundTask.class).addBinding().toProvider(EnqueuedTaskProvider.class).in(SINGLETON);
 
+        binder.bind(ProcessLogBuffer.class).in(SINGLETON);
+        newSetBinder(binder, BackgroundTask.class).addBinding().to(ProcessLogBuffer.class);
+
+        binder.bind(ProcessHeartbeatBuffer.class).in(SINGLETON);
+        newSetBinder(binder, BackgroundTask.class).addBinding().to(ProcessHeartbeatBuffer.class);
+
+        binder.bind(ProcessCompletionWatcher.class).in(SINGLETON);
+        newSetBinder(binder, BackgroundTask.class).addBinding().to(ProcessCompletionWatcher.class);
+
         newSetBinder(binder, ProcessStatusListener.class).addBinding().to(WaitProcessStatusListener.class);
         newSetBinder(binder, ProcessStatusListener.class).addBinding().to(ExternalProcessListenerHandler.class);
         newSetBinder(binder, ProcessStatusListener.class).addBinding().to(WaitConditionUpdater.class);
         newSetBinder(binder, ProcessStatusListener.class).addBinding().to(TotalRuntimeCalculator.class);
+        newSetBinder(binder, ProcessStatusListener.class).addBinding().to(ProcessCompletionWatcher.class);
 
         newSetBinder(binder, Filter.class).addBinding().to(ConcurrentProcessFilter.class);
         newSetBinder(binder, Filter.class).addBinding().to(ExclusiveProcessFilter.class);
@@ -99,7 +112,8 @@ public class ProcessModule implements Module {
         newSetBinder(binder, ProcessWaitHandler.class).addBinding().to(WaitProcessLockHandler.class);
         newSetBinder(binder, ProcessWaitHandler.class).addBinding().to(WaitProcessSleepHandler.class);
 
-        newSetBinder(binder, ProcessLogListener.class);
+        binder.bind(ProcessLogTailCache.class).in(SINGLETON);
+        newSetBinder(binder, ProcessLogListener.class).addBinding().to(ProcessLogTailCache.class);
 
         newSetBinder(binder, PolicyApplier.class).addBinding().to(ContainerPolicyApplier.class);
         newSetBinder(binder, PolicyApplier.class).addBinding().to(FilePolicyApplier.class);
@@ -0,0 +1,277 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.db.AbstractDao;
+import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.db.PgUtils;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.sdk.ScheduledTask;
+import org.jooq.Condition;
+import org.jooq.Configuration;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.walmartlabs.concord.server.jooq.Tables.*;
+import static org.jooq.impl.DSL.*;
+
+/**
+ * Maintains the process tables that are partitioned by {@code INSTANCE_CREATED_AT}:
+ * creates partitions in advance and drops expired partitions.
+ * <p>
+ * Concord doesn't partition the tables itself. Only the tables created
+ * (typically, by the DBA) as {@code partition by range (INSTANCE_CREATED_AT)}
+ * are affected.
+ */
+public class ProcessPartitionManager implements ScheduledTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessPartitionManager.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmm").withZone(ZoneOffset.UTC);
+
+    private static final String[] ACTIVE_STATUSES = {
+            ProcessStatus.STARTING.toString(),
+            ProcessStatus.RUNNING.toString(),
+            ProcessStatus.RESUMING.toString()
+    };
+
+    private final ProcessConfiguration cfg;
+    private final PartitionDao dao;
+
+    @Inject
+    public ProcessPartitionManager(ProcessConfiguration cfg, @MainDB Configuration dbCfg) {
+        this.cfg = cfg;
+        this.dao = new PartitionDao(dbCfg);
+    }
+
+    @Override
+    public String getId() {
+        return "process-partition-manager";
+    }
+
+    @Override
+    public long getIntervalInSec() {
+        return cfg.isPartitioningEnabled() ? cfg.getPartitioningInterval().getSeconds() : 0;
+    }
+
+    @Override
+    public void performTask() {
+        Duration period = cfg.getPartitionPeriod();
+        Instant now = dao.now();
+
+        for (Table<?> t : partitionedTables(table -> true)) {
+            List<Partition> partitions = dao.listPartitions(t);
+
+            Instant lower = alignToPeriod(now, period);
+            for (int i = 0; i <= cfg.getPartitionPremake(); i++) {
+                Instant upper = lower.plus(period);
+                if (!overlaps(partitions, lower, upper)) {
+                    dao.createPartition(t, lower, upper);
+                }
+                lower = upper;
+            }
+        }
+    }
+
+    /**
+     * Drops the partitions that contain only the data of processes that are
+     * older than {@code process.maxStateAge}.
+     *
+     * @return the number of dropped partitions.
+     */
+    public int dropExpiredPartitions() {
+        if (!cfg.isPartitioningEnabled()) {
+            return 0;
+        }
+
+        Instant cutoff = dao.nowMinus(cfg.getMaxStateAge());
+
+        int result = 0;
+        for (Table<?> t : partitionedTables(this::isCleanupEnabled)) {
+            for (Partition p : dao.listPartitions(t)) {
+                if (p.isDefault || p.upper == null || p.upper.isAfter(cutoff)) {
+                    continue;
+                }
+
+                if (dao.hasActiveProcesses(p, cutoff)) {
+                    log.info("dropExpiredPartitions -> {}: skipping, the partition contains active processes", p.name);
+                    continue;
+                }
+
+                if (dao.dropPartition(p)) {
+                    result++;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private List<Table<?>> partitionedTables(Predicate<Table<?>> filter) {
+        List<Table<?>> result = new ArrayList<>();
+        for (Table<?> t : new Table<?>[]{PROCESS_STATE, PROCESS_INITIAL_STATE, PROCESS_EVENTS, PROCESS_LOG_DATA, PROCESS_LOG_SEGMENTS, PROCESS_CHECKPOINTS}) {
+            if (filter.test(t) && dao.isPartitioned(t)) {
+                result.add(t);
+            }
+        }
+        return result;
+    }
+
+    private boolean isCleanupEnabled(Table<?> t) {
+        if (t == PROCESS_STATE || t == PROCESS_INITIAL_STATE) {
+            return cfg.isStateCleanup();
+        } else if (t == PROCESS_EVENTS) {
+            return cfg.isEventsCleanup();
+        } else if (t == PROCESS_LOG_DATA || t == PROCESS_LOG_SEGMENTS) {
+            return cfg.isLogsCleanup();
+        } else if (t == PROCESS_CHECKPOINTS) {
+            return cfg.isCheckpointCleanup();
+        }
+        return false;
+    }
+
+    static Instant alignToPeriod(Instant i, Duration period) {
+        long p = period.getSeconds();
+        return Instant.ofEpochSecond(Math.floorDiv(i.getEpochSecond(), p) * p);
+    }
+
+    static boolean overlaps(List<Partition> partitions, Instant lower, Instant upper) {
+        for (Partition p : partitions) {
+            if (p.isDefault) {
+                continue;
+            }
+
+            boolean startsBeforeUpper = p.lower == null || p.lower.isBefore(upper);
+            boolean endsAfterLower = p.upper == null || p.upper.isAfter(lower);
+            if (startsBeforeUpper && endsAfterLower) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Partition {
+
+        private final String name;
+        private final boolean isDefault;
+        private final Instant lower;
+        private final Instant upper;
+
+        Partition(String name, boolean isDefault, Instant lower, Instant upper) {
+            this.name = name;
+            this.isDefault = isDefault;
+            this.lower = lower;
+            this.upper = upper;
+        }
+    }
+
+    private static class PartitionDao extends AbstractDao {
+
+        private PartitionDao(Configuration cfg) {
+            super(cfg);
+        }
+
+        Instant now() {
+            return dsl().select(currentOffsetDateTime()).fetchOne(0, OffsetDateTime.class).toInstant();
+        }
+
+        Instant nowMinus(Duration d) {
+            Field<OffsetDateTime> f = PgUtils.nowMinus(d);
+            return dsl().select(f).fetchOne(f).toInstant();
+        }
+
+        boolean isPartitioned(Table<?> t) {
+            return dsl().fetchExists(selectOne()
+                    .from(table("pg_partitioned_table"))
+                    .where("partrelid = to_regclass(?) and pg_get_partkeydef(partrelid) = ?", t.getName(), "RANGE (instance_created_at)"));
+        }
+
+        List<Partition> listPartitions(Table<?> t) {
+            String sql = "select relname, b = 'DEFAULT', " +
+                    "extract(epoch from (regexp_match(b, 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz)::bigint, " +
+                    "extract(epoch from (regexp_match(b, 'TO \\(''([^'']+)''\\)'))[1]::timestamptz)::bigint " +
+                    "from (select c.relname, pg_get_expr(c.relpartbound, c.oid) as b " +
+                    "      from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                    "      where i.inhparent = to_regclass(?)) x";
+
+            return dsl().resultQuery(sql, t.getName())
+                    .fetch(r -> new Partition(r.get(0, String.class),
+                            r.get(1, Boolean.class),
+                            toInstant(r.get(2, Long.class)),
+                            toInstant(r.get(3, Long.class))));
+        }
+
+        void createPartition(Table<?> t, Instant lower, Instant upper) {
+            String name = t.getName() + "_p" + PARTITION_SUFFIX_FORMAT.format(lower);
+            try {
+                tx(tx -> tx.execute("create table if not exists {0} partition of {1} for values from ({2}) to ({3})",
+                        name(name), name(t.getName()),
+                        inline(lower.atOffset(ZoneOffset.UTC).toString()), inline(upper.atOffset(ZoneOffset.UTC).toString())));
+                log.info("createPartition -> created {} [{}, {})", name, lower, upper);
+            } catch (Exception e) {
+                // e.g. the default partition already contains rows for the range
+                log.warn("createPartition -> error while creating {} [{}, {}): {}", name, lower, upper, e.getMessage());
+            }
+        }
+
+        boolean hasActiveProcesses(Partition p, Instant cutoff) {
+            Condition c = PROCESS_QUEUE.CREATED_AT.lessThan(p.upper.atOffset(ZoneOffset.UTC));
+            if (p.lower != null) {
+                c = c.and(PROCESS_QUEUE.CREATED_AT.greaterOrEqual(p.lower.atOffset(ZoneOffset.UTC)));
+            }
+
+            return dsl().fetchExists(selectOne()
+                    .from(PROCESS_QUEUE)
+                    .where(c.and(PROCESS_QUEUE.LAST_UPDATED_AT.greaterOrEqual(cutoff.atOffset(ZoneOffset.UTC))
+                            .or(PROCESS_QUEUE.CURRENT_STATUS.in(ACTIVE_STATUSES)))));
+        }
+
+        boolean dropPartition(Partition p) {
+            long t1 = System.currentTimeMillis();
+            try {
+                tx(tx -> tx.execute("drop table if exists {0}", name(p.name)));
+            } catch (Exception e) {
+                log.warn("dropPartition -> error while dropping {}: {}", p.name, e.getMessage());
+                return false;
+            }
+
+            log.info("dropPartition -> dropped {} [{}, {}), took {}ms", p.name, p.lower, p.upper, System.currentTimeMillis() - t1);
+            return true;
+        }
+
+        private static Instant toInstant(Long epochSeconds) {
+            return epochSeconds != null ? Instant.ofEpochSecond(epochSeconds) : null;
+        }
+    }
+}
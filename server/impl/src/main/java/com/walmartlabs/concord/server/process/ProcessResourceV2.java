@@ -21,6 +21,7 @@ package com.walmartlabs.concord.server.process;
  */
 
 import com.walmartlabs.concord.server.OffsetDateTimeParam;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
 import com.walmartlabs.concord.server.org.OrganizationEntry;
 import com.walmartlabs.concord.server.org.OrganizationManager;
 import com.walmartlabs.concord.server.org.ResourceAccessLevel;
@@ -45,18 +46,24 @@ import io.swagger.v3.oas.annotations.Parameters;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.extensions.Extension;
 import io.swagger.v3.oas.annotations.extensions.ExtensionProperty;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static com.walmartlabs.concord.server.Utils.unwrap;
 
@@ -66,6 +73,8 @@ public class ProcessResourceV2 implements Resource {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessResourceV2.class);
 
+    private static final long WAIT_GRACE_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
     private final ProcessQueueDao queueDao;
     private final ProcessQueueManager processQueueManager;
     private final ProjectDao projectDao;
@@ -73,6 +82,8 @@ public class ProcessResourceV2 implements Resource {
     private final UserDao userDao;
     private final OrganizationManager orgManager;
     private final ProjectAccessManager projectAccessManager;
+    private final ProcessCompletionWatcher completionWatcher;
+    private final ProcessConfiguration processCfg;
 
     @Inject
     public ProcessResourceV2(ProcessQueueDao queueDao,
@@ -81,7 +92,9 @@ public class ProcessResourceV2 implements Resource {
                              RepositoryDao repositoryDao,
                              UserDao userDao,
                              OrganizationManager orgManager,
-                             ProjectAccessManager projectAccessManager) {
+                             ProjectAccessManager projectAccessManager,
+                             ProcessCompletionWatcher completionWatcher,
+                             ProcessConfiguration processCfg) {
 
         this.queueDao = queueDao;
         this.processQueueManager = processQueueManager;
@@ -90,6 +103,8 @@ public class ProcessResourceV2 implements Resource {
         this.userDao = userDao;
         this.orgManager = orgManager;
         this.projectAccessManager = projectAccessManager;
+        this.completionWatcher = completionWatcher;
+        this.processCfg = processCfg;
     }
 
     /**
@@ -118,6 +133,76 @@ public class ProcessResourceV2 implements Resource {
         return e;
     }
 
+    /**
+     * Waits for the specified processes to reach a final status (FINISHED,
+     * FAILED, CANCELLED or TIMED_OUT). Returns the details of all specified
+     * processes when all (or any, if {@code any=true}) of them are finished
+     * or when the timeout is reached, whichever comes first.
+     */
+    @POST
+    @Path("/wait")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    @Operation(description = "Wait for processes to finish", operationId = "waitForProcesses")
+    @ApiResponse(responseCode = "200", description = "Details of the specified processes",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                    array = @ArraySchema(schema = @Schema(implementation = ProcessEntry.class)))
+    )
+    public void waitForProcesses(@QueryParam("any") @DefaultValue("false") boolean any,
+                                 @QueryParam("timeout") @DefaultValue("30") int timeout,
+                                 List<UUID> instanceIds,
+                                 @Suspended AsyncResponse asyncResponse) {
+
+        if (instanceIds == null || instanceIds.isEmpty()) {
+            throw new ValidationErrorsException("A list of process instance IDs is required");
+        }
+
+        int maxProcesses = processCfg.getCompletionWaitMaxProcesses();
+        if (instanceIds.size() > maxProcesses) {
+            throw new ValidationErrorsException("Too many processes, max " + maxProcesses + ", got: " + instanceIds.size());
+        }
+
+        if (timeout < 0) {
+            throw new ValidationErrorsException("'timeout' must be a positive number or zero, got: " + timeout);
+        }
+
+        Set<UUID> ids = new HashSet<>(instanceIds);
+
+        List<ProcessEntry> entries = queueDao.get(ids.stream()
+                .map(PartialProcessKey::from)
+                .toList());
+
+        if (entries.size() != ids.size()) {
+            entries.forEach(e -> ids.remove(e.instanceId()));
+            log.warn("waitForProcesses -> not found: {}", ids);
+            throw new ConcordApplicationException("Process instance not found: " + ids, Status.NOT_FOUND);
+        }
+
+        Set<UUID> checkedProjects = new HashSet<>();
+        for (ProcessEntry e : entries) {
+            if (e.projectId() != null && checkedProjects.add(e.projectId())) {
+                projectAccessManager.assertAccess(e.orgId(), e.projectId(), null, ResourceAccessLevel.READER, false);
+            }
+        }
+
+        long finished = entries.stream()
+                .filter(e -> ProcessCompletionWatcher.FINAL_STATUSES.contains(e.status()))
+                .count();
+
+        if (timeout == 0 || finished == entries.size() || (any && finished > 0)) {
+            asyncResponse.resume(entries);
+            return;
+        }
+
+        long timeoutMs = Math.min(TimeUnit.SECONDS.toMillis(timeout), processCfg.getCompletionWaitMaxTimeout().toMillis());
+        ProcessCompletionWatcher.Waiter w = completionWatcher.register(ids, any, timeoutMs, asyncResponse::resume);
+
+        // normally the request is completed by the watcher, this is a safeguard
+        asyncResponse.setTimeout(timeoutMs + WAIT_GRACE_PERIOD, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(r -> completionWatcher.cancel(w));
+    }
+
     /**
      * Returns a list of processes applying the specified filters.
      */
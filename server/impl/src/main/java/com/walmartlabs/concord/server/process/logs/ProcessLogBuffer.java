@@ -0,0 +1,364 @@
+package com.walmartlabs.concord.server.process.logs;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.walmartlabs.concord.server.Listeners;
+import com.walmartlabs.concord.server.PeriodicTask;
+import com.walmartlabs.concord.server.cfg.ProcessLogConfiguration;
+import com.walmartlabs.concord.server.process.logs.ProcessLogsDao.SegmentChunk;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.walmartlabs.concord.server.metrics.MetricUtils.withTimer;
+
+/**
+ * Write-behind buffer for process logs.
+ * <p>
+ * Consecutive chunks of the same log segment are coalesced and written
+ * periodically using multi-row inserts, one transaction per process
+ * and batch. When the buffer is full the callers write the data themselves,
+ * which slows down the log producers.
+ */
+public class ProcessLogBuffer extends PeriodicTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessLogBuffer.class);
+
+    private static final long ERROR_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Max size of a coalesced chunk. Larger chunks make range reads less precise.
+     */
+    private static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ProcessLogsDao logsDao;
+    private final Listeners listeners;
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxPendingSize;
+
+    private final Object mutex = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // guarded by mutex
+    private Map<ProcessKey, InstanceBuffer> pending = new LinkedHashMap<>();
+    private long pendingBytes;
+    private int pendingChunks;
+
+    /**
+     * Last known log sizes, used to estimate the current log size without
+     * waiting for the data to be written.
+     */
+    private final Cache<ProcessKey, Integer> flushedSizes = CacheBuilder.newBuilder()
+            .maximumSize(10 * 1024L)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    private final Histogram flushSizeHistogram;
+    private final Histogram flushBytesHistogram;
+    private final Timer flushTimer;
+    private final Counter droppedChunks;
+
+    @Inject
+    public ProcessLogBuffer(ProcessLogsDao logsDao,
+                            Listeners listeners,
+                            ProcessLogConfiguration cfg,
+                            MetricRegistry metricRegistry) {
+
+        super(cfg.isBufferEnabled() ? cfg.getBufferFlushInterval().toMillis() : 0, ERROR_DELAY);
+
+        this.logsDao = logsDao;
+        this.listeners = listeners;
+
+        this.enabled = cfg.isBufferEnabled();
+        this.maxBatchSize = cfg.getBufferMaxBatchSize();
+        this.maxPendingSize = cfg.getBufferMaxPendingSize();
+
+        metricRegistry.gauge("process-log-buffer-pending-bytes", () -> this::getPendingBytes);
+        metricRegistry.gauge("process-log-buffer-pending-chunks", () -> this::getPendingChunks);
+        this.flushSizeHistogram = metricRegistry.histogram("process-log-buffer-flush-size");
+        this.flushBytesHistogram = metricRegistry.histogram("process-log-buffer-flush-bytes");
+        this.flushTimer = metricRegistry.timer("process-log-buffer-flush-timer");
+        this.droppedChunks = metricRegistry.counter("process-log-buffer-dropped-chunks");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds a chunk to the buffer.
+     *
+     * @return the estimated size of the process log, including the buffered data.
+     */
+    public int append(ProcessKey processKey, long segmentId, byte[] data) {
+        int flushedSize = getFlushedSize(processKey);
+
+        int estimatedSize;
+        boolean full;
+
+        synchronized (mutex) {
+            InstanceBuffer b = pending.computeIfAbsent(processKey, k -> new InstanceBuffer());
+            b.add(segmentId, data);
+
+            pendingBytes += data.length;
+            pendingChunks++;
+
+            estimatedSize = flushedSize + b.size;
+
+            full = pendingBytes >= maxPendingSize;
+        }
+
+        if (full) {
+            // back-pressure: let the caller do the work
+            flush();
+        }
+
+        return estimatedSize;
+    }
+
+    /**
+     * Returns the last known size of the process log. Reads the size from the DB
+     * if the process wasn't seen recently, the log can be non-empty already
+     * (e.g. written by another server instance).
+     */
+    private int getFlushedSize(ProcessKey processKey) {
+        try {
+            return flushedSizes.get(processKey, () -> logsDao.size(processKey));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+
+        if (enabled) {
+            flush();
+        }
+    }
+
+    @Override
+    protected boolean performTask() {
+        flush();
+
+        // keep going if the buffer filled up while we were busy
+        synchronized (mutex) {
+            return pendingBytes >= maxBatchSize;
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            Map<ProcessKey, InstanceBuffer> m;
+            synchronized (mutex) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                m = pending;
+                pending = new LinkedHashMap<>();
+            }
+
+            withTimer(flushTimer, () -> m.forEach(this::flush));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flush(ProcessKey processKey, InstanceBuffer b) {
+        List<PendingChunk> chunks = new ArrayList<>(b.chunks);
+
+        int start = 0;
+        while (start < chunks.size()) {
+            int end = start;
+            int batchBytes = 0;
+            while (end < chunks.size() && (end == start || batchBytes + chunks.get(end).size <= maxBatchSize)) {
+                batchBytes += chunks.get(end).size;
+                end++;
+            }
+
+            List<PendingChunk> batch = chunks.subList(start, end);
+            List<SegmentChunk> data = new ArrayList<>(batch.size());
+            for (PendingChunk c : batch) {
+                data.add(new SegmentChunk(c.segmentId, c.toByteArray()));
+            }
+
+            List<ProcessLogEntry> entries;
+            try {
+                entries = logsDao.append(processKey, data);
+            } catch (Exception e) {
+                // put the failed batch and everything after it back to preserve the order
+                requeue(processKey, batch, chunks.subList(end, chunks.size()), e);
+                return;
+            }
+
+            onWritten(processKey, batch, batchBytes, entries);
+
+            start = end;
+        }
+    }
+
+    private void onWritten(ProcessKey processKey, List<PendingChunk> batch, int batchBytes, List<ProcessLogEntry> entries) {
+        synchronized (mutex) {
+            pendingBytes -= batchBytes;
+            pendingChunks -= batch.stream().mapToInt(c -> c.count).sum();
+        }
+
+        flushSizeHistogram.update(entries.size());
+        flushBytesHistogram.update(batchBytes);
+
+        if (!entries.isEmpty()) {
+            flushedSizes.put(processKey, entries.get(entries.size() - 1).range().upper());
+        }
+
+        // the data is already written, a failing listener must not stop the flush
+        // of the remaining processes
+        for (ProcessLogEntry e : entries) {
+            try {
+                listeners.onProcessLogAppend(e);
+            } catch (Exception ex) {
+                log.warn("flush ['{}'] -> error while notifying the log listeners: {}", processKey, ex.getMessage());
+            }
+        }
+    }
+
+    private void requeue(ProcessKey processKey, List<PendingChunk> failed, List<PendingChunk> remaining, Exception e) {
+        List<PendingChunk> retry = new ArrayList<>(failed.size() + remaining.size());
+        int droppedChunks = 0;
+        int droppedBytes = 0;
+        for (PendingChunk c : failed) {
+            if (++c.attempts < MAX_ATTEMPTS) {
+                retry.add(c);
+            } else {
+                droppedChunks += c.count;
+                droppedBytes += c.size;
+            }
+        }
+        retry.addAll(remaining);
+
+        synchronized (mutex) {
+            InstanceBuffer b = pending.computeIfAbsent(processKey, k -> new InstanceBuffer());
+            b.prepend(retry);
+
+            pendingBytes -= droppedBytes;
+            pendingChunks -= droppedChunks;
+        }
+
+        if (droppedChunks > 0) {
+            this.droppedChunks.inc(droppedChunks);
+            log.error("flush ['{}'] -> error while writing the process log, {} chunk(s) dropped: {}", processKey, droppedChunks, e.getMessage(), e);
+        } else {
+            log.warn("flush ['{}'] -> error while writing the process log, will retry: {}", processKey, e.getMessage());
+        }
+    }
+
+    private long getPendingBytes() {
+        synchronized (mutex) {
+            return pendingBytes;
+        }
+    }
+
+    private int getPendingChunks() {
+        synchronized (mutex) {
+            return pendingChunks;
+        }
+    }
+
+    private static final class InstanceBuffer {
+
+        private final Deque<PendingChunk> chunks = new ArrayDeque<>();
+        private int size;
+
+        private void add(long segmentId, byte[] data) {
+            PendingChunk last = chunks.peekLast();
+            if (last != null && last.segmentId == segmentId && last.attempts == 0 && last.size + data.length <= MAX_CHUNK_SIZE) {
+                last.add(data);
+            } else {
+                PendingChunk c = new PendingChunk(segmentId);
+                c.add(data);
+                chunks.addLast(c);
+            }
+
+            size += data.length;
+        }
+
+        private void prepend(List<PendingChunk> l) {
+            for (int i = l.size() - 1; i >= 0; i--) {
+                PendingChunk c = l.get(i);
+                chunks.addFirst(c);
+                size += c.size;
+            }
+        }
+    }
+
+    private static final class PendingChunk {
+
+        private final long segmentId;
+        private final List<byte[]> parts = new ArrayList<>();
+        private int size;
+        private int count;
+        private int attempts;
+
+        private PendingChunk(long segmentId) {
+            this.segmentId = segmentId;
+        }
+
+        private void add(byte[] data) {
+            parts.add(data);
+            size += data.length;
+            count++;
+        }
+
+        private byte[] toByteArray() {
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+
+            byte[] result = new byte[size];
+            int pos = 0;
+            for (byte[] p : parts) {
+                System.arraycopy(p, 0, result, pos, p.length);
+                pos += p.length;
+            }
+            return result;
+        }
+    }
+}
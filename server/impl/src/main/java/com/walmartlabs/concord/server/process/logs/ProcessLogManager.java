@@ -25,7 +25,6 @@ import com.walmartlabs.concord.common.LogUtils;
 import com.walmartlabs.concord.server.Listeners;
 import com.walmartlabs.concord.server.process.LogSegment;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
-import com.walmartlabs.concord.server.sdk.Range;
 import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
 import com.walmartlabs.concord.server.sdk.metrics.InjectCounter;
 import org.jooq.DSLContext;
@@ -34,15 +33,19 @@ import javax.inject.Inject;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static com.walmartlabs.concord.common.LogUtils.LogLevel;
 import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
+import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.SegmentChunk;
 
 public class ProcessLogManager {
 
     private static final long SYSTEM_SEGMENT_ID = 0;
     private static final String SYSTEM_SEGMENT_NAME = "system";
     private final ProcessLogsDao logsDao;
+    private final ProcessLogBuffer logBuffer;
+    private final ProcessLogTailCache tailCache;
     private final Listeners listeners;
 
     @InjectCounter
@@ -50,10 +53,14 @@ public class ProcessLogManager {
 
     @Inject
     public ProcessLogManager(ProcessLogsDao logsDao,
+                             ProcessLogBuffer logBuffer,
+                             ProcessLogTailCache tailCache,
                              Listeners listeners,
                              Counter logBytesAppended) {
 
         this.logsDao = logsDao;
+        this.logBuffer = logBuffer;
+        this.tailCache = tailCache;
         this.listeners = listeners;
         this.logBytesAppended = logBytesAppended;
     }
@@ -98,26 +105,72 @@ public class ProcessLogManager {
     }
 
     public ProcessLog segmentData(ProcessKey processKey, long segmentId, Integer start, Integer end) {
+        ProcessLog l = tailCache.segmentData(processKey, segmentId, start, end);
+        if (l != null) {
+            return l;
+        }
         return logsDao.segmentData(processKey, segmentId, start, end);
     }
 
+    /**
+     * Returns the segment's data starting from {@code offset}, waiting up to
+     * {@code wait} milliseconds for the new data to arrive.
+     */
+    public CompletableFuture<ProcessLog> segmentTail(ProcessKey processKey, long segmentId, int offset, long wait) {
+        return tailCache.tail(processKey, segmentId, offset, wait);
+    }
+
     public ProcessLog get(ProcessKey processKey, Integer start, Integer end) {
         return logsDao.data(processKey, start, end);
     }
 
+    /**
+     * Appends a chunk to the process log.
+     *
+     * @return the size of the process log after the append. If the log buffering
+     * is enabled, the value is an estimate.
+     */
     public int log(ProcessKey processKey, long segmentId, byte[] msg) {
-        Range range = logsDao.append(processKey, segmentId, msg);
-        logBytesAppended.inc(msg.length);
+        if (logBuffer.isEnabled()) {
+            logBytesAppended.inc(msg.length);
+            return logBuffer.append(processKey, segmentId, msg);
+        }
 
-        ProcessLogEntry entry = ProcessLogEntry.builder()
-                .processKey(processKey)
-                .range(range)
-                .msg(msg)
-                .build();
+        ProcessLogEntry entry = logsDao.append(processKey, segmentId, msg);
+        logBytesAppended.inc(msg.length);
 
         listeners.onProcessLogAppend(entry);
 
-        return range.upper();
+        return entry.range().upper();
+    }
+
+    /**
+     * Appends multiple chunks to the process log. The chunks can belong to
+     * different segments and are appended in the specified order.
+     *
+     * @return the size of the process log after the append. If the log buffering
+     * is enabled, the value is an estimate.
+     */
+    public int log(ProcessKey processKey, List<SegmentChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+
+        if (logBuffer.isEnabled()) {
+            int result = 0;
+            for (SegmentChunk c : chunks) {
+                logBytesAppended.inc(c.getData().length);
+                result = logBuffer.append(processKey, c.getSegmentId(), c.getData());
+            }
+            return result;
+        }
+
+        List<ProcessLogEntry> entries = logsDao.append(processKey, chunks);
+        entries.forEach(e -> logBytesAppended.inc(e.msg().length));
+
+        entries.forEach(listeners::onProcessLogAppend);
+
+        return entries.get(entries.size() - 1).range().upper();
     }
 
     private void log(ProcessKey processKey, LogLevel level, String msg, Object... args) {
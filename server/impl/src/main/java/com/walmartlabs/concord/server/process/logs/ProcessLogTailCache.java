@@ -0,0 +1,422 @@
+package com.walmartlabs.concord.server.process.logs;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.walmartlabs.concord.server.cfg.ProcessLogConfiguration;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.Range;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogListener;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
+import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLogChunk;
+
+/**
+ * Keeps the last {@code maxTailSize} bytes of recently read log segments in memory.
+ * <p>
+ * The cached data is updated in place using the appends received by this
+ * server instance. Appends received by other instances are picked up when
+ * the cached data becomes older than {@code maxAge}.
+ * Requests that can't be served from the cached data (e.g. reads of older
+ * parts of the log) go straight to the DB.
+ * <p>
+ * Tail requests don't block the caller, they are completed when the data
+ * arrives or when the wait time is over.
+ */
+public class ProcessLogTailCache implements ProcessLogListener {
+
+    private static final long EXPIRE_AFTER_ACCESS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final int MAX_WAITER_THREADS = 4;
+
+    private final ProcessLogsDao logsDao;
+
+    private final boolean enabled;
+    private final int maxTailSize;
+    private final long maxAge;
+    private final long maxWait;
+
+    private final Cache<SegmentKey, Tail> tails;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Completes the waiting tail requests.
+     */
+    private final ForkJoinPool waiterPool = new ForkJoinPool(MAX_WAITER_THREADS);
+
+    @Inject
+    public ProcessLogTailCache(ProcessLogsDao logsDao,
+                               ProcessLogConfiguration cfg,
+                               MetricRegistry metricRegistry) {
+
+        this.logsDao = logsDao;
+
+        this.enabled = cfg.isTailEnabled();
+        this.maxTailSize = cfg.getTailMaxSize();
+        this.maxAge = cfg.getTailMaxAge().toMillis();
+        this.maxWait = cfg.getTailMaxWait().toMillis();
+
+        this.tails = CacheBuilder.newBuilder()
+                .maximumSize(cfg.getTailMaxEntries())
+                .expireAfterAccess(EXPIRE_AFTER_ACCESS, TimeUnit.MILLISECONDS)
+                .concurrencyLevel(32)
+                .build();
+
+        metricRegistry.gauge("process-log-tail-cache-size", () -> tails::size);
+        this.hits = metricRegistry.counter("process-log-tail-cache-hits");
+        this.misses = metricRegistry.counter("process-log-tail-cache-misses");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the requested part of the segment's data using the same range
+     * semantics as {@link ProcessLogsDao#segmentData(ProcessKey, long, Integer, Integer)}.
+     *
+     * @return the data or {@code null} if the range is not cached.
+     */
+    public ProcessLog segmentData(ProcessKey processKey, long segmentId, Integer start, Integer end) {
+        if (!enabled) {
+            return null;
+        }
+
+        ProcessLog result = getTail(processKey, segmentId).read(start, end);
+        if (result == null) {
+            misses.inc();
+        } else {
+            hits.inc();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the segment's data starting from {@code offset}. If there is no
+     * new data yet, waits up to {@code wait} milliseconds (capped by {@code maxWait})
+     * for the data to arrive. The returned future is completed by the appending
+     * thread or by a timer, the caller's thread is not blocked.
+     */
+    public CompletableFuture<ProcessLog> tail(ProcessKey processKey, long segmentId, int offset, long wait) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(logsDao.segmentData(processKey, segmentId, offset, null));
+        }
+
+        long deadline = System.currentTimeMillis() + Math.min(Math.max(wait, 0), maxWait);
+
+        CompletableFuture<ProcessLog> result = new CompletableFuture<>();
+        tail(processKey, segmentId, offset, deadline, result);
+        return result;
+    }
+
+    private void tail(ProcessKey processKey, long segmentId, int offset, long deadline, CompletableFuture<ProcessLog> result) {
+        try {
+            Tail t = getTail(processKey, segmentId);
+
+            long now = System.currentTimeMillis();
+            if (now >= deadline || t.size() > offset) {
+                ProcessLog l = t.read(offset, null);
+                if (l != null) {
+                    hits.inc();
+                } else {
+                    misses.inc();
+                    l = logsDao.segmentData(processKey, segmentId, offset, null);
+                }
+
+                result.complete(l);
+                return;
+            }
+
+            // wake up on appends or when the cached data becomes stale to check for appends made elsewhere
+            Waiter w = new Waiter(offset, () -> tail(processKey, segmentId, offset, deadline, result));
+            if (!t.addWaiter(w)) {
+                // the data arrived in the meantime
+                waiterPool.execute(w.callback);
+                return;
+            }
+
+            long timeout = Math.min(deadline, t.loadedAt + maxAge) - now;
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS, waiterPool).execute(() -> {
+                if (t.removeWaiter(w)) {
+                    w.callback.run();
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onAppend(ProcessLogEntry entry) {
+        if (!enabled || entry.segmentId() == null || entry.segmentRange() == null) {
+            return;
+        }
+
+        SegmentKey key = new SegmentKey(entry.processKey(), entry.segmentId());
+        Tail t = tails.getIfPresent(key);
+        if (t == null) {
+            return;
+        }
+
+        List<Waiter> ready = new ArrayList<>();
+        if (!t.append(entry.segmentRange(), entry.msg(), ready)) {
+            // out of order or missed appends, the data must be re-read
+            tails.asMap().remove(key, t);
+            ready.addAll(t.removeWaiters());
+        }
+
+        ready.forEach(w -> waiterPool.execute(w.callback));
+    }
+
+    private Tail getTail(ProcessKey processKey, long segmentId) {
+        SegmentKey key = new SegmentKey(processKey, segmentId);
+        try {
+            Tail t = tails.get(key, () -> load(processKey, segmentId));
+            if (System.currentTimeMillis() - t.loadedAt < maxAge) {
+                return t;
+            }
+
+            // stale, concurrent callers share the same reload
+            tails.asMap().remove(key, t);
+            return tails.get(key, () -> load(processKey, segmentId));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Tail load(ProcessKey processKey, long segmentId) {
+        ProcessLog l = logsDao.segmentData(processKey, segmentId, null, maxTailSize);
+        return Tail.of(l, maxTailSize);
+    }
+
+    /**
+     * Keeps the last {@code maxTailSize} bytes of a segment.
+     * The buffer is compacted only when it reaches twice the tail size,
+     * which keeps the cost of appends linear.
+     */
+    private static final class Tail {
+
+        private final long loadedAt = System.currentTimeMillis();
+        private final int maxTailSize;
+
+        // guarded by this
+        private int size;
+        private byte[] data; // the last "length" bytes of the segment are in data[0, length)
+        private int length;
+        private final List<Waiter> waiters = new ArrayList<>();
+
+        private static Tail of(ProcessLog l, int maxTailSize) {
+            List<ProcessLogChunk> chunks = l.getChunks();
+            if (chunks.isEmpty()) {
+                return new Tail(maxTailSize, l.getSize(), new byte[0]);
+            }
+
+            // the size is fetched separately and might include chunks appended after the data was read
+            ProcessLogChunk last = chunks.get(chunks.size() - 1);
+            int start = chunks.get(0).getStart();
+            int size = last.getStart() + last.getData().length;
+
+            byte[] data = new byte[size - start];
+            for (ProcessLogChunk c : chunks) {
+                System.arraycopy(c.getData(), 0, data, c.getStart() - start, c.getData().length);
+            }
+
+            if (data.length > maxTailSize) {
+                data = Arrays.copyOfRange(data, data.length - maxTailSize, data.length);
+            }
+
+            return new Tail(maxTailSize, size, data);
+        }
+
+        private Tail(int maxTailSize, int size, byte[] data) {
+            this.maxTailSize = maxTailSize;
+            this.size = size;
+            this.data = data;
+            this.length = data.length;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        /**
+         * @param ready receives the waiters that can be completed after the append.
+         * @return {@code false} if the appended data doesn't follow the cached data.
+         */
+        private synchronized boolean append(Range range, byte[] msg, List<Waiter> ready) {
+            if (range.upper() <= size) {
+                // already loaded from the DB
+                return true;
+            }
+
+            if (range.lower() != size) {
+                return false;
+            }
+
+            if (msg.length >= maxTailSize) {
+                data = Arrays.copyOfRange(msg, msg.length - maxTailSize, msg.length);
+                length = data.length;
+            } else {
+                ensureCapacity(msg.length);
+                System.arraycopy(msg, 0, data, length, msg.length);
+                length += msg.length;
+            }
+
+            size = range.upper();
+
+            Iterator<Waiter> it = waiters.iterator();
+            while (it.hasNext()) {
+                Waiter w = it.next();
+                if (w.offset < size) {
+                    it.remove();
+                    ready.add(w);
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * @return {@code false} if the waiter can be completed immediately.
+         */
+        private synchronized boolean addWaiter(Waiter w) {
+            if (w.offset < size) {
+                return false;
+            }
+            waiters.add(w);
+            return true;
+        }
+
+        /**
+         * @return {@code true} if the waiter was still waiting.
+         */
+        private synchronized boolean removeWaiter(Waiter w) {
+            return waiters.remove(w);
+        }
+
+        private synchronized List<Waiter> removeWaiters() {
+            List<Waiter> result = new ArrayList<>(waiters);
+            waiters.clear();
+            return result;
+        }
+
+        private synchronized ProcessLog read(Integer from, Integer to) {
+            int lower;
+            int upper;
+            if (from == null && to == null) {
+                lower = 0;
+                upper = size;
+            } else if (from != null) {
+                lower = from;
+                upper = to != null ? Math.min(to, size) : size;
+            } else {
+                lower = Math.max(size - to, 0);
+                upper = size;
+            }
+
+            // only the last maxTailSize bytes are served, the rest is waiting for compaction
+            int start = size - Math.min(length, maxTailSize);
+            if (lower < start) {
+                return null;
+            }
+
+            if (lower >= upper) {
+                return new ProcessLog(size, Collections.emptyList());
+            }
+
+            int dataStart = size - length;
+            byte[] ab = Arrays.copyOfRange(data, lower - dataStart, upper - dataStart);
+            return new ProcessLog(size, Collections.singletonList(new ProcessLogChunk(lower, ab)));
+        }
+
+        private void ensureCapacity(int n) {
+            if (length + n <= data.length) {
+                return;
+            }
+
+            int maxCapacity = maxTailSize * 2;
+            if (length + n > maxCapacity) {
+                // drop the data that no longer fits into the tail
+                int keep = Math.min(length, maxTailSize - n);
+                System.arraycopy(data, length - keep, data, 0, keep);
+                length = keep;
+            }
+
+            if (length + n > data.length) {
+                int capacity = Math.max(length + n, Math.min(data.length * 2, maxCapacity));
+                data = Arrays.copyOf(data, capacity);
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final int offset;
+        private final Runnable callback;
+
+        private Waiter(int offset, Runnable callback) {
+            this.offset = offset;
+            this.callback = callback;
+        }
+    }
+
+    private static final class SegmentKey {
+
+        private final ProcessKey processKey;
+        private final long segmentId;
+
+        private SegmentKey(ProcessKey processKey, long segmentId) {
+            this.processKey = processKey;
+            this.segmentId = segmentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SegmentKey that = (SegmentKey) o;
+            return segmentId == that.segmentId && processKey.equals(that.processKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processKey, segmentId);
+        }
+    }
+}
@@ -23,18 +23,19 @@ package com.walmartlabs.concord.server.process.logs;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.db.PgIntRange;
+import com.walmartlabs.concord.server.Locks;
 import com.walmartlabs.concord.server.jooq.tables.records.ProcessLogDataRecord;
 import com.walmartlabs.concord.server.jooq.tables.records.ProcessLogSegmentsRecord;
 import com.walmartlabs.concord.server.process.LogSegment;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import com.walmartlabs.concord.server.sdk.Range;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
 import org.jooq.*;
 
 import javax.inject.Inject;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 import static com.walmartlabs.concord.db.PgUtils.upperRange;
 import static com.walmartlabs.concord.server.jooq.Routines.*;
@@ -44,20 +45,25 @@ import static org.jooq.impl.DSL.*;
 
 public class ProcessLogsDao extends AbstractDao {
 
+    private final Locks locks;
+
     @Inject
-    public ProcessLogsDao(@MainDB Configuration cfg) {
+    public ProcessLogsDao(@MainDB Configuration cfg, Locks locks) {
         super(cfg);
+        this.locks = locks;
     }
 
     /**
      * Appends a chunk to the process log. Automatically calculates the chunk's range.
      *
-     * @return the new chunk range.
+     * @return the new log entry.
      */
-    public Range append(ProcessKey processKey, long segmentId, byte[] data) {
+    public ProcessLogEntry append(ProcessKey processKey, long segmentId, byte[] data) {
         UUID instanceId = processKey.getInstanceId();
         OffsetDateTime createdAt = processKey.getCreatedAt();
 
+        // a single statement, the ranges are calculated by the DB functions.
+        // Used when the log buffer is disabled, keep it cheap
         ProcessLogDataRecord r = txResult(tx -> tx.insertInto(PROCESS_LOG_DATA)
                 .columns(PROCESS_LOG_DATA.INSTANCE_ID,
                         PROCESS_LOG_DATA.INSTANCE_CREATED_AT,
@@ -71,10 +77,91 @@ public class ProcessLogsDao extends AbstractDao {
                         processLogDataSegmentNextRange2(instanceId, createdAt, segmentId, data.length),
                         processLogDataNextRange2(instanceId, createdAt, data.length),
                         value(data))
-                .returning(PROCESS_LOG_DATA.LOG_RANGE)
+                .returning(PROCESS_LOG_DATA.LOG_RANGE, PROCESS_LOG_DATA.SEGMENT_RANGE)
                 .fetchOne());
 
-        return PgIntRange.parse(r.getLogRange().toString());
+        return ProcessLogEntry.builder()
+                .processKey(processKey)
+                .range(PgIntRange.parse(r.getLogRange().toString()))
+                .segmentId(segmentId)
+                .segmentRange(PgIntRange.parse(r.getSegmentRange().toString()))
+                .msg(data)
+                .build();
+    }
+
+    /**
+     * Appends multiple chunks to the process log using a single multi-row insert.
+     * The chunks are appended in the specified order.
+     *
+     * @return the new log entries, in the same order as the chunks.
+     */
+    public List<ProcessLogEntry> append(ProcessKey processKey, List<SegmentChunk> chunks) {
+        UUID instanceId = processKey.getInstanceId();
+        OffsetDateTime createdAt = processKey.getCreatedAt();
+
+        return txResult(tx -> {
+            // other server instances can append to the same log, the ranges must be calculated
+            // under a lock
+            locks.lock(tx, "process-log/" + instanceId);
+
+            Field<Integer> upperRange = max(upperRange(PROCESS_LOG_DATA.LOG_RANGE));
+            int logUpper = tx.select(upperRange)
+                    .from(PROCESS_LOG_DATA)
+                    .where(PROCESS_LOG_DATA.INSTANCE_ID.eq(instanceId)
+                            .and(PROCESS_LOG_DATA.INSTANCE_CREATED_AT.eq(createdAt)))
+                    .fetchOptional(upperRange)
+                    .orElse(0);
+
+            Set<Long> segmentIds = new HashSet<>();
+            chunks.forEach(c -> segmentIds.add(c.getSegmentId()));
+
+            Field<Integer> segmentUpperRange = max(upperRange(PROCESS_LOG_DATA.SEGMENT_RANGE));
+            Map<Long, Integer> segmentUppers = new HashMap<>(tx.select(PROCESS_LOG_DATA.SEGMENT_ID, segmentUpperRange)
+                    .from(PROCESS_LOG_DATA)
+                    .where(PROCESS_LOG_DATA.INSTANCE_ID.eq(instanceId)
+                            .and(PROCESS_LOG_DATA.INSTANCE_CREATED_AT.eq(createdAt))
+                            .and(PROCESS_LOG_DATA.SEGMENT_ID.in(segmentIds)))
+                    .groupBy(PROCESS_LOG_DATA.SEGMENT_ID)
+                    .fetchMap(PROCESS_LOG_DATA.SEGMENT_ID, segmentUpperRange));
+
+            InsertValuesStep6<ProcessLogDataRecord, UUID, OffsetDateTime, Long, Object, Object, byte[]> q = tx.insertInto(PROCESS_LOG_DATA)
+                    .columns(PROCESS_LOG_DATA.INSTANCE_ID,
+                            PROCESS_LOG_DATA.INSTANCE_CREATED_AT,
+                            PROCESS_LOG_DATA.SEGMENT_ID,
+                            PROCESS_LOG_DATA.SEGMENT_RANGE,
+                            PROCESS_LOG_DATA.LOG_RANGE,
+                            PROCESS_LOG_DATA.CHUNK_DATA);
+
+            List<ProcessLogEntry> result = new ArrayList<>(chunks.size());
+            for (SegmentChunk c : chunks) {
+                int len = c.getData().length;
+
+                int segmentLower = segmentUppers.getOrDefault(c.getSegmentId(), 0);
+                segmentUppers.put(c.getSegmentId(), segmentLower + len);
+
+                int logLower = logUpper;
+                logUpper += len;
+
+                q.values(value(instanceId),
+                        value(createdAt),
+                        value(c.getSegmentId()),
+                        int4range(segmentLower, segmentLower + len),
+                        int4range(logLower, logUpper),
+                        value(c.getData()));
+
+                result.add(ProcessLogEntry.builder()
+                        .processKey(processKey)
+                        .range(range(logLower, logUpper))
+                        .segmentId(c.getSegmentId())
+                        .segmentRange(range(segmentLower, segmentLower + len))
+                        .msg(c.getData())
+                        .build());
+            }
+
+            q.execute();
+
+            return result;
+        });
     }
 
     public long createSegment(ProcessKey processKey, UUID correlationId, String name, OffsetDateTime createdAt, String status) {
@@ -176,22 +263,29 @@ public class ProcessLogsDao extends AbstractDao {
     }
 
     public ProcessLog data(ProcessKey processKey, Integer start, Integer end) {
-        UUID instanceId = processKey.getInstanceId();
-        OffsetDateTime createdAt = processKey.getCreatedAt();
-
         DSLContext tx = dsl();
 
         List<ProcessLogChunk> chunks = getDataChunks(tx, processKey, start, end);
+        int size = size(tx, processKey);
 
+        return new ProcessLog(size, chunks);
+    }
+
+    /**
+     * @return the current size of the process log.
+     */
+    public int size(ProcessKey processKey) {
+        return size(dsl(), processKey);
+    }
+
+    private static int size(DSLContext tx, ProcessKey processKey) {
         Field<Integer> upperRange = max(upperRange(PROCESS_LOG_DATA.LOG_RANGE));
-        int size = tx.select(upperRange)
+        return tx.select(upperRange)
                 .from(PROCESS_LOG_DATA)
-                .where(PROCESS_LOG_DATA.INSTANCE_ID.eq(instanceId)
-                        .and(PROCESS_LOG_DATA.INSTANCE_CREATED_AT.eq(createdAt)))
+                .where(PROCESS_LOG_DATA.INSTANCE_ID.eq(processKey.getInstanceId())
+                        .and(PROCESS_LOG_DATA.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt())))
                 .fetchOptional(upperRange)
                 .orElse(0);
-
-        return new ProcessLog(size, chunks);
     }
 
     private List<ProcessLogChunk> getSegmentChunks(DSLContext tx, ProcessKey processKey, long segmentId, Integer start, Integer end) {
@@ -277,6 +371,19 @@ public class ProcessLogsDao extends AbstractDao {
         }
     }
 
+    private static Range range(int lower, int upper) {
+        return Range.builder()
+                .lower(lower)
+                .lowerMode(Range.Mode.INCLUSIVE)
+                .upper(upper)
+                .upperMode(Range.Mode.EXCLUSIVE)
+                .build();
+    }
+
+    private static Field<Object> int4range(int lower, int upper) {
+        return field("int4range({0}, {1})", Object.class, value(lower), value(upper));
+    }
+
     private static ProcessLogChunk toChunk(Record2<Object, byte[]> r) {
         return new ProcessLogChunk((Integer) r.value1(), r.value2());
     }
@@ -295,6 +402,25 @@ public class ProcessLogsDao extends AbstractDao {
                 .build();
     }
 
+    public static final class SegmentChunk {
+
+        private final long segmentId;
+        private final byte[] data;
+
+        public SegmentChunk(long segmentId, byte[] data) { // NOSONAR
+            this.segmentId = segmentId;
+            this.data = data;
+        }
+
+        public long getSegmentId() {
+            return segmentId;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+
     public static final class ProcessLogChunk implements Serializable {
 
         private static final long serialVersionUID = 1L;
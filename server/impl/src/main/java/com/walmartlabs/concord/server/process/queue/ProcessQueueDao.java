@@ -383,6 +383,34 @@ public class ProcessQueueDao extends AbstractDao {
         });
     }
 
+    /**
+     * Updates {@code LAST_UPDATED_AT} of the specified processes using
+     * a single {@code UPDATE ... FROM (VALUES ...)} statement.
+     *
+     * @return IDs of the updated processes.
+     */
+    public Set<UUID> touch(Collection<UUID> instanceIds) {
+        if (instanceIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        @SuppressWarnings("unchecked")
+        Row1<UUID>[] rows = instanceIds.stream()
+                .map(DSL::row)
+                .toArray(Row1[]::new);
+
+        Table<Record1<UUID>> ids = values(rows).as("ids", "instance_id");
+        Field<UUID> id = ids.field("instance_id", UUID.class);
+
+        return txResult(tx -> new HashSet<>(tx.update(PROCESS_QUEUE)
+                .set(PROCESS_QUEUE.LAST_UPDATED_AT, currentOffsetDateTime())
+                .from(ids)
+                .where(PROCESS_QUEUE.INSTANCE_ID.eq(id))
+                .returning(PROCESS_QUEUE.INSTANCE_ID)
+                .fetch()
+                .getValues(PROCESS_QUEUE.INSTANCE_ID)));
+    }
+
     public ProcessEntry get(ProcessKey processKey) {
         return get(processKey, DEFAULT_INCLUDES);
     }
@@ -420,6 +448,23 @@ public class ProcessQueueDao extends AbstractDao {
         return ProcessStatus.valueOf(status);
     }
 
+    /**
+     * Returns the current statuses of the specified processes.
+     * Unknown processes are not included in the result.
+     */
+    public Map<UUID, ProcessStatus> getStatuses(Collection<UUID> instanceIds) {
+        if (instanceIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<UUID, ProcessStatus> result = new HashMap<>(instanceIds.size());
+        dsl().select(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CURRENT_STATUS)
+                .from(PROCESS_QUEUE)
+                .where(PROCESS_QUEUE.INSTANCE_ID.in(instanceIds))
+                .forEach(r -> result.put(r.value1(), ProcessStatus.valueOf(r.value2())));
+        return result;
+    }
+
     public List<ProcessEntry> get(List<PartialProcessKey> processKeys) {
         if (processKeys.isEmpty()) {
             return Collections.emptyList();
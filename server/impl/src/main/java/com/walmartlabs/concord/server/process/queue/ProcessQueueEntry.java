@@ -26,6 +26,7 @@ import com.walmartlabs.concord.server.sdk.ProcessKey;
 import org.immutables.value.Value;
 
 import javax.annotation.Nullable;
+import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.UUID;
 
@@ -70,6 +71,9 @@ public interface ProcessQueueEntry {
     @Nullable
     Map<String, Object> requirements();
 
+    @Nullable
+    OffsetDateTime lastUpdatedAt();
+
     static ImmutableProcessQueueEntry.Builder builder() {
         return ImmutableProcessQueueEntry.builder();
     }
@@ -0,0 +1,132 @@
+package com.walmartlabs.concord.server.process.queue.dispatcher;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.CompiledMatcher;
+
+import java.util.*;
+
+/**
+ * Waiting agent requests grouped by their capabilities.
+ * <p>
+ * Agents with identical capabilities share a single FIFO queue, so a process
+ * requirement is matched against each distinct set of capabilities only once
+ * per dispatch round, regardless of the number of agents in that group.
+ * Agents without capabilities ({@code null}) form a separate group, which
+ * matches only the processes without requirements.
+ * <p>
+ * Not thread-safe, intended to be used within a single dispatch round.
+ */
+final class AgentRequestIndex<T> {
+
+    private final Map<Map<String, Object>, Deque<T>> groups = new LinkedHashMap<>();
+    private final Map<Map<String, Object>, List<Deque<T>>> matches = new HashMap<>();
+
+    private int size;
+
+    public void add(Map<String, Object> capabilities, T request) {
+        addAll(capabilities, Collections.singletonList(request));
+    }
+
+    /**
+     * Adds multiple requests with the same capabilities, preserving the order.
+     */
+    public void addAll(Map<String, Object> capabilities, Collection<T> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        groups.computeIfAbsent(capabilities, k -> new ArrayDeque<>()).addAll(requests);
+        matches.clear();
+        size += requests.size();
+    }
+
+    /**
+     * Returns {@code true} if there is at least one request whose capabilities
+     * match the specified agent requirements.
+     */
+    public boolean hasMatch(Map<String, Object> requirements) {
+        if (size == 0) {
+            return false;
+        }
+
+        for (Deque<T> q : candidates(requirements)) {
+            if (!q.isEmpty()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes and returns the oldest request whose capabilities match
+     * the specified agent requirements. Returns {@code null} if there are no
+     * suitable requests.
+     */
+    public T poll(Map<String, Object> requirements) {
+        if (size == 0) {
+            return null;
+        }
+
+        for (Deque<T> q : candidates(requirements)) {
+            T result = q.poll();
+            if (result != null) {
+                size--;
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int groupCount() {
+        return groups.size();
+    }
+
+    private List<Deque<T>> candidates(Map<String, Object> requirements) {
+        return matches.computeIfAbsent(requirements, this::findGroups);
+    }
+
+    private List<Deque<T>> findGroups(Map<String, Object> requirements) {
+        if (requirements.isEmpty()) {
+            return new ArrayList<>(groups.values());
+        }
+
+        CompiledMatcher matcher = CompiledMatcher.compile(requirements);
+
+        List<Deque<T>> result = new ArrayList<>();
+        for (Map.Entry<Map<String, Object>, Deque<T>> e : groups.entrySet()) {
+            if (matcher.matches(e.getKey())) {
+                result.add(e.getValue());
+            }
+        }
+        return result;
+    }
+}
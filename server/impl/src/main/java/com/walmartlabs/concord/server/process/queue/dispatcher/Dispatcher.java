@@ -23,7 +23,6 @@ package com.walmartlabs.concord.server.process.queue.dispatcher;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
-import com.walmartlabs.concord.common.Matcher;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.imports.Imports;
@@ -38,13 +37,12 @@ import com.walmartlabs.concord.server.process.SessionTokenCreator;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
 import com.walmartlabs.concord.server.process.queue.ProcessQueueEntry;
 import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
-import com.walmartlabs.concord.server.queueclient.message.MessageType;
-import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
 import com.walmartlabs.concord.server.sdk.ProcessKey;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
-import com.walmartlabs.concord.server.websocket.WebSocketChannel;
+import com.walmartlabs.concord.server.websocket.AgentChannel;
+import com.walmartlabs.concord.server.websocket.AgentRequestInbox;
 import com.walmartlabs.concord.server.websocket.WebSocketChannelManager;
 import org.jooq.*;
 import org.slf4j.Logger;
@@ -55,7 +53,6 @@ import javax.inject.Named;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.server.jooq.tables.Organizations.ORGANIZATIONS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
@@ -86,6 +83,8 @@ public class Dispatcher extends PeriodicTask {
     private final int batchSize;
 
     private final Histogram dispatchedCountHistogram;
+    private final Histogram capabilityGroupsHistogram;
+    private final Histogram offsetHistogram;
     private final Timer responseTimer;
 
     private final SessionTokenCreator sessionTokenCreator;
@@ -116,30 +115,49 @@ public class Dispatcher extends PeriodicTask {
         this.sessionTokenCreator = sessionTokenCreator;
 
         this.dispatchedCountHistogram = metricRegistry.histogram("process-queue-dispatcher-dispatched-count");
+        this.capabilityGroupsHistogram = metricRegistry.histogram("process-queue-dispatcher-capability-groups");
+        this.offsetHistogram = metricRegistry.histogram("process-queue-dispatcher-offset");
         this.responseTimer = metricRegistry.timer("process-queue-dispatcher-response-timer");
     }
 
     @Override
     @WithTimer
     protected boolean performTask() {
-        // TODO the WebSocketChannelManager business can be replaced with an async jax-rs endpoint and an "inbox" queue
+        AgentRequestInbox requests = this.channelManager.getProcessRequests();
+        if (requests.size() == 0) {
+            return false;
+        }
+
+        // grab the requests w/o responses, already grouped up by agent capabilities
+        // agents with the same capabilities are served in FIFO order
+        Map<Map<String, Object>, List<AgentRequestInbox.Entry>> groups = requests.groups();
+        try {
+            return dispatch(groups);
+        } finally {
+            // let the channels know the round is over (e.g. to complete long-polling requests)
+            groups.values().stream()
+                    .flatMap(List::stream)
+                    .map(AgentRequestInbox.Entry::channel)
+                    .distinct()
+                    .forEach(Dispatcher::afterDispatch);
+        }
+    }
 
-        // grab the requests w/o responses
-        Map<WebSocketChannel, ProcessRequest> requests = this.channelManager.getRequests(MessageType.PROCESS_REQUEST);
-        if (requests.isEmpty()) {
+    private boolean dispatch(Map<Map<String, Object>, List<AgentRequestInbox.Entry>> groups) {
+        AgentRequestIndex<AgentRequestInbox.Entry> inbox = new AgentRequestIndex<>();
+        groups.forEach(inbox::addAll);
+        if (inbox.isEmpty()) {
             return false;
         }
 
-        List<Request> l = requests.entrySet().stream()
-                .map(e -> new Request(e.getKey(), e.getValue()))
-                .collect(Collectors.toList());
+        capabilityGroupsHistogram.update(inbox.groupCount());
 
         // prepare all responses in a single transaction
         // take a global lock to avoid races
         List<Match> matches = dao.txResult(tx -> {
             locks.lock(tx, LOCK_KEY);
             try {
-                return match(tx, l);
+                return match(tx, inbox);
             } finally {
                 filters.forEach(Filter::cleanup);
             }
@@ -160,34 +178,38 @@ public class Dispatcher extends PeriodicTask {
         return true;
     }
 
-    private List<Match> match(DSLContext tx, List<Request> requests) {
-        // we need it modifiable
-        List<Request> inbox = new ArrayList<>(requests);
-
+    private List<Match> match(DSLContext tx, AgentRequestIndex<AgentRequestInbox.Entry> inbox) {
         int offset = 0;
+        ProcessQueueEntry last = null;
         List<Match> matches = new ArrayList<>();
+
+        // "startingProcesses" are the currently collected "matches"
+        // we keep them in a separate collection to simplify the filtering
+        List<ProcessQueueEntry> startingProcesses = new ArrayList<>();
+
         while (true) {
             // fetch the next few ENQUEUED processes from the DB
-            List<ProcessQueueEntry> candidates = dao.next(tx, offset, batchSize);
+            // keyset pagination, the DB doesn't have to re-read the previous pages
+            offsetHistogram.update(offset);
+            List<ProcessQueueEntry> candidates = dao.next(tx, last, batchSize);
             if (candidates.isEmpty()) {
                 break;
             }
 
+            last = candidates.get(candidates.size() - 1);
+
             // filter out the candidates that shouldn't be dispatched at the moment (e.g. due to concurrency limits)
             for (ProcessQueueEntry e : candidates) {
-                // find request/agent who can handle process
-                Request req = findRequest(e, inbox);
-                if (req == null) {
+                // skip the process if there are no agents who can handle it
+                Map<String, Object> requirements = getAgentRequirements(e);
+                if (!inbox.hasMatch(requirements)) {
                     continue;
                 }
 
-                // "startingProcesses" are the currently collected "matches"
-                // we keep them in a separate collection to simplify the filtering
-                List<ProcessQueueEntry> startingProcesses = matches.stream().map(m -> m.response).collect(Collectors.toList());
-
                 if (pass(tx, e, startingProcesses)) {
+                    AgentRequestInbox.Entry req = inbox.poll(requirements);
                     matches.add(new Match(req, e));
-                    inbox.remove(req);
+                    startingProcesses.add(e);
 
                     if (inbox.isEmpty()) {
                         break;
@@ -206,24 +228,12 @@ public class Dispatcher extends PeriodicTask {
             ProcessQueueEntry candidate = m.response;
 
             // mark the process as STARTING
-            queueManager.updateAgentId(tx, candidate.key(), m.request.channel.getAgentId(), ProcessStatus.STARTING);
+            queueManager.updateAgentId(tx, candidate.key(), m.request.channel().getAgentId(), ProcessStatus.STARTING);
         }
 
         return matches;
     }
 
-    private static Request findRequest(ProcessQueueEntry candidate, List<Request> requests) {
-        for (Request req : requests) {
-            Map<String, Object> capabilities = req.request.getCapabilities();
-            Map<String, Object> m = getAgentRequirements(candidate);
-            if (m.isEmpty() || Matcher.matches(capabilities, m)) {
-                return req;
-            }
-        }
-
-        return null;
-    }
-
     @SuppressWarnings("unchecked")
     private static Map<String, Object> getAgentRequirements(ProcessQueueEntry entry) {
         Map<String, Object> requirements = entry.requirements();
@@ -250,8 +260,8 @@ public class Dispatcher extends PeriodicTask {
     }
 
     private void sendResponse(Match match) {
-        WebSocketChannel channel = match.request.channel;
-        long correlationId = match.request.request.getCorrelationId();
+        AgentChannel channel = match.request.channel();
+        long correlationId = match.request.request().getCorrelationId();
         ProcessQueueEntry item = match.response;
 
         try {
@@ -285,20 +295,25 @@ public class Dispatcher extends PeriodicTask {
         }
     }
 
+    private static void afterDispatch(AgentChannel channel) {
+        try {
+            channel.afterDispatch();
+        } catch (Exception e) {
+            log.warn("afterDispatch ['{}'] -> error: {}", channel.getChannelId(), e.getMessage());
+        }
+    }
+
     @Named
     public static class DispatcherDao extends AbstractDao {
 
         private final ConcordObjectMapper objectMapper;
-        private final Histogram offsetHistogram;
 
         @Inject
         public DispatcherDao(@MainDB Configuration cfg,
-                             ConcordObjectMapper objectMapper,
-                             MetricRegistry metricRegistry) {
+                             ConcordObjectMapper objectMapper) {
 
             super(cfg);
             this.objectMapper = objectMapper;
-            this.offsetHistogram = metricRegistry.histogram("process-queue-dispatcher-offset");
         }
 
         @Override
@@ -306,15 +321,19 @@ public class Dispatcher extends PeriodicTask {
             return super.txResult(t);
         }
 
+        /**
+         * Returns the next {@code limit} ENQUEUED processes, ordered by
+         * {@code LAST_UPDATED_AT} and {@code INSTANCE_ID}.
+         *
+         * @param after the last entry of the previous page or {@code null} for the first page
+         */
         @WithTimer
-        public List<ProcessQueueEntry> next(DSLContext tx, int offset, int limit) {
-            offsetHistogram.update(offset);
-
+        public List<ProcessQueueEntry> next(DSLContext tx, ProcessQueueEntry after, int limit) {
             ProcessQueue q = PROCESS_QUEUE.as("q");
 
             Field<UUID> orgIdField = select(PROJECTS.ORG_ID).from(PROJECTS).where(PROJECTS.PROJECT_ID.eq(q.PROJECT_ID)).asField();
 
-            SelectJoinStep<Record14<UUID, OffsetDateTime, UUID, UUID, UUID, UUID, String, String, String, UUID, JSONB, JSONB, JSONB, String>> s =
+            SelectJoinStep<Record15<UUID, OffsetDateTime, UUID, UUID, UUID, UUID, String, String, String, UUID, JSONB, JSONB, JSONB, String, OffsetDateTime>> s =
                     tx.select(
                             q.INSTANCE_ID,
                             q.CREATED_AT,
@@ -329,15 +348,19 @@ public class Dispatcher extends PeriodicTask {
                             q.IMPORTS,
                             q.REQUIREMENTS,
                             q.EXCLUSIVE,
-                            q.COMMIT_BRANCH)
+                            q.COMMIT_BRANCH,
+                            q.LAST_UPDATED_AT)
                             .from(q);
 
             s.where(q.CURRENT_STATUS.eq(ProcessStatus.ENQUEUED.toString())
                     .and(or(q.START_AT.isNull(),
                             q.START_AT.le(currentOffsetDateTime()))));
 
-            return s.orderBy(q.LAST_UPDATED_AT)
-                    .offset(offset)
+            if (after != null) {
+                s.where(row(q.LAST_UPDATED_AT, q.INSTANCE_ID).gt(after.lastUpdatedAt(), after.key().getInstanceId()));
+            }
+
+            return s.orderBy(q.LAST_UPDATED_AT, q.INSTANCE_ID)
                     .limit(limit)
                     .forUpdate()
                     .of(q)
@@ -356,6 +379,7 @@ public class Dispatcher extends PeriodicTask {
                             .imports(objectMapper.fromJSONB(r.value11(), Imports.class))
                             .requirements(objectMapper.fromJSONB(r.value12()))
                             .exclusive(objectMapper.fromJSONB(r.value13(), ExclusiveMode.class))
+                            .lastUpdatedAt(r.value15())
                             .build());
         }
 
@@ -369,23 +393,12 @@ public class Dispatcher extends PeriodicTask {
         }
     }
 
-    private static final class Request {
-
-        private final WebSocketChannel channel;
-        private final ProcessRequest request;
-
-        private Request(WebSocketChannel channel, ProcessRequest request) {
-            this.channel = channel;
-            this.request = request;
-        }
-    }
-
     private static final class Match {
 
-        private final Request request;
+        private final AgentRequestInbox.Entry request;
         private final ProcessQueueEntry response;
 
-        private Match(Request request, ProcessQueueEntry response) {
+        private Match(AgentRequestInbox.Entry request, ProcessQueueEntry response) {
             this.request = request;
             this.response = response;
         }
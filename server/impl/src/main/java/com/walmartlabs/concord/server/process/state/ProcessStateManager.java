@@ -20,11 +20,19 @@ package com.walmartlabs.concord.server.process.state;
  * =====
  */
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
 import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.common.Posix;
 import com.walmartlabs.concord.common.secret.SecretUtils;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.db.PgCopyWriter;
 import com.walmartlabs.concord.db.PgUtils;
 import com.walmartlabs.concord.policyengine.CheckResult;
 import com.walmartlabs.concord.policyengine.PolicyEngine;
@@ -50,19 +58,23 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_INITIAL_STATE;
+import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_STATE_BLOBS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessState.PROCESS_STATE;
 import static com.walmartlabs.concord.server.jooq.tables.Projects.PROJECTS;
@@ -73,7 +85,24 @@ public class ProcessStateManager extends AbstractDao {
     private static final Logger log = LoggerFactory.getLogger(ProcessStateManager.class);
 
     private static final String PATH_SEPARATOR = "/";
-    private static final int INSERT_BATCH_SIZE = 10;
+
+    /**
+     * Max number of items per statement when deleting or looking up items by path or digest.
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Max number of blobs per insert batch. Limits the number of files kept open.
+     */
+    private static final int MAX_BLOB_INSERT_BATCH_SIZE = 100;
+
+    private static final String IMPORT_TABLE = "process_state_import";
+
+    /**
+     * How often the LAST_USED_AT of reused blobs is updated. Must be shorter
+     * than the delay before unused blobs are removed by the process cleaner.
+     */
+    public static final Duration BLOB_TOUCH_INTERVAL = Duration.ofHours(1);
 
     private final SecretStoreConfiguration secretCfg;
     private final PolicyManager policyManager;
@@ -81,6 +110,14 @@ public class ProcessStateManager extends AbstractDao {
     private final ProcessKeyCache processKeyCache;
 
     private final Set<String> secureFiles;
+    private final boolean deduplication;
+
+    private final Counter storedBlobs;
+    private final Counter storedBlobBytes;
+    private final Counter reusedBlobs;
+    private final Counter reusedBlobBytes;
+    private final Histogram importFiles;
+    private final Histogram importBytes;
 
     @Inject
     protected ProcessStateManager(@MainDB Configuration cfg,
@@ -88,7 +125,8 @@ public class ProcessStateManager extends AbstractDao {
                                   ProcessConfiguration stateCfg,
                                   PolicyManager policyManager,
                                   ProcessLogManager logManager,
-                                  ProcessKeyCache processKeyCache) {
+                                  ProcessKeyCache processKeyCache,
+                                  MetricRegistry metricRegistry) {
         super(cfg);
         this.secretCfg = secretCfg;
         this.policyManager = policyManager;
@@ -96,6 +134,15 @@ public class ProcessStateManager extends AbstractDao {
         this.processKeyCache = processKeyCache;
 
         this.secureFiles = Collections.unmodifiableSet(new HashSet<>(stateCfg.getSecureFiles()));
+        this.deduplication = stateCfg.isStateDeduplication();
+
+        this.storedBlobs = metricRegistry.counter("process-state-blobs-stored");
+        this.storedBlobBytes = metricRegistry.counter("process-state-blobs-stored-bytes");
+        this.reusedBlobs = metricRegistry.counter("process-state-blobs-reused");
+        this.reusedBlobBytes = metricRegistry.counter("process-state-blobs-reused-bytes");
+        metricRegistry.gauge("process-state-dedup-ratio", () -> this::getDedupRatio);
+        this.importFiles = metricRegistry.histogram("process-state-import-files");
+        this.importBytes = metricRegistry.histogram("process-state-import-bytes");
     }
 
     @Override
@@ -128,7 +175,7 @@ public class ProcessStateManager extends AbstractDao {
     }
 
     private <T> Optional<T> doGet(DSLContext tx, ProcessStateTable table, ProcessKey processKey, String path, Function<InputStream, Optional<T>> converter) {
-        String sql = tx.select(table.IS_ENCRYPTED(), table.ITEM_DATA())
+        String sql = tx.select(table.IS_ENCRYPTED(), itemData(table))
                 .from(table.table())
                 .where(table.INSTANCE_ID().eq((UUID) null)
                         .and(table.INSTANCE_CREATED_AT().eq((OffsetDateTime) null))
@@ -162,7 +209,7 @@ public class ProcessStateManager extends AbstractDao {
     public <T> List<T> forEach(ProcessKey processKey, String path, Function<InputStream, Optional<T>> converter) {
         DSLContext tx = dsl();
 
-        String sql = tx.select(PROCESS_STATE.IS_ENCRYPTED, PROCESS_STATE.ITEM_DATA)
+        String sql = tx.select(PROCESS_STATE.IS_ENCRYPTED, itemData(CurrentProcessStateTable.INSTANCE))
                 .from(PROCESS_STATE)
                 .where(PROCESS_STATE.INSTANCE_ID.eq((UUID) null)
                         .and(PROCESS_STATE.INSTANCE_CREATED_AT.eq((OffsetDateTime) null))
@@ -342,7 +389,7 @@ public class ProcessStateManager extends AbstractDao {
 
         String prefix = fixPath(path);
 
-        List<BatchItem> batch = new ArrayList<>();
+        List<BatchItem> items = new ArrayList<>();
         try {
             Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
                 @Override
@@ -369,28 +416,25 @@ public class ProcessStateManager extends AbstractDao {
                     int unixMode = Posix.unixMode(permissions);
                     boolean needsEncryption = secureFiles.contains(n);
 
-                    tx.deleteFrom(table.table()).where(table.INSTANCE_ID().eq(processKey.getInstanceId())
-                                    .and(table.INSTANCE_CREATED_AT().eq(processKey.getCreatedAt()))
-                                    .and(table.ITEM_PATH().eq(n)))
-                            .execute();
-
-                    batch.add(new BatchItem(n, file, unixMode, needsEncryption));
-                    if (batch.size() >= INSERT_BATCH_SIZE) {
-                        doInsert(tx, table, processKey.getInstanceId(), processKey.getCreatedAt(), batch);
-                        batch.clear();
-                    }
+                    items.add(new BatchItem(n, file, attrs.size(), unixMode, needsEncryption));
 
                     return FileVisitResult.CONTINUE;
                 }
             });
-
-            if (!batch.isEmpty()) {
-                doInsert(tx, table, processKey.getInstanceId(), processKey.getCreatedAt(), batch);
-            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
+        if (items.isEmpty()) {
+            return;
+        }
+
+        deleteItems(tx, table, processKey, items);
+        doInsert(tx, table, processKey, items);
+
+        importFiles.update(items.size());
+        importBytes.update(items.stream().mapToLong(i -> i.size).sum());
+
         assertPolicy(tx, processKey, policyEngine);
     }
 
@@ -401,7 +445,7 @@ public class ProcessStateManager extends AbstractDao {
         DSLContext tx = dsl();
 
         String sql = tx
-                .select(PROCESS_STATE.ITEM_PATH, PROCESS_STATE.UNIX_MODE, PROCESS_STATE.IS_ENCRYPTED, PROCESS_STATE.ITEM_DATA)
+                .select(PROCESS_STATE.ITEM_PATH, PROCESS_STATE.UNIX_MODE, PROCESS_STATE.IS_ENCRYPTED, itemData(CurrentProcessStateTable.INSTANCE))
                 .from(PROCESS_STATE)
                 .where(PROCESS_STATE.INSTANCE_ID.eq((UUID) null).and(PROCESS_STATE.INSTANCE_CREATED_AT.eq((OffsetDateTime) null)))
                 .getSQL();
@@ -448,7 +492,7 @@ public class ProcessStateManager extends AbstractDao {
         DSLContext tx = dsl();
 
         String sql = tx
-                .select(table.ITEM_PATH(), table.UNIX_MODE(), table.IS_ENCRYPTED(), table.ITEM_DATA())
+                .select(table.ITEM_PATH(), table.UNIX_MODE(), table.IS_ENCRYPTED(), itemData(table))
                 .from(table.table())
                 .where(table.INSTANCE_ID().eq((UUID) null)
                         .and(table.INSTANCE_CREATED_AT().eq((OffsetDateTime) null))
@@ -529,91 +573,199 @@ public class ProcessStateManager extends AbstractDao {
                 .execute();
     }
 
-    private void insert(DSLContext tx, UUID instanceId, OffsetDateTime instanceCreatedAt, Collection<BatchItem> batch) {
-        String sql = tx.insertInto(PROCESS_STATE)
-                .columns(PROCESS_STATE.INSTANCE_ID, PROCESS_STATE.INSTANCE_CREATED_AT, PROCESS_STATE.ITEM_PATH, PROCESS_STATE.UNIX_MODE, PROCESS_STATE.ITEM_DATA, PROCESS_STATE.IS_ENCRYPTED)
-                .values((UUID) null, null, null, null, null, null)
-                .getSQL();
+    private void deleteItems(DSLContext tx, ProcessStateTable table, ProcessKey processKey, List<BatchItem> items) {
+        for (List<BatchItem> chunk : Lists.partition(items, MAX_BATCH_SIZE)) {
+            List<String> paths = chunk.stream().map(i -> i.itemPath).collect(Collectors.toList());
+            tx.deleteFrom(table.table())
+                    .where(table.INSTANCE_ID().eq(processKey.getInstanceId())
+                            .and(table.INSTANCE_CREATED_AT().eq(processKey.getCreatedAt()))
+                            .and(table.ITEM_PATH().in(paths)))
+                    .execute();
+        }
+    }
 
-        List<InputStream> streams = new LinkedList<>();
-        try {
-            tx.connection(conn -> {
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    for (BatchItem item : batch) {
-                        // INSTANCE_ID
-                        ps.setObject(1, instanceId);
+    /**
+     * Streams the items into the table using the binary COPY protocol,
+     * i.e. in a few round-trips regardless of the number of items.
+     * <p>
+     * The data is copied into a temporary table first: the binary format
+     * requires exact column types and the types of the state tables differ
+     * between installations (e.g. {@code timestamp} vs {@code timestamptz}).
+     */
+    private void doInsert(DSLContext tx, ProcessStateTable table, ProcessKey processKey, List<BatchItem> items) {
+        Map<BatchItem, String> digests = deduplication ? storeBlobs(tx, items) : Collections.emptyMap();
+        Map<BatchItem, byte[]> encrypted = encryptAll(items);
+
+        tx.execute("create temp table if not exists " + IMPORT_TABLE + " (" +
+                "INSTANCE_ID uuid, " +
+                "INSTANCE_CREATED_AT timestamptz, " +
+                "ITEM_PATH varchar, " +
+                "UNIX_MODE smallint, " +
+                "ITEM_DATA bytea, " +
+                "IS_ENCRYPTED boolean, " +
+                "BLOB_DIGEST varchar) " +
+                "on commit delete rows");
+
+        tx.connection(conn -> {
+            try (PgCopyWriter w = PgCopyWriter.open(conn, "copy " + IMPORT_TABLE + " from stdin (format binary)")) {
+                for (BatchItem item : items) {
+                    w.startRow(7);
+                    w.writeUuid(processKey.getInstanceId());
+                    w.writeTimestamp(processKey.getCreatedAt());
+                    w.writeText(item.itemPath);
+                    w.writeShort((short) item.unixMode);
+
+                    String digest = digests.get(item);
+                    byte[] ab = encrypted.get(item);
+                    if (digest != null) {
+                        w.writeNull();
+                    } else if (ab != null) {
+                        w.writeBytes(ab);
+                    } else {
+                        try (InputStream in = Files.newInputStream(item.path)) {
+                            w.writeBytes(in, item.size);
+                        }
+                    }
 
-                        // INSTANCE_CREATED_AT
-                        ps.setObject(2, instanceCreatedAt);
+                    w.writeBoolean(item.needsEncryption);
+                    w.writeText(digest);
+                }
 
-                        // ITEM_PATH
-                        ps.setString(3, item.itemPath);
+                w.finish();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
 
-                        // UNIX_MODE
-                        ps.setInt(4, item.unixMode);
+        Table<?> src = table(name(IMPORT_TABLE));
+        tx.insertInto(table.table())
+                .columns(table.INSTANCE_ID(), table.INSTANCE_CREATED_AT(), table.ITEM_PATH(), table.UNIX_MODE(), table.ITEM_DATA(), table.IS_ENCRYPTED(), table.BLOB_DIGEST())
+                .select(select(field(name("INSTANCE_ID"), UUID.class),
+                        field(name("INSTANCE_CREATED_AT"), OffsetDateTime.class),
+                        field(name("ITEM_PATH"), String.class),
+                        field(name("UNIX_MODE"), Short.class),
+                        field(name("ITEM_DATA"), byte[].class),
+                        field(name("IS_ENCRYPTED"), Boolean.class),
+                        field(name("BLOB_DIGEST"), String.class))
+                        .from(src))
+                .execute();
 
-                        InputStream in = Files.newInputStream(item.path);
-                        streams.add(in); // keep the streams open until the batch is committed
+        // the same transaction might import more data
+        tx.truncate(src).execute();
+    }
 
-                        if (item.needsEncryption) {
-                            in = encrypt(in);
-                        }
+    /**
+     * Encrypts the items that need it. Multiple items are encrypted in parallel.
+     */
+    private Map<BatchItem, byte[]> encryptAll(List<BatchItem> items) {
+        List<BatchItem> l = items.stream()
+                .filter(i -> i.needsEncryption)
+                .collect(Collectors.toList());
 
-                        // ITEM_DATA
-                        ps.setBinaryStream(5, in);
+        if (l.isEmpty()) {
+            return Collections.emptyMap();
+        }
 
-                        // IS_ENCRYPTED
-                        ps.setBoolean(6, item.needsEncryption);
+        Stream<BatchItem> s = l.size() > 1 ? l.parallelStream() : l.stream();
+        return s.collect(Collectors.toConcurrentMap(Function.identity(), i -> {
+            try {
+                return encrypt(Files.readAllBytes(i.path));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
 
-                        ps.addBatch();
-                    }
+    /**
+     * Stores the data of non-encrypted items in PROCESS_STATE_BLOBS. Only the blobs
+     * that are not in the DB yet are uploaded.
+     *
+     * @return the items' digests. Encrypted items are always stored inline.
+     */
+    private Map<BatchItem, String> storeBlobs(DSLContext tx, List<BatchItem> items) {
+        Map<BatchItem, String> result = new HashMap<>();
+        for (List<BatchItem> chunk : Lists.partition(items, MAX_BATCH_SIZE)) {
+            result.putAll(storeBlobs(tx, (Collection<BatchItem>) chunk));
+        }
+        return result;
+    }
 
-                    ps.executeBatch();
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
+    private Map<BatchItem, String> storeBlobs(DSLContext tx, Collection<BatchItem> batch) {
+        Map<BatchItem, String> result = new HashMap<>();
+        Map<String, BatchItem> unique = new HashMap<>();
+        try {
+            for (BatchItem item : batch) {
+                if (item.needsEncryption) {
+                    continue;
                 }
-            });
-        } finally {
-            streams.forEach(ProcessStateManager::closeSilently);
+
+                String digest = MoreFiles.asByteSource(item.path).hash(Hashing.sha256()).toString();
+                result.put(item, digest);
+                unique.putIfAbsent(digest, item);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (unique.isEmpty()) {
+            return result;
         }
+
+        // keep the reused blobs from being removed by the process cleaner
+        tx.update(PROCESS_STATE_BLOBS)
+                .set(PROCESS_STATE_BLOBS.LAST_USED_AT, currentOffsetDateTime())
+                .where(PROCESS_STATE_BLOBS.BLOB_DIGEST.in(unique.keySet())
+                        .and(PROCESS_STATE_BLOBS.LAST_USED_AT.lessThan(PgUtils.nowMinus(BLOB_TOUCH_INTERVAL))))
+                .execute();
+
+        Set<String> existing = new HashSet<>(tx.select(PROCESS_STATE_BLOBS.BLOB_DIGEST)
+                .from(PROCESS_STATE_BLOBS)
+                .where(PROCESS_STATE_BLOBS.BLOB_DIGEST.in(unique.keySet()))
+                .fetch(PROCESS_STATE_BLOBS.BLOB_DIGEST));
+
+        Map<String, BatchItem> missing = new HashMap<>(unique);
+        missing.keySet().removeAll(existing);
+
+        if (!missing.isEmpty()) {
+            for (List<Map.Entry<String, BatchItem>> chunk : Iterables.partition(missing.entrySet(), MAX_BLOB_INSERT_BATCH_SIZE)) {
+                insertBlobs(tx, chunk);
+            }
+        }
+
+        for (Map.Entry<BatchItem, String> e : result.entrySet()) {
+            long size = e.getKey().size;
+            if (missing.get(e.getValue()) == e.getKey()) {
+                storedBlobs.inc();
+                storedBlobBytes.inc(size);
+            } else {
+                reusedBlobs.inc();
+                reusedBlobBytes.inc(size);
+            }
+        }
+
+        return result;
     }
 
-    private void doInsert(DSLContext tx, ProcessStateTable table, UUID instanceId, OffsetDateTime instanceCreatedAt, Collection<BatchItem> batch) {
-        String sql = tx.insertInto(table.table())
-                .columns(table.INSTANCE_ID(), table.INSTANCE_CREATED_AT(), table.ITEM_PATH(), table.UNIX_MODE(), table.ITEM_DATA(), table.IS_ENCRYPTED())
-                .values((UUID) null, null, null, null, null, null)
+    private static void insertBlobs(DSLContext tx, Collection<Map.Entry<String, BatchItem>> blobs) {
+        String sql = tx.insertInto(PROCESS_STATE_BLOBS)
+                .columns(PROCESS_STATE_BLOBS.BLOB_DIGEST, PROCESS_STATE_BLOBS.BLOB_DATA, PROCESS_STATE_BLOBS.BLOB_SIZE)
+                .values((String) null, null, null)
+                .onConflictDoNothing()
                 .getSQL();
 
         List<InputStream> streams = new LinkedList<>();
         try {
             tx.connection(conn -> {
                 try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    for (BatchItem item : batch) {
-                        // INSTANCE_ID
-                        ps.setObject(1, instanceId);
-
-                        // INSTANCE_CREATED_AT
-                        ps.setObject(2, instanceCreatedAt);
-
-                        // ITEM_PATH
-                        ps.setString(3, item.itemPath);
-
-                        // UNIX_MODE
-                        ps.setInt(4, item.unixMode);
+                    for (Map.Entry<String, BatchItem> e : blobs) {
+                        BatchItem item = e.getValue();
 
                         InputStream in = Files.newInputStream(item.path);
                         streams.add(in); // keep the streams open until the batch is committed
 
-                        if (item.needsEncryption) {
-                            in = encrypt(in);
-                        }
-
-                        // ITEM_DATA
-                        ps.setBinaryStream(5, in);
-
-                        // IS_ENCRYPTED
-                        ps.setBoolean(6, item.needsEncryption);
-
+                        ps.setString(1, e.getKey());
+                        ps.setBinaryStream(2, in, item.size);
+                        ps.setLong(3, item.size);
                         ps.addBatch();
                     }
 
@@ -627,6 +779,25 @@ public class ProcessStateManager extends AbstractDao {
         }
     }
 
+    private double getDedupRatio() {
+        long stored = storedBlobBytes.getCount();
+        long reused = reusedBlobBytes.getCount();
+        if (stored + reused == 0) {
+            return 0;
+        }
+        return (double) reused / (stored + reused);
+    }
+
+    /**
+     * Returns the item's data, either stored inline or in the referenced blob.
+     */
+    private static Field<byte[]> itemData(ProcessStateTable table) {
+        return coalesce(table.ITEM_DATA(), select(PROCESS_STATE_BLOBS.BLOB_DATA)
+                .from(PROCESS_STATE_BLOBS)
+                .where(PROCESS_STATE_BLOBS.BLOB_DIGEST.eq(table.BLOB_DIGEST()))
+                .asField());
+    }
+
     private InputStream decrypt(InputStream in) {
         return SecretUtils.decrypt(in, secretCfg.getServerPwd(), secretCfg.getSecretStoreSalt());
     }
@@ -698,7 +869,12 @@ public class ProcessStateManager extends AbstractDao {
     }
 
     private static StatePolicy.StateStats getStateStats(DSLContext tx, ProcessKey processKey) {
-        return tx.select(DSL.sum(PgUtils.length(PROCESS_STATE.ITEM_DATA)), count(PROCESS_STATE.ITEM_DATA))
+        Field<Long> blobSize = select(PROCESS_STATE_BLOBS.BLOB_SIZE)
+                .from(PROCESS_STATE_BLOBS)
+                .where(PROCESS_STATE_BLOBS.BLOB_DIGEST.eq(PROCESS_STATE.BLOB_DIGEST))
+                .asField();
+
+        return tx.select(DSL.sum(coalesce(PgUtils.length(PROCESS_STATE.ITEM_DATA), blobSize)), count())
                 .from(PROCESS_STATE)
                 .where(PROCESS_STATE.INSTANCE_ID.eq(processKey.getInstanceId())
                         .and(PROCESS_STATE.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt())))
@@ -831,12 +1007,14 @@ public class ProcessStateManager extends AbstractDao {
 
         private final String itemPath;
         private final Path path;
+        private final long size;
         private final int unixMode;
         private final boolean needsEncryption;
 
-        private BatchItem(String itemPath, Path path, int unixMode, boolean needsEncryption) {
+        private BatchItem(String itemPath, Path path, long size, int unixMode, boolean needsEncryption) {
             this.itemPath = itemPath;
             this.path = path;
+            this.size = size;
             this.unixMode = unixMode;
             this.needsEncryption = needsEncryption;
         }
@@ -857,6 +1035,8 @@ public class ProcessStateManager extends AbstractDao {
         TableField<?, Short> UNIX_MODE();
 
         TableField<?, Boolean> IS_ENCRYPTED();
+
+        TableField<?, String> BLOB_DIGEST();
     }
 
 
@@ -898,6 +1078,11 @@ public class ProcessStateManager extends AbstractDao {
         public TableField<?, Boolean> IS_ENCRYPTED() {
             return PROCESS_INITIAL_STATE.IS_ENCRYPTED;
         }
+
+        @Override
+        public TableField<?, String> BLOB_DIGEST() {
+            return PROCESS_INITIAL_STATE.BLOB_DIGEST;
+        }
     }
 
     static class CurrentProcessStateTable implements ProcessStateTable {
@@ -938,5 +1123,10 @@ public class ProcessStateManager extends AbstractDao {
         public TableField<?, Boolean> IS_ENCRYPTED() {
             return PROCESS_STATE.IS_ENCRYPTED;
         }
+
+        @Override
+        public TableField<?, String> BLOB_DIGEST() {
+            return PROCESS_STATE.BLOB_DIGEST;
+        }
     }
 }
@@ -0,0 +1,170 @@
+package com.walmartlabs.concord.server.security;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.walmartlabs.concord.server.cfg.AuthCacheConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessStatusListener;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyEntry;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyUtils;
+import com.walmartlabs.concord.server.user.UserEntry;
+import org.jooq.DSLContext;
+
+import javax.inject.Inject;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of the data used to authenticate API keys and session keys.
+ * <p>
+ * The entries are invalidated when the data changes on this server instance.
+ * Changes made by other instances become visible after {@code authCache.ttl}.
+ */
+public class AuthenticationCache implements ProcessStatusListener {
+
+    private final boolean enabled;
+
+    /**
+     * API keys by key hash.
+     */
+    private final Cache<String, ApiKeyEntry> apiKeys;
+
+    private final Cache<UUID, UserEntry> users;
+
+    /**
+     * Running processes with valid initiators, by instance ID.
+     */
+    private final Cache<UUID, Boolean> activeProcesses;
+
+    /**
+     * Incremented every time a process finishes. Used to detect the processes
+     * that finished while their status was being checked.
+     */
+    private final AtomicLong finishedProcessesVersion = new AtomicLong();
+
+    @Inject
+    public AuthenticationCache(AuthCacheConfiguration cfg) {
+        this.enabled = !cfg.getTtl().isZero();
+        this.apiKeys = newCache(cfg);
+        this.users = newCache(cfg);
+        this.activeProcesses = newCache(cfg);
+    }
+
+    public ApiKeyEntry getApiKey(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        String hash = ApiKeyUtils.hash(key);
+        ApiKeyEntry e = apiKeys.getIfPresent(hash);
+        if (e != null && e.getExpiredAt() != null && !e.getExpiredAt().isAfter(OffsetDateTime.now())) {
+            apiKeys.invalidate(hash);
+            return null;
+        }
+
+        return e;
+    }
+
+    public void putApiKey(String key, ApiKeyEntry e) {
+        if (enabled) {
+            apiKeys.put(ApiKeyUtils.hash(key), e);
+        }
+    }
+
+    public void invalidateApiKey(UUID keyId) {
+        apiKeys.asMap().values().removeIf(e -> keyId.equals(e.getId()));
+    }
+
+    public UserEntry getUser(UUID userId) {
+        return users.getIfPresent(userId);
+    }
+
+    public void putUser(UserEntry e) {
+        if (enabled) {
+            users.put(e.getId(), e);
+        }
+    }
+
+    /**
+     * Invalidates the user's data and all API keys of the user.
+     */
+    public void invalidateUser(UUID userId) {
+        users.invalidate(userId);
+        apiKeys.asMap().values().removeIf(e -> userId.equals(e.getUserId()));
+    }
+
+    /**
+     * Invalidates the data of all users, e.g. when a role's permissions change.
+     */
+    public void invalidateUsers() {
+        users.invalidateAll();
+    }
+
+    public boolean isActiveProcess(UUID instanceId) {
+        return activeProcesses.getIfPresent(instanceId) != null;
+    }
+
+    /**
+     * @return the current version of the active processes. Must be obtained
+     * before checking the process status and passed to {@link #putActiveProcess(UUID, long)}.
+     */
+    public long activeProcessesVersion() {
+        return finishedProcessesVersion.get();
+    }
+
+    /**
+     * Marks the process as active. If any process finished since {@code version}
+     * was obtained, the entry is removed, as the process status might be outdated.
+     */
+    public void putActiveProcess(UUID instanceId, long version) {
+        if (!enabled) {
+            return;
+        }
+
+        activeProcesses.put(instanceId, Boolean.TRUE);
+        if (finishedProcessesVersion.get() != version) {
+            activeProcesses.invalidate(instanceId);
+        }
+    }
+
+    @Override
+    public void onStatusChange(DSLContext tx, ProcessKey processKey, ProcessStatus status) {
+        switch (status) {
+            case FINISHED, FAILED, CANCELLED, TIMED_OUT -> {
+                // increment first, so a concurrent putActiveProcess either sees the new version or gets invalidated
+                finishedProcessesVersion.incrementAndGet();
+                activeProcesses.invalidate(processKey.getInstanceId());
+            }
+        }
+    }
+
+    private static <K, V> Cache<K, V> newCache(AuthCacheConfiguration cfg) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(cfg.getMaxSize())
+                .expireAfterWrite(cfg.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
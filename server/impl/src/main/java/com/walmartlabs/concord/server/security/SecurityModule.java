@@ -22,6 +22,7 @@ package com.walmartlabs.concord.server.security;
 
 import com.google.inject.Binder;
 import com.google.inject.Module;
+import com.walmartlabs.concord.server.process.queue.ProcessStatusListener;
 import com.walmartlabs.concord.server.security.apikey.ApiKeyRealm;
 import com.walmartlabs.concord.server.security.github.GithubRealm;
 import com.walmartlabs.concord.server.security.internal.InternalRealm;
@@ -41,6 +42,9 @@ public class SecurityModule implements Module {
 
     @Override
     public void configure(Binder binder) {
+        binder.bind(AuthenticationCache.class).in(SINGLETON);
+        newSetBinder(binder, ProcessStatusListener.class).addBinding().to(AuthenticationCache.class);
+
         newSetBinder(binder, Realm.class).addBinding().to(ApiKeyRealm.class);
         newSetBinder(binder, Realm.class).addBinding().to(GithubRealm.class);
         newSetBinder(binder, Realm.class).addBinding().to(InternalRealm.class);
@@ -20,11 +20,15 @@ package com.walmartlabs.concord.server.security.apikey;
  * =====
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.walmartlabs.concord.server.audit.AuditAction;
 import com.walmartlabs.concord.server.audit.AuditLog;
 import com.walmartlabs.concord.server.audit.AuditObject;
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import com.walmartlabs.concord.server.sdk.security.AuthenticationException;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import com.walmartlabs.concord.server.security.SecurityUtils;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import com.walmartlabs.concord.server.user.UserEntry;
@@ -38,18 +42,35 @@ import org.apache.shiro.subject.PrincipalCollection;
 
 import javax.inject.Inject;
 import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class ApiKeyRealm extends AuthorizingRealm {
 
     private static final String REALM_NAME = "apikey";
 
     private final UserManager userManager;
+    private final AuthenticationCache authCache;
     private final AuditLog auditLog;
 
+    /**
+     * Keys with recently logged ACCESS records.
+     */
+    private final Cache<UUID, Boolean> recentlyLogged;
+
     @Inject
-    public ApiKeyRealm(UserManager userManager, AuditLog auditLog) {
+    public ApiKeyRealm(UserManager userManager,
+                       AuthenticationCache authCache,
+                       AuditLog auditLog,
+                       AuditConfiguration auditCfg) {
+
         this.userManager = userManager;
+        this.authCache = authCache;
         this.auditLog = auditLog;
+        this.recentlyLogged = CacheBuilder.newBuilder()
+                .maximumSize(10 * 1024L)
+                .expireAfterWrite(auditCfg.getAccessLogPeriod().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
     }
 
     @Override
@@ -62,20 +83,27 @@ public class ApiKeyRealm extends AuthorizingRealm {
     protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) throws AuthenticationException {
         ApiKey t = (ApiKey) token;
 
-        UserEntry u = userManager.get(t.getUserId()).orElse(null);
+        UserEntry u = authCache.getUser(t.getUserId());
         if (u == null) {
-            return null;
+            u = userManager.get(t.getUserId()).orElse(null);
+            if (u == null) {
+                return null;
+            }
+            authCache.putUser(u);
         }
 
         if (u.isDisabled()) {
             throw new AuthenticationException("User account '" + u.getName() + "' is disabled");
         }
 
-        auditLog.add(AuditObject.SYSTEM, AuditAction.ACCESS)
-                .userId(u.getId())
-                .field("realm", REALM_NAME)
-                .field("apiKeyId", t.getKeyId())
-                .log();
+        // log the first access of the key in each period
+        if (recentlyLogged.asMap().putIfAbsent(t.getKeyId(), Boolean.TRUE) == null) {
+            auditLog.add(AuditObject.SYSTEM, AuditAction.ACCESS)
+                    .userId(u.getId())
+                    .field("realm", REALM_NAME)
+                    .field("apiKeyId", t.getKeyId())
+                    .log();
+        }
 
         UserPrincipal p = new UserPrincipal(REALM_NAME, u);
         return new SimpleAccount(Arrays.asList(p, t), t.getKey(), getName());
@@ -31,6 +31,7 @@ import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
 import com.walmartlabs.concord.server.sdk.rest.Resource;
 import com.walmartlabs.concord.server.sdk.validation.Validate;
 import com.walmartlabs.concord.server.sdk.validation.ValidationErrorsException;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import com.walmartlabs.concord.server.security.Roles;
 import com.walmartlabs.concord.server.security.UnauthorizedException;
 import com.walmartlabs.concord.server.security.UserPrincipal;
@@ -60,13 +61,15 @@ public class ApiKeyResource implements Resource {
     private final ApiKeyConfiguration cfg;
     private final ApiKeyDao apiKeyDao;
     private final UserManager userManager;
+    private final AuthenticationCache authCache;
     private final AuditLog auditLog;
 
     @Inject
-    public ApiKeyResource(ApiKeyConfiguration cfg, ApiKeyDao apiKeyDao, UserManager userManager, AuditLog auditLog) {
+    public ApiKeyResource(ApiKeyConfiguration cfg, ApiKeyDao apiKeyDao, UserManager userManager, AuthenticationCache authCache, AuditLog auditLog) {
         this.cfg = cfg;
         this.apiKeyDao = apiKeyDao;
         this.userManager = userManager;
+        this.authCache = authCache;
         this.auditLog = auditLog;
     }
 
@@ -155,6 +158,7 @@ public class ApiKeyResource implements Resource {
         assertOwner(userId);
 
         apiKeyDao.delete(id);
+        authCache.invalidateApiKey(id);
 
         auditLog.add(AuditObject.API_KEY, AuditAction.DELETE)
                 .field("id", id)
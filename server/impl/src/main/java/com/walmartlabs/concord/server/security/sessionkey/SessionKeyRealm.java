@@ -28,6 +28,7 @@ import com.walmartlabs.concord.server.sdk.PartialProcessKey;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import com.walmartlabs.concord.server.sdk.security.AuthenticationException;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authc.SimpleAccount;
@@ -50,6 +51,7 @@ public class SessionKeyRealm extends AuthorizingRealm {
 
     private final ProcessSecurityContext processSecurityContext;
     private final ProcessQueueManager processQueueManager;
+    private final AuthenticationCache authCache;
 
     private static final Set<ProcessStatus> FINISHED_STATUSES = ImmutableSet.of(
             ProcessStatus.FINISHED,
@@ -59,10 +61,12 @@ public class SessionKeyRealm extends AuthorizingRealm {
 
     @Inject
     public SessionKeyRealm(ProcessSecurityContext processSecurityContext,
-                           ProcessQueueManager processQueueManager) {
+                           ProcessQueueManager processQueueManager,
+                           AuthenticationCache authCache) {
 
         this.processSecurityContext = processSecurityContext;
         this.processQueueManager = processQueueManager;
+        this.authCache = authCache;
     }
 
     @Override
@@ -77,6 +81,12 @@ public class SessionKeyRealm extends AuthorizingRealm {
         PartialProcessKey processKey = PartialProcessKey.from(t.getInstanceId());
 
         try {
+            if (authCache.isActiveProcess(t.getInstanceId())) {
+                PrincipalCollection principals = getPrincipals(processKey);
+                return new SimpleAccount(principals, t.getInstanceId(), getName());
+            }
+
+            long version = authCache.activeProcessesVersion();
             ProcessInitiatorEntry p = processQueueManager.getInitiator(processKey);
             if (p == null) {
                 log.warn("doGetAuthenticationInfo -> process not found: {}", t.getInstanceId());
@@ -93,6 +103,8 @@ public class SessionKeyRealm extends AuthorizingRealm {
                 return null;
             }
 
+            authCache.putActiveProcess(t.getInstanceId(), version);
+
             PrincipalCollection principals = getPrincipals(processKey);
             return new SimpleAccount(principals, t.getInstanceId(), getName());
         } catch (Exception e) {
@@ -28,6 +28,7 @@ import com.walmartlabs.concord.server.org.team.TeamDao;
 import com.walmartlabs.concord.server.org.team.TeamManager;
 import com.walmartlabs.concord.server.org.team.TeamRole;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import com.walmartlabs.concord.server.security.ldap.LdapGroupSearchResult;
 import org.jooq.DSLContext;
@@ -45,15 +46,17 @@ public class UserManager {
     private final UserDao userDao;
     private final TeamDao teamDao;
     private final AuditLog auditLog;
+    private final AuthenticationCache authCache;
     private final Map<UserType, UserInfoProvider> userInfoProviders;
 
     private static final String SSO_REALM_NAME = "sso";
 
     @Inject
-    public UserManager(UserDao userDao, TeamDao teamDao, AuditLog auditLog, Set<UserInfoProvider> providers) {
+    public UserManager(UserDao userDao, TeamDao teamDao, AuditLog auditLog, AuthenticationCache authCache, Set<UserInfoProvider> providers) {
         this.userDao = userDao;
         this.teamDao = teamDao;
         this.auditLog = auditLog;
+        this.authCache = authCache;
 
         this.userInfoProviders = new HashMap<>();
         providers.forEach(p -> this.userInfoProviders.put(p.getUserType(), p));
@@ -125,6 +128,7 @@ public class UserManager {
         }
 
         UserEntry newEntry = userDao.update(userId, displayName, email, userType, isDisabled, roles);
+        authCache.invalidateUser(userId);
         if (newEntry == null) {
             return Optional.empty();
         }
@@ -195,6 +199,11 @@ public class UserManager {
         return p.getInfo(null, username, domain);
     }
 
+    public void updateRoles(UUID userId, Set<String> roles) {
+        userDao.updateRoles(userId, roles);
+        authCache.invalidateUser(userId);
+    }
+
     public void enable(UUID userId) {
         UserEntry user = userDao.get(userId);
 
@@ -212,6 +221,7 @@ public class UserManager {
         }
 
         userDao.enable(userId);
+        authCache.invalidateUser(userId);
 
         auditLog.add(AuditObject.USER, AuditAction.UPDATE)
                 .field("userId", userId)
@@ -231,6 +241,7 @@ public class UserManager {
         }
 
         userDao.disable(userId, false);
+        authCache.invalidateUser(userId);
 
         auditLog.add(AuditObject.USER, AuditAction.UPDATE)
                 .field("userId", userId)
@@ -250,6 +261,7 @@ public class UserManager {
         }
 
         userDao.disable(userId, true);
+        authCache.invalidateUser(userId);
 
         auditLog.add(AuditObject.USER, AuditAction.UPDATE)
                 .field("userId", userId)
@@ -264,6 +276,7 @@ public class UserManager {
         }
 
         userDao.delete(userId);
+        authCache.invalidateUser(userId);
 
         auditLog.add(AuditObject.USER, AuditAction.DELETE)
                 .field("userId", userId)
@@ -0,0 +1,51 @@
+package com.walmartlabs.concord.server.websocket;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.message.Message;
+
+import java.util.UUID;
+
+/**
+ * A connection of an agent that can wait for process responses,
+ * e.g. a WebSocket session or a long-polling HTTP request.
+ */
+public interface AgentChannel {
+
+    UUID getChannelId();
+
+    String getAgentId();
+
+    String getUserAgent();
+
+    /**
+     * Sends the response and removes the associated request from the queue.
+     */
+    boolean sendResponse(Message response);
+
+    /**
+     * Called by the dispatcher after each dispatch round in which the channel
+     * had pending requests, after all responses of the round were sent.
+     */
+    default void afterDispatch() {
+        // do nothing
+    }
+}
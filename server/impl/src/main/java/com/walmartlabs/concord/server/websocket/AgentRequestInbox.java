@@ -0,0 +1,207 @@
+package com.walmartlabs.concord.server.websocket;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process requests of the connected agents, grouped by the agents' capabilities.
+ * <p>
+ * The requests are added when agents send them and removed when the server
+ * responds or when the agent disconnects. Requests of agents with identical
+ * capabilities are kept in a single group, in FIFO order.
+ */
+public class AgentRequestInbox {
+
+    // agents without capabilities are grouped under Optional.empty()
+    private final Map<Optional<Map<String, Object>>, Group> groups = new ConcurrentHashMap<>();
+    private final Map<RequestKey, Entry> entries = new ConcurrentHashMap<>();
+
+    public void add(AgentChannel channel, ProcessRequest request) {
+        Entry e = new Entry(channel, request, System.nanoTime());
+
+        RequestKey key = new RequestKey(channel.getChannelId(), request.getCorrelationId());
+        if (entries.putIfAbsent(key, e) != null) {
+            return;
+        }
+
+        groups.compute(Optional.ofNullable(e.capabilities()), (k, g) -> {
+            if (g == null) {
+                g = new Group();
+            }
+            g.add(key, e);
+            return g;
+        });
+    }
+
+    /**
+     * Removes the specified request.
+     *
+     * @return the removed entry or {@code null} if the request is not in the inbox.
+     */
+    public Entry remove(UUID channelId, long correlationId) {
+        RequestKey key = new RequestKey(channelId, correlationId);
+
+        Entry e = entries.remove(key);
+        if (e == null) {
+            return null;
+        }
+
+        groups.computeIfPresent(Optional.ofNullable(e.capabilities()), (k, g) -> g.remove(key) ? null : g);
+        return e;
+    }
+
+    /**
+     * Removes all requests of the specified channel.
+     */
+    public void removeAll(UUID channelId) {
+        for (RequestKey key : entries.keySet()) {
+            if (key.channelId.equals(channelId)) {
+                remove(key.channelId, key.correlationId);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the inbox: the requests grouped by the agents' capabilities,
+     * in FIFO order. Requests of agents without capabilities are under the {@code null} key.
+     */
+    public Map<Map<String, Object>, List<Entry>> groups() {
+        Map<Map<String, Object>, List<Entry>> result = new HashMap<>(groups.size());
+        groups.forEach((capabilities, g) -> {
+            List<Entry> l = g.snapshot();
+            if (!l.isEmpty()) {
+                result.put(capabilities.orElse(null), l);
+            }
+        });
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int groupCount() {
+        return groups.size();
+    }
+
+    /**
+     * @return the number of requests in the largest group.
+     */
+    public int maxGroupSize() {
+        int result = 0;
+        for (Group g : groups.values()) {
+            result = Math.max(result, g.size());
+        }
+        return result;
+    }
+
+    public static final class Entry {
+
+        private final AgentChannel channel;
+        private final ProcessRequest request;
+        private final long addedAt;
+
+        private Entry(AgentChannel channel, ProcessRequest request, long addedAt) {
+            this.channel = channel;
+            this.request = request;
+            this.addedAt = addedAt;
+        }
+
+        public AgentChannel channel() {
+            return channel;
+        }
+
+        public ProcessRequest request() {
+            return request;
+        }
+
+        /**
+         * @return the agent's capabilities, {@code null} if the agent didn't report any.
+         */
+        public Map<String, Object> capabilities() {
+            return request.getCapabilities();
+        }
+
+        /**
+         * @return the time the request was added, as returned by {@link System#nanoTime()}.
+         */
+        public long addedAt() {
+            return addedAt;
+        }
+    }
+
+    private static final class Group {
+
+        private final Map<RequestKey, Entry> entries = new LinkedHashMap<>();
+
+        synchronized void add(RequestKey key, Entry e) {
+            entries.put(key, e);
+        }
+
+        /**
+         * @return {@code true} if the group is empty after the removal.
+         */
+        synchronized boolean remove(RequestKey key) {
+            entries.remove(key);
+            return entries.isEmpty();
+        }
+
+        synchronized List<Entry> snapshot() {
+            return new ArrayList<>(entries.values());
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class RequestKey {
+
+        private final UUID channelId;
+        private final long correlationId;
+
+        private RequestKey(UUID channelId, long correlationId) {
+            this.channelId = channelId;
+            this.correlationId = correlationId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RequestKey that = (RequestKey) o;
+            return correlationId == that.correlationId && channelId.equals(that.channelId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(channelId, correlationId);
+        }
+    }
+}
@@ -32,7 +32,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class WebSocketChannel {
+public class WebSocketChannel implements AgentChannel {
 
     private static final Logger log = LoggerFactory.getLogger(WebSocketChannel.class);
 
@@ -50,14 +50,17 @@ public class WebSocketChannel {
         this.userAgent = userAgent;
     }
 
+    @Override
     public UUID getChannelId() {
         return channelId;
     }
 
+    @Override
     public String getAgentId() {
         return agentId;
     }
 
+    @Override
     public String getUserAgent() {
         return userAgent;
     }
@@ -74,9 +77,7 @@ public class WebSocketChannel {
         }
     }
 
-    /**
-     * Sends the response and removes the associated request from the queue.
-     */
+    @Override
     public boolean sendResponse(Message response) {
         if (!session.isOpen()) {
             log.warn("response ['{}', '{}'] -> session is closed", channelId, response);
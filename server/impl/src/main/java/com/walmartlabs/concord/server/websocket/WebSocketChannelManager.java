@@ -20,11 +20,15 @@ package com.walmartlabs.concord.server.websocket;
  * =====
  */
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.walmartlabs.concord.server.queueclient.message.Message;
 import com.walmartlabs.concord.server.queueclient.message.MessageType;
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.Collections;
@@ -32,6 +36,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Named
 @Singleton
@@ -40,9 +45,16 @@ public class WebSocketChannelManager {
     private static final Logger log = LoggerFactory.getLogger(WebSocketChannelManager.class);
 
     private final Map<UUID, WebSocketChannel> channels = new ConcurrentHashMap<>();
+    private final AgentRequestInbox processRequests = new AgentRequestInbox();
+    private final Timer processRequestWaitTimer;
 
     private volatile boolean isShutdown;
 
+    @Inject
+    public WebSocketChannelManager(MetricRegistry metricRegistry) {
+        this.processRequestWaitTimer = metricRegistry.timer("agent-request-wait-time");
+    }
+
     public boolean isShutdown() {
         return isShutdown;
     }
@@ -61,6 +73,12 @@ public class WebSocketChannelManager {
             return;
         }
 
+        // synchronized with onRequest, otherwise a request can be added
+        // after the removal and stay in the inbox forever
+        synchronized (channel) {
+            processRequests.removeAll(channelId);
+        }
+
         channel.close();
 
         log.info("close ['{}'] -> done", channelId);
@@ -74,12 +92,31 @@ public class WebSocketChannelManager {
         }
 
         channel.onRequest(message);
+
+        if (message.getMessageType() == MessageType.PROCESS_REQUEST) {
+            synchronized (channel) {
+                if (channels.get(channelId) != channel) {
+                    log.warn("request ['{}', '{}'] -> channel is closed", channelId, message);
+                    return;
+                }
+
+                processRequests.add(channel, (ProcessRequest) message);
+            }
+        }
     }
 
     /**
      * Sends the response and removes the associated request from the queue.
+     * Process responses are sent using the channel that made the request,
+     * including non-WebSocket channels.
      */
     public boolean sendResponse(UUID channelId, Message response) {
+        AgentRequestInbox.Entry e = processRequests.remove(channelId, response.getCorrelationId());
+        if (e != null) {
+            processRequestWaitTimer.update(System.nanoTime() - e.addedAt(), TimeUnit.NANOSECONDS);
+            return e.channel().sendResponse(response);
+        }
+
         WebSocketChannel channel = channels.get(channelId);
         if (channel == null) {
             log.warn("request ['{}', '{}'] -> channel not found", channelId, response);
@@ -99,6 +136,13 @@ public class WebSocketChannelManager {
         return channel.pong();
     }
 
+    /**
+     * Returns the process requests of the connected agents, grouped by the agents' capabilities.
+     */
+    public AgentRequestInbox getProcessRequests() {
+        return processRequests;
+    }
+
     @SuppressWarnings("unchecked")
     public <E> Map<WebSocketChannel, E> getRequests(MessageType requestType) {
         Map<WebSocketChannel, E> result = new HashMap<>();
@@ -85,7 +85,7 @@ public class WebSocketListener implements org.eclipse.jetty.ee8.websocket.api.We
         log.warn("onWebSocketError ['{}', '{}'] -> error: {}", channelId, userAgent, cause.getMessage());
     }
 
-    private static String sanitize(String log) {
+    public static String sanitize(String log) {
         if (log == null || log.isEmpty()) {
             return log;
         }
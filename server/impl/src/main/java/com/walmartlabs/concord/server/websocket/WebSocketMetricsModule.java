@@ -23,11 +23,11 @@ package com.walmartlabs.concord.server.websocket;
 import com.codahale.metrics.Gauge;
 import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
-import com.walmartlabs.concord.server.queueclient.message.MessageType;
 import com.walmartlabs.concord.server.sdk.metrics.GaugeProvider;
 
 import javax.inject.Named;
 import javax.inject.Provider;
+import java.util.function.ToIntFunction;
 
 @Named
 public class WebSocketMetricsModule extends AbstractModule {
@@ -39,6 +39,8 @@ public class WebSocketMetricsModule extends AbstractModule {
         Multibinder<GaugeProvider> gauges = Multibinder.newSetBinder(binder(), GaugeProvider.class);
         gauges.addBinding().toInstance(createGauge(channelManagerProvider));
         gauges.addBinding().toInstance(create(channelManagerProvider));
+        gauges.addBinding().toInstance(createInboxGauge("agent-request-inbox-groups", channelManagerProvider, AgentRequestInbox::groupCount));
+        gauges.addBinding().toInstance(createInboxGauge("agent-request-inbox-max-group-size", channelManagerProvider, AgentRequestInbox::maxGroupSize));
     }
 
     private static GaugeProvider<Integer> createGauge(Provider<WebSocketChannelManager> channelManagerProvider) {
@@ -64,7 +66,23 @@ public class WebSocketMetricsModule extends AbstractModule {
 
             @Override
             public Gauge<Integer> gauge() {
-                return () -> channelManagerProvider.get().getRequests(MessageType.PROCESS_REQUEST).size();
+                return () -> channelManagerProvider.get().getProcessRequests().size();
+            }
+        };
+    }
+
+    private static GaugeProvider<Integer> createInboxGauge(String name,
+                                                           Provider<WebSocketChannelManager> channelManagerProvider,
+                                                           ToIntFunction<AgentRequestInbox> f) {
+        return new GaugeProvider<Integer>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Gauge<Integer> gauge() {
+                return () -> f.applyAsInt(channelManagerProvider.get().getProcessRequests());
             }
         };
     }
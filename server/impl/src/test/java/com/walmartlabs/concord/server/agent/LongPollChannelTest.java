@@ -0,0 +1,129 @@
+package com.walmartlabs.concord.server.agent;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.MessageSerializer;
+import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
+import com.walmartlabs.concord.server.websocket.AgentRequestInbox;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LongPollChannelTest {
+
+    @Test
+    public void testCompletesAfterDispatch() {
+        AgentRequestInbox inbox = new AgentRequestInbox();
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        when(asyncResponse.resume(any(Response.class))).thenReturn(true);
+
+        LongPollChannel channel = new LongPollChannel("agent", "test", inbox, asyncResponse, 3, 60_000, l -> fail("unexpected"));
+        channel.register(Map.of("flavor", "default"));
+        assertEquals(3, inbox.size());
+        assertEquals(1, inbox.groupCount());
+
+        // nothing dispatched yet, the request remains parked
+        channel.afterDispatch();
+        verify(asyncResponse, never()).resume(any(Response.class));
+
+        // two of the three requests were matched
+        UUID processA = UUID.randomUUID();
+        UUID processB = UUID.randomUUID();
+        assertTrue(inbox.remove(channel.getChannelId(), 1).channel().sendResponse(response(1, processA)));
+        assertTrue(inbox.remove(channel.getChannelId(), 2).channel().sendResponse(response(2, processB)));
+
+        channel.afterDispatch();
+
+        List<ProcessResponse> result = responses(asyncResponse);
+        assertEquals(2, result.size());
+        assertEquals(processA, result.get(0).getProcessId());
+        assertEquals(processB, result.get(1).getProcessId());
+
+        // the remaining request is removed from the inbox
+        assertEquals(0, inbox.size());
+
+        // late responses are rejected
+        assertFalse(channel.sendResponse(response(3, UUID.randomUUID())));
+    }
+
+    @Test
+    public void testTimeout() {
+        AgentRequestInbox inbox = new AgentRequestInbox();
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        when(asyncResponse.resume(any(Response.class))).thenReturn(true);
+
+        LongPollChannel channel = new LongPollChannel("agent", "test", inbox, asyncResponse, 2, 0, l -> fail("unexpected"));
+        channel.register(Map.of());
+
+        channel.afterDispatch();
+
+        assertTrue(responses(asyncResponse).isEmpty());
+        assertEquals(0, inbox.size());
+
+        // completed only once
+        channel.cancel();
+        verify(asyncResponse, times(1)).resume(any(Response.class));
+    }
+
+    @Test
+    public void testUndelivered() {
+        AgentRequestInbox inbox = new AgentRequestInbox();
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        // e.g. the agent closed the connection
+        when(asyncResponse.resume(any(Response.class))).thenReturn(false);
+
+        List<ProcessResponse> undelivered = new ArrayList<>();
+        LongPollChannel channel = new LongPollChannel("agent", "test", inbox, asyncResponse, 2, 60_000, undelivered::addAll);
+        channel.register(Map.of());
+
+        UUID processA = UUID.randomUUID();
+        assertTrue(inbox.remove(channel.getChannelId(), 1).channel().sendResponse(response(1, processA)));
+
+        channel.afterDispatch();
+
+        assertEquals(1, undelivered.size());
+        assertEquals(processA, undelivered.get(0).getProcessId());
+        assertEquals(0, inbox.size());
+    }
+
+    private static ProcessResponse response(long correlationId, UUID processId) {
+        return new ProcessResponse(correlationId, "token", processId, null, null, null, null, null, null, null);
+    }
+
+    private static List<ProcessResponse> responses(AsyncResponse asyncResponse) {
+        ArgumentCaptor<Response> captor = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse).resume(captor.capture());
+
+        Response resp = captor.getValue();
+        assertEquals(200, resp.getStatus());
+        return MessageSerializer.deserializeList((String) resp.getEntity());
+    }
+}
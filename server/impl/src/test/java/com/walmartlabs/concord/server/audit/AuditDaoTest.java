@@ -0,0 +1,54 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.audit.AuditDao.NewAuditEntry;
+import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Disabled("requires a local DB instance")
+public class AuditDaoTest extends AbstractDaoTest {
+
+    @Test
+    public void testBatchInsert() {
+        AuditDao dao = new AuditDao(getConfiguration(), new ConcordObjectMapper(TestObjectMapper.INSTANCE));
+
+        List<AuditEvent> events = dao.insert(Arrays.asList(
+                new NewAuditEntry(null, AuditObject.SYSTEM, AuditAction.ACCESS, Collections.singletonMap("n", 1)),
+                new NewAuditEntry(null, AuditObject.PROJECT, AuditAction.UPDATE, Collections.singletonMap("n", 2))));
+
+        assertEquals(2, events.size());
+        assertEquals("ACCESS", events.get(0).action());
+        assertEquals(2, events.get(1).details().get("n"));
+        assertTrue(events.get(0).entrySeq() < events.get(1).entrySeq());
+    }
+}
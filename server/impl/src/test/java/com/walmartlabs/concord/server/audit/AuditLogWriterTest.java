@@ -0,0 +1,132 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.Listeners;
+import com.walmartlabs.concord.server.audit.AuditDao.NewAuditEntry;
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
+import com.walmartlabs.concord.server.sdk.audit.AuditEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class AuditLogWriterTest {
+
+    private AuditDao dao;
+    private Listeners listeners;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        dao = mock(AuditDao.class);
+        when(dao.insert(anyList())).thenAnswer(i -> {
+            List<NewAuditEntry> entries = i.getArgument(0);
+            List<AuditEvent> result = new ArrayList<>();
+            for (int n = 0; n < entries.size(); n++) {
+                result.add(AuditEvent.builder()
+                        .entrySeq(n)
+                        .entryDate(OffsetDateTime.now())
+                        .object(AuditObject.SYSTEM.toString())
+                        .action(entries.get(n).getAction().toString())
+                        .details(Collections.emptyMap())
+                        .build());
+            }
+            return result;
+        });
+
+        listeners = mock(Listeners.class);
+
+        AuditConfiguration cfg = mock(AuditConfiguration.class);
+        when(cfg.isAsyncWriterEnabled()).thenReturn(true);
+        when(cfg.getAsyncWriterActions()).thenReturn(Collections.singletonList("ACCESS"));
+        when(cfg.getAsyncWriterFlushInterval()).thenReturn(Duration.ofSeconds(1));
+        when(cfg.getAsyncWriterMaxBatchSize()).thenReturn(2);
+        when(cfg.getAsyncWriterMaxQueueSize()).thenReturn(3);
+
+        writer = new AuditLogWriter(dao, listeners, cfg, new MetricRegistry());
+    }
+
+    @Test
+    public void testBatching() {
+        assertFalse(writer.offer(entry(AuditAction.DELETE)));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writer.offer(entry(AuditAction.ACCESS)));
+        }
+        // the queue is full, the caller must write the entry
+        assertFalse(writer.offer(entry(AuditAction.ACCESS)));
+
+        // one entry is left for the next flush
+        assertFalse(writer.performTask());
+        verify(dao, times(1)).insert(anyList());
+
+        writer.performTask();
+
+        verify(dao, times(2)).insert(anyList());
+        verify(listeners, times(3)).onAuditEvent(any());
+    }
+
+    @Test
+    public void testRetry() {
+        when(dao.insert(anyList())).thenThrow(new RuntimeException("test"));
+
+        assertTrue(writer.offer(entry(AuditAction.ACCESS)));
+
+        // the entry is dropped after three attempts
+        for (int i = 0; i < 4; i++) {
+            writer.performTask();
+        }
+
+        verify(dao, times(3)).insert(anyList());
+        verify(listeners, never()).onAuditEvent(any());
+    }
+
+    @Test
+    public void testListenerError() {
+        doThrow(new RuntimeException("test")).when(listeners).onAuditEvent(any());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writer.offer(entry(AuditAction.ACCESS)));
+        }
+
+        // the listener errors don't stop the drain
+        writer.stop();
+
+        verify(dao, times(2)).insert(anyList());
+        verify(listeners, times(3)).onAuditEvent(any());
+    }
+
+    private static NewAuditEntry entry(AuditAction action) {
+        return new NewAuditEntry(null, AuditObject.SYSTEM, action, Collections.emptyMap());
+    }
+}
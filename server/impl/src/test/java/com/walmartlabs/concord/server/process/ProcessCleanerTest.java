@@ -0,0 +1,118 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.ProcessCleaner.CleanerDao;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_STATE_BLOBS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessState.PROCESS_STATE;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Disabled("requires a local DB instance")
+public class ProcessCleanerTest extends AbstractDaoTest {
+
+    @Test
+    public void testUnusedBlobIsRemoved() {
+        String digest = insertOldBlob();
+
+        newCleanerDao().deleteUnusedBlobs(newJobCfg());
+
+        assertFalse(blobExists(digest));
+    }
+
+    @Test
+    public void testConcurrentReference() throws Exception {
+        String digest = insertOldBlob();
+
+        CountDownLatch referenced = new CountDownLatch(1);
+        CompletableFuture<Void> cleanerDone = new CompletableFuture<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // a state import references the blob but doesn't commit until the cleaner is done
+            Future<?> importer = executor.submit(() -> tx(tx -> {
+                tx.insertInto(PROCESS_STATE)
+                        .columns(PROCESS_STATE.INSTANCE_ID, PROCESS_STATE.INSTANCE_CREATED_AT, PROCESS_STATE.ITEM_PATH, PROCESS_STATE.BLOB_DIGEST)
+                        .values(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS), "file", digest)
+                        .execute();
+
+                referenced.countDown();
+
+                try {
+                    // the cleaner shouldn't wait for us, but don't hang if it does
+                    cleanerDone.get(5, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    // commit anyway
+                }
+            }));
+
+            assertTrue(referenced.await(10, TimeUnit.SECONDS));
+
+            Future<?> cleaner = executor.submit(() -> {
+                newCleanerDao().deleteUnusedBlobs(newJobCfg());
+                cleanerDone.complete(null);
+            });
+
+            importer.get(30, TimeUnit.SECONDS);
+            cleaner.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(blobExists(digest));
+    }
+
+    private String insertOldBlob() {
+        String digest = UUID.randomUUID().toString().replace("-", "");
+        tx(tx -> tx.insertInto(PROCESS_STATE_BLOBS)
+                .columns(PROCESS_STATE_BLOBS.BLOB_DIGEST, PROCESS_STATE_BLOBS.BLOB_DATA, PROCESS_STATE_BLOBS.BLOB_SIZE, PROCESS_STATE_BLOBS.LAST_USED_AT)
+                .values(digest, new byte[]{1, 2, 3}, 3L, OffsetDateTime.now().minusDays(30))
+                .execute());
+        return digest;
+    }
+
+    private boolean blobExists(String digest) {
+        return DSL.using(getConfiguration()).fetchExists(PROCESS_STATE_BLOBS, PROCESS_STATE_BLOBS.BLOB_DIGEST.eq(digest));
+    }
+
+    private CleanerDao newCleanerDao() {
+        return new CleanerDao(getConfiguration());
+    }
+
+    private static ProcessConfiguration newJobCfg() {
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.getCleanupBatchSize()).thenReturn(100);
+        return cfg;
+    }
+}
@@ -0,0 +1,142 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ProcessCompletionWatcherTest {
+
+    private final UUID a = UUID.randomUUID();
+    private final UUID b = UUID.randomUUID();
+    private final Map<UUID, ProcessStatus> statuses = new HashMap<>();
+
+    private ProcessQueueDao dao;
+    private ProcessCompletionWatcher watcher;
+
+    @BeforeEach
+    public void setUp() {
+        statuses.put(a, ProcessStatus.RUNNING);
+        statuses.put(b, ProcessStatus.RUNNING);
+
+        dao = mock(ProcessQueueDao.class);
+        when(dao.getStatuses(any())).thenAnswer(i -> {
+            Map<UUID, ProcessStatus> result = new HashMap<>();
+            for (UUID id : i.<Collection<UUID>>getArgument(0)) {
+                result.put(id, statuses.get(id));
+            }
+            return result;
+        });
+        when(dao.get(anyList())).thenReturn(Collections.emptyList());
+
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.getCompletionWaitCheckInterval()).thenReturn(Duration.ofHours(1));
+
+        watcher = new ProcessCompletionWatcher(cfg, dao, new MetricRegistry());
+    }
+
+    @Test
+    public void testWaitForAll() {
+        AtomicReference<List<ProcessEntry>> result = new AtomicReference<>();
+        watcher.register(Arrays.asList(a, b), false, 60000, result::set);
+
+        // the initial check
+        watcher.performTask();
+        assertNull(result.get());
+
+        statuses.put(a, ProcessStatus.FINISHED);
+        watcher.onStatusChange(null, key(a), ProcessStatus.FINISHED);
+        watcher.performTask();
+        assertNull(result.get());
+
+        statuses.put(b, ProcessStatus.FAILED);
+        watcher.onStatusChange(null, key(b), ProcessStatus.FAILED);
+        watcher.performTask();
+        assertNotNull(result.get());
+        assertEquals(0, watcher.getWaiterCount());
+    }
+
+    @Test
+    public void testWaitForAny() {
+        AtomicReference<List<ProcessEntry>> result = new AtomicReference<>();
+        watcher.register(Arrays.asList(a, b), true, 60000, result::set);
+        watcher.performTask();
+
+        // the listener is called before the status is committed
+        watcher.onStatusChange(null, key(b), ProcessStatus.CANCELLED);
+        watcher.performTask();
+        assertNull(result.get());
+
+        statuses.put(b, ProcessStatus.CANCELLED);
+        watcher.onStatusChange(null, key(b), ProcessStatus.CANCELLED);
+        watcher.performTask();
+        assertNotNull(result.get());
+        assertEquals(0, watcher.getWaiterCount());
+    }
+
+    @Test
+    public void testTimeout() {
+        AtomicReference<List<ProcessEntry>> result = new AtomicReference<>();
+        watcher.register(Collections.singletonList(a), false, 50, result::set);
+
+        long t1 = System.currentTimeMillis();
+        while (result.get() == null && System.currentTimeMillis() - t1 < 5000) {
+            watcher.performTask();
+        }
+
+        assertNotNull(result.get());
+        assertEquals(0, watcher.getWaiterCount());
+    }
+
+    @Test
+    public void testCancel() {
+        AtomicReference<List<ProcessEntry>> result = new AtomicReference<>();
+        ProcessCompletionWatcher.Waiter w = watcher.register(Collections.singletonList(a), false, 60000, result::set);
+
+        watcher.cancel(w);
+        assertNotNull(result.get());
+        assertEquals(0, watcher.getWaiterCount());
+
+        // completed only once
+        watcher.cancel(w);
+        verify(dao, times(1)).get(anyList());
+    }
+
+    private static ProcessKey key(UUID id) {
+        return new ProcessKey(id, OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+}
@@ -0,0 +1,129 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.cfg.ProcessWatchdogConfiguration;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class ProcessHeartbeatBufferTest {
+
+    private ProcessQueueDao dao;
+    private ProcessHeartbeatBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        dao = mock(ProcessQueueDao.class);
+
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.isHeartbeatBufferEnabled()).thenReturn(true);
+        when(cfg.getHeartbeatBufferFlushInterval()).thenReturn(Duration.ofSeconds(5));
+
+        ProcessWatchdogConfiguration watchdogCfg = mock(ProcessWatchdogConfiguration.class);
+        when(watchdogCfg.getMaxStalledAge()).thenReturn(Duration.ofMinutes(1));
+
+        buffer = new ProcessHeartbeatBuffer(dao, cfg, watchdogCfg, new MetricRegistry());
+    }
+
+    @Test
+    public void testBuffering() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        when(dao.touch(any(UUID.class))).thenReturn(true);
+        when(dao.touch(anyCollection())).thenAnswer(i -> new HashSet<>(i.getArgument(0)));
+
+        // the first heartbeats are written immediately
+        assertTrue(buffer.ping(a));
+        assertTrue(buffer.ping(b));
+        verify(dao, times(2)).touch(any(UUID.class));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buffer.ping(a));
+            assertTrue(buffer.ping(b));
+        }
+        verify(dao, times(2)).touch(any(UUID.class));
+        verify(dao, never()).touch(anyCollection());
+
+        buffer.flush();
+        verify(dao, times(1)).touch(argThat((Collection<UUID> ids) -> ids.size() == 2 && ids.containsAll(Arrays.asList(a, b))));
+    }
+
+    @Test
+    public void testFlushOrder() {
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("7fffffff-0000-0000-0000-000000000000");
+        UUID c = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        UUID d = UUID.fromString("ffffffff-0000-0000-0000-000000000000");
+        when(dao.touch(any(UUID.class))).thenReturn(true);
+        when(dao.touch(anyCollection())).thenAnswer(i -> new HashSet<>(i.getArgument(0)));
+
+        for (UUID id : Arrays.asList(d, b, c, a)) {
+            buffer.ping(id);
+            buffer.ping(id);
+        }
+        buffer.flush();
+
+        // the IDs are sorted the same way as in the DB
+        verify(dao).touch(Arrays.asList(a, b, c, d));
+    }
+
+    @Test
+    public void testUnknownProcess() {
+        UUID a = UUID.randomUUID();
+        when(dao.touch(any(UUID.class))).thenReturn(false);
+
+        assertFalse(buffer.ping(a));
+        assertFalse(buffer.ping(a));
+        verify(dao, times(2)).touch(any(UUID.class));
+    }
+
+    @Test
+    public void testRemovedProcess() {
+        UUID a = UUID.randomUUID();
+        when(dao.touch(any(UUID.class))).thenReturn(true);
+        when(dao.touch(anyCollection())).thenReturn(Collections.emptySet());
+
+        assertTrue(buffer.ping(a));
+        assertTrue(buffer.ping(a));
+        buffer.flush();
+
+        // the process wasn't updated, the next heartbeat is checked again
+        when(dao.touch(any(UUID.class))).thenReturn(false);
+        assertFalse(buffer.ping(a));
+    }
+}
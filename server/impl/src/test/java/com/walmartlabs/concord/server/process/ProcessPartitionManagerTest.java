@@ -0,0 +1,58 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.process.ProcessPartitionManager.Partition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessPartitionManagerTest {
+
+    @Test
+    public void testAlignToPeriod() {
+        Duration week = Duration.ofDays(7);
+
+        Instant aligned = ProcessPartitionManager.alignToPeriod(Instant.parse("2024-03-13T10:15:30Z"), week);
+        assertEquals(Instant.parse("2024-03-07T00:00:00Z"), aligned);
+        assertEquals(aligned, ProcessPartitionManager.alignToPeriod(aligned, week));
+
+        assertEquals(Instant.parse("2024-03-13T10:00:00Z"),
+                ProcessPartitionManager.alignToPeriod(Instant.parse("2024-03-13T10:15:30Z"), Duration.ofHours(1)));
+    }
+
+    @Test
+    public void testOverlaps() {
+        List<Partition> partitions = Arrays.asList(
+                new Partition("p_default", true, null, null),
+                new Partition("p_old", false, null, Instant.parse("2024-01-01T00:00:00Z")),
+                new Partition("p_1", false, Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-01-08T00:00:00Z")));
+
+        assertTrue(ProcessPartitionManager.overlaps(partitions, Instant.parse("2023-12-01T00:00:00Z"), Instant.parse("2023-12-08T00:00:00Z")));
+        assertTrue(ProcessPartitionManager.overlaps(partitions, Instant.parse("2024-01-05T00:00:00Z"), Instant.parse("2024-01-12T00:00:00Z")));
+        assertFalse(ProcessPartitionManager.overlaps(partitions, Instant.parse("2024-01-08T00:00:00Z"), Instant.parse("2024-01-15T00:00:00Z")));
+    }
+}
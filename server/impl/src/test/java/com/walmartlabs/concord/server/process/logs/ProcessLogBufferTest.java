@@ -0,0 +1,122 @@
+package com.walmartlabs.concord.server.process.logs;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.Listeners;
+import com.walmartlabs.concord.server.cfg.ProcessLogConfiguration;
+import com.walmartlabs.concord.server.process.logs.ProcessLogsDao.SegmentChunk;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.Range;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ProcessLogBufferTest {
+
+    private final ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+    private ProcessLogsDao dao;
+    private Listeners listeners;
+    private MetricRegistry metricRegistry;
+    private ProcessLogBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        dao = mock(ProcessLogsDao.class);
+
+        ProcessLogConfiguration cfg = mock(ProcessLogConfiguration.class);
+        when(cfg.isBufferEnabled()).thenReturn(true);
+        when(cfg.getBufferFlushInterval()).thenReturn(Duration.ofSeconds(1));
+        when(cfg.getBufferMaxBatchSize()).thenReturn(1024);
+        when(cfg.getBufferMaxPendingSize()).thenReturn(1024L * 1024);
+
+        listeners = mock(Listeners.class);
+        metricRegistry = new MetricRegistry();
+        buffer = new ProcessLogBuffer(dao, listeners, cfg, metricRegistry);
+    }
+
+    @Test
+    public void testEstimatedSizeIncludesExistingLog() {
+        // e.g. written by another server instance before the restart
+        when(dao.size(processKey)).thenReturn(1000);
+
+        assertEquals(1003, buffer.append(processKey, 0, "abc".getBytes()));
+        assertEquals(1005, buffer.append(processKey, 0, "de".getBytes()));
+
+        // the size is read only once
+        verify(dao, times(1)).size(processKey);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListenerErrorDoesNotStopFlush() {
+        ProcessKey otherKey = new ProcessKey(UUID.randomUUID(), processKey.getCreatedAt());
+
+        when(dao.append(any(ProcessKey.class), anyList())).thenAnswer(inv -> {
+            ProcessKey k = inv.getArgument(0);
+            List<SegmentChunk> chunks = inv.getArgument(1);
+            return chunks.stream()
+                    .map(c -> entry(k, c.getData()))
+                    .collect(Collectors.toList());
+        });
+
+        doThrow(new RuntimeException("listener timeout"))
+                .when(listeners).onProcessLogAppend(argThat(e -> e.processKey().equals(processKey)));
+
+        buffer.append(processKey, 0, "abc".getBytes());
+        buffer.append(otherKey, 0, "def".getBytes());
+
+        buffer.performTask();
+
+        verify(dao).append(eq(processKey), anyList());
+        verify(dao).append(eq(otherKey), anyList());
+        verify(listeners).onProcessLogAppend(argThat(e -> e.processKey().equals(otherKey)));
+
+        // nothing is left pending
+        assertEquals(0L, ((Gauge<Long>) metricRegistry.getGauges().get("process-log-buffer-pending-bytes")).getValue());
+        assertEquals(0, ((Gauge<Integer>) metricRegistry.getGauges().get("process-log-buffer-pending-chunks")).getValue());
+    }
+
+    private static ProcessLogEntry entry(ProcessKey processKey, byte[] data) {
+        return ProcessLogEntry.builder()
+                .processKey(processKey)
+                .range(Range.builder()
+                        .lower(0)
+                        .lowerMode(Range.Mode.INCLUSIVE)
+                        .upper(data.length)
+                        .upperMode(Range.Mode.EXCLUSIVE)
+                        .build())
+                .msg(data)
+                .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.walmartlabs.concord.server.process.logs;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.cfg.ProcessLogConfiguration;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.Range;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
+import static com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLogChunk;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class ProcessLogTailCacheTest {
+
+    private static final long SEGMENT_ID = 1;
+
+    private final ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+    private ProcessLogsDao dao;
+    private ProcessLogTailCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        dao = mock(ProcessLogsDao.class);
+
+        ProcessLogConfiguration cfg = mock(ProcessLogConfiguration.class);
+        when(cfg.isTailEnabled()).thenReturn(true);
+        when(cfg.getTailMaxEntries()).thenReturn(16);
+        when(cfg.getTailMaxSize()).thenReturn(8);
+        when(cfg.getTailMaxAge()).thenReturn(Duration.ofMinutes(1));
+        when(cfg.getTailMaxWait()).thenReturn(Duration.ofSeconds(10));
+
+        cache = new ProcessLogTailCache(dao, cfg, new MetricRegistry());
+    }
+
+    @Test
+    public void testReadsFromCache() {
+        // "abcdef" stored as two chunks
+        when(dao.segmentData(eq(processKey), eq(SEGMENT_ID), isNull(), eq(8)))
+                .thenReturn(new ProcessLog(6, Arrays.asList(chunk(0, "abc"), chunk(3, "def"))));
+
+        assertEquals("cdef", read(cache.segmentData(processKey, SEGMENT_ID, 2, null)));
+        assertEquals("bc", read(cache.segmentData(processKey, SEGMENT_ID, 1, 3)));
+        assertEquals("ef", read(cache.segmentData(processKey, SEGMENT_ID, null, 2)));
+        assertEquals("abcdef", read(cache.segmentData(processKey, SEGMENT_ID, null, null)));
+        assertTrue(cache.segmentData(processKey, SEGMENT_ID, 10, null).getChunks().isEmpty());
+
+        verify(dao, times(1)).segmentData(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    public void testAppend() {
+        when(dao.segmentData(eq(processKey), eq(SEGMENT_ID), isNull(), eq(8)))
+                .thenReturn(new ProcessLog(6, Arrays.asList(chunk(0, "abc"), chunk(3, "def"))));
+
+        cache.segmentData(processKey, SEGMENT_ID, 0, null);
+        cache.onAppend(entry(6, "ghij"));
+
+        ProcessLog l = cache.segmentData(processKey, SEGMENT_ID, 4, null);
+        assertEquals(10, l.getSize());
+        assertEquals("efghij", read(l));
+
+        // trimmed to the last 8 bytes
+        assertNull(cache.segmentData(processKey, SEGMENT_ID, 1, null));
+
+        // a gap in the appended data invalidates the cached data
+        cache.onAppend(entry(12, "xyz"));
+        when(dao.segmentData(eq(processKey), eq(SEGMENT_ID), isNull(), eq(8)))
+                .thenReturn(new ProcessLog(15, Arrays.asList(chunk(6, "ghij"), chunk(10, "kl"), chunk(12, "xyz"))));
+
+        assertEquals("klxyz", read(cache.segmentData(processKey, SEGMENT_ID, 10, null)));
+        verify(dao, times(2)).segmentData(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    public void testTailWaitsForData() throws Exception {
+        when(dao.segmentData(eq(processKey), eq(SEGMENT_ID), isNull(), eq(8)))
+                .thenReturn(new ProcessLog(3, Arrays.asList(chunk(0, "abc"))));
+
+        assertEquals(3, cache.segmentData(processKey, SEGMENT_ID, 0, null).getSize());
+
+        // doesn't block the caller
+        CompletableFuture<ProcessLog> f = cache.tail(processKey, SEGMENT_ID, 3, 5000);
+        assertFalse(f.isDone());
+
+        cache.onAppend(entry(3, "de"));
+
+        ProcessLog l = f.get(5, TimeUnit.SECONDS);
+        assertEquals(5, l.getSize());
+        assertEquals("de", read(l));
+
+        verify(dao, never()).segmentData(any(), anyLong(), anyInt(), isNull());
+    }
+
+    @Test
+    public void testTailTimeout() throws Exception {
+        when(dao.segmentData(eq(processKey), eq(SEGMENT_ID), isNull(), eq(8)))
+                .thenReturn(new ProcessLog(3, Arrays.asList(chunk(0, "abc"))));
+
+        ProcessLog l = cache.tail(processKey, SEGMENT_ID, 3, 100).get(5, TimeUnit.SECONDS);
+        assertEquals(3, l.getSize());
+        assertTrue(l.getChunks().isEmpty());
+    }
+
+    @Test
+    public void testManyAppends() {
+        when(dao.segmentData(eq(processKey), eq(SEGMENT_ID), isNull(), eq(8)))
+                .thenReturn(new ProcessLog(0, Collections.emptyList()));
+
+        cache.segmentData(processKey, SEGMENT_ID, 0, null);
+
+        // the buffer is compacted several times
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String msg = String.valueOf(i % 10);
+            cache.onAppend(entry(expected.length(), msg));
+            expected.append(msg);
+
+            int size = expected.length();
+            int start = Math.max(size - 8, 0);
+            assertEquals(expected.substring(start), read(cache.segmentData(processKey, SEGMENT_ID, start, null)));
+        }
+
+        // larger than the tail
+        cache.onAppend(entry(expected.length(), "0123456789"));
+        assertEquals("23456789", read(cache.segmentData(processKey, SEGMENT_ID, 102, null)));
+        assertNull(cache.segmentData(processKey, SEGMENT_ID, 101, null));
+
+        verify(dao, times(1)).segmentData(any(), anyLong(), any(), any());
+    }
+
+    private ProcessLogEntry entry(int lower, String msg) {
+        byte[] ab = msg.getBytes(StandardCharsets.UTF_8);
+        return ProcessLogEntry.builder()
+                .processKey(processKey)
+                .range(range(lower, lower + ab.length))
+                .segmentId(SEGMENT_ID)
+                .segmentRange(range(lower, lower + ab.length))
+                .msg(ab)
+                .build();
+    }
+
+    private static Range range(int lower, int upper) {
+        return Range.builder()
+                .lower(lower)
+                .lowerMode(Range.Mode.INCLUSIVE)
+                .upper(upper)
+                .upperMode(Range.Mode.EXCLUSIVE)
+                .build();
+    }
+
+    private static ProcessLogChunk chunk(int start, String data) {
+        return new ProcessLogChunk(start, data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(ProcessLog l) {
+        StringBuilder sb = new StringBuilder();
+        for (ProcessLogChunk c : l.getChunks()) {
+            sb.append(new String(c.getData(), StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package com.walmartlabs.concord.server.process.logs;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.Locks;
+import com.walmartlabs.concord.server.cfg.LockingConfiguration;
+import com.walmartlabs.concord.server.process.logs.ProcessLogsDao.ProcessLog;
+import com.walmartlabs.concord.server.process.logs.ProcessLogsDao.SegmentChunk;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.Range;
+import com.walmartlabs.concord.server.sdk.log.ProcessLogEntry;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@Disabled("requires a local DB instance")
+public class ProcessLogsDaoTest extends AbstractDaoTest {
+
+    @Test
+    public void testBatchAppend() throws Exception {
+        ProcessLogsDao dao = new ProcessLogsDao(getConfiguration(), new Locks(new LockingConfiguration(8)));
+
+        ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        dao.append(processKey, 0, "abc".getBytes());
+
+        List<ProcessLogEntry> entries = dao.append(processKey, Arrays.asList(
+                new SegmentChunk(0, "de".getBytes()),
+                new SegmentChunk(1, "fgh".getBytes()),
+                new SegmentChunk(0, "i".getBytes())));
+
+        assertEquals(3, entries.size());
+        assertRange(3, 5, entries.get(0).range());
+        assertRange(3, 5, entries.get(0).segmentRange());
+        assertRange(5, 8, entries.get(1).range());
+        assertRange(0, 3, entries.get(1).segmentRange());
+        assertRange(8, 9, entries.get(2).range());
+        assertRange(5, 6, entries.get(2).segmentRange());
+
+        ProcessLog log = dao.data(processKey, null, null);
+        assertEquals(9, log.getSize());
+        assertArrayEquals("abcdefghi".getBytes(), toByteArray(log));
+
+        ProcessLog segment = dao.segmentData(processKey, 0, null, null);
+        assertEquals(6, segment.getSize());
+        assertArrayEquals("abcdei".getBytes(), toByteArray(segment));
+
+        segment = dao.segmentData(processKey, 1, null, null);
+        assertEquals(3, segment.getSize());
+        assertArrayEquals("fgh".getBytes(), toByteArray(segment));
+    }
+
+    @Test
+    public void testConcurrentBatchAppend() throws Exception {
+        ProcessLogsDao dao = new ProcessLogsDao(getConfiguration(), new Locks(new LockingConfiguration(8)));
+
+        ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        int threads = 4;
+        int appends = 20;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long segmentId = i;
+                futures.add(executor.submit(() -> {
+                    // batches calculate the ranges under a lock
+                    for (int j = 0; j < appends; j++) {
+                        dao.append(processKey, Collections.singletonList(new SegmentChunk(segmentId, "ab".getBytes())));
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // no overlapping ranges
+        assertEquals(threads * appends * 2, dao.size(processKey));
+        assertEquals(threads * appends * 2, toByteArray(dao.data(processKey, null, null)).length);
+    }
+
+    private static void assertRange(int lower, int upper, Range range) {
+        assertNotNull(range);
+        assertEquals(lower, range.lower());
+        assertEquals(upper, range.upper());
+    }
+
+    private static byte[] toByteArray(ProcessLog log) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ProcessLogsDao.ProcessLogChunk c : log.getChunks()) {
+            out.write(c.getData());
+        }
+        return out.toByteArray();
+    }
+}
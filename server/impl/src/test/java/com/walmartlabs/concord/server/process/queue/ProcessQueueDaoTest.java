@@ -0,0 +1,61 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.process.ProcessKind;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Disabled("requires a local DB instance")
+public class ProcessQueueDaoTest extends AbstractDaoTest {
+
+    @Test
+    public void testBatchTouch() {
+        ProcessQueueDao dao = new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(TestObjectMapper.INSTANCE));
+
+        ProcessKey a = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        ProcessKey b = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        tx(tx -> {
+            dao.insert(tx, a, ProcessStatus.RUNNING, ProcessKind.DEFAULT, null, null, null, null, null, null, null, null);
+            dao.insert(tx, b, ProcessStatus.RUNNING, ProcessKind.DEFAULT, null, null, null, null, null, null, null, null);
+        });
+
+        UUID missing = UUID.randomUUID();
+        Set<UUID> updated = dao.touch(Arrays.asList(a.getInstanceId(), missing, b.getInstanceId()));
+
+        assertEquals(2, updated.size());
+        assertEquals(Collections.emptySet(), dao.touch(Collections.singletonList(missing)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.walmartlabs.concord.server.process.queue.dispatcher;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgentRequestIndexTest {
+
+    @Test
+    public void testFifoWithinGroup() {
+        AgentRequestIndex<String> index = new AgentRequestIndex<>();
+        index.add(Map.of("flavor", "default"), "a");
+        index.add(Map.of("flavor", "default"), "b");
+        index.add(Map.of("flavor", "gpu"), "c");
+
+        assertEquals(3, index.size());
+        assertEquals(2, index.groupCount());
+
+        assertEquals("a", index.poll(Collections.emptyMap()));
+        assertEquals("b", index.poll(Collections.emptyMap()));
+        assertEquals("c", index.poll(Collections.emptyMap()));
+        assertNull(index.poll(Collections.emptyMap()));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void testRequirements() {
+        AgentRequestIndex<String> index = new AgentRequestIndex<>();
+        index.add(Map.of("flavor", "default"), "a");
+        index.add(Map.of("flavor", "gpu"), "b");
+
+        Map<String, Object> gpu = Map.of("flavor", "g.*");
+        Map<String, Object> arm = Map.of("flavor", "arm");
+
+        assertFalse(index.hasMatch(arm));
+        assertNull(index.poll(arm));
+
+        assertTrue(index.hasMatch(gpu));
+        assertEquals("b", index.poll(gpu));
+        assertFalse(index.hasMatch(gpu));
+
+        assertEquals(1, index.size());
+        assertEquals("a", index.poll(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testNullCapabilities() {
+        AgentRequestIndex<String> index = new AgentRequestIndex<>();
+        index.add(null, "a");
+
+        // agents without capabilities don't match any requirements
+        Map<String, Object> any = Map.of("flavor", ".*");
+        assertFalse(index.hasMatch(any));
+        assertNull(index.poll(any));
+
+        // but can run processes without requirements
+        assertTrue(index.hasMatch(Collections.emptyMap()));
+        assertEquals("a", index.poll(Collections.emptyMap()));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void testNullAndEmptyCapabilities() {
+        AgentRequestIndex<String> index = new AgentRequestIndex<>();
+        index.add(null, "a");
+        index.add(Collections.emptyMap(), "b");
+
+        assertEquals(2, index.groupCount());
+
+        // unlike null, empty capabilities match the requirements that accept missing values
+        Map<String, Object> any = Map.of("flavor", ".*");
+        assertEquals("b", index.poll(any));
+        assertNull(index.poll(any));
+
+        assertEquals("a", index.poll(Collections.emptyMap()));
+    }
+}
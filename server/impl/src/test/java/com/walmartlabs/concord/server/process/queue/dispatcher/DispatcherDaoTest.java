@@ -0,0 +1,78 @@
+package com.walmartlabs.concord.server.process.queue.dispatcher;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.process.ProcessKind;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueEntry;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Disabled("requires a local DB instance")
+public class DispatcherDaoTest extends AbstractDaoTest {
+
+    @Test
+    public void testPagination() {
+        ConcordObjectMapper objectMapper = new ConcordObjectMapper(TestObjectMapper.INSTANCE);
+        ProcessQueueDao queueDao = new ProcessQueueDao(getConfiguration(), objectMapper);
+        Dispatcher.DispatcherDao dao = new Dispatcher.DispatcherDao(getConfiguration(), objectMapper);
+
+        // inserted in a single transaction, the processes share the same LAST_UPDATED_AT
+        Set<ProcessKey> keys = new HashSet<>();
+        tx(tx -> {
+            for (int i = 0; i < 5; i++) {
+                ProcessKey k = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+                queueDao.insert(tx, k, ProcessStatus.ENQUEUED, ProcessKind.DEFAULT, null, null, null, null, null, null, null, null);
+                keys.add(k);
+            }
+        });
+
+        List<ProcessKey> result = new ArrayList<>();
+        tx(tx -> {
+            ProcessQueueEntry last = null;
+            while (true) {
+                List<ProcessQueueEntry> page = dao.next(tx, last, 2);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                page.forEach(e -> result.add(e.key()));
+                last = page.get(page.size() - 1);
+            }
+        });
+
+        // every process is returned exactly once
+        result.retainAll(keys);
+        assertEquals(keys.size(), result.size());
+        assertEquals(keys, new HashSet<>(result));
+    }
+}
@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.process.state;
  * =====
  */
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
 import com.walmartlabs.concord.common.DateTimeUtils;
@@ -49,6 +50,7 @@ import static com.walmartlabs.concord.server.process.state.ProcessStateManager.c
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @Disabled("requires a local DB instance")
 public class ProcessStateManagerTest extends AbstractDaoTest {
@@ -65,7 +67,7 @@ public class ProcessStateManagerTest extends AbstractDaoTest {
         //
         ProcessKeyCache processKeyCache = new ProcessKeyCache(new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(new ObjectMapper())));
         ProcessConfiguration stateCfg = new ProcessConfiguration(Duration.of(24, ChronoUnit.HOURS), Collections.singletonList(Constants.Files.CONFIGURATION_FILE_NAME));
-        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), mock(SecretStoreConfiguration.class), stateCfg, mock(PolicyManager.class), mock(ProcessLogManager.class), processKeyCache);
+        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), mock(SecretStoreConfiguration.class), stateCfg, mock(PolicyManager.class), mock(ProcessLogManager.class), processKeyCache, new MetricRegistry());
         stateManager.importPath(processKey, null, baseDir, (p, attrs) -> true);
 
         Path tmpDir = Files.createTempDirectory("testExport");
@@ -87,6 +89,59 @@ public class ProcessStateManagerTest extends AbstractDaoTest {
         assertFileContent("456", tmpDir.resolve("file-2"));
     }
 
+    @Test
+    public void testSecureFilesImport() throws Exception {
+        ProcessKey processKey = ProcessKey.random();
+
+        Path baseDir = Files.createTempDirectory("testImport");
+        writeTempFile(baseDir.resolve("file-1"), "123".getBytes());
+        writeTempFile(baseDir.resolve("secret-1"), "456".getBytes());
+        writeTempFile(baseDir.resolve("secret-2"), "789".getBytes());
+
+        SecretStoreConfiguration secretCfg = mock(SecretStoreConfiguration.class);
+        when(secretCfg.getServerPwd()).thenReturn("test-pwd".getBytes());
+        when(secretCfg.getSecretStoreSalt()).thenReturn("test-salt".getBytes());
+
+        ProcessKeyCache processKeyCache = new ProcessKeyCache(new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(new ObjectMapper())));
+        ProcessConfiguration stateCfg = new ProcessConfiguration(Duration.of(24, ChronoUnit.HOURS), Arrays.asList("secret-1", "secret-2"));
+        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), secretCfg, stateCfg, mock(PolicyManager.class), mock(ProcessLogManager.class), processKeyCache, new MetricRegistry());
+        stateManager.importPath(processKey, null, baseDir, (p, attrs) -> true);
+
+        Path tmpDir = Files.createTempDirectory("testExport");
+        assertTrue(stateManager.export(processKey, copyTo(tmpDir)));
+        assertFileContent("123", tmpDir.resolve("file-1"));
+        assertFileContent("456", tmpDir.resolve("secret-1"));
+        assertFileContent("789", tmpDir.resolve("secret-2"));
+    }
+
+    @Test
+    public void testDeduplicatedImport() throws Exception {
+        String content = UUID.randomUUID().toString();
+
+        Path baseDir = Files.createTempDirectory("testImport");
+        writeTempFile(baseDir.resolve("file-1"), content.getBytes());
+        writeTempFile(baseDir.resolve("file-2"), content.getBytes());
+
+        ProcessKeyCache processKeyCache = new ProcessKeyCache(new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(new ObjectMapper())));
+        ProcessConfiguration stateCfg = new ProcessConfiguration(Duration.of(24, ChronoUnit.HOURS), Collections.singletonList(Constants.Files.CONFIGURATION_FILE_NAME), true);
+        MetricRegistry metricRegistry = new MetricRegistry();
+        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), mock(SecretStoreConfiguration.class), stateCfg, mock(PolicyManager.class), mock(ProcessLogManager.class), processKeyCache, metricRegistry);
+
+        ProcessKey processA = ProcessKey.random();
+        ProcessKey processB = ProcessKey.random();
+        stateManager.importPath(processA, null, baseDir, (p, attrs) -> true);
+        stateManager.importPath(processB, null, baseDir, (p, attrs) -> true);
+
+        // the same content is stored only once
+        assertEquals(1, metricRegistry.counter("process-state-blobs-stored").getCount());
+        assertEquals(3, metricRegistry.counter("process-state-blobs-reused").getCount());
+
+        Path tmpDir = Files.createTempDirectory("testExport");
+        assertTrue(stateManager.export(processB, copyTo(tmpDir)));
+        assertFileContent(content, tmpDir.resolve("file-1"));
+        assertFileContent(content, tmpDir.resolve("file-2"));
+    }
+
     @Test
     public void testLargeImport() throws Exception {
         ProcessKey processKey = ProcessKey.random();
@@ -110,7 +165,7 @@ public class ProcessStateManagerTest extends AbstractDaoTest {
 
         ProcessKeyCache processKeyCache = new ProcessKeyCache(new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(new ObjectMapper())));
         ProcessConfiguration stateCfg = new ProcessConfiguration(Duration.of(24, ChronoUnit.HOURS), Collections.singletonList(Constants.Files.CONFIGURATION_FILE_NAME));
-        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), mock(SecretStoreConfiguration.class), stateCfg, mock(PolicyManager.class), mock(ProcessLogManager.class), processKeyCache);
+        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), mock(SecretStoreConfiguration.class), stateCfg, mock(PolicyManager.class), mock(ProcessLogManager.class), processKeyCache, new MetricRegistry());
         stateManager.importPath(processKey, "/", baseDir, (p, attrs) -> true);
     }
 
@@ -129,7 +184,7 @@ public class ProcessStateManagerTest extends AbstractDaoTest {
         ProcessConfiguration stateCfg = new ProcessConfiguration(null, Collections.emptyList());
         ProcessKeyCache processKeyCache = null;
 
-        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), secretCfg, stateCfg, null, mock(ProcessLogManager.class), processKeyCache);
+        ProcessStateManager stateManager = new ProcessStateManager(getConfiguration(), secretCfg, stateCfg, null, mock(ProcessLogManager.class), processKeyCache, new MetricRegistry());
 
         // ---
         stateManager.tx(tx -> {
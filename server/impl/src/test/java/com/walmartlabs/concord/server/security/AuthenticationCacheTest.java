@@ -0,0 +1,128 @@
+package com.walmartlabs.concord.server.security;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.AuthCacheConfiguration;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyEntry;
+import com.walmartlabs.concord.server.user.UserEntry;
+import com.walmartlabs.concord.server.user.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AuthenticationCacheTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString("test-key".getBytes());
+
+    private AuthenticationCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new AuthenticationCache(cfg(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testApiKeyInvalidation() {
+        UUID keyId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        cache.putApiKey(KEY, new ApiKeyEntry(keyId, userId, "test", null));
+        assertEquals(keyId, cache.getApiKey(KEY).getId());
+
+        cache.invalidateApiKey(keyId);
+        assertNull(cache.getApiKey(KEY));
+
+        cache.putApiKey(KEY, new ApiKeyEntry(keyId, userId, "test", null));
+        cache.invalidateUser(userId);
+        assertNull(cache.getApiKey(KEY));
+    }
+
+    @Test
+    public void testUsersInvalidation() {
+        UUID userId = UUID.randomUUID();
+
+        cache.putUser(new UserEntry(userId, "test", null, null, null, UserType.LOCAL, null, null, false, null, false));
+        assertNotNull(cache.getUser(userId));
+
+        cache.invalidateUsers();
+        assertNull(cache.getUser(userId));
+    }
+
+    @Test
+    public void testExpiredApiKey() {
+        cache.putApiKey(KEY, new ApiKeyEntry(UUID.randomUUID(), UUID.randomUUID(), "test", OffsetDateTime.now().minusSeconds(1)));
+        assertNull(cache.getApiKey(KEY));
+    }
+
+    @Test
+    public void testFinishedProcess() {
+        ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        cache.putActiveProcess(processKey.getInstanceId(), cache.activeProcessesVersion());
+        cache.onStatusChange(null, processKey, ProcessStatus.SUSPENDED);
+        assertTrue(cache.isActiveProcess(processKey.getInstanceId()));
+
+        cache.onStatusChange(null, processKey, ProcessStatus.CANCELLED);
+        assertFalse(cache.isActiveProcess(processKey.getInstanceId()));
+    }
+
+    @Test
+    public void testProcessFinishedWhileChecking() {
+        ProcessKey processKey = new ProcessKey(UUID.randomUUID(), OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        // the status was checked before the process finished, but the entry is added after
+        long version = cache.activeProcessesVersion();
+        cache.onStatusChange(null, processKey, ProcessStatus.FINISHED);
+        cache.putActiveProcess(processKey.getInstanceId(), version);
+
+        assertFalse(cache.isActiveProcess(processKey.getInstanceId()));
+    }
+
+    @Test
+    public void testDisabled() {
+        cache = new AuthenticationCache(cfg(Duration.ZERO));
+
+        UUID instanceId = UUID.randomUUID();
+        cache.putApiKey(KEY, new ApiKeyEntry(UUID.randomUUID(), UUID.randomUUID(), "test", null));
+        cache.putActiveProcess(instanceId, cache.activeProcessesVersion());
+
+        assertNull(cache.getApiKey(KEY));
+        assertFalse(cache.isActiveProcess(instanceId));
+    }
+
+    private static AuthCacheConfiguration cfg(Duration ttl) {
+        AuthCacheConfiguration cfg = mock(AuthCacheConfiguration.class);
+        when(cfg.getTtl()).thenReturn(ttl);
+        when(cfg.getMaxSize()).thenReturn(100L);
+        return cfg;
+    }
+}
@@ -0,0 +1,103 @@
+package com.walmartlabs.concord.server.websocket;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AgentRequestInboxTest {
+
+    @Test
+    public void testGroups() {
+        WebSocketChannel a = channel();
+        WebSocketChannel b = channel();
+
+        AgentRequestInbox inbox = new AgentRequestInbox();
+        inbox.add(a, request(1, Map.of("flavor", "default")));
+        inbox.add(b, request(1, Map.of("flavor", "default")));
+        inbox.add(a, request(2, Map.of("flavor", "gpu")));
+        inbox.add(a, request(3, null));
+
+        // duplicates are ignored
+        inbox.add(a, request(1, Map.of("flavor", "default")));
+
+        assertEquals(4, inbox.size());
+        assertEquals(3, inbox.groupCount());
+        assertEquals(2, inbox.maxGroupSize());
+
+        Map<Map<String, Object>, List<AgentRequestInbox.Entry>> groups = inbox.groups();
+        assertEquals(List.of(a, b), channels(groups.get(Map.of("flavor", "default"))));
+        assertEquals(List.of(a), channels(groups.get(null)));
+        assertNull(groups.get(Map.of()));
+
+        assertNotNull(inbox.remove(a.getChannelId(), 1));
+        assertNull(inbox.remove(a.getChannelId(), 1));
+        assertEquals(List.of(b), channels(inbox.groups().get(Map.of("flavor", "default"))));
+
+        // FIFO order is preserved for the new requests
+        inbox.add(a, request(4, Map.of("flavor", "default")));
+        assertEquals(List.of(b, a), channels(inbox.groups().get(Map.of("flavor", "default"))));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        WebSocketChannel a = channel();
+        WebSocketChannel b = channel();
+
+        AgentRequestInbox inbox = new AgentRequestInbox();
+        inbox.add(a, request(1, Map.of("flavor", "default")));
+        inbox.add(a, request(2, Map.of("flavor", "gpu")));
+        inbox.add(b, request(1, Map.of("flavor", "default")));
+
+        inbox.removeAll(a.getChannelId());
+
+        assertEquals(1, inbox.size());
+        assertEquals(1, inbox.groupCount());
+        assertEquals(List.of(b), channels(inbox.groups().get(Map.of("flavor", "default"))));
+    }
+
+    private static WebSocketChannel channel() {
+        WebSocketChannel c = mock(WebSocketChannel.class);
+        when(c.getChannelId()).thenReturn(UUID.randomUUID());
+        return c;
+    }
+
+    private static ProcessRequest request(long correlationId, Map<String, Object> capabilities) {
+        ProcessRequest r = new ProcessRequest(capabilities);
+        r.setCorrelationId(correlationId);
+        return r;
+    }
+
+    private static List<AgentChannel> channels(List<AgentRequestInbox.Entry> entries) {
+        return entries.stream()
+                .map(AgentRequestInbox.Entry::channel)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,68 @@
+package com.walmartlabs.concord.server.websocket;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+import org.eclipse.jetty.ee8.websocket.api.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class WebSocketChannelManagerTest {
+
+    @Test
+    public void testCloseDuringRequest() throws Exception {
+        WebSocketChannelManager manager = new WebSocketChannelManager(new MetricRegistry());
+
+        for (int i = 0; i < 1000; i++) {
+            UUID channelId = UUID.randomUUID();
+            manager.add(channelId, new WebSocketChannel(channelId, "agent", mock(Session.class), "test"));
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                manager.close(channelId);
+            });
+            t.start();
+
+            ProcessRequest r = new ProcessRequest(Map.of("flavor", "default"));
+            r.setCorrelationId(1);
+
+            start.countDown();
+            manager.onRequest(channelId, r);
+            t.join();
+
+            // the request must not outlive the channel
+            assertEquals(0, manager.getProcessRequests().size());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.walmartlabs.concord.server.queueclient;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2024 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
+import org.eclipse.jetty.client.ContentResponse;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.StringRequestContent;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquires processes using long-polling HTTP requests, an alternative to
+ * the WebSocket-based {@link QueueClient}.
+ * <p>
+ * Each request is parked on the server until the dispatcher assigns at least
+ * one process to the agent or until the poll timeout expires. Agents with
+ * several free "slots" can acquire multiple processes in a single request.
+ * The configuration's addresses must be the server's API base URLs.
+ */
+public class LongPollQueueClient {
+
+    public static final String ACQUIRE_PATH = "/api/v1/agent/queue/process";
+
+    private static final Logger log = LoggerFactory.getLogger(LongPollQueueClient.class);
+
+    private final String[] destUris;
+    private final String agentId;
+    private final String userAgent;
+    private final String apiToken;
+    private final long connectTimeout;
+    private final long pollTimeout;
+
+    private HttpClient client;
+    private int destUriIndex;
+
+    public LongPollQueueClient(QueueClientConfiguration cfg) {
+        String[] addresses = cfg.getAddresses();
+        this.destUris = new String[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            String s = addresses[i];
+            this.destUris[i] = s.endsWith("/") ? s.substring(0, s.length() - 1) : s;
+        }
+
+        this.agentId = cfg.getAgentId();
+        this.userAgent = cfg.getUserAgent();
+        this.apiToken = cfg.getApiKey();
+        this.connectTimeout = cfg.getConnectTimeout();
+        this.pollTimeout = cfg.getPollTimeout();
+    }
+
+    public synchronized void start() throws Exception {
+        if (client != null) {
+            return;
+        }
+
+        SslContextFactory.Client scf = new SslContextFactory.Client();
+        scf.setValidateCerts(false);
+        scf.setValidatePeerCerts(false);
+        scf.setTrustAll(true);
+
+        HttpClient c = new HttpClient();
+        c.setSslContextFactory(scf);
+        c.setConnectTimeout(connectTimeout);
+        c.start();
+
+        this.client = c;
+    }
+
+    public synchronized void stop() {
+        if (client == null) {
+            return;
+        }
+
+        try {
+            client.stop();
+        } catch (Exception e) {
+            log.warn("stop -> error: {}", e.getMessage());
+        }
+
+        client = null;
+    }
+
+    /**
+     * Waits for up to {@code maxCount} processes matching the request.
+     *
+     * @return the acquired processes or an empty list if nothing was acquired
+     * before the poll timeout.
+     */
+    public List<ProcessResponse> acquire(ProcessRequest request, int maxCount) throws Exception {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("'maxCount' must be a positive number: " + maxCount);
+        }
+
+        String destUri = nextDestUri();
+        URI uri = URI.create(destUri + ACQUIRE_PATH + "?maxCount=" + maxCount + "&timeout=" + TimeUnit.MILLISECONDS.toSeconds(pollTimeout));
+
+        ContentResponse resp;
+        try {
+            resp = client().POST(uri)
+                    .headers(h -> {
+                        if (agentId != null) {
+                            h.put(QueueClient.AGENT_ID, agentId);
+                        }
+                        if (userAgent != null) {
+                            h.put(QueueClient.AGENT_UA, userAgent);
+                        }
+                        h.put(HttpHeader.AUTHORIZATION, apiToken);
+                    })
+                    .body(new StringRequestContent("application/json", MessageSerializer.serialize(request)))
+                    // the server responds after the poll timeout at the latest
+                    .timeout(pollTimeout + connectTimeout, TimeUnit.MILLISECONDS)
+                    .send();
+        } catch (Exception e) {
+            rotateDestUri();
+            throw e;
+        }
+
+        if (resp.getStatus() != 200) {
+            rotateDestUri();
+            throw new IOException("Error while acquiring processes from " + destUri + ": " + resp.getStatus() + " " + resp.getContentAsString());
+        }
+
+        List<ProcessResponse> result = MessageSerializer.deserializeList(resp.getContentAsString());
+        log.info("acquire ['{}'] -> got {} process(es)", request, result.size());
+        return result;
+    }
+
+    private synchronized HttpClient client() {
+        if (client == null) {
+            throw new IllegalStateException("The client is not started");
+        }
+        return client;
+    }
+
+    private synchronized String nextDestUri() {
+        return destUris[destUriIndex];
+    }
+
+    private synchronized void rotateDestUri() {
+        if (++destUriIndex >= destUris.length) {
+            destUriIndex = 0;
+        }
+    }
+}
@@ -20,27 +20,45 @@ package com.walmartlabs.concord.server.queueclient;
  * =====
  */
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.walmartlabs.concord.server.queueclient.message.Message;
-import com.walmartlabs.concord.server.queueclient.message.MessageType;
 
-import java.util.Map;
+import java.util.List;
 
 public final class MessageSerializer {
 
     private static final ObjectMapper objectMapper = createObjectMapper();
+    private static final JavaType LIST_TYPE = objectMapper.getTypeFactory().constructCollectionType(List.class, Message.class);
 
+    private static final ObjectReader reader = objectMapper.readerFor(Message.class);
+    private static final ObjectReader listReader = objectMapper.readerFor(LIST_TYPE);
+    private static final ObjectWriter listWriter = objectMapper.writerFor(LIST_TYPE);
+
+    /**
+     * Deserializes a message in a single pass, the concrete type is
+     * determined by the {@code messageType} property.
+     */
     @SuppressWarnings("unchecked")
     public static <E extends Message> E deserialize(String msg) {
         try {
-            Map<String, Object> m = objectMapper.readValue(msg, Map.class);
-            String messageType = (String) m.get("messageType");
-            if (messageType == null) {
-                throw new IllegalStateException("messageType not found: " + m);
-            }
-            return (E) objectMapper.convertValue(m, MessageType.valueOf(messageType).getClazz());
+            return (E) reader.readValue(msg);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Deserializes a JSON array of messages.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Message> List<E> deserializeList(String msg) {
+        try {
+            return (List<E>) listReader.readValue(msg);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -54,6 +72,14 @@ public final class MessageSerializer {
         }
     }
 
+    public static String serialize(List<? extends Message> msgs) {
+        try {
+            return listWriter.writeValueAsString(msgs);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static ObjectMapper createObjectMapper() {
         ObjectMapper om = new ObjectMapper();
         om.registerModule(new GuavaModule());
@@ -286,19 +286,19 @@ public class QueueClient {
         }
 
         private void processRequests(Session session) {
-            RequestEntry e = nextRequest();
-            if (e == null) {
-                return;
-            }
+            // send all pending requests at once, e.g. multiple process requests
+            // of an agent with several free "slots"
+            RequestEntry e;
+            while ((e = nextRequest()) != null) {
+                boolean sent = send(session, e.request);
+                if (!sent) {
+                    e.cancel();
+                    state.set(State.DISCONNECTING);
+                    return;
+                }
 
-            boolean sent = send(session, e.request);
-            if (!sent) {
-                e.cancel();
-                state.set(State.DISCONNECTING);
-                return;
+                awaitResponses.put(e.getCorrelationId(), e);
             }
-
-            awaitResponses.put(e.getCorrelationId(), e);
         }
 
         private void processPing(Session session) throws IOException {
@@ -360,6 +360,12 @@ public class QueueClient {
         }
 
         private boolean alreadySent(MessageType requestType) {
+            // multiple process requests can wait for responses at the same time,
+            // the number of such requests is controlled by the caller
+            if (requestType == MessageType.PROCESS_REQUEST) {
+                return false;
+            }
+
             return awaitResponses.values().stream()
                     .anyMatch(ar -> ar.request.getMessageType() == requestType);
         }
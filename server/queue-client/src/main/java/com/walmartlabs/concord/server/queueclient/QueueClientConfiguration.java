@@ -36,6 +36,7 @@ public class QueueClientConfiguration implements Serializable {
 
     private final long processRequestDelay;
     private final long reconnectDelay;
+    private final long pollTimeout;
 
     private QueueClientConfiguration(Builder b) {
         this.addresses = b.addresses;
@@ -47,6 +48,7 @@ public class QueueClientConfiguration implements Serializable {
         this.maxNoActivityPeriod = b.maxNoActivityPeriod;
         this.processRequestDelay = b.processRequestDelay;
         this.reconnectDelay = b.reconnectDelay;
+        this.pollTimeout = b.pollTimeout;
     }
 
     public String[] getAddresses() {
@@ -85,6 +87,10 @@ public class QueueClientConfiguration implements Serializable {
         return reconnectDelay;
     }
 
+    public long getPollTimeout() {
+        return pollTimeout;
+    }
+
     public static class Builder {
 
         private final String[] addresses;
@@ -97,6 +103,7 @@ public class QueueClientConfiguration implements Serializable {
         private long maxNoActivityPeriod = 30000;
         private long processRequestDelay = 1000;
         private long reconnectDelay = 10000;
+        private long pollTimeout = 30000;
 
         public Builder(String[] addresses) {
             this.addresses = addresses;
@@ -142,6 +149,11 @@ public class QueueClientConfiguration implements Serializable {
             return this;
         }
 
+        public Builder pollTimeout(long pollTimeout) {
+            this.pollTimeout = pollTimeout;
+            return this;
+        }
+
         public QueueClientConfiguration build() {
             return new QueueClientConfiguration(this);
         }
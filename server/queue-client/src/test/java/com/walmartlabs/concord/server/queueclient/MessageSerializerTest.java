@@ -26,11 +26,12 @@ import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.server.queueclient.message.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class MessageSerializerTest {
 
@@ -117,4 +118,26 @@ public class MessageSerializerTest {
         assertEquals(r.getCorrelationId(), rDeserialized.getCorrelationId());
         assertEquals("repo-branch", rDeserialized.getRepoBranch());
     }
+
+    @Test
+    public void testMissingMessageType() {
+        assertThrows(RuntimeException.class, () -> MessageSerializer.deserialize("{\"correlationId\":123}"));
+    }
+
+    @Test
+    public void testList() {
+        ProcessResponse a = new ProcessResponse(1, "token-a", UUID.randomUUID(), null, null, null, null, null, null, null);
+        ProcessResponse b = new ProcessResponse(2, "token-b", UUID.randomUUID(), null, null, null, null, null, null, null);
+
+        String serialized = MessageSerializer.serialize(Arrays.asList(a, b));
+        assertNotNull(serialized);
+
+        List<ProcessResponse> deserialized = MessageSerializer.deserializeList(serialized);
+        assertEquals(2, deserialized.size());
+        assertEquals(a.getProcessId(), deserialized.get(0).getProcessId());
+        assertEquals(b.getSessionToken(), deserialized.get(1).getSessionToken());
+        assertEquals(MessageType.PROCESS_RESPONSE, deserialized.get(1).getMessageType());
+
+        assertTrue(MessageSerializer.deserializeList("[]").isEmpty());
+    }
 }
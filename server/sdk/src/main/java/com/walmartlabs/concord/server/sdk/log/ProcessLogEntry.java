@@ -27,6 +27,7 @@ import com.walmartlabs.concord.server.sdk.ProcessKey;
 import com.walmartlabs.concord.server.sdk.Range;
 import org.immutables.value.Value;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 
 @Value.Immutable
@@ -42,6 +43,12 @@ public interface ProcessLogEntry extends Serializable {
 
     Range range();
 
+    @Nullable
+    Long segmentId();
+
+    @Nullable
+    Range segmentRange();
+
     byte[] msg();
 
     static ImmutableProcessLogEntry.Builder builder() {